@@ -0,0 +1,402 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.nodep;
+
+import static java.lang.String.format;
+import static java.util.stream.Collectors.toList;
+import static java.util.zip.ZipEntry.DEFLATED;
+import static java.util.zip.ZipEntry.STORED;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.JMoleculesPlugin;
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.VaadooConfigurationSupplier;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.dynamic.TypeResolutionStrategy;
+import net.bytebuddy.dynamic.scaffold.inline.MethodNameTransformer;
+import net.bytebuddy.implementation.auxiliary.AuxiliaryType;
+import net.bytebuddy.jar.asm.ClassReader;
+import net.bytebuddy.pool.TypePool;
+
+/**
+ * Enhances the classes of an existing jar or class directory (e.g. a library
+ * built without Vaadoo) and writes them to a new jar:
+ *
+ * <pre>
+ * java -cp vaadoo-bytebuddy-nodep.jar:byte-buddy.jar:jakarta.validation-api.jar:slf4j-api.jar \
+ *     com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.nodep.VaadooTransformer \
+ *     [--config vaadoo.config] [--classpath dependencies] [--threads n] input.jar|classes output.jar
+ * </pre>
+ *
+ * The entries are read and written as streams. The classes are transformed in
+ * parallel but written in the order of the input, keeping the timestamps of the
+ * entries (helper classes get the timestamp of the class requiring them). Since
+ * the generated names don't contain random parts the output is reproducible.
+ * Without {@code --config} the {@code vaadoo.config} is detected like in the
+ * build, starting at the input.
+ * <p>
+ * Only the classes located by their name are transformed, classes nested in
+ * other folders (e.g. {@code BOOT-INF/classes} of a Spring Boot jar or
+ * {@code META-INF/versions}) are copied unchanged. If classes of a signed jar
+ * are transformed, the signature files and the digests of the manifest are
+ * dropped, the output is not signed.
+ */
+@RequiredArgsConstructor
+public class VaadooTransformer {
+
+	private static final String CLASS_FILE_EXTENSION = ".class";
+	private static final ByteBuddy BYTE_BUDDY = new ByteBuddy()
+			.with(new AuxiliaryType.NamingStrategy.Suffixing("vaadoo"));
+
+	private final Function<Path, JMoleculesPlugin> pluginFactory;
+	private final List<File> classpath;
+	private final int threads;
+
+	public static void main(String[] args) throws Exception {
+		File config = null;
+		List<File> classpath = new ArrayList<>();
+		int threads = Runtime.getRuntime().availableProcessors();
+		int i = 0;
+		for (; i < args.length && args[i].startsWith("--"); i += 2) {
+			if (i + 1 >= args.length) {
+				usage();
+			}
+			switch (args[i]) {
+			case "--config":
+				config = new File(args[i + 1]);
+				break;
+			case "--classpath":
+				Stream.of(args[i + 1].split(File.pathSeparator)).map(File::new).forEach(classpath::add);
+				break;
+			case "--threads":
+				threads = Integer.parseInt(args[i + 1]);
+				break;
+			default:
+				usage();
+			}
+		}
+		if (args.length - i != 2) {
+			usage();
+		}
+
+		VaadooConfigurationSupplier configurationSupplier = config == null ? null
+				: VaadooConfigurationSupplier.of(config);
+		Summary summary = new VaadooTransformer(input -> configurationSupplier == null
+				? new JMoleculesPlugin(input.toFile())
+				: new JMoleculesPlugin(configurationSupplier), classpath, threads)
+				.transform(Path.of(args[i]), Path.of(args[i + 1]));
+		summary.print(System.out);
+	}
+
+	private static void usage() {
+		System.err.println(format("Usage: %s [--config vaadoo.config] [--classpath path] [--threads n] "
+				+ "<input jar or class directory> <output jar>", VaadooTransformer.class.getName()));
+		System.exit(2);
+	}
+
+	@Value
+	public static class Summary {
+		int classes;
+		int transformed;
+		long bytes;
+		long nanos;
+
+		public double classesPerSecond() {
+			return classes / seconds();
+		}
+
+		public double megabytesPerSecond() {
+			return bytes / (1024.0 * 1024.0) / seconds();
+		}
+
+		private double seconds() {
+			return Math.max(nanos, 1) / 1_000_000_000.0;
+		}
+
+		void print(PrintStream out) {
+			out.println(format("Transformed %d of %d classes (%.2f MB) in %.2f s: %.0f classes/s, %.2f MB/s",
+					transformed, classes, bytes / (1024.0 * 1024.0), seconds(), classesPerSecond(),
+					megabytesPerSecond()));
+		}
+	}
+
+	@Value
+	private static class Entry {
+		ZipEntry metadata;
+		byte[] bytes;
+
+		boolean isClass() {
+			String name = metadata.getName();
+			return name.endsWith(CLASS_FILE_EXTENSION) && !name.startsWith("META-INF/")
+					&& !name.endsWith("module-info.class") && !name.endsWith("package-info.class")
+					&& name.equals(internalName() + CLASS_FILE_EXTENSION);
+		}
+
+		/**
+		 * Returns the name of the class in the class file or {@code null} if the
+		 * entry is not a class file.
+		 */
+		private String internalName() {
+			try {
+				return new ClassReader(bytes).getClassName();
+			} catch (RuntimeException e) {
+				return null;
+			}
+		}
+
+		boolean isSignature() {
+			String name = metadata.getName().toUpperCase(Locale.ROOT);
+			return name.startsWith("META-INF/") && name.indexOf('/', "META-INF/".length()) < 0
+					&& (name.endsWith(".SF") || name.endsWith(".RSA") || name.endsWith(".DSA")
+							|| name.endsWith(".EC") || name.startsWith("META-INF/SIG-"));
+		}
+
+		String typeName() {
+			String name = metadata.getName();
+			return name.substring(0, name.length() - CLASS_FILE_EXTENSION.length()).replace('/', '.');
+		}
+	}
+
+	public Summary transform(Path input, Path output) throws IOException, InterruptedException {
+		long start = System.nanoTime();
+		List<Entry> entries = Files.isDirectory(input) ? readDirectory(input) : readJar(input);
+		List<Entry> classes = entries.stream().filter(Entry::isClass).collect(toList());
+
+		Map<String, byte[]> resources = new LinkedHashMap<>();
+		entries.stream().filter(e -> e.getBytes() != null).forEach(e -> resources.put(e.getMetadata().getName(),
+				e.getBytes()));
+		Map<String, DynamicType> transformed;
+		try (ClassFileLocator locator = locator(ClassFileLocator.Simple.ofResources(resources), classpath);
+				JMoleculesPlugin plugin = pluginFactory.apply(input)) {
+			transformed = transform(classes, locator, plugin);
+		}
+
+		// the signature would not match the transformed classes
+		boolean unsign = !transformed.isEmpty() && entries.stream().anyMatch(Entry::isSignature);
+		try (ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(output)))) {
+			Set<String> written = new HashSet<>();
+			for (Entry entry : entries) {
+				if (unsign && entry.isSignature()) {
+					continue;
+				}
+				DynamicType type = transformed.get(entry.getMetadata().getName());
+				byte[] bytes = type == null ? entry.getBytes() : type.getBytes();
+				if (unsign && JarFile.MANIFEST_NAME.equalsIgnoreCase(entry.getMetadata().getName())) {
+					bytes = withoutDigests(bytes);
+				}
+				write(out, entry.getMetadata(), bytes, written);
+				if (type != null) {
+					for (DynamicType auxiliary : type.getAuxiliaries()) {
+						write(out, auxiliaryEntry(entry.getMetadata(), auxiliary), auxiliary.getBytes(), written);
+					}
+				}
+			}
+		}
+
+		long bytes = classes.stream().mapToLong(e -> e.getBytes().length).sum();
+		return new Summary(classes.size(), transformed.size(), bytes, System.nanoTime() - start);
+	}
+
+	/**
+	 * Runs the preprocessing of all classes before transforming any, like the
+	 * Byte Buddy build engine. Returns the transformed types by entry name.
+	 */
+	private Map<String, DynamicType> transform(List<Entry> classes, ClassFileLocator locator,
+			JMoleculesPlugin plugin) throws IOException, InterruptedException {
+		TypePool typePool = TypePool.Default.of(locator);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<TypeDescription> types = invokeAll(executor, classes, entry -> {
+				TypeDescription type = typePool.describe(entry.typeName()).resolve();
+				plugin.onPreprocess(type, locator);
+				return type;
+			});
+
+			List<DynamicType> results = invokeAll(executor, types,
+					type -> plugin.matches(type) ? transform(plugin, type, locator, typePool) : null);
+
+			Map<String, DynamicType> transformed = new LinkedHashMap<>();
+			for (int i = 0; i < classes.size(); i++) {
+				if (results.get(i) != null) {
+					transformed.put(classes.get(i).getMetadata().getName(), results.get(i));
+				}
+			}
+			return transformed;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Locates the classes of the input, then those of the passed class path and
+	 * finally those of the tool (e.g. the annotations).
+	 */
+	static ClassFileLocator locator(ClassFileLocator input, List<File> classpath) throws IOException {
+		List<ClassFileLocator> locators = new ArrayList<>();
+		locators.add(input);
+		for (File file : classpath) {
+			locators.add(file.isDirectory() ? new ClassFileLocator.ForFolder(file)
+					: ClassFileLocator.ForJarFile.of(file));
+		}
+		locators.add(ClassFileLocator.ForClassLoader.of(VaadooTransformer.class.getClassLoader()));
+		return new ClassFileLocator.Compound(locators);
+	}
+
+	/**
+	 * Rebases the passed type (which has to be matched by the plugin) and applies
+	 * the plugin.
+	 */
+	static DynamicType transform(JMoleculesPlugin plugin, TypeDescription type, ClassFileLocator locator,
+			TypePool typePool) {
+		return plugin.apply(BYTE_BUDDY.rebase(type, locator, new MethodNameTransformer.Suffixing("original")), type,
+				locator).make(TypeResolutionStrategy.Disabled.INSTANCE, typePool);
+	}
+
+	private interface Task<T, R> {
+		R apply(T t) throws IOException;
+	}
+
+	private static <T, R> List<R> invokeAll(ExecutorService executor, List<T> items, Task<T, R> task)
+			throws IOException, InterruptedException {
+		List<Callable<R>> callables = items.stream().map(i -> (Callable<R>) () -> task.apply(i)).collect(toList());
+		List<R> results = new ArrayList<>(items.size());
+		for (Future<R> future : executor.invokeAll(callables)) {
+			try {
+				results.add(future.get());
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof IOException) {
+					throw (IOException) cause;
+				}
+				throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+			}
+		}
+		return results;
+	}
+
+	private static List<Entry> readJar(Path jar) throws IOException {
+		List<Entry> entries = new ArrayList<>();
+		try (ZipInputStream in = new ZipInputStream(new BufferedInputStream(Files.newInputStream(jar)))) {
+			for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+				entries.add(new Entry(entry, entry.isDirectory() ? null : in.readAllBytes()));
+			}
+		}
+		return entries;
+	}
+
+	private static List<Entry> readDirectory(Path directory) throws IOException {
+		try (Stream<Path> paths = Files.walk(directory)) {
+			return paths.filter(p -> !p.equals(directory)).sorted().map(p -> {
+				String name = directory.relativize(p).toString().replace(File.separatorChar, '/');
+				try {
+					boolean isDirectory = Files.isDirectory(p);
+					ZipEntry entry = new ZipEntry(isDirectory ? name + "/" : name);
+					entry.setMethod(DEFLATED);
+					entry.setLastModifiedTime(Files.getLastModifiedTime(p));
+					return new Entry(entry, isDirectory ? null : Files.readAllBytes(p));
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}).collect(toList());
+		}
+	}
+
+	/**
+	 * Removes the digests of the entries (and the sections of the entries having
+	 * nothing but digests) from the passed manifest.
+	 */
+	private static byte[] withoutDigests(byte[] manifest) throws IOException {
+		Manifest parsed = new Manifest(new ByteArrayInputStream(manifest));
+		for (Attributes attributes : parsed.getEntries().values()) {
+			attributes.keySet().removeIf(k -> k.toString().toUpperCase(Locale.ROOT).endsWith("-DIGEST"));
+		}
+		parsed.getEntries().values().removeIf(Attributes::isEmpty);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		parsed.write(out);
+		return out.toByteArray();
+	}
+
+	private static ZipEntry auxiliaryEntry(ZipEntry source, DynamicType auxiliary) {
+		ZipEntry entry = new ZipEntry(auxiliary.getTypeDescription().getInternalName() + CLASS_FILE_EXTENSION);
+		entry.setMethod(source.getMethod());
+		entry.setTime(source.getTime());
+		return entry;
+	}
+
+	private static void write(ZipOutputStream out, ZipEntry source, byte[] bytes, Set<String> written)
+			throws IOException {
+		// helper types are shared by the classes of a package
+		if (!written.add(source.getName())) {
+			return;
+		}
+		ZipEntry entry = new ZipEntry(source.getName());
+		entry.setTime(source.getTime());
+		if (source.getComment() != null) {
+			entry.setComment(source.getComment());
+		}
+		if (source.getMethod() == STORED) {
+			byte[] content = bytes == null ? new byte[0] : bytes;
+			CRC32 crc = new CRC32();
+			crc.update(content);
+			entry.setMethod(STORED);
+			entry.setSize(content.length);
+			entry.setCompressedSize(content.length);
+			entry.setCrc(crc.getValue());
+		}
+		out.putNextEntry(entry);
+		if (bytes != null) {
+			out.write(bytes);
+		}
+		out.closeEntry();
+	}
+
+}
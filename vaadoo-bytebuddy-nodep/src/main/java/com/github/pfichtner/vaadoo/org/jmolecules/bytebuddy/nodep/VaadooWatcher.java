@@ -0,0 +1,404 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.nodep;
+
+import static java.lang.String.format;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.stream.Collectors.toList;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.JMoleculesPlugin;
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.VaadooConfigurationSupplier;
+
+import lombok.Value;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.pool.TypePool;
+
+/**
+ * Keeps the plugin warm in a long-lived process and enhances the class files
+ * written to a class directory (e.g. by the compiler of the IDE) in place, so
+ * the configuration, the fragments and the helper types are set up once
+ * instead of on every build:
+ *
+ * <pre>
+ * java -cp vaadoo-bytebuddy-nodep.jar:byte-buddy.jar:jakarta.validation-api.jar:slf4j-api.jar \
+ *     com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.nodep.VaadooWatcher \
+ *     [--config vaadoo.config] [--classpath dependencies] [--quietPeriod ms] target/classes
+ * </pre>
+ *
+ * The class files existing on start are expected to be enhanced by the build
+ * already, only created or modified class files are enhanced. Changes are
+ * collected until there were none for the quiet period, so a compilation of
+ * several classes is enhanced as one batch. The content of the class files
+ * existing on start and of those written by the watcher is remembered, so they
+ * are not enhanced again when their events arrive or the directory gets
+ * rescanned since events were lost.
+ * <p>
+ * The plugin caches the configuration and what it learned about the
+ * annotation types, so it is recreated if the {@code --config} file or an
+ * annotation type changes. A {@code vaadoo.config} detected from the class
+ * directory (no {@code --config}) is not watched, the watcher has to be
+ * restarted after changing it.
+ */
+public class VaadooWatcher implements Closeable {
+
+	private static final String CLASS_FILE_EXTENSION = ".class";
+
+	private final Path directory;
+	private final Path config;
+	private final Supplier<JMoleculesPlugin> plugins;
+	private final ClassFileLocator locator;
+	private final long quietPeriodMillis;
+	private final WatchService watchService;
+	private final WatchKey configKey;
+	private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+	// the digests of the class files as compiled or written by this watcher
+	private final Map<Path, byte[]> known = new HashMap<>();
+	private JMoleculesPlugin plugin;
+	private boolean stale;
+
+	@Value
+	public static class Batch {
+		int changed;
+		int enhanced;
+		boolean reloaded;
+		List<String> failures;
+		long nanos;
+
+		void print(PrintStream out) {
+			if (reloaded) {
+				out.println("Reloaded the configuration");
+			}
+			out.println(format("Enhanced %d of %d changed class(es) in %d ms", enhanced, changed,
+					MILLISECONDS.convert(nanos, TimeUnit.NANOSECONDS)));
+			failures.forEach(out::println);
+		}
+	}
+
+	/**
+	 * @param config the configuration file the plugins are created from, if
+	 *               changed the plugin is recreated. {@code null} if the
+	 *               configuration is not to be watched.
+	 */
+	public VaadooWatcher(Path directory, Path config, Supplier<JMoleculesPlugin> plugins, List<File> classpath,
+			long quietPeriodMillis) throws IOException {
+		this.directory = directory;
+		this.config = config == null ? null : config.toAbsolutePath();
+		this.plugins = plugins;
+		this.plugin = plugins.get();
+		this.locator = VaadooTransformer.locator(new ClassFileLocator.ForFolder(directory.toFile()), classpath);
+		this.quietPeriodMillis = quietPeriodMillis;
+		this.watchService = directory.getFileSystem().newWatchService();
+		this.configKey = this.config == null ? null
+				: this.config.getParent().register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+		register(directory);
+		for (Path classFile : classFiles(directory)) {
+			remember(classFile, Files.readAllBytes(classFile));
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		File config = null;
+		List<File> classpath = new ArrayList<>();
+		long quietPeriodMillis = 50;
+		int i = 0;
+		for (; i < args.length && args[i].startsWith("--"); i += 2) {
+			if (i + 1 >= args.length) {
+				usage();
+			}
+			switch (args[i]) {
+			case "--config":
+				config = new File(args[i + 1]);
+				break;
+			case "--classpath":
+				Stream.of(args[i + 1].split(File.pathSeparator)).map(File::new).forEach(classpath::add);
+				break;
+			case "--quietPeriod":
+				quietPeriodMillis = Long.parseLong(args[i + 1]);
+				break;
+			default:
+				usage();
+			}
+		}
+		if (args.length - i != 1) {
+			usage();
+		}
+
+		Path directory = Path.of(args[i]).toAbsolutePath();
+		File configFile = config;
+		Supplier<JMoleculesPlugin> plugins = config == null ? () -> new JMoleculesPlugin(directory.toFile())
+				: () -> new JMoleculesPlugin(VaadooConfigurationSupplier.of(configFile));
+		try (VaadooWatcher watcher = new VaadooWatcher(directory, config == null ? null : config.toPath(), plugins,
+				classpath, quietPeriodMillis)) {
+			System.out.println(format("Watching %s", directory));
+			watcher.run(System.out);
+		}
+	}
+
+	private static void usage() {
+		System.err.println(format("Usage: %s [--config vaadoo.config] [--classpath path] [--quietPeriod ms] "
+				+ "<class directory>", VaadooWatcher.class.getName()));
+		System.exit(2);
+	}
+
+	/**
+	 * Enhances the changed class files until the thread gets interrupted.
+	 */
+	public void run(PrintStream out) throws IOException, InterruptedException {
+		while (!Thread.currentThread().isInterrupted()) {
+			Set<Path> changed = awaitChanges(Long.MAX_VALUE, MILLISECONDS);
+			if (!changed.isEmpty()) {
+				enhance(changed).print(out);
+			}
+		}
+	}
+
+	/**
+	 * Waits up to the passed timeout for a change, then collects further changes
+	 * until there were none for the quiet period. Returns the changed class files
+	 * that were not written by this watcher. If events were lost, the class
+	 * directory is rescanned.
+	 */
+	public Set<Path> awaitChanges(long timeout, TimeUnit unit) throws IOException, InterruptedException {
+		Set<Path> changed = new TreeSet<>();
+		boolean overflow = false;
+		WatchKey key = watchService.poll(timeout, unit);
+		while (key != null) {
+			Path watched = key == configKey ? config.getParent() : watchedDirectories.get(key);
+			for (WatchEvent<?> event : key.pollEvents()) {
+				if (event.kind() == OVERFLOW) {
+					overflow = true;
+					continue;
+				}
+				if (watched == null) {
+					continue;
+				}
+				Path path = watched.resolve((Path) event.context());
+				if (path.equals(config)) {
+					stale = true;
+				} else if (!watchedDirectories.containsKey(key)) {
+					continue;
+				} else if (event.kind() == ENTRY_DELETE) {
+					known.keySet().removeIf(p -> p.startsWith(path));
+				} else if (Files.isDirectory(path)) {
+					// the class files could have been written before the directory got watched
+					register(path);
+					changed.addAll(classFiles(path));
+				} else if (isClassFile(path)) {
+					changed.add(path);
+				}
+			}
+			if (!key.reset()) {
+				watchedDirectories.remove(key);
+			}
+			key = watchService.poll(quietPeriodMillis, MILLISECONDS);
+		}
+		if (overflow) {
+			changed.addAll(rescan());
+		}
+		changed.removeIf(this::isUnchanged);
+		return changed;
+	}
+
+	/**
+	 * Returns the class files whose content differs from the one compiled or
+	 * written when last seen by this watcher.
+	 */
+	Set<Path> rescan() throws IOException {
+		known.keySet().removeIf(p -> !Files.exists(p));
+		register(directory);
+		stale |= config != null;
+		Set<Path> changed = new TreeSet<>(classFiles(directory));
+		changed.removeIf(this::isUnchanged);
+		return changed;
+	}
+
+	/**
+	 * Enhances the passed class files in place. Like the Byte Buddy build engine
+	 * all classes are preprocessed before the first one gets transformed. The
+	 * plugin is recreated first if the configuration or an annotation type
+	 * changed.
+	 */
+	public Batch enhance(Set<Path> classFiles) {
+		long start = System.nanoTime();
+		TypePool typePool = TypePool.Default.of(locator);
+		List<String> failures = new ArrayList<>();
+		List<TypeDescription> types = new ArrayList<>();
+		for (Path classFile : classFiles) {
+			try {
+				remember(classFile, Files.readAllBytes(classFile));
+				types.add(typePool.describe(typeName(classFile)).resolve());
+			} catch (IOException | RuntimeException e) {
+				failures.add(format("Cannot read %s: %s", classFile, e));
+			}
+		}
+
+		boolean reloaded = false;
+		if (stale || types.stream().anyMatch(TypeDescription::isAnnotation)) {
+			try {
+				reload();
+				reloaded = true;
+			} catch (RuntimeException e) {
+				failures.add(format("Cannot reload the configuration: %s", e));
+			}
+		}
+		for (Iterator<TypeDescription> iterator = types.iterator(); iterator.hasNext();) {
+			TypeDescription type = iterator.next();
+			try {
+				plugin.onPreprocess(type, locator);
+			} catch (RuntimeException e) {
+				iterator.remove();
+				failures.add(format("Cannot preprocess %s: %s", type.getName(), e));
+			}
+		}
+
+		int enhanced = 0;
+		for (TypeDescription type : types) {
+			try {
+				if (plugin.matches(type)) {
+					DynamicType dynamicType = VaadooTransformer.transform(plugin, type, locator, typePool);
+					write(dynamicType.getTypeDescription(), dynamicType.getBytes());
+					for (DynamicType auxiliary : dynamicType.getAuxiliaries()) {
+						write(auxiliary.getTypeDescription(), auxiliary.getBytes());
+					}
+					enhanced++;
+				}
+			} catch (IOException | RuntimeException e) {
+				failures.add(format("Cannot enhance %s: %s", type.getName(), e));
+			}
+		}
+		plugin.flush();
+		return new Batch(classFiles.size(), enhanced, reloaded, failures, System.nanoTime() - start);
+	}
+
+	/**
+	 * Replaces the plugin by a new one, the former one is kept if the new one
+	 * cannot be created (e.g. as the configuration file is invalid).
+	 */
+	private void reload() {
+		JMoleculesPlugin reloaded = plugins.get();
+		plugin.close();
+		plugin = reloaded;
+		stale = false;
+	}
+
+	private void register(Path path) throws IOException {
+		try (Stream<Path> paths = Files.walk(path)) {
+			for (Path dir : paths.filter(Files::isDirectory).collect(toList())) {
+				watchedDirectories.put(dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), dir);
+			}
+		}
+	}
+
+	private static List<Path> classFiles(Path path) throws IOException {
+		try (Stream<Path> paths = Files.walk(path)) {
+			return paths.filter(VaadooWatcher::isClassFile).collect(toList());
+		}
+	}
+
+	private static boolean isClassFile(Path path) {
+		String name = path.getFileName().toString();
+		return name.endsWith(CLASS_FILE_EXTENSION) && !name.equals("module-info.class")
+				&& !name.equals("package-info.class") && Files.isRegularFile(path);
+	}
+
+	/**
+	 * Whether the class file is gone or still has the content compiled or written
+	 * when last seen by this watcher.
+	 */
+	private boolean isUnchanged(Path classFile) {
+		try {
+			return Arrays.equals(digest(Files.readAllBytes(classFile)), known.get(classFile));
+		} catch (IOException e) {
+			return true;
+		}
+	}
+
+	private void remember(Path classFile, byte[] bytes) {
+		known.put(classFile, digest(bytes));
+	}
+
+	private static byte[] digest(byte[] bytes) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(bytes);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private String typeName(Path classFile) {
+		String name = directory.relativize(classFile).toString();
+		return name.substring(0, name.length() - CLASS_FILE_EXTENSION.length()).replace(File.separatorChar, '.');
+	}
+
+	/**
+	 * Replaces the class file atomically, so nobody reads a partially written
+	 * class file.
+	 */
+	private void write(TypeDescription type, byte[] bytes) throws IOException {
+		Path classFile = directory.resolve(type.getInternalName() + CLASS_FILE_EXTENSION);
+		if (Files.exists(classFile) && Arrays.equals(Files.readAllBytes(classFile), bytes)) {
+			remember(classFile, bytes);
+			return;
+		}
+		Files.createDirectories(classFile.getParent());
+		Path temp = Files.createTempFile(classFile.getParent(), ".vaadoo", ".tmp");
+		Files.write(temp, bytes);
+		Files.move(temp, classFile, REPLACE_EXISTING, ATOMIC_MOVE);
+		remember(classFile, bytes);
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			watchService.close();
+			locator.close();
+		} finally {
+			plugin.close();
+		}
+	}
+
+}
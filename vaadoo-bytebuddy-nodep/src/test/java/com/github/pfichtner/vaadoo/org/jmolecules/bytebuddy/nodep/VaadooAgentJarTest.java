@@ -0,0 +1,116 @@
+package com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.nodep;
+
+import static java.io.File.pathSeparator;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.walk;
+import static java.util.Comparator.reverseOrder;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.joining;
+import static net.bytebuddy.dynamic.scaffold.subclass.ConstructorStrategy.Default.NO_CONSTRUCTORS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import jakarta.validation.constraints.NotBlank;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.annotation.AnnotationDescription;
+import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.implementation.MethodCall;
+
+/**
+ * Starts a JVM with the shaded jar as its Java agent and without the core
+ * module on the class path. Runs after packaging (phase {@code verify}), the
+ * jar is passed in as system property {@code agentJar}.
+ */
+class VaadooAgentJarTest {
+
+	private static final String CLASS_NAME = "com.example.Name";
+
+	Path directory;
+	Path classes;
+
+	@BeforeEach
+	void setup() throws Exception {
+		directory = Files.createTempDirectory("vaadoo-agent-jar");
+		classes = Files.createDirectories(directory.resolve("classes/com/example")).getParent().getParent();
+		Files.write(classes.resolve("com/example/Name.class"), valueObject(CLASS_NAME));
+		Files.writeString(directory.resolve("vaadoo.config"), "vaadoo.cachedClock=true");
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		try (var paths = walk(directory)) {
+			paths.sorted(reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+	}
+
+	@Test
+	void theShadedJarIsAJavaAgent() throws Exception {
+		assertThat(run("foo")).isEqualTo("created");
+		assertThat(run(" ")).isEqualTo("value must not be blank");
+		assertThat(directory.resolve("cache/index")).exists();
+	}
+
+	private String run(String value) throws Exception {
+		Path agentJar = Path.of(System.getProperty("agentJar"));
+		String agentOptions = "=config=" + directory.resolve("vaadoo.config") + ",cache=" + directory.resolve("cache");
+		Process process = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+				"-javaagent:" + agentJar + agentOptions, "-cp", classPath(), Application.class.getName(), CLASS_NAME,
+				value).redirectErrorStream(true).start();
+		assertThat(process.waitFor(60, SECONDS)).isTrue();
+		String output = new String(process.getInputStream().readAllBytes(), UTF_8);
+		assertThat(process.exitValue()).withFailMessage(output).isZero();
+		return output.lines().reduce((first, second) -> second).orElse("");
+	}
+
+	/**
+	 * The class path of an application: the application classes and the libraries
+	 * the agent needs, Vaadoo itself only comes with the agent jar.
+	 */
+	private String classPath() {
+		return Stream.of(classes, location(Application.class), location(ByteBuddy.class),
+				location(NotBlank.class), location(LoggerFactory.class)).map(Path::toString)
+				.collect(joining(pathSeparator));
+	}
+
+	private static Path location(Class<?> type) {
+		try {
+			return Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI());
+		} catch (URISyntaxException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static byte[] valueObject(String name) throws NoSuchMethodException {
+		return new ByteBuddy().subclass(Object.class, NO_CONSTRUCTORS).name(name) //
+				.defineConstructor(Visibility.PUBLIC).withParameter(String.class, "value")
+				.annotateParameter(AnnotationDescription.Builder.ofType(NotBlank.class).build())
+				.intercept(MethodCall.invoke(Object.class.getConstructor())) //
+				.make().getBytes();
+	}
+
+	public static class Application {
+
+		public static void main(String[] args) throws Exception {
+			try {
+				Class.forName(args[0]).getConstructor(String.class).newInstance(args[1]);
+				System.out.println("created");
+			} catch (InvocationTargetException e) {
+				System.out.println(e.getCause().getMessage());
+			}
+		}
+
+	}
+
+}
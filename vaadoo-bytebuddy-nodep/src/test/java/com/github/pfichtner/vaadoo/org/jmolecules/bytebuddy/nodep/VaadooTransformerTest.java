@@ -0,0 +1,195 @@
+package com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.nodep;
+
+import static java.nio.file.Files.walk;
+import static java.util.Comparator.reverseOrder;
+import static net.bytebuddy.dynamic.scaffold.subclass.ConstructorStrategy.Default.NO_CONSTRUCTORS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.JMoleculesPlugin;
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.VaadooConfigurationSupplier;
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.nodep.VaadooTransformer.Summary;
+
+import jakarta.validation.constraints.NotBlank;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.annotation.AnnotationDescription;
+import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.dynamic.loading.ByteArrayClassLoader;
+import net.bytebuddy.implementation.MethodCall;
+
+class VaadooTransformerTest {
+
+	private static final long TIMESTAMP = 1_600_000_000_000L;
+
+	Path directory;
+	VaadooTransformer sut;
+
+	@BeforeEach
+	void setup() throws IOException {
+		directory = Files.createTempDirectory("vaadoo-transformer");
+		File config = directory.resolve("vaadoo.config").toFile();
+		Files.writeString(config.toPath(), "vaadoo.cachedClock=true");
+		sut = new VaadooTransformer(__ -> new JMoleculesPlugin(VaadooConfigurationSupplier.of(config)), List.of(), 4);
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		try (var paths = walk(directory)) {
+			paths.sorted(reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+	}
+
+	@Test
+	void enhancesTheClassesOfAJarKeepingOrderAndTimestamps() throws Exception {
+		Path input = directory.resolve("input.jar");
+		Map<String, byte[]> jar = new LinkedHashMap<>();
+		jar.put("META-INF/MANIFEST.MF", "Manifest-Version: 1.0\n".getBytes());
+		jar.put("com/example/Name.class", valueObject("com.example.Name"));
+		jar.put("com/example/readme.txt", "untouched".getBytes());
+		jar.put("com/example/Other.class", valueObject("com.example.Other"));
+		writeJar(input, jar);
+
+		Path output = directory.resolve("output.jar");
+		Summary summary = sut.transform(input, output);
+
+		assertThat(summary.getClasses()).isEqualTo(2);
+		assertThat(summary.getTransformed()).isEqualTo(2);
+		Map<String, ZipEntry> entries = new LinkedHashMap<>();
+		Map<String, byte[]> contents = readJar(output, entries);
+		assertThat(entries.keySet()).filteredOn(n -> !n.contains("$vaadoo$")).containsExactly("META-INF/MANIFEST.MF",
+				"com/example/Name.class", "com/example/VaadooClock.class", "com/example/readme.txt",
+				"com/example/Other.class");
+		assertThat(entries.values()).allSatisfy(e -> assertThat(e.getTime()).isEqualTo(TIMESTAMP));
+		assertThat(contents.get("com/example/readme.txt")).isEqualTo("untouched".getBytes());
+
+		var classLoader = new ByteArrayClassLoader(getClass().getClassLoader(), classes(contents));
+		var constructor = classLoader.loadClass("com.example.Name").getConstructor(String.class);
+		assertThat(constructor.newInstance("foo")).isNotNull();
+		assertThatThrownBy(() -> constructor.newInstance(" ")).hasRootCauseMessage("value must not be blank");
+	}
+
+	@Test
+	void outputIsReproducible() throws Exception {
+		Path input = directory.resolve("input.jar");
+		writeJar(input, Map.of("com/example/Name.class", valueObject("com.example.Name")));
+
+		Path first = directory.resolve("first.jar");
+		Path second = directory.resolve("second.jar");
+		sut.transform(input, first);
+		sut.transform(input, second);
+		assertThat(first).hasSameBinaryContentAs(second);
+	}
+
+	@Test
+	void transformsClassDirectories() throws Exception {
+		Path classes = Files.createDirectories(directory.resolve("classes/com/example"));
+		Files.write(classes.resolve("Name.class"), valueObject("com.example.Name"));
+
+		Path output = directory.resolve("output.jar");
+		Summary summary = sut.transform(directory.resolve("classes"), output);
+
+		assertThat(summary.getTransformed()).isEqualTo(1);
+		assertThat(readJar(output, new LinkedHashMap<>()).keySet()).filteredOn(n -> !n.contains("$vaadoo$"))
+				.containsExactly("com/", "com/example/", "com/example/Name.class", "com/example/VaadooClock.class");
+	}
+
+	@Test
+	void dropsTheSignatureOfSignedJars() throws Exception {
+		Path input = directory.resolve("signed.jar");
+		Map<String, byte[]> jar = new LinkedHashMap<>();
+		jar.put("META-INF/MANIFEST.MF", ("Manifest-Version: 1.0\r\nCreated-By: test\r\n\r\n"
+				+ "Name: com/example/Name.class\r\nSHA-256-Digest: AAAA\r\n\r\n").getBytes());
+		jar.put("META-INF/SIGNER.SF", "signature".getBytes());
+		jar.put("META-INF/SIGNER.RSA", "block".getBytes());
+		jar.put("com/example/Name.class", valueObject("com.example.Name"));
+		writeJar(input, jar);
+
+		Path output = directory.resolve("output.jar");
+		sut.transform(input, output);
+
+		Map<String, byte[]> contents = readJar(output, new LinkedHashMap<>());
+		assertThat(contents).doesNotContainKeys("META-INF/SIGNER.SF", "META-INF/SIGNER.RSA");
+		var manifest = new Manifest(new ByteArrayInputStream(contents.get("META-INF/MANIFEST.MF")));
+		assertThat(manifest.getMainAttributes().getValue("Created-By")).isEqualTo("test");
+		assertThat(manifest.getEntries()).isEmpty();
+	}
+
+	@Test
+	void copiesClassesNotLocatedByTheirName() throws Exception {
+		Path input = directory.resolve("boot.jar");
+		byte[] nested = valueObject("com.example.Nested");
+		Map<String, byte[]> jar = new LinkedHashMap<>();
+		jar.put("BOOT-INF/classes/com/example/Nested.class", nested);
+		jar.put("com/example/Name.class", valueObject("com.example.Name"));
+		writeJar(input, jar);
+
+		Path output = directory.resolve("output.jar");
+		Summary summary = sut.transform(input, output);
+
+		assertThat(summary.getClasses()).isEqualTo(1);
+		assertThat(summary.getTransformed()).isEqualTo(1);
+		assertThat(readJar(output, new LinkedHashMap<>()).get("BOOT-INF/classes/com/example/Nested.class"))
+				.isEqualTo(nested);
+	}
+
+	private static byte[] valueObject(String name) throws NoSuchMethodException {
+		return new ByteBuddy().subclass(Object.class, NO_CONSTRUCTORS).name(name) //
+				.defineConstructor(Visibility.PUBLIC).withParameter(String.class, "value")
+				.annotateParameter(AnnotationDescription.Builder.ofType(NotBlank.class).build())
+				.intercept(MethodCall.invoke(Object.class.getConstructor())) //
+				.make().getBytes();
+	}
+
+	private static void writeJar(Path jar, Map<String, byte[]> entries) throws IOException {
+		try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar))) {
+			for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+				ZipEntry zipEntry = new ZipEntry(entry.getKey());
+				zipEntry.setTime(TIMESTAMP);
+				out.putNextEntry(zipEntry);
+				out.write(entry.getValue());
+				out.closeEntry();
+			}
+		}
+	}
+
+	private static Map<String, byte[]> readJar(Path jar, Map<String, ZipEntry> entries) throws IOException {
+		Map<String, byte[]> contents = new LinkedHashMap<>();
+		try (InputStream in = Files.newInputStream(jar); ZipInputStream zip = new ZipInputStream(in)) {
+			for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+				entries.put(entry.getName(), entry);
+				contents.put(entry.getName(), zip.readAllBytes());
+			}
+		}
+		return contents;
+	}
+
+	private static Map<String, byte[]> classes(Map<String, byte[]> contents) {
+		Map<String, byte[]> classes = new HashMap<>();
+		contents.forEach((name, bytes) -> {
+			if (name.endsWith(".class")) {
+				classes.put(name.substring(0, name.length() - ".class".length()).replace('/', '.'), bytes);
+			}
+		});
+		return classes;
+	}
+
+}
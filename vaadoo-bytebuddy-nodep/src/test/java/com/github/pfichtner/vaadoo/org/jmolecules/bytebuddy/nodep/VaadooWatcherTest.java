@@ -0,0 +1,143 @@
+package com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.nodep;
+
+import static java.nio.file.Files.walk;
+import static java.util.Comparator.reverseOrder;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static net.bytebuddy.dynamic.scaffold.subclass.ConstructorStrategy.Default.NO_CONSTRUCTORS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.JMoleculesPlugin;
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.VaadooConfigurationSupplier;
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.nodep.VaadooWatcher.Batch;
+
+import jakarta.validation.constraints.NotBlank;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.annotation.AnnotationDescription;
+import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.implementation.MethodCall;
+
+class VaadooWatcherTest {
+
+	Path directory;
+	Path classes;
+	Path config;
+	VaadooWatcher sut;
+
+	@BeforeEach
+	void setup() throws IOException {
+		directory = Files.createTempDirectory("vaadoo-watcher");
+		classes = Files.createDirectories(directory.resolve("classes/com/example")).getParent().getParent();
+		config = directory.resolve("vaadoo.config");
+		Files.writeString(config, "vaadoo.cachedClock=true");
+		sut = new VaadooWatcher(classes, config,
+				() -> new JMoleculesPlugin(VaadooConfigurationSupplier.of(config.toFile())), List.of(), 50);
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		sut.close();
+		try (var paths = walk(directory)) {
+			paths.sorted(reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+	}
+
+	@Test
+	void recompiledClassesAreEnhancedInPlace() throws Exception {
+		Path classFile = classes.resolve("com/example/Name.class");
+		Files.write(classFile, valueObject("com.example.Name"));
+
+		var changed = sut.awaitChanges(10, SECONDS);
+		assertThat(changed).containsExactly(classFile);
+		Batch batch = sut.enhance(changed);
+		assertThat(batch.getFailures()).isEmpty();
+		assertThat(batch.getEnhanced()).isEqualTo(1);
+		assertThat(classes.resolve("com/example/VaadooClock.class")).exists();
+		assertThatThrownBy(() -> newInstance("com.example.Name", " "))
+				.hasRootCauseMessage("value must not be blank");
+
+		// the events of the class files written by the watcher are ignored
+		assertThat(sut.awaitChanges(500, MILLISECONDS)).isEmpty();
+	}
+
+	@Test
+	void classesOfNewPackagesAreEnhanced() throws Exception {
+		Path classFile = Files.createDirectories(classes.resolve("com/other")).resolve("Other.class");
+		Files.write(classFile, valueObject("com.other.Other"));
+
+		var changed = sut.awaitChanges(10, SECONDS);
+		assertThat(changed).containsExactly(classFile);
+		assertThat(sut.enhance(changed).getEnhanced()).isEqualTo(1);
+		assertThatThrownBy(() -> newInstance("com.other.Other", " ")).hasRootCauseMessage("value must not be blank");
+	}
+
+	@Test
+	void classesRecompiledAgainAreEnhancedAgain() throws Exception {
+		Path classFile = classes.resolve("com/example/Name.class");
+		Files.write(classFile, valueObject("com.example.Name"));
+		sut.enhance(sut.awaitChanges(10, SECONDS));
+
+		Files.write(classFile, valueObject("com.example.Name"));
+		var changed = sut.awaitChanges(10, SECONDS);
+		assertThat(changed).containsExactly(classFile);
+		Batch batch = sut.enhance(changed);
+		assertThat(batch.getFailures()).isEmpty();
+		assertThat(batch.getEnhanced()).isEqualTo(1);
+		assertThatThrownBy(() -> newInstance("com.example.Name", " "))
+				.hasRootCauseMessage("value must not be blank");
+	}
+
+	@Test
+	void rescanFindsTheClassFilesChangedOnly() throws Exception {
+		Path enhanced = classes.resolve("com/example/Name.class");
+		Files.write(enhanced, valueObject("com.example.Name"));
+		sut.enhance(sut.awaitChanges(10, SECONDS));
+
+		Path added = classes.resolve("com/example/Added.class");
+		Files.write(added, valueObject("com.example.Added"));
+		assertThat(sut.rescan()).containsExactly(added);
+	}
+
+	@Test
+	void changedConfigurationIsReloaded() throws Exception {
+		Files.writeString(config, "vaadoo.cachedClock=false");
+		assertThat(sut.awaitChanges(10, SECONDS)).isEmpty();
+
+		Path classFile = classes.resolve("com/example/Name.class");
+		Files.write(classFile, valueObject("com.example.Name"));
+		Batch batch = sut.enhance(sut.awaitChanges(10, SECONDS));
+		assertThat(batch.getFailures()).isEmpty();
+		assertThat(batch.isReloaded()).isTrue();
+		assertThat(batch.getEnhanced()).isEqualTo(1);
+		assertThat(classes.resolve("com/example/VaadooClock.class")).doesNotExist();
+	}
+
+	private Object newInstance(String className, String value) throws Exception {
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[] { classes.toUri().toURL() },
+				getClass().getClassLoader())) {
+			return classLoader.loadClass(className).getConstructor(String.class).newInstance(value);
+		}
+	}
+
+	private static byte[] valueObject(String name) throws NoSuchMethodException {
+		return new ByteBuddy().subclass(Object.class, NO_CONSTRUCTORS).name(name) //
+				.defineConstructor(Visibility.PUBLIC).withParameter(String.class, "value")
+				.annotateParameter(AnnotationDescription.Builder.ofType(NotBlank.class).build())
+				.intercept(MethodCall.invoke(Object.class.getConstructor())) //
+				.make().getBytes();
+	}
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pfichtner.vaadoo;
+
+import static com.github.pfichtner.vaadoo.AsmUtil.classReader;
+import static net.bytebuddy.jar.asm.Opcodes.ASM9;
+import static net.bytebuddy.jar.asm.Opcodes.INVOKESTATIC;
+
+import java.util.Map;
+import java.util.Set;
+
+import net.bytebuddy.jar.asm.ClassVisitor;
+import net.bytebuddy.jar.asm.ClassWriter;
+import net.bytebuddy.jar.asm.MethodVisitor;
+import net.bytebuddy.jar.asm.Type;
+import net.bytebuddy.jar.asm.commons.ClassRemapper;
+import net.bytebuddy.jar.asm.commons.SimpleRemapper;
+
+/**
+ * Redirects the {@code now()} calls of the generated validate methods (made by
+ * the {@code @Past}, {@code @PastOrPresent}, {@code @Future} and
+ * {@code @FutureOrPresent} checks) to a copy of {@link VaadooClock} in the
+ * package of the enhanced class. This caches "today" instead of resolving the
+ * zone and doing the calendar arithmetic on each check and makes the clock
+ * replaceable.
+ */
+public class CachedClockClassVisitor extends ClassVisitor {
+
+	private static final String SIMPLE_NAME = "VaadooClock";
+	private static final String NOW = "now";
+
+	private static final Map<String, String> methods = Map.ofEntries( //
+			Map.entry("java/time/Instant", "instant"), //
+			Map.entry("java/time/LocalDate", "localDate"), //
+			Map.entry("java/time/LocalDateTime", "localDateTime"), //
+			Map.entry("java/time/LocalTime", "localTime"), //
+			Map.entry("java/time/MonthDay", "monthDay"), //
+			Map.entry("java/time/OffsetDateTime", "offsetDateTime"), //
+			Map.entry("java/time/Year", "year"), //
+			Map.entry("java/time/YearMonth", "yearMonth"), //
+			Map.entry("java/time/ZonedDateTime", "zonedDateTime"), //
+			Map.entry("java/time/chrono/HijrahDate", "hijrahDate"), //
+			Map.entry("java/time/chrono/JapaneseDate", "japaneseDate"), //
+			Map.entry("java/time/chrono/MinguoDate", "minguoDate"), //
+			Map.entry("java/time/chrono/ThaiBuddhistDate", "thaiBuddhistDate") //
+	);
+
+	private final Set<String> validateMethodNames;
+	private final String cachedClock;
+
+	public CachedClockClassVisitor(ClassVisitor cv, Set<String> validateMethodNames, String cachedClock) {
+		super(ASM9, cv);
+		this.validateMethodNames = validateMethodNames;
+		this.cachedClock = cachedClock;
+	}
+
+	/**
+	 * Returns the internal name of the cached clock for the package of the passed
+	 * (internal) class name.
+	 */
+	public static String cachedClockName(String internalName) {
+		int idx = internalName.lastIndexOf('/');
+		return idx < 0 ? SIMPLE_NAME : internalName.substring(0, idx + 1) + SIMPLE_NAME;
+	}
+
+	/**
+	 * Creates the bytecode of the cached clock, a copy of {@link VaadooClock}
+	 * named like passed.
+	 */
+	public static byte[] cachedClock(String internalName) {
+		ClassWriter cw = new ClassWriter(0);
+		String template = Type.getInternalName(VaadooClock.class);
+		classReader(VaadooClock.class).accept(new ClassRemapper(cw, new SimpleRemapper(template, internalName)), 0);
+		return cw.toByteArray();
+	}
+
+	@Override
+	public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+		MethodVisitor mv = super.visitMethod(access, name, desc, signature, exceptions);
+		return validateMethodNames.contains(name) ? new CachedClockMethodVisitor(mv) : mv;
+	}
+
+	private class CachedClockMethodVisitor extends MethodVisitor {
+
+		public CachedClockMethodVisitor(MethodVisitor mv) {
+			super(ASM9, mv);
+		}
+
+		@Override
+		public void visitMethodInsn(int opcode, String owner, String name, String desc, boolean itf) {
+			String method = methods.get(owner);
+			if (opcode == INVOKESTATIC && method != null && NOW.equals(name) && ("()L" + owner + ";").equals(desc)) {
+				super.visitMethodInsn(INVOKESTATIC, cachedClock, method, desc, false);
+			} else {
+				super.visitMethodInsn(opcode, owner, name, desc, itf);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pfichtner.vaadoo;
+
+import static com.github.pfichtner.vaadoo.AsmUtil.classReader;
+import static java.util.Arrays.stream;
+import static java.util.stream.Collectors.joining;
+import static net.bytebuddy.jar.asm.Opcodes.ACC_FINAL;
+import static net.bytebuddy.jar.asm.Opcodes.ACC_PUBLIC;
+import static net.bytebuddy.jar.asm.Opcodes.ACC_STATIC;
+import static net.bytebuddy.jar.asm.Opcodes.ASM9;
+import static net.bytebuddy.jar.asm.Opcodes.BIPUSH;
+import static net.bytebuddy.jar.asm.Opcodes.GETSTATIC;
+import static net.bytebuddy.jar.asm.Opcodes.ICONST_1;
+import static net.bytebuddy.jar.asm.Opcodes.ISUB;
+import static net.bytebuddy.jar.asm.Opcodes.IUSHR;
+import static net.bytebuddy.jar.asm.Opcodes.IXOR;
+import static net.bytebuddy.jar.asm.Opcodes.PUTSTATIC;
+import static net.bytebuddy.jar.asm.Opcodes.RETURN;
+
+import com.github.pfichtner.vaadoo.Jsr380Annos.Cost;
+
+import net.bytebuddy.jar.asm.ClassVisitor;
+import net.bytebuddy.jar.asm.ClassWriter;
+import net.bytebuddy.jar.asm.MethodVisitor;
+import net.bytebuddy.jar.asm.Type;
+import net.bytebuddy.jar.asm.commons.ClassRemapper;
+import net.bytebuddy.jar.asm.commons.SimpleRemapper;
+
+/**
+ * Creates the runtime switches of the checks, see {@link VaadooSwitches}.
+ */
+public final class CheckSwitches {
+
+	private static final String SIMPLE_NAME = "VaadooSwitches";
+	private static final String DEFAULT_LEVEL_PLACEHOLDER = "$vaadoo.checkLevel$";
+	private static final String LEVEL_NAMES_PLACEHOLDER = "$vaadoo.checkLevels$";
+	private static final String LEVEL_FIELD = "LEVEL";
+
+	private CheckSwitches() {
+		super();
+	}
+
+	/**
+	 * Returns the internal name of the switches for the package of the passed
+	 * (internal) class name.
+	 */
+	public static String switchesName(String internalName) {
+		int idx = internalName.lastIndexOf('/');
+		return idx < 0 ? SIMPLE_NAME : internalName.substring(0, idx + 1) + SIMPLE_NAME;
+	}
+
+	/**
+	 * Returns the name of the flag guarding the checks of the passed cost or
+	 * <code>null</code> if these checks can't be switched off.
+	 */
+	public static String flag(Cost cost) {
+		return cost == Cost.NULL_CHECK ? null : cost.name();
+	}
+
+	/**
+	 * Creates the bytecode of the switches, a copy of {@link VaadooSwitches} named
+	 * like passed that uses the passed level if there is no system property. The
+	 * levels and the flags are generated from {@link Cost#values()}.
+	 */
+	public static byte[] switches(String internalName, Cost defaultLevel) {
+		ClassWriter cw = new ClassWriter(0);
+		String template = Type.getInternalName(VaadooSwitches.class);
+		String levelNames = stream(Cost.values()).map(Cost::name).collect(joining(","));
+		ClassVisitor flags = new FlagsClassVisitor(cw, internalName);
+		classReader(VaadooSwitches.class).accept(new ClassRemapper(flags, new SimpleRemapper(template, internalName) {
+			@Override
+			public Object mapValue(Object value) {
+				return DEFAULT_LEVEL_PLACEHOLDER.equals(value) //
+						? defaultLevel.name() //
+						: LEVEL_NAMES_PLACEHOLDER.equals(value) ? levelNames : super.mapValue(value);
+			}
+		}), 0);
+		return cw.toByteArray();
+	}
+
+	/**
+	 * Adds the flags of the costs that can be switched off and initializes them at
+	 * the end of the static initializer (after the level has been read).
+	 */
+	private static class FlagsClassVisitor extends ClassVisitor {
+
+		private final String owner;
+
+		private FlagsClassVisitor(ClassVisitor cv, String owner) {
+			super(ASM9, cv);
+			this.owner = owner;
+		}
+
+		@Override
+		public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+				String[] exceptions) {
+			MethodVisitor mv = super.visitMethod(access, name, descriptor, signature, exceptions);
+			return "<clinit>".equals(name) ? new MethodVisitor(ASM9, mv) {
+				@Override
+				public void visitInsn(int opcode) {
+					if (opcode == RETURN) {
+						initializeFlags(mv);
+					}
+					super.visitInsn(opcode);
+				}
+			} : mv;
+		}
+
+		private void initializeFlags(MethodVisitor mv) {
+			for (Cost cost : Cost.values()) {
+				String flag = flag(cost);
+				if (flag != null) {
+					// --- FLAG = LEVEL >= ordinal, without a branch (so no frames are needed):
+					// --- ((LEVEL - ordinal) >>> 31) ^ 1
+					mv.visitFieldInsn(GETSTATIC, owner, LEVEL_FIELD, "I");
+					mv.visitLdcInsn(cost.ordinal());
+					mv.visitInsn(ISUB);
+					mv.visitIntInsn(BIPUSH, 31);
+					mv.visitInsn(IUSHR);
+					mv.visitInsn(ICONST_1);
+					mv.visitInsn(IXOR);
+					mv.visitFieldInsn(PUTSTATIC, owner, flag, "Z");
+				}
+			}
+		}
+
+		@Override
+		public void visitEnd() {
+			for (Cost cost : Cost.values()) {
+				String flag = flag(cost);
+				if (flag != null) {
+					super.visitField(ACC_PUBLIC | ACC_STATIC | ACC_FINAL, flag, "Z", null, null).visitEnd();
+				}
+			}
+			super.visitEnd();
+		}
+
+	}
+
+}
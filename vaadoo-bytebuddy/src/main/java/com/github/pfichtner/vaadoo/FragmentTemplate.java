@@ -0,0 +1,294 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pfichtner.vaadoo;
+
+import static com.github.pfichtner.vaadoo.AsmUtil.classReader;
+import static net.bytebuddy.jar.asm.Opcodes.ASM9;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import net.bytebuddy.jar.asm.ClassVisitor;
+import net.bytebuddy.jar.asm.Handle;
+import net.bytebuddy.jar.asm.Label;
+import net.bytebuddy.jar.asm.MethodVisitor;
+
+/**
+ * The methods of a fragment class, parsed once and kept as recorded visitor
+ * calls. Injecting a fragment method then replays just this method instead of
+ * loading and parsing the whole class again (ASM's tree API is not part of the
+ * ASM shaded into Byte Buddy). Annotations and attributes of the methods are not
+ * recorded.
+ */
+final class FragmentTemplate {
+
+	private static final ClassValue<FragmentTemplate> TEMPLATES = new ClassValue<FragmentTemplate>() {
+		@Override
+		protected FragmentTemplate computeValue(Class<?> type) {
+			return new FragmentTemplate(type);
+		}
+	};
+
+	private int version;
+	private int access;
+	private String name;
+	private String signature;
+	private String superName;
+	private String[] interfaces;
+	private final Map<String, MethodTemplate> methods = new HashMap<>();
+
+	private FragmentTemplate(Class<?> fragmentClass) {
+		classReader(fragmentClass).accept(new ClassVisitor(ASM9) {
+
+			@Override
+			public void visit(int version, int access, String name, String signature, String superName,
+					String[] interfaces) {
+				FragmentTemplate.this.version = version;
+				FragmentTemplate.this.access = access;
+				FragmentTemplate.this.name = name;
+				FragmentTemplate.this.signature = signature;
+				FragmentTemplate.this.superName = superName;
+				FragmentTemplate.this.interfaces = interfaces;
+			}
+
+			@Override
+			public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+					String[] exceptions) {
+				MethodTemplate method = new MethodTemplate(access, name, descriptor, signature, exceptions);
+				methods.put(name + descriptor, method);
+				return method;
+			}
+
+		}, 0);
+	}
+
+	static FragmentTemplate of(Class<?> fragmentClass) {
+		return TEMPLATES.get(fragmentClass);
+	}
+
+	/**
+	 * Replays the class header and the method with the passed name and descriptor
+	 * (if the class declares it) to the passed visitor.
+	 */
+	void accept(ClassVisitor classVisitor, String methodName, String methodDescriptor) {
+		classVisitor.visit(version, access, name, signature, superName, interfaces);
+		MethodTemplate method = methods.get(methodName + methodDescriptor);
+		if (method != null) {
+			method.accept(classVisitor);
+		}
+		classVisitor.visitEnd();
+	}
+
+	private static final class MethodTemplate extends MethodVisitor {
+
+		private final int access;
+		private final String name;
+		private final String descriptor;
+		private final String signature;
+		private final String[] exceptions;
+		private final List<Consumer<Replay>> calls = new ArrayList<>();
+
+		private MethodTemplate(int access, String name, String descriptor, String signature, String[] exceptions) {
+			super(ASM9);
+			this.access = access;
+			this.name = name;
+			this.descriptor = descriptor;
+			this.signature = signature;
+			this.exceptions = exceptions;
+		}
+
+		private void accept(ClassVisitor classVisitor) {
+			MethodVisitor mv = classVisitor.visitMethod(access, name, descriptor, signature,
+					exceptions == null ? null : exceptions.clone());
+			if (mv != null) {
+				Replay replay = new Replay(mv);
+				calls.forEach(c -> c.accept(replay));
+			}
+		}
+
+		@Override
+		public void visitParameter(String name, int access) {
+			calls.add(r -> r.mv.visitParameter(name, access));
+		}
+
+		@Override
+		public void visitCode() {
+			calls.add(r -> r.mv.visitCode());
+		}
+
+		@Override
+		public void visitFrame(int type, int numLocal, Object[] local, int numStack, Object[] stack) {
+			// the ClassReader reuses the arrays for the following frames
+			Object[] locals = copy(local);
+			Object[] stacks = copy(stack);
+			calls.add(r -> r.mv.visitFrame(type, numLocal, r.frameTypes(locals), numStack, r.frameTypes(stacks)));
+		}
+
+		@Override
+		public void visitInsn(int opcode) {
+			calls.add(r -> r.mv.visitInsn(opcode));
+		}
+
+		@Override
+		public void visitIntInsn(int opcode, int operand) {
+			calls.add(r -> r.mv.visitIntInsn(opcode, operand));
+		}
+
+		@Override
+		public void visitVarInsn(int opcode, int varIndex) {
+			calls.add(r -> r.mv.visitVarInsn(opcode, varIndex));
+		}
+
+		@Override
+		public void visitTypeInsn(int opcode, String type) {
+			calls.add(r -> r.mv.visitTypeInsn(opcode, type));
+		}
+
+		@Override
+		public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
+			calls.add(r -> r.mv.visitFieldInsn(opcode, owner, name, descriptor));
+		}
+
+		@Override
+		public void visitMethodInsn(int opcode, String owner, String name, String descriptor,
+				boolean isInterface) {
+			calls.add(r -> r.mv.visitMethodInsn(opcode, owner, name, descriptor, isInterface));
+		}
+
+		@Override
+		public void visitInvokeDynamicInsn(String name, String descriptor, Handle bootstrapMethodHandle,
+				Object... bootstrapMethodArguments) {
+			// the arguments are copied since visitors may modify them
+			Object[] arguments = bootstrapMethodArguments.clone();
+			calls.add(r -> r.mv.visitInvokeDynamicInsn(name, descriptor, bootstrapMethodHandle,
+					arguments.clone()));
+		}
+
+		@Override
+		public void visitJumpInsn(int opcode, Label label) {
+			calls.add(r -> r.mv.visitJumpInsn(opcode, r.label(label)));
+		}
+
+		@Override
+		public void visitLabel(Label label) {
+			calls.add(r -> r.mv.visitLabel(r.label(label)));
+		}
+
+		@Override
+		public void visitLdcInsn(Object value) {
+			calls.add(r -> r.mv.visitLdcInsn(value));
+		}
+
+		@Override
+		public void visitIincInsn(int varIndex, int increment) {
+			calls.add(r -> r.mv.visitIincInsn(varIndex, increment));
+		}
+
+		@Override
+		public void visitTableSwitchInsn(int min, int max, Label dflt, Label... labels) {
+			Label[] targets = labels.clone();
+			calls.add(r -> r.mv.visitTableSwitchInsn(min, max, r.label(dflt), r.labels(targets)));
+		}
+
+		@Override
+		public void visitLookupSwitchInsn(Label dflt, int[] keys, Label[] labels) {
+			int[] values = keys.clone();
+			Label[] targets = labels.clone();
+			calls.add(r -> r.mv.visitLookupSwitchInsn(r.label(dflt), values.clone(), r.labels(targets)));
+		}
+
+		@Override
+		public void visitMultiANewArrayInsn(String descriptor, int numDimensions) {
+			calls.add(r -> r.mv.visitMultiANewArrayInsn(descriptor, numDimensions));
+		}
+
+		@Override
+		public void visitTryCatchBlock(Label start, Label end, Label handler, String type) {
+			calls.add(r -> r.mv.visitTryCatchBlock(r.label(start), r.label(end), r.label(handler), type));
+		}
+
+		@Override
+		public void visitLocalVariable(String name, String descriptor, String signature, Label start, Label end,
+				int index) {
+			calls.add(r -> r.mv.visitLocalVariable(name, descriptor, signature, r.label(start), r.label(end), index));
+		}
+
+		@Override
+		public void visitLineNumber(int line, Label start) {
+			calls.add(r -> r.mv.visitLineNumber(line, r.label(start)));
+		}
+
+		@Override
+		public void visitMaxs(int maxStack, int maxLocals) {
+			calls.add(r -> r.mv.visitMaxs(maxStack, maxLocals));
+		}
+
+		@Override
+		public void visitEnd() {
+			calls.add(r -> r.mv.visitEnd());
+		}
+
+		private static Object[] copy(Object[] array) {
+			return array == null ? null : array.clone();
+		}
+
+	}
+
+	/**
+	 * A single replay: labels can only be used in one method so each replay maps
+	 * the recorded labels to new ones.
+	 */
+	private static final class Replay {
+
+		private final MethodVisitor mv;
+		private final Map<Label, Label> labels = new IdentityHashMap<>();
+
+		private Replay(MethodVisitor mv) {
+			this.mv = mv;
+		}
+
+		private Label label(Label label) {
+			return labels.computeIfAbsent(label, l -> new Label());
+		}
+
+		private Label[] labels(Label[] labels) {
+			Label[] mapped = new Label[labels.length];
+			for (int i = 0; i < labels.length; i++) {
+				mapped[i] = label(labels[i]);
+			}
+			return mapped;
+		}
+
+		private Object[] frameTypes(Object[] types) {
+			if (types == null) {
+				return null;
+			}
+			Object[] mapped = types.clone();
+			for (int i = 0; i < mapped.length; i++) {
+				if (mapped[i] instanceof Label) {
+					mapped[i] = label((Label) mapped[i]);
+				}
+			}
+			return mapped;
+		}
+
+	}
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pfichtner.vaadoo;
+
+import static net.bytebuddy.jar.asm.ClassWriter.COMPUTE_FRAMES;
+import static net.bytebuddy.jar.asm.Opcodes.ASM9;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+
+import net.bytebuddy.jar.asm.ClassReader;
+import net.bytebuddy.jar.asm.ClassVisitor;
+import net.bytebuddy.jar.asm.ClassWriter;
+import net.bytebuddy.jar.asm.MethodVisitor;
+import net.bytebuddy.pool.TypePool;
+import net.bytebuddy.utility.AsmClassWriter.FrameComputingClassWriter;
+
+/**
+ * Computes the stack map frames and maxs of the generated methods only, instead
+ * of the whole class: the selected methods are written to one scratch class with
+ * {@link ClassWriter#COMPUTE_FRAMES} per enhanced class and copied back from
+ * there in one go when the class is complete, into the method visitors
+ * requested in their original order (a {@link ClassWriter} keeps its methods in
+ * the order they were visited, not filled). All other methods pass through
+ * untouched, so the methods of the enhanced class keep their frames and can be
+ * copied as they are. Since the fragments get inlined (parameters remapped,
+ * returns turned into jumps) and the regex visitors rewrite the code afterwards,
+ * the frames are not emitted while generating the code.
+ * <p>
+ * Common super classes are resolved without the {@link TypePool} for the shapes
+ * known up front (same types, {@link Object}, the enhanced class and its super
+ * class) and memoized for the class otherwise.
+ * <p>
+ * Has to be the innermost visitor (the first one registered) to see the final
+ * code of the methods. The nanos spent computing the frames are passed to an
+ * optional listener.
+ */
+public class FrameComputingClassVisitor extends ClassVisitor {
+
+	private static final String OBJECT = "java/lang/Object";
+
+	private final TypePool typePool;
+	private final Predicate<String> methodNames;
+	private final LongConsumer frameNanos;
+	private final List<MethodVisitor> deferred = new ArrayList<>();
+	private int version;
+	private int access;
+	private String name;
+	private String superName;
+	private String[] interfaces;
+	private ClassWriter scratch;
+
+	public FrameComputingClassVisitor(ClassVisitor cv, TypePool typePool, Predicate<String> methodNames) {
+		this(cv, typePool, methodNames, __ -> {
+		});
+	}
+
+	public FrameComputingClassVisitor(ClassVisitor cv, TypePool typePool, Predicate<String> methodNames,
+			LongConsumer frameNanos) {
+		super(ASM9, cv);
+		this.typePool = typePool;
+		this.methodNames = methodNames;
+		this.frameNanos = frameNanos;
+	}
+
+	@Override
+	public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+		this.version = version;
+		this.access = access;
+		this.name = name;
+		this.superName = superName;
+		this.interfaces = interfaces;
+		super.visit(version, access, name, signature, superName, interfaces);
+	}
+
+	@Override
+	public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+		if (!methodNames.test(name)) {
+			return super.visitMethod(access, name, desc, signature, exceptions);
+		}
+		deferred.add(super.visitMethod(access, name, desc, signature, exceptions));
+		return new MethodVisitor(ASM9, scratch().visitMethod(access, name, desc, signature, exceptions)) {
+			@Override
+			public void visitMaxs(int maxStack, int maxLocals) {
+				long start = System.nanoTime();
+				super.visitMaxs(maxStack, maxLocals);
+				frameNanos.accept(System.nanoTime() - start);
+			}
+		};
+	}
+
+	@Override
+	public void visitEnd() {
+		if (scratch != null) {
+			long start = System.nanoTime();
+			scratch.visitEnd();
+			byte[] computed = scratch.toByteArray();
+			frameNanos.accept(System.nanoTime() - start);
+			Iterator<MethodVisitor> targets = deferred.iterator();
+			new ClassReader(computed).accept(new ClassVisitor(ASM9) {
+				@Override
+				public MethodVisitor visitMethod(int access, String name, String desc, String signature,
+						String[] exceptions) {
+					return targets.next();
+				}
+			}, 0);
+		}
+		super.visitEnd();
+	}
+
+	private ClassWriter scratch() {
+		if (scratch == null) {
+			scratch = new FrameComputingClassWriter(COMPUTE_FRAMES, typePool) {
+
+				private final Map<String, String> commonSuperClasses = new HashMap<>();
+
+				@Override
+				protected String getCommonSuperClass(String type1, String type2) {
+					if (type1.equals(type2)) {
+						return type1;
+					} else if (OBJECT.equals(type1) || OBJECT.equals(type2)) {
+						return OBJECT;
+					} else if (name.equals(type1) && type2.equals(superName)
+							|| name.equals(type2) && type1.equals(superName)) {
+						return superName;
+					}
+					return commonSuperClasses.computeIfAbsent(type1 + ';' + type2,
+							__ -> super.getCommonSuperClass(type1, type2));
+				}
+
+			};
+			scratch.visit(version, access, name, null, superName, interfaces);
+		}
+		return scratch;
+	}
+
+}
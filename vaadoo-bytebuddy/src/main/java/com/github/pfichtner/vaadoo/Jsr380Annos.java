@@ -172,6 +172,65 @@ public class Jsr380Annos {
 			new DefaultConfigEntry(PastOrPresent.class) //
 	);
 
+	/**
+	 * Static cost model of the checks, cheapest first. Used to order the checks of
+	 * a parameter if {@code vaadoo.checkOrder=cost} so that cheap checks reject a
+	 * value before expensive ones are run.
+	 */
+	public static enum Cost {
+		/** {@code @Null}, {@code @NotNull} */
+		NULL_CHECK, //
+		/** length, size and numeric compares */
+		CONSTANT, //
+		/** a scan over the characters ({@code @NotBlank}) */
+		SCAN, //
+		/** decimal parsing ({@code @Digits}, {@code @DecimalMin}, {@code @DecimalMax}) */
+		DECIMAL, //
+		/** reading the clock ({@code @Past}, {@code @Future}, ...) */
+		CLOCK, //
+		/** {@code @Pattern} */
+		REGEX, //
+		/** {@code @Email} */
+		EMAIL, //
+		/** checks of container elements (one check per element) */
+		ELEMENTS, //
+		/** custom validators (cost unknown) */
+		CUSTOM //
+	}
+
+	private static final Map<TypeDescription, Cost> costs = Map.ofEntries( //
+			costOf(Null.class, Cost.NULL_CHECK), //
+			costOf(NotNull.class, Cost.NULL_CHECK), //
+			costOf(NotBlank.class, Cost.SCAN), //
+			costOf(NotEmpty.class, Cost.CONSTANT), //
+			costOf(Size.class, Cost.CONSTANT), //
+			costOf(Pattern.class, Cost.REGEX), //
+			costOf(Email.class, Cost.EMAIL), //
+			costOf(AssertTrue.class, Cost.CONSTANT), //
+			costOf(AssertFalse.class, Cost.CONSTANT), //
+			costOf(Min.class, Cost.CONSTANT), //
+			costOf(Max.class, Cost.CONSTANT), //
+			costOf(Digits.class, Cost.DECIMAL), //
+			costOf(Positive.class, Cost.CONSTANT), //
+			costOf(PositiveOrZero.class, Cost.CONSTANT), //
+			costOf(Negative.class, Cost.CONSTANT), //
+			costOf(NegativeOrZero.class, Cost.CONSTANT), //
+			costOf(DecimalMin.class, Cost.DECIMAL), //
+			costOf(DecimalMax.class, Cost.DECIMAL), //
+			costOf(Future.class, Cost.CLOCK), //
+			costOf(FutureOrPresent.class, Cost.CLOCK), //
+			costOf(Past.class, Cost.CLOCK), //
+			costOf(PastOrPresent.class, Cost.CLOCK) //
+	);
+
+	private static Map.Entry<TypeDescription, Cost> costOf(Class<? extends Annotation> anno, Cost cost) {
+		return Map.entry(DefaultConfigEntry.type(anno), cost);
+	}
+
+	public static Cost cost(TypeDescription anno) {
+		return costs.getOrDefault(anno, Cost.CUSTOM);
+	}
+
 	private static Optional<TypeDescription> superType(TypeDescription classToCheck, List<TypeDescription> superTypes) {
 		return superTypes.stream().filter(t -> t.isAssignableFrom(classToCheck)).findFirst();
 	}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pfichtner.vaadoo;
+
+import static net.bytebuddy.jar.asm.Opcodes.ASM9;
+
+import net.bytebuddy.jar.asm.Handle;
+import net.bytebuddy.jar.asm.Label;
+import net.bytebuddy.jar.asm.MethodVisitor;
+
+/**
+ * Base for method visitors that hold back instructions until they know whether
+ * the following instructions form a sequence to be replaced. Every visit
+ * (except {@link #visitMethodInsn(int, String, String, String, boolean)} which
+ * subclasses decide about themselves) first calls {@link #flush()} so
+ * instructions held back get written before any unrelated instruction. Held
+ * back instructions have to be written to {@link #mv} directly.
+ */
+abstract class LookaheadMethodVisitor extends MethodVisitor {
+
+	protected LookaheadMethodVisitor(MethodVisitor mv) {
+		super(ASM9, mv);
+	}
+
+	/**
+	 * Writes the instructions held back (if any).
+	 */
+	protected abstract void flush();
+
+	@Override
+	public void visitInsn(int opcode) {
+		flush();
+		super.visitInsn(opcode);
+	}
+
+	@Override
+	public void visitIntInsn(int opcode, int operand) {
+		flush();
+		super.visitIntInsn(opcode, operand);
+	}
+
+	@Override
+	public void visitVarInsn(int opcode, int varIndex) {
+		flush();
+		super.visitVarInsn(opcode, varIndex);
+	}
+
+	@Override
+	public void visitTypeInsn(int opcode, String type) {
+		flush();
+		super.visitTypeInsn(opcode, type);
+	}
+
+	@Override
+	public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
+		flush();
+		super.visitFieldInsn(opcode, owner, name, descriptor);
+	}
+
+	@Override
+	public void visitInvokeDynamicInsn(String name, String descriptor, Handle bootstrapMethodHandle,
+			Object... bootstrapMethodArguments) {
+		flush();
+		super.visitInvokeDynamicInsn(name, descriptor, bootstrapMethodHandle, bootstrapMethodArguments);
+	}
+
+	@Override
+	public void visitJumpInsn(int opcode, Label label) {
+		flush();
+		super.visitJumpInsn(opcode, label);
+	}
+
+	@Override
+	public void visitLabel(Label label) {
+		flush();
+		super.visitLabel(label);
+	}
+
+	@Override
+	public void visitLdcInsn(Object value) {
+		flush();
+		super.visitLdcInsn(value);
+	}
+
+	@Override
+	public void visitIincInsn(int varIndex, int increment) {
+		flush();
+		super.visitIincInsn(varIndex, increment);
+	}
+
+	@Override
+	public void visitTableSwitchInsn(int min, int max, Label dflt, Label... labels) {
+		flush();
+		super.visitTableSwitchInsn(min, max, dflt, labels);
+	}
+
+	@Override
+	public void visitLookupSwitchInsn(Label dflt, int[] keys, Label[] labels) {
+		flush();
+		super.visitLookupSwitchInsn(dflt, keys, labels);
+	}
+
+	@Override
+	public void visitMultiANewArrayInsn(String descriptor, int numDimensions) {
+		flush();
+		super.visitMultiANewArrayInsn(descriptor, numDimensions);
+	}
+
+	@Override
+	public void visitFrame(int type, int numLocal, Object[] local, int numStack, Object[] stack) {
+		flush();
+		super.visitFrame(type, numLocal, local, numStack, stack);
+	}
+
+	@Override
+	public void visitMaxs(int maxStack, int maxLocals) {
+		flush();
+		super.visitMaxs(maxStack, maxLocals);
+	}
+
+}
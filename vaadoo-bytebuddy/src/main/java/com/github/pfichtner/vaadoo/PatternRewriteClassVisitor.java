@@ -18,45 +18,150 @@ package com.github.pfichtner.vaadoo;
 import static net.bytebuddy.jar.asm.Opcodes.ACC_FINAL;
 import static net.bytebuddy.jar.asm.Opcodes.ACC_PRIVATE;
 import static net.bytebuddy.jar.asm.Opcodes.ACC_STATIC;
+import static net.bytebuddy.jar.asm.Opcodes.ACC_SUPER;
 import static net.bytebuddy.jar.asm.Opcodes.ACC_SYNTHETIC;
+import static net.bytebuddy.jar.asm.Opcodes.ACONST_NULL;
 import static net.bytebuddy.jar.asm.Opcodes.ALOAD;
 import static net.bytebuddy.jar.asm.Opcodes.ARETURN;
 import static net.bytebuddy.jar.asm.Opcodes.ASM9;
 import static net.bytebuddy.jar.asm.Opcodes.ASTORE;
+import static net.bytebuddy.jar.asm.Opcodes.BIPUSH;
 import static net.bytebuddy.jar.asm.Opcodes.CHECKCAST;
 import static net.bytebuddy.jar.asm.Opcodes.DUP;
+import static net.bytebuddy.jar.asm.Opcodes.F_APPEND;
+import static net.bytebuddy.jar.asm.Opcodes.F_SAME;
 import static net.bytebuddy.jar.asm.Opcodes.GETSTATIC;
+import static net.bytebuddy.jar.asm.Opcodes.GOTO;
 import static net.bytebuddy.jar.asm.Opcodes.H_INVOKESTATIC;
+import static net.bytebuddy.jar.asm.Opcodes.IAND;
+import static net.bytebuddy.jar.asm.Opcodes.ICONST_1;
+import static net.bytebuddy.jar.asm.Opcodes.IFNONNULL;
+import static net.bytebuddy.jar.asm.Opcodes.IF_ACMPEQ;
 import static net.bytebuddy.jar.asm.Opcodes.ILOAD;
+import static net.bytebuddy.jar.asm.Opcodes.INTEGER;
 import static net.bytebuddy.jar.asm.Opcodes.INVOKEINTERFACE;
 import static net.bytebuddy.jar.asm.Opcodes.INVOKESPECIAL;
 import static net.bytebuddy.jar.asm.Opcodes.INVOKESTATIC;
 import static net.bytebuddy.jar.asm.Opcodes.INVOKEVIRTUAL;
+import static net.bytebuddy.jar.asm.Opcodes.IRETURN;
+import static net.bytebuddy.jar.asm.Opcodes.ISHL;
+import static net.bytebuddy.jar.asm.Opcodes.ISTORE;
+import static net.bytebuddy.jar.asm.Opcodes.ISUB;
+import static net.bytebuddy.jar.asm.Opcodes.IUSHR;
+import static net.bytebuddy.jar.asm.Opcodes.IXOR;
 import static net.bytebuddy.jar.asm.Opcodes.NEW;
+import static net.bytebuddy.jar.asm.Opcodes.POP;
 import static net.bytebuddy.jar.asm.Opcodes.PUTSTATIC;
 import static net.bytebuddy.jar.asm.Opcodes.RETURN;
+import static net.bytebuddy.jar.asm.Opcodes.V1_8;
 
 import java.util.Set;
 
 import net.bytebuddy.jar.asm.ClassVisitor;
+import net.bytebuddy.jar.asm.ClassWriter;
 import net.bytebuddy.jar.asm.Handle;
+import net.bytebuddy.jar.asm.Label;
 import net.bytebuddy.jar.asm.MethodVisitor;
 import net.bytebuddy.jar.asm.Type;
 
+/**
+ * Rewrites {@code Pattern.compile(String, int)} calls inside the generated
+ * validate methods to {@code getCachedPattern(String, int)}. By default the
+ * cache and its helper are added to the visited class itself. If a
+ * {@link #sharedRegistryName(String) shared registry} is used instead the calls
+ * are redirected to that class (see {@link #sharedRegistry(String)}) so each
+ * distinct regex is compiled only once per package and classloader.
+ * <p>
+ * If pooled matchers are enabled {@code pattern.matcher(cs).matches()} is
+ * replaced by {@code matches(Pattern, CharSequence)} which reuses
+ * {@link java.util.regex.Matcher}s of a small pool. The pool is striped by the
+ * current thread's hash (not a {@link ThreadLocal}, so it does not grow with the
+ * number of (virtual) threads) and has as many stripes as there are CPUs
+ * (rounded down to a power of two, times two). If a stripe's matcher is in use by
+ * another thread a new matcher is allocated instead of waiting.
+ */
 public class PatternRewriteClassVisitor extends ClassVisitor {
 
+	private static final String SHARED_REGISTRY_SIMPLE_NAME = "VaadooPatternRegistry";
+	private static final String POOLED_SHARED_REGISTRY_SIMPLE_NAME = "VaadooPooledPatternRegistry";
+	private static final String CACHE_FIELD = "regexpCache";
+	private static final String HELPER_METHOD = "getCachedPattern";
+	private static final String HELPER_DESCRIPTOR = "(Ljava/lang/String;I)Ljava/util/regex/Pattern;";
+	private static final String POOL_FIELD = "matcherPool";
+	private static final String POOL_TYPE = "java/util/concurrent/atomic/AtomicReferenceArray";
+	private static final String MATCHES_METHOD = "matches";
+	private static final String MATCHES_DESCRIPTOR = "(Ljava/util/regex/Pattern;Ljava/lang/CharSequence;)Z";
+	private static final String PATTERN = "java/util/regex/Pattern";
+	private static final String MATCHER = "java/util/regex/Matcher";
+
 	// we could lose a previously cached item but it's not really much faster than a
 	// CHM
 //	private static final String HASH_MAP_IMPLEMENTATION = "java/util/HashMap";
 	private static final String HASH_MAP_IMPLEMENTATION = "java/util/concurrent/ConcurrentHashMap";
 
 	private final Set<String> validateMethodNames;
+	private final String sharedRegistry;
+	private final boolean pooledMatchers;
 	private String owner;
 	private boolean replaced;
 
 	public PatternRewriteClassVisitor(ClassVisitor cv, Set<String> validateMethodNames) {
+		this(cv, validateMethodNames, null);
+	}
+
+	public PatternRewriteClassVisitor(ClassVisitor cv, Set<String> validateMethodNames, String sharedRegistry) {
+		this(cv, validateMethodNames, sharedRegistry, false);
+	}
+
+	public PatternRewriteClassVisitor(ClassVisitor cv, Set<String> validateMethodNames, String sharedRegistry,
+			boolean pooledMatchers) {
 		super(ASM9, cv);
 		this.validateMethodNames = validateMethodNames;
+		this.sharedRegistry = sharedRegistry;
+		this.pooledMatchers = pooledMatchers;
+	}
+
+	/**
+	 * Returns the internal name of the shared pattern registry for the package of
+	 * the passed (internal) class name.
+	 */
+	public static String sharedRegistryName(String internalName) {
+		return sharedRegistryName(internalName, false);
+	}
+
+	/**
+	 * Returns the internal name of the shared pattern registry for the package of
+	 * the passed (internal) class name. The registry with the pooled
+	 * {@code matches} helper has a name of its own, so both variants can exist in
+	 * the same package.
+	 */
+	public static String sharedRegistryName(String internalName, boolean pooledMatchers) {
+		String simpleName = pooledMatchers ? POOLED_SHARED_REGISTRY_SIMPLE_NAME : SHARED_REGISTRY_SIMPLE_NAME;
+		int idx = internalName.lastIndexOf('/');
+		return idx < 0 ? simpleName : internalName.substring(0, idx + 1) + simpleName;
+	}
+
+	/**
+	 * Creates the bytecode of a package-private class owning the regex cache that
+	 * is shared by all classes of a package. The class only depends on the JDK.
+	 */
+	public static byte[] sharedRegistry(String internalName) {
+		return sharedRegistry(internalName, false);
+	}
+
+	/**
+	 * Creates the bytecode of the shared registry, with the pooled {@code matches}
+	 * helper if {@code pooledMatchers} is set. The bytecode only depends on the
+	 * name and the flag, and the flag is part of the name (see
+	 * {@link #sharedRegistryName(String, boolean)}), so it does not matter which
+	 * of the enhanced classes of a package writes it.
+	 */
+	public static byte[] sharedRegistry(String internalName, boolean pooledMatchers) {
+		ClassWriter cw = new ClassWriter(0);
+		cw.visit(V1_8, ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, internalName, null, "java/lang/Object", null);
+		addMembers(cw, internalName, ACC_STATIC | ACC_SYNTHETIC, pooledMatchers);
+		cw.visitEnd();
+		return cw.toByteArray();
 	}
 
 	@Override
@@ -71,15 +176,34 @@ public class PatternRewriteClassVisitor extends ClassVisitor {
 		return validateMethodNames.contains(name) ? new PatternRewriteMethodVisitor(mv) : mv;
 	}
 
-	private class PatternRewriteMethodVisitor extends MethodVisitor {
+	private class PatternRewriteMethodVisitor extends LookaheadMethodVisitor {
+
+		// a Pattern#matcher call that has not been written yet, since it might be
+		// followed by Matcher#matches (which then both get replaced)
+		private boolean pendingMatcherCall;
 
 		public PatternRewriteMethodVisitor(MethodVisitor mv) {
-			super(ASM9, mv);
+			super(mv);
 		}
 
 		@Override
 		public void visitMethodInsn(int opcode, String ownerInternal, String name, String desc, boolean itf) {
-			boolean isPatternCompile = opcode == INVOKESTATIC && "java/util/regex/Pattern".equals(ownerInternal)
+			if (pooledMatchers && opcode == INVOKEVIRTUAL && PATTERN.equals(ownerInternal) && "matcher".equals(name)
+					&& "(Ljava/lang/CharSequence;)Ljava/util/regex/Matcher;".equals(desc)) {
+				flush();
+				pendingMatcherCall = true;
+				return;
+			}
+			if (pendingMatcherCall && opcode == INVOKEVIRTUAL && MATCHER.equals(ownerInternal)
+					&& "matches".equals(name) && "()Z".equals(desc)) {
+				pendingMatcherCall = false;
+				super.visitMethodInsn(INVOKESTATIC, sharedRegistry == null ? owner : sharedRegistry, MATCHES_METHOD,
+						MATCHES_DESCRIPTOR, false);
+				return;
+			}
+			flush();
+
+			boolean isPatternCompile = opcode == INVOKESTATIC && PATTERN.equals(ownerInternal)
 					&& "compile".equals(name) && "(Ljava/lang/String;I)Ljava/util/regex/Pattern;".equals(desc);
 
 			if (!isPatternCompile) {
@@ -90,40 +214,155 @@ public class PatternRewriteClassVisitor extends ClassVisitor {
 			replaced = true;
 
 			// Replace with call to synthetic helper: getCachedPattern(String, int)
-			super.visitMethodInsn(INVOKESTATIC, owner, "getCachedPattern",
-					"(Ljava/lang/String;I)Ljava/util/regex/Pattern;", false);
+			super.visitMethodInsn(INVOKESTATIC, sharedRegistry == null ? owner : sharedRegistry, HELPER_METHOD,
+					HELPER_DESCRIPTOR, false);
+		}
+
+		@Override
+		protected void flush() {
+			if (pendingMatcherCall) {
+				pendingMatcherCall = false;
+				mv.visitMethodInsn(INVOKEVIRTUAL, PATTERN, "matcher", "(Ljava/lang/CharSequence;)Ljava/util/regex/Matcher;",
+						false);
+			}
 		}
 	}
 
 	@Override
 	public void visitEnd() {
-		if (replaced) {
-			addField();
-			addStaticInitializer();
-			addSyntheticLambdaBody();
-			addSyntheticHelperMethod();
+		if (replaced && sharedRegistry == null) {
+			addMembers(cv, owner, ACC_PRIVATE | ACC_STATIC | ACC_SYNTHETIC, pooledMatchers);
 		}
 		super.visitEnd();
 	}
 
-	private void addField() {
-		cv.visitField(ACC_PRIVATE | ACC_STATIC | ACC_FINAL | ACC_SYNTHETIC, "regexpCache", "Ljava/util/Map;", null,
+	private static void addMembers(ClassVisitor cv, String owner, int helperAccess, boolean pooledMatchers) {
+		addField(cv);
+		if (pooledMatchers) {
+			cv.visitField(ACC_PRIVATE | ACC_STATIC | ACC_FINAL | ACC_SYNTHETIC, POOL_FIELD, "L" + POOL_TYPE + ";",
+					null, null).visitEnd();
+		}
+		addStaticInitializer(cv, owner, pooledMatchers);
+		addSyntheticLambdaBody(cv);
+		addSyntheticHelperMethod(cv, owner, helperAccess);
+		if (pooledMatchers) {
+			addPooledMatchesMethod(cv, owner, helperAccess);
+		}
+	}
+
+	private static void addField(ClassVisitor cv) {
+		cv.visitField(ACC_PRIVATE | ACC_STATIC | ACC_FINAL | ACC_SYNTHETIC, CACHE_FIELD, "Ljava/util/Map;", null,
 				null).visitEnd();
 	}
 
-	private void addStaticInitializer() {
+	private static void addStaticInitializer(ClassVisitor cv, String owner, boolean pooledMatchers) {
 		MethodVisitor clinit = cv.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
 		clinit.visitCode();
 		clinit.visitTypeInsn(NEW, HASH_MAP_IMPLEMENTATION);
 		clinit.visitInsn(DUP);
 		clinit.visitMethodInsn(INVOKESPECIAL, HASH_MAP_IMPLEMENTATION, "<init>", "()V", false);
-		clinit.visitFieldInsn(PUTSTATIC, owner, "regexpCache", "Ljava/util/Map;");
+		clinit.visitFieldInsn(PUTSTATIC, owner, CACHE_FIELD, "Ljava/util/Map;");
+		if (pooledMatchers) {
+			// matcherPool = new AtomicReferenceArray(highestOneBit(availableProcessors() << 1))
+			clinit.visitTypeInsn(NEW, POOL_TYPE);
+			clinit.visitInsn(DUP);
+			clinit.visitMethodInsn(INVOKESTATIC, "java/lang/Runtime", "getRuntime", "()Ljava/lang/Runtime;", false);
+			clinit.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Runtime", "availableProcessors", "()I", false);
+			clinit.visitInsn(ICONST_1);
+			clinit.visitInsn(ISHL);
+			clinit.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "highestOneBit", "(I)I", false);
+			clinit.visitMethodInsn(INVOKESPECIAL, POOL_TYPE, "<init>", "(I)V", false);
+			clinit.visitFieldInsn(PUTSTATIC, owner, POOL_FIELD, "L" + POOL_TYPE + ";");
+		}
 		clinit.visitInsn(RETURN);
-		clinit.visitMaxs(2, 0);
+		clinit.visitMaxs(pooledMatchers ? 4 : 2, 0);
 		clinit.visitEnd();
 	}
 
-	private void addSyntheticLambdaBody() {
+	private static void addPooledMatchesMethod(ClassVisitor cv, String owner, int access) {
+		// locals: 0 pattern, 1 charSequence, 2 stripe, 3 matcher, 4 result
+		MethodVisitor mv = cv.visitMethod(access, MATCHES_METHOD, MATCHES_DESCRIPTOR, null, null);
+		mv.visitCode();
+
+		// --- int h = Thread.currentThread().hashCode(); stripe = (h ^ h >>> 16) & (pool.length() - 1)
+		mv.visitMethodInsn(INVOKESTATIC, "java/lang/Thread", "currentThread", "()Ljava/lang/Thread;", false);
+		mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Object", "hashCode", "()I", false);
+		mv.visitInsn(DUP);
+		mv.visitIntInsn(BIPUSH, 16);
+		mv.visitInsn(IUSHR);
+		mv.visitInsn(IXOR);
+		mv.visitFieldInsn(GETSTATIC, owner, POOL_FIELD, "L" + POOL_TYPE + ";");
+		mv.visitMethodInsn(INVOKEVIRTUAL, POOL_TYPE, "length", "()I", false);
+		mv.visitInsn(ICONST_1);
+		mv.visitInsn(ISUB);
+		mv.visitInsn(IAND);
+		mv.visitVarInsn(ISTORE, 2);
+
+		// --- Matcher matcher = (Matcher) pool.getAndSet(stripe, null) (claim)
+		mv.visitFieldInsn(GETSTATIC, owner, POOL_FIELD, "L" + POOL_TYPE + ";");
+		mv.visitVarInsn(ILOAD, 2);
+		mv.visitInsn(ACONST_NULL);
+		mv.visitMethodInsn(INVOKEVIRTUAL, POOL_TYPE, "getAndSet", "(ILjava/lang/Object;)Ljava/lang/Object;", false);
+		mv.visitTypeInsn(CHECKCAST, MATCHER);
+		mv.visitVarInsn(ASTORE, 3);
+
+		// --- empty or in use by another thread: allocate
+		Label reuse = new Label();
+		Label samePattern = new Label();
+		Label match = new Label();
+		mv.visitVarInsn(ALOAD, 3);
+		mv.visitJumpInsn(IFNONNULL, reuse);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitMethodInsn(INVOKEVIRTUAL, PATTERN, "matcher", "(Ljava/lang/CharSequence;)Ljava/util/regex/Matcher;",
+				false);
+		mv.visitVarInsn(ASTORE, 3);
+		mv.visitJumpInsn(GOTO, match);
+
+		// --- otherwise reset it (usePattern allocates, so only if the pattern differs)
+		mv.visitLabel(reuse);
+		mv.visitFrame(F_APPEND, 2, new Object[] { INTEGER, MATCHER }, 0, null);
+		mv.visitVarInsn(ALOAD, 3);
+		mv.visitMethodInsn(INVOKEVIRTUAL, MATCHER, "pattern", "()Ljava/util/regex/Pattern;", false);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitJumpInsn(IF_ACMPEQ, samePattern);
+		mv.visitVarInsn(ALOAD, 3);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKEVIRTUAL, MATCHER, "usePattern", "(Ljava/util/regex/Pattern;)Ljava/util/regex/Matcher;",
+				false);
+		mv.visitInsn(POP);
+		mv.visitLabel(samePattern);
+		mv.visitFrame(F_SAME, 0, null, 0, null);
+		mv.visitVarInsn(ALOAD, 3);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitMethodInsn(INVOKEVIRTUAL, MATCHER, "reset", "(Ljava/lang/CharSequence;)Ljava/util/regex/Matcher;",
+				false);
+		mv.visitInsn(POP);
+
+		// --- boolean result = matcher.matches(); matcher.reset(""); pool.lazySet(stripe, matcher) (release)
+		// the pooled matcher must not keep the (possibly large) input reachable
+		mv.visitLabel(match);
+		mv.visitFrame(F_SAME, 0, null, 0, null);
+		mv.visitVarInsn(ALOAD, 3);
+		mv.visitMethodInsn(INVOKEVIRTUAL, MATCHER, "matches", "()Z", false);
+		mv.visitVarInsn(ISTORE, 4);
+		mv.visitVarInsn(ALOAD, 3);
+		mv.visitLdcInsn("");
+		mv.visitMethodInsn(INVOKEVIRTUAL, MATCHER, "reset", "(Ljava/lang/CharSequence;)Ljava/util/regex/Matcher;",
+				false);
+		mv.visitInsn(POP);
+		mv.visitFieldInsn(GETSTATIC, owner, POOL_FIELD, "L" + POOL_TYPE + ";");
+		mv.visitVarInsn(ILOAD, 2);
+		mv.visitVarInsn(ALOAD, 3);
+		mv.visitMethodInsn(INVOKEVIRTUAL, POOL_TYPE, "lazySet", "(ILjava/lang/Object;)V", false);
+		mv.visitVarInsn(ILOAD, 4);
+		mv.visitInsn(IRETURN);
+
+		mv.visitMaxs(3, 5);
+		mv.visitEnd();
+	}
+
+	private static void addSyntheticLambdaBody(ClassVisitor cv) {
 		// --- Add synthetic lambda body ---
 		MethodVisitor lm = cv.visitMethod(ACC_PRIVATE | ACC_STATIC | ACC_SYNTHETIC, "lambda$0",
 				"(Ljava/lang/String;ILjava/lang/Object;)Ljava/util/regex/Pattern;", null, null);
@@ -137,9 +376,8 @@ public class PatternRewriteClassVisitor extends ClassVisitor {
 		lm.visitEnd();
 	}
 
-	private void addSyntheticHelperMethod() {
-		MethodVisitor mv = cv.visitMethod(ACC_PRIVATE | ACC_STATIC | ACC_SYNTHETIC, "getCachedPattern",
-				"(Ljava/lang/String;I)Ljava/util/regex/Pattern;", null, null);
+	private static void addSyntheticHelperMethod(ClassVisitor cv, String owner, int access) {
+		MethodVisitor mv = cv.visitMethod(access, HELPER_METHOD, HELPER_DESCRIPTOR, null, null);
 		mv.visitCode();
 
 		// --- Build key = regex + "\u0000" + flags ---
@@ -158,7 +396,7 @@ public class PatternRewriteClassVisitor extends ClassVisitor {
 		mv.visitVarInsn(ASTORE, 2); // key
 
 		// --- regexpCache.computeIfAbsent(key, k -> Pattern.compile(regex, flags)) ---
-		mv.visitFieldInsn(GETSTATIC, owner, "regexpCache", "Ljava/util/Map;");
+		mv.visitFieldInsn(GETSTATIC, owner, CACHE_FIELD, "Ljava/util/Map;");
 		mv.visitVarInsn(ALOAD, 2); // key
 
 		// captured variables for lambda
@@ -0,0 +1,362 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pfichtner.vaadoo;
+
+import static java.lang.String.format;
+import static java.util.regex.Pattern.LITERAL;
+import static java.util.stream.Collectors.toList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import lombok.Value;
+
+/**
+ * Build time checks of the regular expressions of {@code @Pattern}
+ * annotations.
+ * <p>
+ * {@link #backtrackingRisks(String, int)} is a heuristic (it neither finds
+ * every slow regex nor is every finding exploitable) looking for the constructs
+ * that make a backtracking regex engine take exponential or polynomial time on
+ * non matching input:
+ * <ul>
+ * <li>a repeated group that itself contains a variable quantifier, e.g.
+ * {@code (a+)+} or {@code (.*a){12}}, unless the group starts with a literal
+ * that none of its quantified atoms can match (like in
+ * {@code (\.[a-z]+)*})</li>
+ * <li>a repeated group whose alternatives can match the same input, e.g.
+ * {@code (a|aa)+}</li>
+ * <li>adjacent variable quantifiers on the same atom, e.g.
+ * {@code \d+\d*}</li>
+ * </ul>
+ * Possessive quantifiers and atomic groups do not backtrack and are therefore
+ * not reported.
+ */
+public final class RegexAnalyzer {
+
+	private static final int UNBOUNDED = Integer.MAX_VALUE;
+	private static final Pattern BOUNDS = Pattern.compile("\\{(\\d+)(,(\\d*))?\\}");
+
+	private final String regex;
+	private final List<String> findings = new ArrayList<>();
+	private int pos;
+
+	private RegexAnalyzer(String regex) {
+		this.regex = regex;
+	}
+
+	public static Optional<String> syntaxError(String regex, int flags) {
+		try {
+			Pattern.compile(regex, flags);
+			return Optional.empty();
+		} catch (PatternSyntaxException e) {
+			return Optional.of(format("%s near index %d", e.getDescription(), e.getIndex()));
+		}
+	}
+
+	public static List<String> backtrackingRisks(String regex, int flags) {
+		if ((flags & LITERAL) != 0) {
+			return List.of();
+		}
+		RegexAnalyzer analyzer = new RegexAnalyzer(regex);
+		while (analyzer.pos < regex.length()) {
+			analyzer.alternation();
+			// unbalanced ')' (syntax errors are reported by syntaxError)
+			analyzer.pos++;
+		}
+		return analyzer.findings;
+	}
+
+	@Value
+	private static class Group {
+		boolean variable;
+		List<String> alternatives;
+		Character delimiter;
+		List<String> variableAtoms;
+	}
+
+	@Value
+	private static class Sequence {
+		boolean variable;
+		Character firstLiteral;
+		List<String> variableAtoms;
+	}
+
+	@Value
+	private static class Atom {
+		static final Atom SIMPLE = new Atom(false, null);
+		boolean variable;
+		Group group;
+	}
+
+	@Value
+	private static class Quantifier {
+		String source;
+		int min;
+		int max;
+		boolean possessive;
+
+		boolean isRepeated() {
+			return max > 1 && !possessive;
+		}
+
+		boolean isVariable() {
+			return max > min && !possessive;
+		}
+	}
+
+	private Group alternation() {
+		List<String> alternatives = new ArrayList<>();
+		List<Sequence> sequences = new ArrayList<>();
+		while (true) {
+			int start = pos;
+			sequences.add(sequence());
+			alternatives.add(regex.substring(start, pos));
+			if (!peek('|')) {
+				return new Group(sequences.stream().anyMatch(Sequence::isVariable), alternatives,
+						sequences.size() == 1 ? sequences.get(0).getFirstLiteral() : null,
+						sequences.stream().map(Sequence::getVariableAtoms).flatMap(List::stream).collect(toList()));
+			}
+			pos++;
+		}
+	}
+
+	private Sequence sequence() {
+		boolean variable = false;
+		Character firstLiteral = null;
+		List<String> variableAtoms = new ArrayList<>();
+		String previousUnbounded = null;
+		for (boolean first = true; pos < regex.length() && !peek('|') && !peek(')'); first = false) {
+			int start = pos;
+			Atom atom = atom();
+			String source = regex.substring(start, pos);
+			Quantifier quantifier = quantifier();
+			if (atom.getGroup() != null) {
+				variableAtoms.addAll(atom.getGroup().getVariableAtoms());
+			}
+			if (quantifier == null) {
+				if (first) {
+					firstLiteral = literal(source);
+				}
+				variable |= atom.isVariable();
+				previousUnbounded = null;
+				continue;
+			}
+			if (atom.getGroup() == null && quantifier.isVariable()) {
+				variableAtoms.add(source);
+			}
+
+			if (quantifier.isRepeated() && atom.getGroup() != null) {
+				if (atom.isVariable() && !isDelimited(atom.getGroup())) {
+					findings.add(format("nested quantifier in %s%s", source, quantifier.getSource()));
+				} else if (overlapping(atom.getGroup().getAlternatives())) {
+					findings.add(format("overlapping alternatives in %s%s", source, quantifier.getSource()));
+				}
+			}
+
+			boolean unbounded = quantifier.isVariable() && quantifier.getMax() == UNBOUNDED;
+			if (unbounded && source.equals(previousUnbounded)) {
+				findings.add(format("adjacent quantifiers on %s", source));
+			}
+			previousUnbounded = unbounded ? source : null;
+			variable |= atom.isVariable() || quantifier.isVariable();
+		}
+		return new Sequence(variable, firstLiteral, variableAtoms);
+	}
+
+	private static Character literal(String atom) {
+		if (atom.length() == 1 && "\\[](){}.*+?|^$".indexOf(atom.charAt(0)) < 0) {
+			return atom.charAt(0);
+		}
+		if (atom.length() == 2 && atom.charAt(0) == '\\' && !Character.isLetterOrDigit(atom.charAt(1))) {
+			return atom.charAt(1);
+		}
+		return null;
+	}
+
+	/**
+	 * A group like <code>(\.[a-z]+)</code> can only be matched in one way by a
+	 * repetition since each iteration has to start with the delimiter which can't
+	 * be consumed by any of the quantified atoms.
+	 */
+	private static boolean isDelimited(Group group) {
+		Character delimiter = group.getDelimiter();
+		return delimiter != null && group.getVariableAtoms().stream().noneMatch(a -> canMatch(a, delimiter));
+	}
+
+	private static boolean canMatch(String atom, char c) {
+		try {
+			return Pattern.compile(atom).matcher(String.valueOf(c)).matches();
+		} catch (PatternSyntaxException e) {
+			return true;
+		}
+	}
+
+	private static boolean overlapping(List<String> alternatives) {
+		for (int i = 0; i < alternatives.size(); i++) {
+			for (int j = i + 1; j < alternatives.size(); j++) {
+				String a = alternatives.get(i);
+				String b = alternatives.get(j);
+				if (a.startsWith(b) || b.startsWith(a) || ".".equals(a) || ".".equals(b)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private Atom atom() {
+		char c = regex.charAt(pos++);
+		if (c == '(') {
+			return group();
+		} else if (c == '[') {
+			skipCharacterClass();
+		} else if (c == '\\') {
+			skipEscape();
+		}
+		return Atom.SIMPLE;
+	}
+
+	private Atom group() {
+		boolean atomic = false;
+		if (peek('?')) {
+			pos++;
+			if (peek('>')) {
+				atomic = true;
+				pos++;
+			} else if (peek(':') || peek('=') || peek('!')) {
+				pos++;
+			} else if (peek('<')) {
+				pos++;
+				if (peek('=') || peek('!')) {
+					pos++;
+				} else {
+					skipTo('>');
+				}
+			} else {
+				// inline flags: (?i) or (?i:X)
+				while (pos < regex.length() && !peek(')') && !peek(':')) {
+					pos++;
+				}
+				if (peek(')')) {
+					pos++;
+					return Atom.SIMPLE;
+				}
+				pos++;
+			}
+		}
+		Group group = alternation();
+		if (peek(')')) {
+			pos++;
+		}
+		// atomic groups never backtrack into their content
+		return atomic ? Atom.SIMPLE : new Atom(group.isVariable(), group);
+	}
+
+	private void skipCharacterClass() {
+		if (peek('^')) {
+			pos++;
+		}
+		if (peek(']')) {
+			pos++;
+		}
+		while (pos < regex.length()) {
+			char c = regex.charAt(pos++);
+			if (c == '\\') {
+				skipEscape();
+			} else if (c == '[') {
+				skipCharacterClass();
+			} else if (c == ']') {
+				return;
+			}
+		}
+	}
+
+	private void skipEscape() {
+		if (pos >= regex.length()) {
+			return;
+		}
+		char c = regex.charAt(pos++);
+		if (c == 'Q') {
+			int end = regex.indexOf("\\E", pos);
+			pos = end < 0 ? regex.length() : end + 2;
+		} else if ((c == 'p' || c == 'P' || c == 'x' || c == 'N') && peek('{')) {
+			skipTo('}');
+		} else if (c == 'k' && peek('<')) {
+			skipTo('>');
+		} else if (c == 'c') {
+			pos = Math.min(pos + 1, regex.length());
+		} else if (c == 'u') {
+			pos = Math.min(pos + 4, regex.length());
+		} else if (c == 'x') {
+			pos = Math.min(pos + 2, regex.length());
+		}
+	}
+
+	private Quantifier quantifier() {
+		if (pos >= regex.length()) {
+			return null;
+		}
+		int start = pos;
+		int min;
+		int max;
+		char c = regex.charAt(pos);
+		if (c == '*' || c == '+' || c == '?') {
+			pos++;
+			min = c == '+' ? 1 : 0;
+			max = c == '?' ? 1 : UNBOUNDED;
+		} else if (c == '{') {
+			int end = regex.indexOf('}', pos);
+			Matcher bounds = end < 0 ? null : BOUNDS.matcher(regex.substring(pos, end + 1));
+			if (bounds == null || !bounds.matches()) {
+				return null;
+			}
+			pos = end + 1;
+			min = parseInt(bounds.group(1));
+			max = bounds.group(2) == null ? min
+					: bounds.group(3).isEmpty() ? UNBOUNDED : parseInt(bounds.group(3));
+		} else {
+			return null;
+		}
+		boolean possessive = peek('+');
+		if (possessive || peek('?')) {
+			pos++;
+		}
+		return new Quantifier(regex.substring(start, pos), min, max, possessive);
+	}
+
+	private static int parseInt(String value) {
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			return UNBOUNDED;
+		}
+	}
+
+	private void skipTo(char c) {
+		int end = regex.indexOf(c, pos);
+		pos = end < 0 ? regex.length() : end + 1;
+	}
+
+	private boolean peek(char c) {
+		return pos < regex.length() && regex.charAt(pos) == c;
+	}
+
+}
@@ -0,0 +1,638 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pfichtner.vaadoo;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+import static net.bytebuddy.jar.asm.Opcodes.ACC_PRIVATE;
+import static net.bytebuddy.jar.asm.Opcodes.ACC_STATIC;
+import static net.bytebuddy.jar.asm.Opcodes.ACC_SYNTHETIC;
+import static net.bytebuddy.jar.asm.Opcodes.ALOAD;
+import static net.bytebuddy.jar.asm.Opcodes.ASM9;
+import static net.bytebuddy.jar.asm.Opcodes.ASTORE;
+import static net.bytebuddy.jar.asm.Opcodes.GOTO;
+import static net.bytebuddy.jar.asm.Opcodes.ICONST_0;
+import static net.bytebuddy.jar.asm.Opcodes.ICONST_1;
+import static net.bytebuddy.jar.asm.Opcodes.IFEQ;
+import static net.bytebuddy.jar.asm.Opcodes.IFNE;
+import static net.bytebuddy.jar.asm.Opcodes.IF_ICMPEQ;
+import static net.bytebuddy.jar.asm.Opcodes.IF_ICMPGE;
+import static net.bytebuddy.jar.asm.Opcodes.IF_ICMPGT;
+import static net.bytebuddy.jar.asm.Opcodes.IF_ICMPLE;
+import static net.bytebuddy.jar.asm.Opcodes.IF_ICMPLT;
+import static net.bytebuddy.jar.asm.Opcodes.ILOAD;
+import static net.bytebuddy.jar.asm.Opcodes.INVOKEINTERFACE;
+import static net.bytebuddy.jar.asm.Opcodes.INVOKESTATIC;
+import static net.bytebuddy.jar.asm.Opcodes.INVOKEVIRTUAL;
+import static net.bytebuddy.jar.asm.Opcodes.IRETURN;
+import static net.bytebuddy.jar.asm.Opcodes.ISTORE;
+import static net.bytebuddy.jar.asm.Opcodes.ISUB;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import lombok.Value;
+import net.bytebuddy.jar.asm.ClassVisitor;
+import net.bytebuddy.jar.asm.Label;
+import net.bytebuddy.jar.asm.MethodVisitor;
+
+/**
+ * Replaces {@code Pattern.compile(regex, 0).matcher(cs).matches()} inside the
+ * generated validate methods by a call to a generated
+ * {@code boolean regex$n(CharSequence)} method if the regex has one of these
+ * shapes (optionally anchored by {@code ^} and {@code $}):
+ * <ul>
+ * <li>literal alternations like {@code (A|B|C)}: a switch on the hash code
+ * followed by {@link String#equals(Object)}</li>
+ * <li>an (optional) literal prefix, one repeated character class and an
+ * (optional) literal suffix like {@code [0-9]+}, {@code [A-Z]{3}},
+ * {@code \S+} or {@code ISBN-\d{10}}: a length check, {@code startsWith},
+ * {@code endsWith} and a single loop over the characters</li>
+ * </ul>
+ * All other regexps (and all regexps with flags) are left untouched.
+ */
+public class RegexSpecializingClassVisitor extends ClassVisitor {
+
+	public static final String METHOD_PREFIX = "regex$";
+
+	private static final int UNBOUNDED = Integer.MAX_VALUE;
+	private static final String CHAR_SEQUENCE = "java/lang/CharSequence";
+	private static final String METHOD_DESCRIPTOR = "(Ljava/lang/CharSequence;)Z";
+	private static final String META_CHARS = "\\[](){}.*+?|^$";
+	private static final Pattern BOUNDS = Pattern.compile("\\{(\\d{1,6})(,(\\d{0,6}))?\\}");
+
+	private final Set<String> validateMethodNames;
+	private final Map<String, String> methodNames = new LinkedHashMap<>();
+	private final Map<String, Shape> shapes = new LinkedHashMap<>();
+	private String owner;
+
+	public RegexSpecializingClassVisitor(ClassVisitor cv, Set<String> validateMethodNames) {
+		super(ASM9, cv);
+		this.validateMethodNames = validateMethodNames;
+	}
+
+	@Override
+	public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+		this.owner = name;
+		super.visit(version, access, name, signature, superName, interfaces);
+	}
+
+	@Override
+	public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+		MethodVisitor mv = super.visitMethod(access, name, desc, signature, exceptions);
+		return validateMethodNames.contains(name) ? new SpecializingMethodVisitor(mv) : mv;
+	}
+
+	@Override
+	public void visitEnd() {
+		// frames and maxs get computed, see FrameComputingClassVisitor
+		methodNames.forEach((regex, methodName) -> {
+			MethodVisitor mv = cv.visitMethod(ACC_PRIVATE | ACC_STATIC | ACC_SYNTHETIC, methodName, METHOD_DESCRIPTOR,
+					null, null);
+			mv.visitCode();
+			shapes.get(regex).emit(mv);
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+		});
+		super.visitEnd();
+	}
+
+	/**
+	 * Holds back {@code LDC regex, 0, Pattern#compile, ALOAD n, Pattern#matcher}
+	 * until it is known whether it is followed by {@code Matcher#matches} and
+	 * replaces the whole sequence by {@code ALOAD n, regex$n(CharSequence)}.
+	 */
+	private class SpecializingMethodVisitor extends LookaheadMethodVisitor {
+
+		private static final int LDC_REGEX = 1;
+		private static final int FLAGS = 2;
+		private static final int COMPILE = 3;
+		private static final int LOAD = 4;
+		private static final int MATCHER = 5;
+
+		private int state;
+		private String regex;
+		private int flagsOpcode;
+		private int varIndex;
+
+		public SpecializingMethodVisitor(MethodVisitor mv) {
+			super(mv);
+		}
+
+		@Override
+		public void visitLdcInsn(Object value) {
+			if (state == LDC_REGEX && Integer.valueOf(0).equals(value)) {
+				state = FLAGS;
+				flagsOpcode = -1;
+				return;
+			}
+			flush();
+			if (value instanceof String) {
+				regex = (String) value;
+				state = LDC_REGEX;
+				return;
+			}
+			super.visitLdcInsn(value);
+		}
+
+		@Override
+		public void visitInsn(int opcode) {
+			if (state == LDC_REGEX && opcode == ICONST_0) {
+				state = FLAGS;
+				flagsOpcode = opcode;
+				return;
+			}
+			super.visitInsn(opcode);
+		}
+
+		@Override
+		public void visitVarInsn(int opcode, int varIndex) {
+			if (state == COMPILE && opcode == ALOAD) {
+				state = LOAD;
+				this.varIndex = varIndex;
+				return;
+			}
+			super.visitVarInsn(opcode, varIndex);
+		}
+
+		@Override
+		public void visitMethodInsn(int opcode, String owner, String name, String desc, boolean itf) {
+			if (state == FLAGS && opcode == INVOKESTATIC && "java/util/regex/Pattern".equals(owner)
+					&& "compile".equals(name) && "(Ljava/lang/String;I)Ljava/util/regex/Pattern;".equals(desc)
+					&& shape(regex).isPresent()) {
+				state = COMPILE;
+				return;
+			}
+			if (state == LOAD && opcode == INVOKEVIRTUAL && "java/util/regex/Pattern".equals(owner)
+					&& "matcher".equals(name) && "(Ljava/lang/CharSequence;)Ljava/util/regex/Matcher;".equals(desc)) {
+				state = MATCHER;
+				return;
+			}
+			if (state == MATCHER && opcode == INVOKEVIRTUAL && "java/util/regex/Matcher".equals(owner)
+					&& "matches".equals(name) && "()Z".equals(desc)) {
+				state = 0;
+				mv.visitVarInsn(ALOAD, varIndex);
+				mv.visitMethodInsn(INVOKESTATIC, RegexSpecializingClassVisitor.this.owner, methodName(regex),
+						METHOD_DESCRIPTOR, false);
+				return;
+			}
+			flush();
+			super.visitMethodInsn(opcode, owner, name, desc, itf);
+		}
+
+		@Override
+		protected void flush() {
+			int held = state;
+			state = 0;
+			if (held >= LDC_REGEX) {
+				mv.visitLdcInsn(regex);
+			}
+			if (held >= FLAGS) {
+				if (flagsOpcode < 0) {
+					mv.visitLdcInsn(0);
+				} else {
+					mv.visitInsn(flagsOpcode);
+				}
+			}
+			if (held >= COMPILE) {
+				mv.visitMethodInsn(INVOKESTATIC, "java/util/regex/Pattern", "compile",
+						"(Ljava/lang/String;I)Ljava/util/regex/Pattern;", false);
+			}
+			if (held >= LOAD) {
+				mv.visitVarInsn(ALOAD, varIndex);
+			}
+			if (held >= MATCHER) {
+				mv.visitMethodInsn(INVOKEVIRTUAL, "java/util/regex/Pattern", "matcher",
+						"(Ljava/lang/CharSequence;)Ljava/util/regex/Matcher;", false);
+			}
+		}
+
+	}
+
+	private Optional<Shape> shape(String regex) {
+		if (!shapes.containsKey(regex)) {
+			shapes.put(regex, shapeOf(regex).orElse(null));
+		}
+		return Optional.ofNullable(shapes.get(regex));
+	}
+
+	private String methodName(String regex) {
+		return methodNames.computeIfAbsent(regex, r -> METHOD_PREFIX + methodNames.size());
+	}
+
+	// -------------------------------------------------------------------------
+	// shapes
+	// -------------------------------------------------------------------------
+
+	private interface Shape {
+		void emit(MethodVisitor mv);
+	}
+
+	/**
+	 * Returns the specialized shape of the passed regex (if it has one).
+	 */
+	private static Optional<Shape> shapeOf(String regex) {
+		String body = regex;
+		if (body.startsWith("^")) {
+			body = body.substring(1);
+		}
+		if (body.endsWith("$") && !isEscaped(body, body.length() - 1)) {
+			body = body.substring(0, body.length() - 1);
+		}
+		Optional<Shape> literals = literalAlternation(body);
+		return literals.isPresent() ? literals : Run.parse(body);
+	}
+
+	private static boolean isEscaped(String s, int index) {
+		int backslashes = 0;
+		for (int i = index - 1; i >= 0 && s.charAt(i) == '\\'; i--) {
+			backslashes++;
+		}
+		return backslashes % 2 == 1;
+	}
+
+	private static Optional<Shape> literalAlternation(String body) {
+		for (String prefix : List.of("(?:", "(")) {
+			if (body.startsWith(prefix) && body.endsWith(")") && !isEscaped(body, body.length() - 1)) {
+				Optional<Shape> literals = Literals.parse(body.substring(prefix.length(), body.length() - 1));
+				if (literals.isPresent()) {
+					return literals;
+				}
+			}
+		}
+		return Literals.parse(body);
+	}
+
+	/**
+	 * Returns the literal character at the passed index as
+	 * <code>(char, nextIndex)</code> or <code>null</code> if there is no literal.
+	 */
+	private static int[] literal(String s, int index) {
+		if (index >= s.length()) {
+			return null;
+		}
+		char c = s.charAt(index);
+		if (c != '\\') {
+			return META_CHARS.indexOf(c) < 0 && !Character.isSurrogate(c) ? new int[] { c, index + 1 } : null;
+		}
+		if (index + 1 >= s.length()) {
+			return null;
+		}
+		char escaped = s.charAt(index + 1);
+		int mapped = "tnrf".indexOf(escaped);
+		if (mapped >= 0) {
+			return new int[] { "\t\n\r\f".charAt(mapped), index + 2 };
+		}
+		return Character.isLetterOrDigit(escaped) || Character.isSurrogate(escaped) ? null
+				: new int[] { escaped, index + 2 };
+	}
+
+	@Value
+	private static class Literals implements Shape {
+
+		List<String> values;
+
+		static Optional<Shape> parse(String body) {
+			List<String> values = new ArrayList<>();
+			StringBuilder current = new StringBuilder();
+			for (int i = 0; i < body.length();) {
+				if (body.charAt(i) == '|') {
+					values.add(current.toString());
+					current.setLength(0);
+					i++;
+					continue;
+				}
+				int[] literal = literal(body, i);
+				if (literal == null) {
+					return Optional.empty();
+				}
+				current.append((char) literal[0]);
+				i = literal[1];
+			}
+			values.add(current.toString());
+			return Optional.of(new Literals(values));
+		}
+
+		@Override
+		public void emit(MethodVisitor mv) {
+			Label valid = new Label();
+			Label invalid = new Label();
+
+			// --- String s = cs.toString(); switch (s.hashCode()) ...
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitMethodInsn(INVOKEINTERFACE, CHAR_SEQUENCE, "toString", "()Ljava/lang/String;", true);
+			mv.visitVarInsn(ASTORE, 1);
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
+
+			Map<Integer, List<String>> byHash = values.stream().distinct()
+					.collect(groupingBy(String::hashCode, TreeMap::new, toList()));
+			int[] keys = byHash.keySet().stream().mapToInt(Integer::intValue).toArray();
+			Label[] labels = byHash.keySet().stream().map(k -> new Label()).toArray(Label[]::new);
+			mv.visitLookupSwitchInsn(invalid, keys, labels);
+
+			// --- case hash: if (s.equals("A")) return true; ...
+			int i = 0;
+			for (List<String> candidates : byHash.values()) {
+				mv.visitLabel(labels[i++]);
+				for (String candidate : candidates) {
+					mv.visitVarInsn(ALOAD, 1);
+					mv.visitLdcInsn(candidate);
+					mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "equals", "(Ljava/lang/Object;)Z", false);
+					mv.visitJumpInsn(IFNE, valid);
+				}
+				mv.visitJumpInsn(GOTO, invalid);
+			}
+
+			mv.visitLabel(valid);
+			mv.visitInsn(ICONST_1);
+			mv.visitInsn(IRETURN);
+			mv.visitLabel(invalid);
+			mv.visitInsn(ICONST_0);
+			mv.visitInsn(IRETURN);
+		}
+
+	}
+
+	@Value
+	private static class Run implements Shape {
+
+		private static final char[] LINE_TERMINATORS = { '\n', '\r', '\u0085', '\u2028', '\u2029' };
+
+		String prefix;
+		/** pairs of (inclusive) lower and upper bounds */
+		List<char[]> ranges;
+		boolean negated;
+		int min;
+		int max;
+		String suffix;
+
+		static Optional<Shape> parse(String body) {
+			StringBuilder prefix = new StringBuilder();
+			int i = 0;
+			for (int[] literal; (literal = literal(body, i)) != null; i = literal[1]) {
+				prefix.append((char) literal[0]);
+			}
+
+			List<char[]> ranges = new ArrayList<>();
+			boolean negated;
+			if (i >= body.length()) {
+				return Optional.empty();
+			} else if (body.charAt(i) == '.') {
+				for (char c : LINE_TERMINATORS) {
+					ranges.add(new char[] { c, c });
+				}
+				negated = true;
+				i++;
+			} else if (body.charAt(i) == '\\' && i + 1 < body.length()
+					&& "dDwWsS".indexOf(body.charAt(i + 1)) >= 0) {
+				char escape = body.charAt(i + 1);
+				addPredefined(ranges, Character.toLowerCase(escape));
+				negated = Character.isUpperCase(escape);
+				i += 2;
+			} else if (body.charAt(i) == '[') {
+				int end = parseClass(body, i + 1, ranges);
+				if (end < 0) {
+					return Optional.empty();
+				}
+				negated = body.charAt(i + 1) == '^';
+				i = end;
+			} else {
+				return Optional.empty();
+			}
+
+			int[] quantifier = quantifier(body, i);
+			if (quantifier == null) {
+				return Optional.empty();
+			}
+			i = quantifier[2];
+
+			StringBuilder suffix = new StringBuilder();
+			for (int[] literal; (literal = literal(body, i)) != null; i = literal[1]) {
+				suffix.append((char) literal[0]);
+			}
+			if (i != body.length()) {
+				return Optional.empty();
+			}
+
+			// regex quantifiers count code points, negated classes could match surrogate
+			// pairs, so their count must not matter
+			if (negated && (quantifier[0] > 1 || quantifier[1] != UNBOUNDED)) {
+				return Optional.empty();
+			}
+			if (ranges.stream().anyMatch(r -> r[0] <= Character.MAX_SURROGATE && r[1] >= Character.MIN_SURROGATE)) {
+				return Optional.empty();
+			}
+			return Optional.of(
+					new Run(prefix.toString(), ranges, negated, quantifier[0], quantifier[1], suffix.toString()));
+		}
+
+		private static void addPredefined(List<char[]> ranges, char escape) {
+			if (escape == 'd') {
+				ranges.add(new char[] { '0', '9' });
+			} else if (escape == 'w') {
+				ranges.add(new char[] { 'a', 'z' });
+				ranges.add(new char[] { 'A', 'Z' });
+				ranges.add(new char[] { '0', '9' });
+				ranges.add(new char[] { '_', '_' });
+			} else {
+				ranges.add(new char[] { '\t', '\r' });
+				ranges.add(new char[] { ' ', ' ' });
+			}
+		}
+
+		/**
+		 * @return the index after the closing bracket or <code>-1</code> if the class
+		 *         is not supported
+		 */
+		private static int parseClass(String body, int i, List<char[]> ranges) {
+			if (i < body.length() && body.charAt(i) == '^') {
+				i++;
+			}
+			int start = i;
+			while (i < body.length() && body.charAt(i) != ']') {
+				char c = body.charAt(i);
+				if (c == '[' || body.startsWith("&&", i) || Character.isSurrogate(c)) {
+					return -1;
+				}
+				char lower;
+				if (c == '\\') {
+					if (i + 1 >= body.length()) {
+						return -1;
+					}
+					char escaped = body.charAt(i + 1);
+					if ("dws".indexOf(escaped) >= 0) {
+						addPredefined(ranges, escaped);
+						i += 2;
+						continue;
+					}
+					int[] literal = literal(body, i);
+					if (literal == null) {
+						return -1;
+					}
+					lower = (char) literal[0];
+					i = literal[1];
+				} else {
+					lower = c;
+					i++;
+				}
+
+				char upper = lower;
+				if (i + 1 < body.length() && body.charAt(i) == '-' && body.charAt(i + 1) != ']') {
+					int[] literal = body.charAt(i + 1) == '\\' ? literal(body, i + 1)
+							: body.charAt(i + 1) == '[' ? null : new int[] { body.charAt(i + 1), i + 2 };
+					if (literal == null || literal[0] < lower) {
+						return -1;
+					}
+					upper = (char) literal[0];
+					i = literal[1];
+				}
+				ranges.add(new char[] { lower, upper });
+			}
+			return i < body.length() && i > start ? i + 1 : -1;
+		}
+
+		/**
+		 * @return <code>(min, max, nextIndex)</code> or <code>null</code>
+		 */
+		private static int[] quantifier(String body, int i) {
+			int[] quantifier;
+			if (i >= body.length()) {
+				quantifier = new int[] { 1, 1, i };
+			} else if (body.charAt(i) == '*') {
+				quantifier = new int[] { 0, UNBOUNDED, i + 1 };
+			} else if (body.charAt(i) == '+') {
+				quantifier = new int[] { 1, UNBOUNDED, i + 1 };
+			} else if (body.charAt(i) == '?') {
+				quantifier = new int[] { 0, 1, i + 1 };
+			} else if (body.charAt(i) == '{') {
+				Matcher matcher = BOUNDS.matcher(body).region(i, body.length());
+				if (!matcher.lookingAt()) {
+					return null;
+				}
+				int min = Integer.parseInt(matcher.group(1));
+				int max = matcher.group(2) == null ? min
+						: matcher.group(3).isEmpty() ? UNBOUNDED : Integer.parseInt(matcher.group(3));
+				if (max < min) {
+					return null;
+				}
+				quantifier = new int[] { min, max, matcher.end() };
+			} else {
+				quantifier = new int[] { 1, 1, i };
+			}
+			// lazy and possessive quantifiers could change the result if followed by a
+			// suffix
+			int next = quantifier[2];
+			return next < body.length() && next > i && (body.charAt(next) == '?' || body.charAt(next) == '+') ? null
+					: quantifier;
+		}
+
+		@Override
+		public void emit(MethodVisitor mv) {
+			Label valid = new Label();
+			Label invalid = new Label();
+			int fixed = prefix.length() + suffix.length();
+
+			// --- int len = cs.length(); if (len < fixed + min || len > fixed + max) ...
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitMethodInsn(INVOKEINTERFACE, CHAR_SEQUENCE, "length", "()I", true);
+			mv.visitVarInsn(ISTORE, 1);
+			mv.visitVarInsn(ILOAD, 1);
+			mv.visitLdcInsn(fixed + min);
+			mv.visitJumpInsn(IF_ICMPLT, invalid);
+			if (max != UNBOUNDED) {
+				mv.visitVarInsn(ILOAD, 1);
+				mv.visitLdcInsn(fixed + max);
+				mv.visitJumpInsn(IF_ICMPGT, invalid);
+			}
+
+			// --- String s = cs.toString(); if (!s.startsWith(prefix) || !s.endsWith(suffix)) ...
+			if (fixed > 0) {
+				mv.visitVarInsn(ALOAD, 0);
+				mv.visitMethodInsn(INVOKEINTERFACE, CHAR_SEQUENCE, "toString", "()Ljava/lang/String;", true);
+				mv.visitVarInsn(ASTORE, 2);
+				emitAffix(mv, prefix, "startsWith", invalid);
+				emitAffix(mv, suffix, "endsWith", invalid);
+			}
+
+			// --- for (int i = prefix.length(); i < len - suffix.length(); i++) ...
+			Label loop = new Label();
+			Label next = new Label();
+			mv.visitLdcInsn(prefix.length());
+			mv.visitVarInsn(ISTORE, 3);
+			mv.visitLabel(loop);
+			mv.visitVarInsn(ILOAD, 3);
+			mv.visitVarInsn(ILOAD, 1);
+			mv.visitLdcInsn(suffix.length());
+			mv.visitInsn(ISUB);
+			mv.visitJumpInsn(IF_ICMPGE, valid);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitVarInsn(ILOAD, 3);
+			mv.visitMethodInsn(INVOKEINTERFACE, CHAR_SEQUENCE, "charAt", "(I)C", true);
+			mv.visitVarInsn(ISTORE, 4);
+
+			// --- char in ranges -> inClass
+			Label inClass = new Label();
+			for (char[] range : ranges) {
+				mv.visitVarInsn(ILOAD, 4);
+				mv.visitLdcInsn((int) range[0]);
+				if (range[0] == range[1]) {
+					mv.visitJumpInsn(IF_ICMPEQ, inClass);
+				} else {
+					Label notInRange = new Label();
+					mv.visitJumpInsn(IF_ICMPLT, notInRange);
+					mv.visitVarInsn(ILOAD, 4);
+					mv.visitLdcInsn((int) range[1]);
+					mv.visitJumpInsn(IF_ICMPLE, inClass);
+					mv.visitLabel(notInRange);
+				}
+			}
+			mv.visitJumpInsn(GOTO, negated ? next : invalid);
+			mv.visitLabel(inClass);
+			if (negated) {
+				mv.visitJumpInsn(GOTO, invalid);
+			}
+			mv.visitLabel(next);
+			mv.visitIincInsn(3, 1);
+			mv.visitJumpInsn(GOTO, loop);
+
+			mv.visitLabel(valid);
+			mv.visitInsn(ICONST_1);
+			mv.visitInsn(IRETURN);
+			mv.visitLabel(invalid);
+			mv.visitInsn(ICONST_0);
+			mv.visitInsn(IRETURN);
+		}
+
+		private static void emitAffix(MethodVisitor mv, String affix, String method, Label invalid) {
+			if (!affix.isEmpty()) {
+				mv.visitVarInsn(ALOAD, 2);
+				mv.visitLdcInsn(affix);
+				mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", method, "(Ljava/lang/String;)Z", false);
+				mv.visitJumpInsn(IFEQ, invalid);
+			}
+		}
+
+	}
+
+}
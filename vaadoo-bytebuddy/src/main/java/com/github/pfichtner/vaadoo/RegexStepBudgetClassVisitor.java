@@ -0,0 +1,252 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pfichtner.vaadoo;
+
+import static net.bytebuddy.jar.asm.Opcodes.ACC_FINAL;
+import static net.bytebuddy.jar.asm.Opcodes.ACC_PRIVATE;
+import static net.bytebuddy.jar.asm.Opcodes.ACC_PUBLIC;
+import static net.bytebuddy.jar.asm.Opcodes.ACC_STATIC;
+import static net.bytebuddy.jar.asm.Opcodes.ACC_SUPER;
+import static net.bytebuddy.jar.asm.Opcodes.ACC_SYNTHETIC;
+import static net.bytebuddy.jar.asm.Opcodes.ALOAD;
+import static net.bytebuddy.jar.asm.Opcodes.ARETURN;
+import static net.bytebuddy.jar.asm.Opcodes.ASM9;
+import static net.bytebuddy.jar.asm.Opcodes.ATHROW;
+import static net.bytebuddy.jar.asm.Opcodes.DUP;
+import static net.bytebuddy.jar.asm.Opcodes.DUP_X1;
+import static net.bytebuddy.jar.asm.Opcodes.F_SAME;
+import static net.bytebuddy.jar.asm.Opcodes.GETFIELD;
+import static net.bytebuddy.jar.asm.Opcodes.ICONST_1;
+import static net.bytebuddy.jar.asm.Opcodes.IFGE;
+import static net.bytebuddy.jar.asm.Opcodes.ILOAD;
+import static net.bytebuddy.jar.asm.Opcodes.INVOKEINTERFACE;
+import static net.bytebuddy.jar.asm.Opcodes.INVOKESPECIAL;
+import static net.bytebuddy.jar.asm.Opcodes.INVOKESTATIC;
+import static net.bytebuddy.jar.asm.Opcodes.INVOKEVIRTUAL;
+import static net.bytebuddy.jar.asm.Opcodes.IRETURN;
+import static net.bytebuddy.jar.asm.Opcodes.ISUB;
+import static net.bytebuddy.jar.asm.Opcodes.NEW;
+import static net.bytebuddy.jar.asm.Opcodes.PUTFIELD;
+import static net.bytebuddy.jar.asm.Opcodes.RETURN;
+import static net.bytebuddy.jar.asm.Opcodes.V1_8;
+
+import java.util.Map;
+import java.util.function.Function;
+
+import net.bytebuddy.jar.asm.ClassVisitor;
+import net.bytebuddy.jar.asm.ClassWriter;
+import net.bytebuddy.jar.asm.Label;
+import net.bytebuddy.jar.asm.MethodVisitor;
+
+/**
+ * Makes the regex checks of the generated validate methods match against a
+ * {@link CharSequence} that counts its {@link CharSequence#charAt(int)} calls
+ * (which is what the regex engine does on every step, including each
+ * backtracking step). Once the budget is used up the check fails with an
+ * {@link IllegalArgumentException}, so a pathological input can not stall the
+ * constructing thread. Like the other checks the exception names the parameter
+ * and carries the message of the @Pattern annotation.
+ * <p>
+ * The wrapper is a generated package-private class (see
+ * {@link #budgetedCharSequence(String)}), so the enhanced classes still have
+ * no runtime dependency.
+ */
+public class RegexStepBudgetClassVisitor extends ClassVisitor {
+
+	private static final String SIMPLE_NAME = "VaadooBudgetedCharSequence";
+	private static final String CHAR_SEQUENCE = "java/lang/CharSequence";
+	private static final String WRAP_METHOD = "wrap";
+	private static final String WRAP_DESCRIPTOR = "(Ljava/lang/CharSequence;ILjava/lang/String;)"
+			+ "Ljava/lang/CharSequence;";
+	private static final String CONSTRUCTOR_DESCRIPTOR = "(Ljava/lang/CharSequence;ILjava/lang/String;)V";
+	private static final String PATTERN = "java/util/regex/Pattern";
+
+	private final Map<String, Function<String, String>> budgetExceededMessages;
+	private final String budgetedCharSequence;
+	private final int budget;
+
+	/**
+	 * @param budgetExceededMessages the validate methods to rewrite, each mapped to
+	 *                               the function returning the message of the
+	 *                               exception for a regexp (<code>null</code> if
+	 *                               the regexp is not a constant)
+	 */
+	public RegexStepBudgetClassVisitor(ClassVisitor cv, Map<String, Function<String, String>> budgetExceededMessages,
+			String budgetedCharSequence, int budget) {
+		super(ASM9, cv);
+		this.budgetExceededMessages = budgetExceededMessages;
+		this.budgetedCharSequence = budgetedCharSequence;
+		this.budget = budget;
+	}
+
+	/**
+	 * Returns the internal name of the budgeted {@link CharSequence} for the
+	 * package of the passed (internal) class name.
+	 */
+	public static String budgetedCharSequenceName(String internalName) {
+		int idx = internalName.lastIndexOf('/');
+		return idx < 0 ? SIMPLE_NAME : internalName.substring(0, idx + 1) + SIMPLE_NAME;
+	}
+
+	/**
+	 * Creates the bytecode of the budgeted {@link CharSequence}. The budget and the
+	 * message are passed in by the caller so the bytecode is always the same for the same name
+	 * and it does not matter which of the enhanced classes of a package writes it.
+	 */
+	public static byte[] budgetedCharSequence(String internalName) {
+		ClassWriter cw = new ClassWriter(0);
+		cw.visit(V1_8, ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, internalName, null, "java/lang/Object",
+				new String[] { CHAR_SEQUENCE });
+		cw.visitField(ACC_PRIVATE | ACC_FINAL, "delegate", "L" + CHAR_SEQUENCE + ";", null, null).visitEnd();
+		cw.visitField(ACC_PRIVATE, "budget", "I", null, null).visitEnd();
+		cw.visitField(ACC_PRIVATE | ACC_FINAL, "message", "Ljava/lang/String;", null, null).visitEnd();
+		addConstructor(cw, internalName);
+		addWrap(cw, internalName);
+		addCharAt(cw, internalName);
+		addDelegate(cw, internalName, "length", "()I", IRETURN, 0);
+		addDelegate(cw, internalName, "subSequence", "(II)Ljava/lang/CharSequence;", ARETURN, 2);
+		addDelegate(cw, internalName, "toString", "()Ljava/lang/String;", ARETURN, 0);
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private static void addConstructor(ClassVisitor cv, String owner) {
+		MethodVisitor mv = cv.visitMethod(ACC_PRIVATE, "<init>", CONSTRUCTOR_DESCRIPTOR, null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitFieldInsn(PUTFIELD, owner, "delegate", "L" + CHAR_SEQUENCE + ";");
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ILOAD, 2);
+		mv.visitFieldInsn(PUTFIELD, owner, "budget", "I");
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 3);
+		mv.visitFieldInsn(PUTFIELD, owner, "message", "Ljava/lang/String;");
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(2, 4);
+		mv.visitEnd();
+	}
+
+	private static void addWrap(ClassVisitor cv, String owner) {
+		MethodVisitor mv = cv.visitMethod(ACC_STATIC | ACC_SYNTHETIC, WRAP_METHOD, WRAP_DESCRIPTOR, null, null);
+		mv.visitCode();
+		mv.visitTypeInsn(NEW, owner);
+		mv.visitInsn(DUP);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ILOAD, 1);
+		mv.visitVarInsn(ALOAD, 2);
+		mv.visitMethodInsn(INVOKESPECIAL, owner, "<init>", CONSTRUCTOR_DESCRIPTOR, false);
+		mv.visitInsn(ARETURN);
+		mv.visitMaxs(5, 3);
+		mv.visitEnd();
+	}
+
+	private static void addCharAt(ClassVisitor cv, String owner) {
+		MethodVisitor mv = cv.visitMethod(ACC_PUBLIC, "charAt", "(I)C", null, null);
+		mv.visitCode();
+
+		// --- if ((budget = budget - 1) < 0) throw new IllegalArgumentException(message)
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitInsn(DUP);
+		mv.visitFieldInsn(GETFIELD, owner, "budget", "I");
+		mv.visitInsn(ICONST_1);
+		mv.visitInsn(ISUB);
+		mv.visitInsn(DUP_X1);
+		mv.visitFieldInsn(PUTFIELD, owner, "budget", "I");
+		Label withinBudget = new Label();
+		mv.visitJumpInsn(IFGE, withinBudget);
+		mv.visitTypeInsn(NEW, "java/lang/IllegalArgumentException");
+		mv.visitInsn(DUP);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitFieldInsn(GETFIELD, owner, "message", "Ljava/lang/String;");
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/IllegalArgumentException", "<init>", "(Ljava/lang/String;)V",
+				false);
+		mv.visitInsn(ATHROW);
+
+		// --- return delegate.charAt(index)
+		mv.visitLabel(withinBudget);
+		mv.visitFrame(F_SAME, 0, null, 0, null);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitFieldInsn(GETFIELD, owner, "delegate", "L" + CHAR_SEQUENCE + ";");
+		mv.visitVarInsn(ILOAD, 1);
+		mv.visitMethodInsn(INVOKEINTERFACE, CHAR_SEQUENCE, "charAt", "(I)C", true);
+		mv.visitInsn(IRETURN);
+		mv.visitMaxs(3, 2);
+		mv.visitEnd();
+	}
+
+	private static void addDelegate(ClassVisitor cv, String owner, String name, String descriptor, int returnOpcode,
+			int intArgs) {
+		MethodVisitor mv = cv.visitMethod(ACC_PUBLIC, name, descriptor, null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitFieldInsn(GETFIELD, owner, "delegate", "L" + CHAR_SEQUENCE + ";");
+		for (int i = 1; i <= intArgs; i++) {
+			mv.visitVarInsn(ILOAD, i);
+		}
+		boolean isToString = "toString".equals(name);
+		mv.visitMethodInsn(isToString ? INVOKEVIRTUAL : INVOKEINTERFACE, isToString ? "java/lang/Object" : CHAR_SEQUENCE,
+				name, descriptor, !isToString);
+		mv.visitInsn(returnOpcode);
+		mv.visitMaxs(1 + intArgs, 1 + intArgs);
+		mv.visitEnd();
+	}
+
+	@Override
+	public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+		MethodVisitor mv = super.visitMethod(access, name, desc, signature, exceptions);
+		Function<String, String> messages = budgetExceededMessages.get(name);
+		return messages == null ? mv : new BudgetMethodVisitor(mv, messages);
+	}
+
+	private class BudgetMethodVisitor extends MethodVisitor {
+
+		private final Function<String, String> messages;
+		private String lastString;
+		private String regexp;
+
+		public BudgetMethodVisitor(MethodVisitor mv, Function<String, String> messages) {
+			super(ASM9, mv);
+			this.messages = messages;
+		}
+
+		@Override
+		public void visitLdcInsn(Object value) {
+			lastString = value instanceof String ? (String) value : lastString;
+			super.visitLdcInsn(value);
+		}
+
+		@Override
+		public void visitMethodInsn(int opcode, String owner, String name, String desc, boolean itf) {
+			if (opcode == INVOKESTATIC && PATTERN.equals(owner) && "compile".equals(name)) {
+				// the regexp is the last string constant loaded before (the flags are ints)
+				regexp = lastString;
+			} else if (opcode == INVOKEVIRTUAL && PATTERN.equals(owner) && "matcher".equals(name)
+					&& "(Ljava/lang/CharSequence;)Ljava/util/regex/Matcher;".equals(desc)) {
+				// stack: pattern, input -> pattern, wrap(input, budget, message)
+				super.visitLdcInsn(budget);
+				super.visitLdcInsn(messages.apply(regexp));
+				super.visitMethodInsn(INVOKESTATIC, budgetedCharSequence, WRAP_METHOD, WRAP_DESCRIPTOR, false);
+				regexp = null;
+			}
+			super.visitMethodInsn(opcode, owner, name, desc, itf);
+		}
+
+	}
+
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pfichtner.vaadoo;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.MonthDay;
+import java.time.OffsetDateTime;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.chrono.HijrahDate;
+import java.time.chrono.JapaneseDate;
+import java.time.chrono.MinguoDate;
+import java.time.chrono.ThaiBuddhistDate;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TimeZone;
+
+/**
+ * Replacement of the {@code now()} calls of the {@code @Past}/{@code @Future}
+ * checks if {@code vaadoo.cachedClock} is enabled. The class is not referenced
+ * by the enhanced classes, its bytecode is copied into their package (see
+ * {@link CachedClockClassVisitor#cachedClock(String)}), so they still have no
+ * runtime dependency.
+ * <p>
+ * An instance holds "today" of a zone, valid as long as the date and the
+ * offset of the zone do not change (until the next midnight or offset
+ * transition). Until then the current date and time are computed from the
+ * instant of the clock and the cached offset, without consulting the zone
+ * rules again.
+ * <p>
+ * The clock defaults to the {@link Clock#system(ZoneId) system clock} of the
+ * default zone. Unlike {@code LocalDate.now()} the clock is not created on each
+ * call but cached together with the ID of the default {@link TimeZone} it was
+ * created for. {@link TimeZone#getDefault()} returns a copy sharing that ID, so
+ * each call only compares the ID by reference and changing the default zone at
+ * runtime is still picked up. Since the cached clock always returns the same
+ * {@link ZoneId} instance, checking whether "today" is still valid for the
+ * zone is a reference comparison as well. It can be replaced
+ * using {@link #setClock(Clock)} (e.g. to get deterministic tests). Since
+ * there is a copy per package, {@link #setClock(Clock)} only affects the
+ * checks of the classes of one package: the clock has to be set for each
+ * package.
+ */
+public final class VaadooClock {
+
+	private static final int SECONDS_PER_DAY = 86_400;
+	private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+	/** <code>null</code> for the system clock of the current default zone */
+	private static volatile Clock clock;
+	/** the system clock by the ID of the default time zone it was created for */
+	private static volatile Entry<String, Clock> systemClock;
+	private static volatile VaadooClock today;
+
+	private final ZoneId zone;
+	/** epoch second the instance is valid from (inclusive) */
+	private final long start;
+	/** epoch second the instance is valid to (exclusive) */
+	private final long end;
+	private final ZoneOffset offset;
+	private final LocalDate date;
+
+	// computed on first use, racing threads compute the same values
+	private HijrahDate hijrahDate;
+	private JapaneseDate japaneseDate;
+	private MinguoDate minguoDate;
+	private ThaiBuddhistDate thaiBuddhistDate;
+
+	private VaadooClock(ZoneId zone, Instant instant) {
+		ZoneRules rules = zone.getRules();
+		this.zone = zone;
+		this.offset = rules.getOffset(instant);
+		this.date = LocalDate.ofInstant(instant, zone);
+		long midnight = date.atStartOfDay(zone).toEpochSecond();
+		long nextMidnight = date.plusDays(1).atStartOfDay(zone).toEpochSecond();
+		// transitions are on full seconds, so this includes a transition at instant
+		ZoneOffsetTransition previous = rules.previousTransition(instant.plusNanos(1));
+		ZoneOffsetTransition next = rules.nextTransition(instant);
+		this.start = previous == null ? midnight : Math.max(midnight, previous.toEpochSecond());
+		this.end = next == null ? nextMidnight : Math.min(nextMidnight, next.toEpochSecond());
+	}
+
+	public static Clock getClock() {
+		Clock clock = VaadooClock.clock;
+		return clock == null ? systemClock() : clock;
+	}
+
+	private static Clock systemClock() {
+		TimeZone timeZone = TimeZone.getDefault();
+		Entry<String, Clock> systemClock = VaadooClock.systemClock;
+		if (systemClock == null || systemClock.getKey() != timeZone.getID()) {
+			VaadooClock.systemClock = systemClock = Map.entry(timeZone.getID(), Clock.system(timeZone.toZoneId()));
+		}
+		return systemClock.getValue();
+	}
+
+	/**
+	 * Replaces the clock of the checks of the classes in this package,
+	 * <code>null</code> restores the default.
+	 */
+	public static void setClock(Clock clock) {
+		VaadooClock.clock = clock;
+		VaadooClock.today = null;
+	}
+
+	private static VaadooClock today(Clock clock, Instant instant) {
+		VaadooClock today = VaadooClock.today;
+		long second = instant.getEpochSecond();
+		if (today == null || second < today.start || second >= today.end || !today.zone.equals(clock.getZone())) {
+			VaadooClock.today = today = new VaadooClock(clock.getZone(), instant);
+		}
+		return today;
+	}
+
+	private LocalTime time(Instant instant) {
+		long secondOfDay = Math.floorMod(instant.getEpochSecond() + offset.getTotalSeconds(), SECONDS_PER_DAY);
+		return LocalTime.ofNanoOfDay(secondOfDay * NANOS_PER_SECOND + instant.getNano());
+	}
+
+	public static Instant instant() {
+		return getClock().instant();
+	}
+
+	public static LocalDate localDate() {
+		Clock clock = getClock();
+		return today(clock, clock.instant()).date;
+	}
+
+	public static LocalDateTime localDateTime() {
+		Clock clock = getClock();
+		Instant instant = clock.instant();
+		VaadooClock today = today(clock, instant);
+		return LocalDateTime.of(today.date, today.time(instant));
+	}
+
+	public static LocalTime localTime() {
+		Clock clock = getClock();
+		Instant instant = clock.instant();
+		return today(clock, instant).time(instant);
+	}
+
+	/**
+	 * The returned value has the offset instead of the region of the clock's zone
+	 * as zone. This does not make a difference to the checks since they compare
+	 * instants.
+	 */
+	public static ZonedDateTime zonedDateTime() {
+		Clock clock = getClock();
+		Instant instant = clock.instant();
+		VaadooClock today = today(clock, instant);
+		return ZonedDateTime.of(today.date, today.time(instant), today.offset);
+	}
+
+	public static OffsetDateTime offsetDateTime() {
+		Clock clock = getClock();
+		Instant instant = clock.instant();
+		VaadooClock today = today(clock, instant);
+		return OffsetDateTime.of(today.date, today.time(instant), today.offset);
+	}
+
+	public static Year year() {
+		return Year.of(localDate().getYear());
+	}
+
+	public static YearMonth yearMonth() {
+		LocalDate date = localDate();
+		return YearMonth.of(date.getYear(), date.getMonth());
+	}
+
+	public static MonthDay monthDay() {
+		LocalDate date = localDate();
+		return MonthDay.of(date.getMonth(), date.getDayOfMonth());
+	}
+
+	public static HijrahDate hijrahDate() {
+		Clock clock = getClock();
+		VaadooClock today = today(clock, clock.instant());
+		HijrahDate date = today.hijrahDate;
+		return date == null ? today.hijrahDate = HijrahDate.from(today.date) : date;
+	}
+
+	public static JapaneseDate japaneseDate() {
+		Clock clock = getClock();
+		VaadooClock today = today(clock, clock.instant());
+		JapaneseDate date = today.japaneseDate;
+		return date == null ? today.japaneseDate = JapaneseDate.from(today.date) : date;
+	}
+
+	public static MinguoDate minguoDate() {
+		Clock clock = getClock();
+		VaadooClock today = today(clock, clock.instant());
+		MinguoDate date = today.minguoDate;
+		return date == null ? today.minguoDate = MinguoDate.from(today.date) : date;
+	}
+
+	public static ThaiBuddhistDate thaiBuddhistDate() {
+		Clock clock = getClock();
+		VaadooClock today = today(clock, clock.instant());
+		ThaiBuddhistDate date = today.thaiBuddhistDate;
+		return date == null ? today.thaiBuddhistDate = ThaiBuddhistDate.from(today.date) : date;
+	}
+
+}
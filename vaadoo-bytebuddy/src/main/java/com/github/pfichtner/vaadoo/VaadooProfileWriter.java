@@ -0,0 +1,125 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pfichtner.vaadoo;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.System.Logger.Level;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Adds the counters of an enhanced class to its profile file if
+ * {@code vaadoo.profile=record}. The class is not referenced by the enhanced
+ * classes, its bytecode is copied into their package (see
+ * {@link ValidationProfile#profileWriter(String)}), so they still have no
+ * runtime dependency.
+ * <p>
+ * The writers of the enhanced classes {@link #register(VaadooProfileWriter)}
+ * themselves, the first registration adds one shutdown hook for the whole
+ * package that writes all of them.
+ * <p>
+ * A profile that can not be written is reported to the
+ * {@link System.Logger platform logger} named like the writer of the package
+ * ({@code <package>.VaadooProfileWriter}), there is nobody to throw to in a
+ * shutdown hook.
+ * <p>
+ * The counters are plain (non atomic) longs, so concurrent checks can lose
+ * increments. That's fine for a profile. The file is locked while it is
+ * updated, so several JVMs (e.g. forked test runs) can record into the same
+ * profile.
+ */
+public final class VaadooProfileWriter extends Thread {
+
+	/** the writers of the enhanced classes of the package */
+	private static final List<VaadooProfileWriter> writers = new ArrayList<>();
+	/** the shutdown hook of the package, the only writer without a file */
+	private static VaadooProfileWriter hook;
+
+	private final String file;
+	private final String[] keys;
+	/** runs and passes of each key */
+	public final long[] counters;
+
+	public VaadooProfileWriter(String file, String[] keys) {
+		this.file = file;
+		this.keys = keys;
+		this.counters = new long[keys.length * 2];
+	}
+
+	public static synchronized void register(VaadooProfileWriter writer) {
+		if (hook == null) {
+			hook = new VaadooProfileWriter(null, new String[0]);
+			Runtime.getRuntime().addShutdownHook(hook);
+		}
+		writers.add(writer);
+	}
+
+	private static synchronized List<VaadooProfileWriter> writers() {
+		return new ArrayList<>(writers);
+	}
+
+	@Override
+	public void run() {
+		if (file == null) {
+			for (VaadooProfileWriter writer : writers()) {
+				writer.run();
+			}
+			return;
+		}
+		try {
+			write();
+		} catch (IOException e) {
+			System.getLogger(getClass().getName()).log(Level.WARNING, "Could not write vaadoo profile " + file, e);
+		}
+	}
+
+	private void write() throws IOException {
+		Path path = Paths.get(file);
+		Files.createDirectories(path.getParent());
+		try (FileChannel channel = FileChannel.open(path, CREATE, READ, WRITE); FileLock lock = channel.lock()) {
+			Properties properties = new Properties();
+			// not closed, that would close the channel
+			properties.load(Channels.newInputStream(channel));
+			for (int i = 0; i < keys.length; i++) {
+				long runs = counters[i * 2];
+				add(properties, keys[i] + ".runs", runs);
+				add(properties, keys[i] + ".failures", Math.max(0, runs - counters[i * 2 + 1]));
+			}
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			properties.store(out, null);
+			channel.truncate(0);
+			channel.write(ByteBuffer.wrap(out.toByteArray()), 0);
+		}
+	}
+
+	private static void add(Properties properties, String key, long value) {
+		properties.setProperty(key, String.valueOf(Long.parseLong(properties.getProperty(key, "0")) + value));
+	}
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pfichtner.vaadoo;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Runtime switches of the checks if {@code vaadoo.checkSwitches} is enabled.
+ * The class is not referenced by the enhanced classes, its bytecode is copied
+ * into their package (see {@link CheckSwitches}), so they still have no runtime
+ * dependency.
+ * <p>
+ * The generated checks are guarded by the flags of their cost (null checks are
+ * never switched off). Like {@code -ea} for assertions, the flags are read once
+ * when the class is initialized: {@code -Dvaadoo.checkLevel.<package>=<level>}
+ * (the nearest package wins) or {@code -Dvaadoo.checkLevel=<level>} enables
+ * the checks up to the passed level (e.g. {@code clock} switches off
+ * {@code @Pattern}, {@code @Email}, element and custom checks). Without a
+ * property the level configured during the build is used. An unknown level
+ * fails the initialization of the class (so the first check of the package
+ * fails) instead of silently running with another level. Since the flags are
+ * {@code static final} the JIT removes the disabled checks and the guards of
+ * the enabled ones.
+ * <p>
+ * The levels and the flags (a {@code public static final boolean} named like
+ * the cost for each {@link Jsr380Annos.Cost} but {@code NULL_CHECK}) are
+ * generated from {@link Jsr380Annos.Cost} when the class is copied, so they
+ * can not get out of sync.
+ */
+public final class VaadooSwitches {
+
+	/** replaced by the level configured for the package during the build */
+	private static final String DEFAULT_LEVEL = "$vaadoo.checkLevel$";
+	private static final String PROPERTY = "vaadoo.checkLevel";
+	/**
+	 * replaced by the names of {@link Jsr380Annos.Cost} in ascending order,
+	 * separated by commas
+	 */
+	private static final String LEVEL_NAMES = "$vaadoo.checkLevels$";
+	private static final String[] LEVELS = LEVEL_NAMES.split(",");
+
+	/** the flags are initialized from this level after it has been read */
+	private static final int LEVEL = level();
+
+	private VaadooSwitches() {
+		super();
+	}
+
+	private static int level() {
+		int level = index(DEFAULT_LEVEL);
+		String value = property();
+		if (value != null) {
+			level = index(value);
+			if (level < 0) {
+				throw new IllegalArgumentException(
+						"Unknown " + PROPERTY + " " + value + ", expected one of " + Arrays.toString(LEVELS));
+			}
+		}
+		return level < 0 ? LEVELS.length - 1 : level;
+	}
+
+	private static String property() {
+		try {
+			String name = VaadooSwitches.class.getName();
+			for (int idx = name.lastIndexOf('.'); idx > 0; idx = name.lastIndexOf('.', idx - 1)) {
+				String value = System.getProperty(PROPERTY + "." + name.substring(0, idx));
+				if (value != null) {
+					return value;
+				}
+			}
+			return System.getProperty(PROPERTY);
+		} catch (SecurityException e) {
+			return null;
+		}
+	}
+
+	private static int index(String level) {
+		return Arrays.asList(LEVELS).indexOf(level.trim().toUpperCase(Locale.ROOT));
+	}
+
+}
@@ -16,7 +16,6 @@
 package com.github.pfichtner.vaadoo;
 
 import static com.github.pfichtner.vaadoo.AsmUtil.STRING_TYPE;
-import static com.github.pfichtner.vaadoo.AsmUtil.classReader;
 import static com.github.pfichtner.vaadoo.AsmUtil.isArray;
 import static com.github.pfichtner.vaadoo.AsmUtil.isLoadOpcode;
 import static com.github.pfichtner.vaadoo.AsmUtil.isReturnOpcode;
@@ -56,6 +55,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -112,6 +112,7 @@ public class ValidationCodeInjector {
 		private final MethodVisitor targetMethodVisitor;
 		private final Parameter targetParam;
 		private final Map<Parameter, Integer> precomputedMasks;
+		private final BiFunction<String, String, String> defaultValues;
 
 		private final SlotInfo srcSlot;
 		private final SlotInfo tgtSlot;
@@ -142,7 +143,7 @@ public class ValidationCodeInjector {
 
 		private ValidationCallCodeInjectorClassVisitor(Method sourceMethod, MethodVisitor targetMethodVisitor,
 				String signatureOfTargetMethod, Parameter parameter, Map<Parameter, Integer> precomputedMasks,
-				int localsOffset) {
+				BiFunction<String, String, String> defaultValues, int localsOffset) {
 			super(ASM9);
 			this.sourceMethodOwner = Type.getType(sourceMethod.getDeclaringClass()).getInternalName();
 			this.sourceMethodName = sourceMethod.getName();
@@ -150,6 +151,7 @@ public class ValidationCodeInjector {
 			this.targetMethodVisitor = targetMethodVisitor;
 			this.targetParam = parameter;
 			this.precomputedMasks = precomputedMasks;
+			this.defaultValues = defaultValues;
 			this.srcSlot = new SlotInfo(isStatic(sourceMethod.getModifiers()), argTypes(sourceMethod));
 			this.tgtSlot = new SlotInfo(TARGET_METHOD_IS_STATIC, getArgumentTypes(signatureOfTargetMethod));
 			this.offset = srcSlot.offsetTo(tgtSlot);
@@ -200,7 +202,7 @@ public class ValidationCodeInjector {
 
 					@Override
 					public void visitFrame(int type, int numLocal, Object[] local, int numStack, Object[] stack) {
-						// drop frames, we use COMPUTE_FRAMES
+						// drop frames, they get computed, see FrameComputingClassVisitor
 					}
 
 					@Override
@@ -227,6 +229,11 @@ public class ValidationCodeInjector {
 						mv.visitLabel(endLabel);
 					}
 
+					@Override
+					public void visitEnd() {
+						// ignore, the target method is not complete yet
+					}
+
 					@Override
 					public void visitVarInsn(int opcode, int var) {
 						assert var >= 0 : "negative var index";
@@ -337,7 +344,7 @@ public class ValidationCodeInjector {
 						if (valueFromClass != null) {
 							return valueFromClass;
 						}
-						Object defaultValue = defaultValue(currentAnnotationType.getClassName(), name);
+						Object defaultValue = defaultValues.apply(currentAnnotationType.getClassName(), name);
 						if (defaultValue != null) {
 							return defaultValue;
 						}
@@ -476,19 +483,23 @@ public class ValidationCodeInjector {
 	private final String signatureOfTargetMethod;
 	private final Map<Parameter, Integer> precomputedMasks;
 	private final String nullValueExceptionType;
+	/** resolves the default value of an annotation's attribute by annotation class name and attribute name */
+	private final BiFunction<String, String, String> defaultValues;
 	private int localsOffset;
 
 	public ValidationCodeInjector(Class<? extends Jsr380CodeFragment> fragmentClass, String signatureOfTargetMethod,
-			Map<Parameter, Integer> precomputedMasks, String nullValueExceptionType) {
+			Map<Parameter, Integer> precomputedMasks, String nullValueExceptionType,
+			BiFunction<String, String, String> defaultValues) {
 		this.fragmentClass = fragmentClass;
 		this.precomputedMasks = precomputedMasks;
 		this.signatureOfTargetMethod = signatureOfTargetMethod;
 		this.nullValueExceptionType = nullValueExceptionType;
+		this.defaultValues = defaultValues;
 	}
 
 	public ValidationCodeInjector useFragmentClass(Class<? extends Jsr380CodeFragment> declaringClass) {
 		ValidationCodeInjector injector = new ValidationCodeInjector(declaringClass, this.signatureOfTargetMethod,
-				this.precomputedMasks, nullValueExceptionType);
+				this.precomputedMasks, nullValueExceptionType, defaultValues);
 		injector.localsOffset = this.localsOffset;
 		return injector;
 	}
@@ -500,10 +511,11 @@ public class ValidationCodeInjector {
 
 	public void inject(MethodVisitor mv, Parameter parameter, Method sourceMethod) {
 		ClassVisitor classVisitor = new ValidationCallCodeInjectorClassVisitor(sourceMethod, mv,
-				signatureOfTargetMethod, parameter, precomputedMasks, localsOffset);
+				signatureOfTargetMethod, parameter, precomputedMasks, defaultValues, localsOffset);
 		ClassVisitor remapper = new ClassRemapper(classVisitor,
 				new SimpleRemapper(ASM9, nullValueExceptionInternalName, nullValueExceptionType));
-		classReader(fragmentClass).accept(remapper, 0);
+		FragmentTemplate.of(fragmentClass).accept(remapper, sourceMethod.getName(),
+				getMethodDescriptor(sourceMethod));
 	}
 
 	public void inject(MethodVisitor mv, Parameter parameter, Method sourceMethod,
@@ -527,10 +539,11 @@ public class ValidationCodeInjector {
 
 			// Create a new injector with the updated masks and use it to inject
 			ClassVisitor classVisitor = new ValidationCallCodeInjectorClassVisitor(sourceMethod, mv,
-					signatureOfTargetMethod, wrapper, masks, localsOffset);
+					signatureOfTargetMethod, wrapper, masks, defaultValues, localsOffset);
 			ClassVisitor remapper = new ClassRemapper(classVisitor,
 					new SimpleRemapper(ASM9, nullValueExceptionInternalName, nullValueExceptionType));
-			classReader(fragmentClass).accept(remapper, 0);
+			FragmentTemplate.of(fragmentClass).accept(remapper, sourceMethod.getName(),
+					getMethodDescriptor(sourceMethod));
 		} else {
 			inject(mv, parameter, sourceMethod);
 		}
@@ -564,25 +577,4 @@ public class ValidationCodeInjector {
 
 	}
 
-	private static String defaultValue(String className, String name) {
-		return defaultValue(loadClass(className), name);
-	}
-
-	private static Class<?> loadClass(String className) {
-		try {
-			return Class.forName(className);
-		} catch (ClassNotFoundException e) {
-			throw new IllegalStateException(e);
-		}
-	}
-
-	private static String defaultValue(Class<?> clazz, String name) {
-		return stream(clazz.getMethods()) //
-				.filter(m -> name.equals(m.getName())) //
-				.findFirst() //
-				.map(Method::getDefaultValue) //
-				.map(String::valueOf) //
-				.orElse(null);
-	}
-
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pfichtner.vaadoo;
+
+import static com.github.pfichtner.vaadoo.AsmUtil.classReader;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Properties;
+
+import net.bytebuddy.jar.asm.ClassWriter;
+import net.bytebuddy.jar.asm.Type;
+import net.bytebuddy.jar.asm.commons.ClassRemapper;
+import net.bytebuddy.jar.asm.commons.SimpleRemapper;
+
+/**
+ * The profile of an enhanced class recorded by a build using
+ * {@code vaadoo.profile=record}: how often each check ran and how often it
+ * failed. The keys are {@code <validate method>.<annotation>} (with a
+ * {@code #n} suffix if the same annotation is checked more than once by one
+ * validate method).
+ */
+public final class ValidationProfile {
+
+	public static final ValidationProfile EMPTY = new ValidationProfile(new Properties());
+
+	private static final String SIMPLE_NAME = "VaadooProfileWriter";
+
+	private final Properties properties;
+
+	private ValidationProfile(Properties properties) {
+		this.properties = properties;
+	}
+
+	public static File profileFile(File directory, String className) {
+		return new File(directory, className + ".properties");
+	}
+
+	public static ValidationProfile load(File file) {
+		if (!file.exists()) {
+			return EMPTY;
+		}
+		try (InputStream in = new FileInputStream(file)) {
+			Properties properties = new Properties();
+			properties.load(in);
+			return new ValidationProfile(properties);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public long runs(String key) {
+		return value(key + ".runs");
+	}
+
+	public long failures(String key) {
+		return value(key + ".failures");
+	}
+
+	public double failureRate(String key) {
+		long runs = runs(key);
+		return runs == 0 ? 0 : (double) failures(key) / runs;
+	}
+
+	private long value(String key) {
+		String value = properties.getProperty(key);
+		return value == null ? 0 : Long.parseLong(value.trim());
+	}
+
+	/**
+	 * Returns the internal name of the profile writer for the package of the
+	 * passed (internal) class name.
+	 */
+	public static String profileWriterName(String internalName) {
+		int idx = internalName.lastIndexOf('/');
+		return idx < 0 ? SIMPLE_NAME : internalName.substring(0, idx + 1) + SIMPLE_NAME;
+	}
+
+	/**
+	 * Returns the bytecode of {@link VaadooProfileWriter} renamed to the passed
+	 * internal name.
+	 */
+	public static byte[] profileWriter(String internalName) {
+		ClassWriter cw = new ClassWriter(0);
+		String template = Type.getInternalName(VaadooProfileWriter.class);
+		classReader(VaadooProfileWriter.class).accept(new ClassRemapper(cw, new SimpleRemapper(template, internalName)),
+				0);
+		return cw.toByteArray();
+	}
+
+}
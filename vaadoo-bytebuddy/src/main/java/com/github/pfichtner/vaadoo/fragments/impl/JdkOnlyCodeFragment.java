@@ -1,8 +1,6 @@
 package com.github.pfichtner.vaadoo.fragments.impl;
 
 import static com.github.pfichtner.vaadoo.fragments.impl.Template.bitwiseOr;
-import static java.lang.Math.abs;
-import static java.lang.Math.log10;
 import static java.lang.Math.max;
 import static java.util.regex.Pattern.CASE_INSENSITIVE;
 import static java.util.regex.Pattern.compile;
@@ -457,13 +455,78 @@ public class JdkOnlyCodeFragment implements Jsr380CodeFragment {
 
 	@Override
 	public void check(DecimalMin anno, CharSequence value) {
-		try {
-			if (value != null && new BigDecimal(String.valueOf(value))
-					.compareTo(new BigDecimal(anno.value())) < (anno.inclusive() ? 0 : 1)) {
-				throw new IllegalArgumentException(anno.message());
+		if (value == null) {
+			return;
+		}
+		// plain decimals (sign, digits and a dot) are compared digit by digit, anything
+		// else (e.g. exponents) is left to BigDecimal
+		String bound = anno.value();
+		int valueLength = value.length();
+		int valueStart = valueLength > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+') ? 1 : 0;
+		int valueDot = valueLength;
+		boolean valueDigits = false;
+		boolean valueZero = true;
+		boolean plain = true;
+		for (int i = valueStart; plain && i < valueLength; i++) {
+			char c = value.charAt(i);
+			if (c >= '0' && c <= '9') {
+				valueDigits = true;
+				valueZero &= c == '0';
+			} else if (c == '.' && valueDot == valueLength) {
+				valueDot = i;
+			} else {
+				plain = false;
+			}
+		}
+		int boundLength = bound.length();
+		int boundStart = boundLength > 0 && (bound.charAt(0) == '-' || bound.charAt(0) == '+') ? 1 : 0;
+		int boundDot = boundLength;
+		boolean boundDigits = false;
+		boolean boundZero = true;
+		for (int i = boundStart; plain && i < boundLength; i++) {
+			char c = bound.charAt(i);
+			if (c >= '0' && c <= '9') {
+				boundDigits = true;
+				boundZero &= c == '0';
+			} else if (c == '.' && boundDot == boundLength) {
+				boundDot = i;
+			} else {
+				plain = false;
 			}
-		} catch (NumberFormatException nfe) {
-			// ignore
+		}
+		int comparison;
+		if (plain) {
+			if (!valueDigits || !boundDigits) {
+				// not a number
+				return;
+			}
+			int valueSignum = valueZero ? 0 : value.charAt(0) == '-' ? -1 : 1;
+			int boundSignum = boundZero ? 0 : bound.charAt(0) == '-' ? -1 : 1;
+			comparison = Integer.compare(valueSignum, boundSignum);
+			if (comparison == 0 && valueSignum != 0) {
+				int integerDigits = max(valueDot - valueStart, boundDot - boundStart);
+				int fractionDigits = max(0, max(valueLength - valueDot, boundLength - boundDot) - 1);
+				int magnitude = 0;
+				for (int pos = integerDigits - 1; magnitude == 0 && pos >= -fractionDigits; pos--) {
+					int valueIndex = pos >= 0 ? valueDot - 1 - pos : valueDot - pos;
+					int boundIndex = pos >= 0 ? boundDot - 1 - pos : boundDot - pos;
+					char valueChar = valueIndex >= valueStart && valueIndex < valueLength ? value.charAt(valueIndex)
+							: '0';
+					char boundChar = boundIndex >= boundStart && boundIndex < boundLength ? bound.charAt(boundIndex)
+							: '0';
+					magnitude = valueChar - boundChar;
+				}
+				comparison = valueSignum * Integer.signum(magnitude);
+			}
+		} else {
+			try {
+				comparison = new BigDecimal(String.valueOf(value)).compareTo(new BigDecimal(bound));
+			} catch (NumberFormatException nfe) {
+				return;
+			}
+		}
+		if (comparison < (anno.inclusive() ? 0 : 1)) {
+			throw new IllegalArgumentException(anno.message());
 		}
 	}
 
@@ -546,13 +609,78 @@ public class JdkOnlyCodeFragment implements Jsr380CodeFragment {
 
 	@Override
 	public void check(DecimalMax anno, CharSequence value) {
-		try {
-			if (value != null && new BigDecimal(String.valueOf(value))
-					.compareTo(new BigDecimal(anno.value())) > (anno.inclusive() ? 0 : -1)) {
-				throw new IllegalArgumentException(anno.message());
+		if (value == null) {
+			return;
+		}
+		// plain decimals (sign, digits and a dot) are compared digit by digit, anything
+		// else (e.g. exponents) is left to BigDecimal
+		String bound = anno.value();
+		int valueLength = value.length();
+		int valueStart = valueLength > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+') ? 1 : 0;
+		int valueDot = valueLength;
+		boolean valueDigits = false;
+		boolean valueZero = true;
+		boolean plain = true;
+		for (int i = valueStart; plain && i < valueLength; i++) {
+			char c = value.charAt(i);
+			if (c >= '0' && c <= '9') {
+				valueDigits = true;
+				valueZero &= c == '0';
+			} else if (c == '.' && valueDot == valueLength) {
+				valueDot = i;
+			} else {
+				plain = false;
+			}
+		}
+		int boundLength = bound.length();
+		int boundStart = boundLength > 0 && (bound.charAt(0) == '-' || bound.charAt(0) == '+') ? 1 : 0;
+		int boundDot = boundLength;
+		boolean boundDigits = false;
+		boolean boundZero = true;
+		for (int i = boundStart; plain && i < boundLength; i++) {
+			char c = bound.charAt(i);
+			if (c >= '0' && c <= '9') {
+				boundDigits = true;
+				boundZero &= c == '0';
+			} else if (c == '.' && boundDot == boundLength) {
+				boundDot = i;
+			} else {
+				plain = false;
 			}
-		} catch (NumberFormatException nfe) {
-			// ignore
+		}
+		int comparison;
+		if (plain) {
+			if (!valueDigits || !boundDigits) {
+				// not a number
+				return;
+			}
+			int valueSignum = valueZero ? 0 : value.charAt(0) == '-' ? -1 : 1;
+			int boundSignum = boundZero ? 0 : bound.charAt(0) == '-' ? -1 : 1;
+			comparison = Integer.compare(valueSignum, boundSignum);
+			if (comparison == 0 && valueSignum != 0) {
+				int integerDigits = max(valueDot - valueStart, boundDot - boundStart);
+				int fractionDigits = max(0, max(valueLength - valueDot, boundLength - boundDot) - 1);
+				int magnitude = 0;
+				for (int pos = integerDigits - 1; magnitude == 0 && pos >= -fractionDigits; pos--) {
+					int valueIndex = pos >= 0 ? valueDot - 1 - pos : valueDot - pos;
+					int boundIndex = pos >= 0 ? boundDot - 1 - pos : boundDot - pos;
+					char valueChar = valueIndex >= valueStart && valueIndex < valueLength ? value.charAt(valueIndex)
+							: '0';
+					char boundChar = boundIndex >= boundStart && boundIndex < boundLength ? bound.charAt(boundIndex)
+							: '0';
+					magnitude = valueChar - boundChar;
+				}
+				comparison = valueSignum * Integer.signum(magnitude);
+			}
+		} else {
+			try {
+				comparison = new BigDecimal(String.valueOf(value)).compareTo(new BigDecimal(bound));
+			} catch (NumberFormatException nfe) {
+				return;
+			}
+		}
+		if (comparison > (anno.inclusive() ? 0 : -1)) {
+			throw new IllegalArgumentException(anno.message());
 		}
 	}
 
@@ -560,42 +688,186 @@ public class JdkOnlyCodeFragment implements Jsr380CodeFragment {
 
 	@Override
 	public void check(Digits anno, byte value) {
-		int length = max(1, (int) log10(abs(value)) + 1);
-		if (length > anno.integer()) {
-			throw new IllegalArgumentException(anno.message());
+		// anno.integer() is a constant in the generated code, so instead of counting
+		// the digits of the value it gets compared to a power of ten picked at build
+		// time (the JIT folds the switch)
+		if (anno.integer() < 3) {
+			int bound;
+			switch (anno.integer()) {
+			case 1:
+				bound = 10;
+				break;
+			case 2:
+				bound = 100;
+				break;
+			default:
+				// no valid value (not even 0) without integer digits
+				bound = 0;
+			}
+			if (value >= bound || value <= -bound) {
+				throw new IllegalArgumentException(anno.message());
+			}
 		}
 	}
 
 	@Override
 	public void check(Digits anno, short value) {
-		int length = max(1, (int) log10(abs(value)) + 1);
-		if (length > anno.integer()) {
-			throw new IllegalArgumentException(anno.message());
+		if (anno.integer() < 5) {
+			int bound;
+			switch (anno.integer()) {
+			case 1:
+				bound = 10;
+				break;
+			case 2:
+				bound = 100;
+				break;
+			case 3:
+				bound = 1_000;
+				break;
+			case 4:
+				bound = 10_000;
+				break;
+			default:
+				// no valid value (not even 0) without integer digits
+				bound = 0;
+			}
+			if (value >= bound || value <= -bound) {
+				throw new IllegalArgumentException(anno.message());
+			}
 		}
 	}
 
 	@Override
 	public void check(Digits anno, int value) {
-		int length = value == Integer.MIN_VALUE ? 10 : max(1, (int) log10(abs(value)) + 1);
-		if (length > anno.integer()) {
-			throw new IllegalArgumentException(anno.message());
+		if (anno.integer() < 10) {
+			int bound;
+			switch (anno.integer()) {
+			case 1:
+				bound = 10;
+				break;
+			case 2:
+				bound = 100;
+				break;
+			case 3:
+				bound = 1_000;
+				break;
+			case 4:
+				bound = 10_000;
+				break;
+			case 5:
+				bound = 100_000;
+				break;
+			case 6:
+				bound = 1_000_000;
+				break;
+			case 7:
+				bound = 10_000_000;
+				break;
+			case 8:
+				bound = 100_000_000;
+				break;
+			case 9:
+				bound = 1_000_000_000;
+				break;
+			default:
+				// no valid value (not even 0) without integer digits
+				bound = 0;
+			}
+			if (value >= bound || value <= -bound) {
+				throw new IllegalArgumentException(anno.message());
+			}
 		}
 	}
 
 	@Override
 	public void check(Digits anno, long value) {
-		int length = value == Long.MIN_VALUE ? 19 : max(1, (int) log10(abs(value)) + 1);
-		if (length > anno.integer()) {
-			throw new IllegalArgumentException(anno.message());
+		if (anno.integer() < 19) {
+			long bound;
+			switch (anno.integer()) {
+			case 1:
+				bound = 10L;
+				break;
+			case 2:
+				bound = 100L;
+				break;
+			case 3:
+				bound = 1_000L;
+				break;
+			case 4:
+				bound = 10_000L;
+				break;
+			case 5:
+				bound = 100_000L;
+				break;
+			case 6:
+				bound = 1_000_000L;
+				break;
+			case 7:
+				bound = 10_000_000L;
+				break;
+			case 8:
+				bound = 100_000_000L;
+				break;
+			case 9:
+				bound = 1_000_000_000L;
+				break;
+			case 10:
+				bound = 10_000_000_000L;
+				break;
+			case 11:
+				bound = 100_000_000_000L;
+				break;
+			case 12:
+				bound = 1_000_000_000_000L;
+				break;
+			case 13:
+				bound = 10_000_000_000_000L;
+				break;
+			case 14:
+				bound = 100_000_000_000_000L;
+				break;
+			case 15:
+				bound = 1_000_000_000_000_000L;
+				break;
+			case 16:
+				bound = 10_000_000_000_000_000L;
+				break;
+			case 17:
+				bound = 100_000_000_000_000_000L;
+				break;
+			case 18:
+				bound = 1_000_000_000_000_000_000L;
+				break;
+			default:
+				// no valid value (not even 0) without integer digits
+				bound = 0;
+			}
+			if (value >= bound || value <= -bound) {
+				throw new IllegalArgumentException(anno.message());
+			}
 		}
 	}
 
 	@Override
 	public void check(Digits anno, Byte value) {
 		if (value != null) {
-			int length = max(1, (int) log10(abs(value)) + 1);
-			if (length > anno.integer()) {
-				throw new IllegalArgumentException(anno.message());
+			byte primitive = value;
+			if (anno.integer() < 3) {
+				int bound;
+				switch (anno.integer()) {
+				case 1:
+					bound = 10;
+					break;
+				case 2:
+					bound = 100;
+					break;
+				default:
+					// no valid value (not even 0) without integer digits
+					bound = 0;
+				}
+				if (primitive >= bound || primitive <= -bound) {
+					throw new IllegalArgumentException(anno.message());
+				}
 			}
 		}
 	}
@@ -603,9 +875,29 @@ public class JdkOnlyCodeFragment implements Jsr380CodeFragment {
 	@Override
 	public void check(Digits anno, Short value) {
 		if (value != null) {
-			int length = max(1, (int) log10(abs(value)) + 1);
-			if (length > anno.integer()) {
-				throw new IllegalArgumentException(anno.message());
+			short primitive = value;
+			if (anno.integer() < 5) {
+				int bound;
+				switch (anno.integer()) {
+				case 1:
+					bound = 10;
+					break;
+				case 2:
+					bound = 100;
+					break;
+				case 3:
+					bound = 1_000;
+					break;
+				case 4:
+					bound = 10_000;
+					break;
+				default:
+					// no valid value (not even 0) without integer digits
+					bound = 0;
+				}
+				if (primitive >= bound || primitive <= -bound) {
+					throw new IllegalArgumentException(anno.message());
+				}
 			}
 		}
 	}
@@ -613,9 +905,44 @@ public class JdkOnlyCodeFragment implements Jsr380CodeFragment {
 	@Override
 	public void check(Digits anno, Integer value) {
 		if (value != null) {
-			int length = value == Integer.MIN_VALUE ? 10 : max(1, (int) log10(abs(value)) + 1);
-			if (length > anno.integer()) {
-				throw new IllegalArgumentException(anno.message());
+			int primitive = value;
+			if (anno.integer() < 10) {
+				int bound;
+				switch (anno.integer()) {
+				case 1:
+					bound = 10;
+					break;
+				case 2:
+					bound = 100;
+					break;
+				case 3:
+					bound = 1_000;
+					break;
+				case 4:
+					bound = 10_000;
+					break;
+				case 5:
+					bound = 100_000;
+					break;
+				case 6:
+					bound = 1_000_000;
+					break;
+				case 7:
+					bound = 10_000_000;
+					break;
+				case 8:
+					bound = 100_000_000;
+					break;
+				case 9:
+					bound = 1_000_000_000;
+					break;
+				default:
+					// no valid value (not even 0) without integer digits
+					bound = 0;
+				}
+				if (primitive >= bound || primitive <= -bound) {
+					throw new IllegalArgumentException(anno.message());
+				}
 			}
 		}
 	}
@@ -623,9 +950,71 @@ public class JdkOnlyCodeFragment implements Jsr380CodeFragment {
 	@Override
 	public void check(Digits anno, Long value) {
 		if (value != null) {
-			int length = value == Long.MIN_VALUE ? 19 : max(1, (int) log10(abs(value)) + 1);
-			if (length > anno.integer()) {
-				throw new IllegalArgumentException(anno.message());
+			long primitive = value;
+			if (anno.integer() < 19) {
+				long bound;
+				switch (anno.integer()) {
+				case 1:
+					bound = 10L;
+					break;
+				case 2:
+					bound = 100L;
+					break;
+				case 3:
+					bound = 1_000L;
+					break;
+				case 4:
+					bound = 10_000L;
+					break;
+				case 5:
+					bound = 100_000L;
+					break;
+				case 6:
+					bound = 1_000_000L;
+					break;
+				case 7:
+					bound = 10_000_000L;
+					break;
+				case 8:
+					bound = 100_000_000L;
+					break;
+				case 9:
+					bound = 1_000_000_000L;
+					break;
+				case 10:
+					bound = 10_000_000_000L;
+					break;
+				case 11:
+					bound = 100_000_000_000L;
+					break;
+				case 12:
+					bound = 1_000_000_000_000L;
+					break;
+				case 13:
+					bound = 10_000_000_000_000L;
+					break;
+				case 14:
+					bound = 100_000_000_000_000L;
+					break;
+				case 15:
+					bound = 1_000_000_000_000_000L;
+					break;
+				case 16:
+					bound = 10_000_000_000_000_000L;
+					break;
+				case 17:
+					bound = 100_000_000_000_000_000L;
+					break;
+				case 18:
+					bound = 1_000_000_000_000_000_000L;
+					break;
+				default:
+					// no valid value (not even 0) without integer digits
+					bound = 0;
+				}
+				if (primitive >= bound || primitive <= -bound) {
+					throw new IllegalArgumentException(anno.message());
+				}
 			}
 		}
 	}
@@ -654,15 +1043,52 @@ public class JdkOnlyCodeFragment implements Jsr380CodeFragment {
 	@Override
 	public void check(Digits anno, CharSequence value) {
 		if (value != null) {
-			try {
-				BigDecimal bigNum = new BigDecimal(value.toString());
-				int integerPartLength = bigNum.precision() - bigNum.scale();
-				int fractionPartLength = max(0, bigNum.scale());
-				if (integerPartLength > anno.integer() || fractionPartLength > anno.fraction()) {
+			// plain decimals (sign, digits and a dot) are counted without allocations,
+			// anything else (e.g. exponents) is left to BigDecimal
+			int length = value.length();
+			int start = length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+') ? 1 : 0;
+			int integerDigits = 0;
+			int fractionDigits = 0;
+			int significantFractionDigits = 0;
+			boolean digits = false;
+			boolean dot = false;
+			boolean plain = true;
+			for (int i = start; plain && i < length; i++) {
+				char c = value.charAt(i);
+				if (c >= '0' && c <= '9') {
+					digits = true;
+					if (dot) {
+						fractionDigits++;
+						if (c != '0' || significantFractionDigits > 0) {
+							significantFractionDigits++;
+						}
+					} else if (c != '0' || integerDigits > 0) {
+						integerDigits++;
+					}
+				} else if (c == '.' && !dot) {
+					dot = true;
+				} else {
+					plain = false;
+				}
+			}
+			if (plain) {
+				// same as BigDecimal's precision - scale (the precision of zero is 1)
+				int integerPartLength = integerDigits > 0 ? integerDigits
+						: max(1, significantFractionDigits) - fractionDigits;
+				if (digits && (integerPartLength > anno.integer() || fractionDigits > anno.fraction())) {
 					throw new IllegalArgumentException(anno.message());
 				}
-			} catch (NumberFormatException e) {
-				// ignore
+			} else {
+				try {
+					BigDecimal bigNum = new BigDecimal(value.toString());
+					int integerPartLength = bigNum.precision() - bigNum.scale();
+					int fractionPartLength = max(0, bigNum.scale());
+					if (integerPartLength > anno.integer() || fractionPartLength > anno.fraction()) {
+						throw new IllegalArgumentException(anno.message());
+					}
+				} catch (NumberFormatException e) {
+					// ignore
+				}
 			}
 		}
 	}
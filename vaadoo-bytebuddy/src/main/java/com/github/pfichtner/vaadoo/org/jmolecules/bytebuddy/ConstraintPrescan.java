@@ -0,0 +1,203 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.dynamic.ClassFileLocator.Resolution;
+
+/**
+ * Decides by the constant pool of a class file whether a class may use
+ * constraint annotations at all, so classes that cannot be enhanced are
+ * rejected without building a {@link net.bytebuddy.description.type.TypeDescription}.
+ * <p>
+ * A class is a candidate if its constant pool contains a descriptor of the
+ * {@code jakarta.validation} package or the descriptor of a (custom) annotation
+ * that is annotated by {@code @Constraint}. Whether a type is a custom
+ * constraint is looked up once per build.
+ */
+class ConstraintPrescan {
+
+	private static final int UTF8 = 1;
+	private static final byte[] JAKARTA_VALIDATION = "Ljakarta/validation/".getBytes(UTF_8);
+	private static final byte[] JAKARTA_CONSTRAINT = "Ljakarta/validation/Constraint;".getBytes(UTF_8);
+	private static final byte[] JAVA = "Ljava/".getBytes(UTF_8);
+
+	private final Map<String, Boolean> customConstraints = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns {@code false} if the class with the passed name cannot use any
+	 * constraint annotation, {@code true} if it may (or the class file cannot be
+	 * located).
+	 */
+	boolean mayUseConstraints(String typeName, ClassFileLocator classFileLocator) {
+		byte[] classFile = classFile(typeName, classFileLocator);
+		return classFile == null || mayUseConstraints(classFile, classFileLocator);
+	}
+
+	boolean mayUseConstraints(byte[] classFile, ClassFileLocator classFileLocator) {
+		ConstantPool constantPool = new ConstantPool(classFile);
+		for (int offset = constantPool.nextUtf8(); offset >= 0; offset = constantPool.nextUtf8()) {
+			int length = constantPool.utf8Length(offset);
+			if (startsWith(classFile, offset, length, JAKARTA_VALIDATION)) {
+				return true;
+			}
+		}
+		// no standard constraint, so only custom constraints are left
+		constantPool = new ConstantPool(classFile);
+		for (int offset = constantPool.nextUtf8(); offset >= 0; offset = constantPool.nextUtf8()) {
+			int length = constantPool.utf8Length(offset);
+			if (isCandidateDescriptor(classFile, offset, length)) {
+				String internalName = new String(classFile, offset + 4, length - 2, UTF_8);
+				if (customConstraints.computeIfAbsent(internalName, n -> isCustomConstraint(n, classFileLocator))) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static boolean isCustomConstraint(String internalName, ClassFileLocator classFileLocator) {
+		byte[] classFile = classFile(internalName.replace('/', '.'), classFileLocator);
+		if (classFile == null) {
+			return false;
+		}
+		ConstantPool constantPool = new ConstantPool(classFile);
+		for (int offset = constantPool.nextUtf8(); offset >= 0; offset = constantPool.nextUtf8()) {
+			int length = constantPool.utf8Length(offset);
+			if (length == JAKARTA_CONSTRAINT.length && startsWith(classFile, offset, length, JAKARTA_CONSTRAINT)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Whether the utf8 entry at the passed offset is a single (non JDK) reference
+	 * type descriptor like annotation types are referenced by.
+	 */
+	private static boolean isCandidateDescriptor(byte[] classFile, int offset, int length) {
+		int start = offset + 3;
+		return length > 2 && classFile[start] == 'L' && classFile[start + length - 1] == ';'
+				&& !startsWith(classFile, offset, length, JAVA) && indexOf(classFile, start, length, ';') == length - 1;
+	}
+
+	private static boolean startsWith(byte[] classFile, int offset, int length, byte[] prefix) {
+		if (length < prefix.length) {
+			return false;
+		}
+		for (int i = 0; i < prefix.length; i++) {
+			if (classFile[offset + 3 + i] != prefix[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int indexOf(byte[] classFile, int start, int length, char c) {
+		for (int i = 0; i < length; i++) {
+			if (classFile[start + i] == c) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static byte[] classFile(String typeName, ClassFileLocator classFileLocator) {
+		try {
+			Resolution resolution = classFileLocator.locate(typeName);
+			return resolution.isResolved() ? resolution.resolve() : null;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Iterates the utf8 entries of a constant pool, see JVMS 4.4.
+	 */
+	private static class ConstantPool {
+
+		private final byte[] classFile;
+		private final int count;
+		private int index = 1;
+		private int offset = 10;
+
+		private ConstantPool(byte[] classFile) {
+			this.classFile = classFile;
+			this.count = readUnsignedShort(classFile, 8);
+		}
+
+		/**
+		 * Returns the offset of the next utf8 entry (its tag) or -1 if there is none.
+		 */
+		private int nextUtf8() {
+			while (index < count) {
+				int current = offset;
+				int tag = classFile[current];
+				index++;
+				switch (tag) {
+				case UTF8:
+					offset += 3 + utf8Length(current);
+					return current;
+				case 5: // long
+				case 6: // double
+					index++;
+					offset += 9;
+					break;
+				case 7: // class
+				case 8: // string
+				case 16: // method type
+				case 19: // module
+				case 20: // package
+					offset += 3;
+					break;
+				case 15: // method handle
+					offset += 4;
+					break;
+				case 3: // integer
+				case 4: // float
+				case 9: // field ref
+				case 10: // method ref
+				case 11: // interface method ref
+				case 12: // name and type
+				case 17: // dynamic
+				case 18: // invoke dynamic
+					offset += 5;
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown constant pool tag " + tag);
+				}
+			}
+			return -1;
+		}
+
+		private int utf8Length(int offset) {
+			return readUnsignedShort(classFile, offset + 1);
+		}
+
+		private static int readUnsignedShort(byte[] bytes, int offset) {
+			return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+		}
+
+	}
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy;
+
+import static com.github.pfichtner.vaadoo.Jsr380Annos.findRepeatableAnnotationContainers;
+import static java.lang.reflect.Modifier.isAbstract;
+import static java.util.Arrays.stream;
+import static java.util.Comparator.comparingLong;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Stream.concat;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import com.github.pfichtner.vaadoo.fragments.Jsr380CodeFragment;
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.VaadooConfiguration;
+
+import net.bytebuddy.description.type.TypeDescription;
+
+/**
+ * Lookup of the fragment {@code check} methods of a configuration, built once
+ * per build instead of reflecting on the fragment classes for each parameter.
+ * The candidates of an annotation are ordered by specificity of the checked
+ * type (the mixins still come first) and the results are memoized by annotation
+ * and type. The default values of the annotations' attributes are memoized here
+ * as well, so they live as long as the configuration they were resolved for.
+ */
+class FragmentIndex {
+
+	private final List<Method> fragmentClassMethods;
+	private final List<List<Method>> methods;
+	private final List<TypeDescription> repeatableAnnotationContainers = findRepeatableAnnotationContainers();
+	private final Map<String, List<Method>> candidates = new ConcurrentHashMap<>();
+	private final Map<List<String>, Optional<Method>> checkMethods = new ConcurrentHashMap<>();
+	/** the default values of the annotations' attributes by annotation class name */
+	private final Map<String, Map<String, String>> defaultValues = new ConcurrentHashMap<>();
+
+	FragmentIndex(VaadooConfiguration configuration) {
+		this.fragmentClassMethods = checkMethods(configuration.jsr380CodeFragmentClass());
+		this.methods = concat(configuration.codeFragmentMixins().stream().map(FragmentIndex::checkMethods),
+				Stream.of(fragmentClassMethods)).collect(toList());
+	}
+
+	private static List<Method> checkMethods(Class<? extends Jsr380CodeFragment> clazz) {
+		return Stream.of(clazz.getMethods()) //
+				.filter(m -> m.getDeclaringClass() != Object.class) //
+				.filter(m -> !isAbstract(m.getModifiers())) //
+				.filter(m -> "check".equals(m.getName())) //
+				.filter(m -> m.getParameterCount() == 2) //
+				.collect(toList());
+	}
+
+	/**
+	 * Returns the first fragment method checking the annotation on the passed
+	 * type.
+	 */
+	Optional<Method> checkMethod(TypeDescription annotation, TypeDescription type) {
+		return checkMethods.computeIfAbsent(List.of(annotation.getName(), type.getName()),
+				k -> candidates(annotation).stream() //
+						.filter(m -> type.isAssignableTo(m.getParameterTypes()[1])) //
+						.findFirst());
+	}
+
+	private List<Method> candidates(TypeDescription annotation) {
+		// the methods of the mixins stay in front of the methods they override
+		return candidates.computeIfAbsent(annotation.getName(), k -> methods.stream() //
+				.map(m -> bySpecificity(m.stream() //
+						.filter(c -> annotation.isAssignableTo(c.getParameterTypes()[0])) //
+						.collect(toList()))) //
+				.flatMap(List::stream) //
+				.collect(toList()));
+	}
+
+	/**
+	 * Orders the methods so the ones checking a type come before the ones checking
+	 * its supertypes.
+	 */
+	private static List<Method> bySpecificity(List<Method> methods) {
+		return methods.stream() //
+				.sorted(comparingLong((Method m) -> methods.stream()
+						.filter(o -> o.getParameterTypes()[1].isAssignableFrom(m.getParameterTypes()[1]))
+						.count()).reversed()) //
+				.collect(toList());
+	}
+
+	/**
+	 * Returns the types the fragment class can check the annotation on, in
+	 * declaration order (used for error messages).
+	 */
+	List<String> supportedTypes(TypeDescription annotation) {
+		return fragmentClassMethods.stream() //
+				.filter(m -> annotation.isAssignableTo(m.getParameterTypes()[0])) //
+				.map(m -> m.getParameterTypes()[1].getName()) //
+				.collect(toList());
+	}
+
+	boolean isRepeatableAnnotationContainer(TypeDescription annotation) {
+		return repeatableAnnotationContainers.contains(annotation);
+	}
+
+	/**
+	 * Returns the default value of the annotation's attribute as string or
+	 * {@code null} if the attribute has no default value.
+	 */
+	String defaultValue(String annotationClassName, String name) {
+		return defaultValues.computeIfAbsent(annotationClassName, c -> defaultValues(loadClass(c))).get(name);
+	}
+
+	private static Class<?> loadClass(String className) {
+		try {
+			return Class.forName(className);
+		} catch (ClassNotFoundException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static Map<String, String> defaultValues(Class<?> clazz) {
+		return stream(clazz.getMethods()) //
+				.filter(m -> m.getDefaultValue() != null) //
+				.collect(toMap(Method::getName, m -> String.valueOf(m.getDefaultValue()), (m1, m2) -> m1));
+	}
+
+}
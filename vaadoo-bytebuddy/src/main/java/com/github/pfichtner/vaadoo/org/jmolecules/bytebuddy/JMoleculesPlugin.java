@@ -16,15 +16,20 @@
 package com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy;
 
 import static java.util.Collections.emptyList;
+import static java.util.Collections.synchronizedMap;
 import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.toList;
 
 import java.io.File;
-import java.util.HashMap;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.TransformationMetrics.Phase;
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.TransformationMetrics.TypeMetrics;
 import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.VaadooConfiguration;
 import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.VaadooConfigurationSupplier;
 
@@ -34,39 +39,83 @@ import net.bytebuddy.dynamic.ClassFileLocator;
 import net.bytebuddy.dynamic.DynamicType.Builder;
 
 /**
+ * Entry point of the Vaadoo transformation. State shared between types is held in concurrent maps, so the plugin may
+ * be run by a parallel {@link net.bytebuddy.build.Plugin.Engine.Dispatcher}. The configuration per class file locator
+ * (and so per class loader if run by the {@link VaadooAgent}) is held weakly, the plugins of a type are dropped once
+ * it was transformed (see {@link #release(TypeDescription)}). The plugins are created once per configuration (and not
+ * per class file locator, as Byte Buddy's engine passes a locator of its own for each type), so their state (e.g. the
+ * {@link TransformationCache}) lives for the whole build and they are closed once.
+ *
  * @author Oliver Drotbohm
  * @author Simon Zambrovski
  * @author Peter Fichtner
  */
 public class JMoleculesPlugin implements LoggingPlugin, WithPreprocessor {
 
-	private final Map<ClassFileLocator, List<LoggingPlugin>> globalPlugins = new HashMap<>();
-	private final Map<TypeDescription, List<? extends LoggingPlugin>> delegates = new HashMap<>();
+	private final Map<ClassFileLocator, VaadooConfiguration> configurations = synchronizedMap(new WeakHashMap<>());
+	private final Map<VaadooConfiguration, Map<String, Boolean>> includedPackages = synchronizedMap(
+			new WeakHashMap<>());
+	private final ConstraintPrescan constraintPrescan = new ConstraintPrescan();
+	private final Map<VaadooConfiguration, List<LoggingPlugin>> globalPlugins = new ConcurrentHashMap<>();
+	// not weak, the type description passed to #apply is not necessarily the instance preprocessed
+	private final Map<TypeDescription, List<? extends LoggingPlugin>> delegates = new ConcurrentHashMap<>();
+	private final Map<File, TransformationMetrics> metrics = new ConcurrentHashMap<>();
 	private final VaadooConfigurationSupplier configurationSupplier;
 
 	public JMoleculesPlugin(File outputFolder) {
-		this.configurationSupplier = new VaadooConfigurationSupplier(outputFolder);
+		this(new VaadooConfigurationSupplier(outputFolder));
+	}
+
+	public JMoleculesPlugin(VaadooConfigurationSupplier configurationSupplier) {
+		this.configurationSupplier = configurationSupplier;
 	}
 
 	@Override
 	public void onPreprocess(TypeDescription typeDescription, ClassFileLocator classFileLocator) {
-		ClassWorld world = ClassWorld.of(classFileLocator);
-		VaadooConfiguration configuration = configurationSupplier.configuration(world);
-		if (!configuration.include(typeDescription) || PluginUtils.isCglibProxyType(typeDescription)) {
+		long start = System.nanoTime();
+		VaadooConfiguration configuration = configuration(classFileLocator);
+		TypeMetrics typeMetrics = metrics(configuration).of(typeDescription.getName());
+		long resolved = typeMetrics.since(Phase.CONFIGURATION, start);
+		try {
+			preprocess(typeDescription, classFileLocator, configuration);
+		} finally {
+			typeMetrics.since(Phase.PREPROCESS, resolved);
+		}
+	}
+
+	private void preprocess(TypeDescription typeDescription, ClassFileLocator classFileLocator,
+			VaadooConfiguration configuration) {
+		if (!included(configuration, typeDescription) || PluginUtils.isCglibProxyType(typeDescription)
+				|| !constraintPrescan.mayUseConstraints(typeDescription.getName(), classFileLocator)) {
+			delegates.remove(typeDescription);
 			return;
 		}
 
-		List<LoggingPlugin> plugins = globalPlugins.computeIfAbsent(classFileLocator, locator -> {
+		List<LoggingPlugin> plugins = globalPlugins.computeIfAbsent(configuration, it -> {
 			return Stream.of( //
-					vaadooPlugin(configuration) //
+					vaadooPlugin(it) //
 			).flatMap(identity()).collect(toList());
 		});
 
-		delegates.computeIfAbsent(typeDescription, it -> plugins.stream().filter(p -> p.matches(it)).peek(plugin -> {
+		// a type preprocessed again (e.g. after it was recompiled) replaces the former one
+		List<LoggingPlugin> matching = plugins.stream().filter(p -> p.matches(typeDescription)).peek(plugin -> {
 			if (plugin instanceof WithPreprocessor) {
-				((WithPreprocessor) plugin).onPreprocess(it, classFileLocator);
+				((WithPreprocessor) plugin).onPreprocess(typeDescription, classFileLocator);
 			}
-		}).collect(toList()));
+		}).collect(toList());
+		if (matching.isEmpty()) {
+			delegates.remove(typeDescription);
+		} else {
+			delegates.put(typeDescription, matching);
+		}
+	}
+
+	/**
+	 * Returns the configuration of the classes located by the passed locator.
+	 */
+	VaadooConfiguration configuration(ClassFileLocator classFileLocator) {
+		return configurations.computeIfAbsent(classFileLocator,
+				locator -> configurationSupplier.configuration(ClassWorld.of(locator)));
 	}
 
 	@Override
@@ -78,12 +127,56 @@ public class JMoleculesPlugin implements LoggingPlugin, WithPreprocessor {
 	@Override
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public Builder<?> apply(Builder<?> builder, TypeDescription typeDescription, ClassFileLocator classFileLocator) {
-		return delegates.get(typeDescription).stream().reduce(builder,
+		List<? extends LoggingPlugin> plugins = delegates.remove(typeDescription);
+		return (plugins == null ? List.<LoggingPlugin>of() : plugins).stream().reduce(builder,
 				(it, plugin) -> (Builder) plugin.apply(it, typeDescription, classFileLocator), (left, right) -> right);
 	}
 
+	/**
+	 * Drops the plugins of a type preprocessed but not applied (e.g. as its
+	 * transformation was replayed from a cache).
+	 */
+	void release(TypeDescription typeDescription) {
+		delegates.remove(typeDescription);
+	}
+
+	private boolean included(VaadooConfiguration configuration, TypeDescription typeDescription) {
+		String name = typeDescription.getName();
+		String packageName = name.substring(0, Math.max(0, name.lastIndexOf('.')));
+		return includedPackages.computeIfAbsent(configuration, __ -> new ConcurrentHashMap<>())
+				.computeIfAbsent(packageName, configuration::includePackage) && configuration.include(typeDescription);
+	}
+
+	private TransformationMetrics metrics(VaadooConfiguration configuration) {
+		return configuration.metrics()
+				? metrics.computeIfAbsent(configuration.metricsDirectory(), TransformationMetrics::new)
+				: TransformationMetrics.NONE;
+	}
+
+	/**
+	 * Writes the metrics collected so far (see {@link VaadooConfiguration#metrics()}) in addition to the log.
+	 */
+	@Override
+	public void flush() {
+		for (TransformationMetrics m : metrics.values()) {
+			try {
+				m.write();
+			} catch (IOException e) {
+				PluginLogger.INSTANCE.getLog(TypeDescription.ForLoadedType.of(TransformationMetrics.class), "vaadoo")
+						.info("Cannot write transformation metrics: {}", e.getMessage());
+			}
+		}
+		LoggingPlugin.super.flush();
+	}
+
+	@Override
+	public void close() {
+		List.copyOf(globalPlugins.values()).stream().flatMap(List::stream).forEach(LoggingPlugin::close);
+		LoggingPlugin.super.close();
+	}
+
 	private Stream<LoggingPlugin> vaadooPlugin(VaadooConfiguration configuration) {
-		return Stream.of(new VaadooPlugin(configuration));
+		return Stream.of(new VaadooPlugin(configuration, metrics(configuration)));
 	}
 
 }
@@ -24,8 +24,16 @@ import net.bytebuddy.build.Plugin;
  */
 public interface LoggingPlugin extends Plugin {
 
+	/**
+	 * Logs (and discards) the information collected so far, for processes
+	 * transforming classes again and again instead of closing the plugin.
+	 */
+	public default void flush() {
+		PluginLogger.INSTANCE.flush();
+	}
+
 	@Override
 	public default void close() {
-		PluginLogger.INSTANCE.flush();
+		flush();
 	}
 }
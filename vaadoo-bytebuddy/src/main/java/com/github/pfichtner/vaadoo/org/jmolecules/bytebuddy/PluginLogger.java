@@ -20,9 +20,8 @@ import static java.lang.String.format;
 import java.util.Comparator;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
-import java.util.TreeSet;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 
 import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
@@ -38,7 +37,7 @@ enum PluginLogger {
 
 	INSTANCE;
 
-	private Map<String, Set<LogEntry>> logs = new ConcurrentSkipListMap<>();
+	private final Map<String, Set<LogEntry>> logs = new ConcurrentSkipListMap<>();
 
 	/**
 	 * Obtains the {@link Log} for the given {@link TypeDescription} and module name.
@@ -56,8 +55,19 @@ enum PluginLogger {
 			throw new IllegalArgumentException("Module name must not be null or empty!");
 		}
 
-		Set<LogEntry> moduleLogs = logs.computeIfAbsent(description.getName(), it -> new TreeSet<>());
-		return (message, parameters) -> moduleLogs.add(new LogEntry(name, message, parameters));
+		Set<LogEntry> moduleLogs = logs.computeIfAbsent(description.getName(), it -> new ConcurrentSkipListSet<>());
+		return new Log() {
+
+			@Override
+			public void info(String message, Object... parameters) {
+				moduleLogs.add(new LogEntry(name, false, message, parameters));
+			}
+
+			@Override
+			public void warn(String message, Object... parameters) {
+				moduleLogs.add(new LogEntry(name, true, message, parameters));
+			}
+		};
 	}
 
 	public void flush() {
@@ -72,15 +82,20 @@ enum PluginLogger {
 				}
 
                 log.info("□─ {}", description);
+				int size = moduleLogs.size();
 				int i = 0;
 
 				for (LogEntry logEntry : moduleLogs) {
 
 					String module = logEntry.getModule();
-					String prefix = i + 1 == moduleLogs.size() ? "└─ " : "├─ ";
+					String prefix = i + 1 == size ? "└─ " : "├─ ";
 
-					log.info(format("%s%s - %s", prefix, module, logEntry.getMessage()),
-							logEntry.getParameters());
+					String message = format("%s%s - %s", prefix, module, logEntry.getMessage());
+					if (logEntry.isWarning()) {
+						log.warn(message, logEntry.getParameters());
+					} else {
+						log.info(message, logEntry.getParameters());
+					}
 
 					i++;
 				}
@@ -89,12 +104,14 @@ enum PluginLogger {
 			});
 
 		} finally {
-			logs = new TreeMap<>();
+			logs.clear();
 		}
 	}
 
 	public interface Log {
 		void info(String message, Object... parameters);
+
+		void warn(String message, Object... parameters);
 	}
 
 	@Value
@@ -105,6 +122,7 @@ enum PluginLogger {
 				.thenComparing(LogEntry::getExpandedMessage);
 		
 		String module;
+		boolean warning;
 		String message;
 		Object[] parameters;
 
@@ -0,0 +1,746 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy;
+
+import static com.github.pfichtner.vaadoo.ValidationProfile.profileFile;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static java.util.stream.Stream.concat;
+import static net.bytebuddy.jar.asm.ClassReader.SKIP_CODE;
+import static net.bytebuddy.jar.asm.ClassReader.SKIP_DEBUG;
+import static net.bytebuddy.jar.asm.ClassReader.SKIP_FRAMES;
+import static net.bytebuddy.jar.asm.Opcodes.ACC_FINAL;
+import static net.bytebuddy.jar.asm.Opcodes.ACC_SYNTHETIC;
+import static net.bytebuddy.matcher.ElementMatchers.isConstructor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.VaadooConfiguration;
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.VaadooConfiguration.ProfileMode;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import net.bytebuddy.ClassFileVersion;
+import net.bytebuddy.asm.AsmVisitorWrapper;
+import net.bytebuddy.description.field.FieldDescription;
+import net.bytebuddy.description.field.FieldList;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.method.MethodList;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.dynamic.ClassFileLocator.Resolution;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.dynamic.DynamicType.Builder;
+import net.bytebuddy.implementation.Implementation;
+import net.bytebuddy.implementation.MethodAccessorFactory;
+import net.bytebuddy.implementation.auxiliary.TrivialType;
+import net.bytebuddy.jar.asm.AnnotationVisitor;
+import net.bytebuddy.jar.asm.ClassReader;
+import net.bytebuddy.jar.asm.ClassVisitor;
+import net.bytebuddy.jar.asm.ClassWriter;
+import net.bytebuddy.jar.asm.FieldVisitor;
+import net.bytebuddy.jar.asm.MethodVisitor;
+import net.bytebuddy.jar.asm.Type;
+import net.bytebuddy.jar.asm.TypePath;
+import net.bytebuddy.jar.asm.signature.SignatureReader;
+import net.bytebuddy.jar.asm.signature.SignatureVisitor;
+import net.bytebuddy.pool.TypePool;
+import net.bytebuddy.utility.AsmClassWriter.FrameComputingClassWriter;
+import net.bytebuddy.utility.OpenedClassReader;
+
+/**
+ * On-disk cache of transformed classes, see
+ * {@link VaadooConfiguration#transformationCache()}.
+ * <p>
+ * An entry is keyed by the SHA-256 of the Vaadoo version (the hash of its jar
+ * for snapshots), the effective configuration and the class files of its code
+ * fragments and mixins, the original class file, the class files of the
+ * annotations it uses (and of the validators of custom constraints), the class
+ * files of the types of its fields and parameters with their supertypes (they
+ * select the code fragments) and the recorded profile. It holds the
+ * transformed class file and all auxiliary types. The entries are stored one
+ * file per key, the {@code index} file holds the sorted keys of all entries
+ * and is read once, so looking up a class that has no entry does not touch the
+ * file system. The index is rewritten on {@link #close()} with the entries
+ * added by this build, entries not used for 30 days are deleted then.
+ */
+@Slf4j
+class TransformationCache implements AutoCloseable {
+
+	private static final String FORMAT = "vaadoo-transformation-cache-2";
+	private static final String INDEX = "index";
+	private static final int KEY_LENGTH = 32;
+	private static final int MAX_AGE_DAYS = 30;
+	private static final String VERSION = vaadooVersion();
+	private static final Set<String> CONSTRAINT_DESCRIPTORS = Set.of("Ljakarta/validation/Constraint;",
+			"Ljavax/validation/Constraint;");
+
+	@Value
+	static class Entry {
+
+		byte[] type;
+		Map<String, byte[]> auxiliaryTypes;
+
+		static Entry of(DynamicType dynamicType) {
+			Map<String, byte[]> auxiliaryTypes = new LinkedHashMap<>();
+			dynamicType.getAuxiliaryTypes().forEach((t, b) -> auxiliaryTypes.put(t.getName(), b));
+			return new Entry(dynamicType.getBytes(), auxiliaryTypes);
+		}
+
+		/**
+		 * Makes the passed builder emit the cached class (instead of the class it was
+		 * created for) and the cached auxiliary types.
+		 */
+		Builder<?> replay(Builder<?> builder) {
+			for (Map.Entry<String, byte[]> auxiliaryType : auxiliaryTypes.entrySet()) {
+				builder = builder.require(new TypeDescription.Latent(auxiliaryType.getKey(),
+						ACC_FINAL | ACC_SYNTHETIC, TypeDescription.Generic.OBJECT), auxiliaryType.getValue());
+			}
+			return builder.visit(new ReplayingVisitorWrapper(type));
+		}
+
+		private static Entry read(File file) throws IOException {
+			try (DataInputStream in = new DataInputStream(
+					new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+				int auxiliaryTypeCount = in.readInt();
+				byte[] type = readBytes(in);
+				Map<String, byte[]> auxiliaryTypes = new LinkedHashMap<>();
+				for (int i = 0; i < auxiliaryTypeCount; i++) {
+					auxiliaryTypes.put(in.readUTF(), readBytes(in));
+				}
+				return new Entry(type, auxiliaryTypes);
+			}
+		}
+
+		private void write(Path path) throws IOException {
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(path)))) {
+				out.writeInt(auxiliaryTypes.size());
+				writeBytes(out, type);
+				for (Map.Entry<String, byte[]> auxiliaryType : auxiliaryTypes.entrySet()) {
+					out.writeUTF(auxiliaryType.getKey());
+					writeBytes(out, auxiliaryType.getValue());
+				}
+			}
+		}
+
+		private static byte[] readBytes(DataInputStream in) throws IOException {
+			byte[] bytes = new byte[in.readInt()];
+			in.readFully(bytes);
+			return bytes;
+		}
+
+		private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+
+	}
+
+	/**
+	 * Drops the class written by Byte Buddy and emits the cached class file
+	 * instead. As the original class is dropped, its code is not even read.
+	 */
+	private static class ReplayingVisitorWrapper extends AsmVisitorWrapper.AbstractBase {
+
+		private final byte[] type;
+
+		private ReplayingVisitorWrapper(byte[] type) {
+			this.type = type;
+		}
+
+		@Override
+		public int mergeReader(int flags) {
+			return flags | SKIP_CODE | SKIP_DEBUG | SKIP_FRAMES;
+		}
+
+		@Override
+		public ClassVisitor wrap(TypeDescription instrumentedType, ClassVisitor classVisitor,
+				Implementation.Context implementationContext, TypePool typePool,
+				FieldList<FieldDescription.InDefinedShape> fields, MethodList<?> methods, int writerFlags,
+				int readerFlags) {
+			return new ClassVisitor(OpenedClassReader.ASM_API) {
+				@Override
+				public void visitEnd() {
+					new ClassReader(type).accept(classVisitor, 0);
+				}
+			};
+		}
+
+	}
+
+	/**
+	 * Records the {@link Entry} of a class while Byte Buddy writes it, so a
+	 * transformation that is not cached yet is made only once, with the type pool
+	 * of the build. The class is written to a buffer first and then passed on
+	 * from there. Has to be the innermost visitor wrapper (the first one
+	 * registered) to see the final class.
+	 * <p>
+	 * Besides the {@link #require(DynamicType) required types} the entry holds
+	 * the placeholder types of the rebased constructors: their (random) names are
+	 * only known from the descriptors the constructors are written with.
+	 */
+	static class Recorder extends AsmVisitorWrapper.AbstractBase {
+
+		private final Map<String, byte[]> auxiliaryTypes = new LinkedHashMap<>();
+		private final Consumer<Entry> listener;
+
+		Recorder(Consumer<Entry> listener) {
+			this.listener = listener;
+		}
+
+		void require(DynamicType auxiliaryType) {
+			auxiliaryTypes.put(auxiliaryType.getTypeDescription().getName(), auxiliaryType.getBytes());
+		}
+
+		@Override
+		public ClassVisitor wrap(TypeDescription instrumentedType, ClassVisitor classVisitor,
+				Implementation.Context implementationContext, TypePool typePool,
+				FieldList<FieldDescription.InDefinedShape> fields, MethodList<?> methods, int writerFlags,
+				int readerFlags) {
+			Set<String> constructors = instrumentedType.getDeclaredMethods().filter(isConstructor()).stream()
+					.map(MethodDescription::getDescriptor).collect(toSet());
+			ClassWriter buffer = new FrameComputingClassWriter(writerFlags, typePool);
+			return new ClassVisitor(OpenedClassReader.ASM_API, buffer) {
+
+				private int version;
+
+				@Override
+				public void visit(int version, int access, String name, String signature, String superName,
+						String[] interfaces) {
+					this.version = version;
+					super.visit(version, access, name, signature, superName, interfaces);
+				}
+
+				@Override
+				public MethodVisitor visitMethod(int access, String name, String desc, String signature,
+						String[] exceptions) {
+					if ("<init>".equals(name) && !constructors.contains(desc)) {
+						Type[] arguments = Type.getArgumentTypes(desc);
+						String placeholder = arguments[arguments.length - 1].getClassName();
+						auxiliaryTypes.computeIfAbsent(placeholder, n -> TrivialType.SIGNATURE_RELEVANT
+								.make(n, ClassFileVersion.ofMinorMajor(version), MethodAccessorFactory.Illegal.INSTANCE)
+								.getBytes());
+					}
+					return super.visitMethod(access, name, desc, signature, exceptions);
+				}
+
+				@Override
+				public void visitEnd() {
+					super.visitEnd();
+					byte[] type = buffer.toByteArray();
+					listener.accept(new Entry(type, auxiliaryTypes));
+					new ClassReader(type).accept(classVisitor, 0);
+				}
+			};
+		}
+
+	}
+
+	private final VaadooConfiguration configuration;
+	private final File directory;
+	private final byte[] salt;
+	private final ByteBuffer index;
+	private final Set<ByteBuffer> stored = ConcurrentHashMap.newKeySet();
+	private final AtomicInteger hits = new AtomicInteger();
+	private final AtomicInteger misses = new AtomicInteger();
+
+	TransformationCache(VaadooConfiguration configuration) {
+		this(configuration, configuration.transformationCacheDirectory());
+	}
+
+	TransformationCache(VaadooConfiguration configuration, File directory) {
+		this.configuration = configuration;
+		this.directory = directory;
+		this.salt = salt(configuration);
+		this.index = readIndex(new File(directory, INDEX));
+	}
+
+	byte[] key(TypeDescription type, ClassFileLocator classFileLocator) throws IOException {
+		return key(type.getName(), classFileLocator);
+	}
+
+	byte[] key(String typeName, ClassFileLocator classFileLocator) throws IOException {
+		MessageDigest digest = sha256();
+		digest.update(salt);
+		byte[] bytes = classFileLocator.locate(typeName).resolve();
+		digest.update(bytes);
+		for (String annotation : annotationTypes(bytes)) {
+			byte[] annotationBytes = update(digest, annotation, classFileLocator);
+			if (annotationBytes != null) {
+				for (String validator : validatorTypes(annotationBytes)) {
+					update(digest, validator, classFileLocator);
+				}
+			}
+		}
+		Set<String> hashed = new HashSet<>();
+		for (String type : memberTypes(bytes)) {
+			updateHierarchy(digest, type, classFileLocator, hashed);
+		}
+		if (configuration.profile() == ProfileMode.USE) {
+			File profile = profileFile(configuration.profileDirectory(), typeName);
+			if (profile.exists()) {
+				digest.update(Files.readAllBytes(profile.toPath()));
+			}
+		} else if (configuration.profile() == ProfileMode.RECORD) {
+			// the path of the profile is compiled into the class
+			digest.update(profileFile(configuration.profileDirectory(), typeName).getPath().getBytes(UTF_8));
+		}
+		return digest.digest();
+	}
+
+	/**
+	 * Returns the entry for the passed key or {@code null} if there is none.
+	 */
+	Entry lookup(byte[] key) {
+		if (indexed(key)) {
+			File file = entryFile(key);
+			try {
+				Entry entry = Entry.read(file);
+				// the age of an entry is the time it was last used, see #prune
+				file.setLastModified(System.currentTimeMillis());
+				hits.incrementAndGet();
+				return entry;
+			} catch (IOException e) {
+				log.warn("Cannot read cached transformation {}: {}", entryFile(key), e.getMessage());
+			}
+		}
+		misses.incrementAndGet();
+		return null;
+	}
+
+	void store(byte[] key, Entry entry) {
+		try {
+			Files.createDirectories(directory.toPath());
+			Path temp = Files.createTempFile(directory.toPath(), "entry", ".tmp");
+			entry.write(temp);
+			Files.move(temp, entryFile(key).toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+			stored.add(ByteBuffer.wrap(key));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void close() {
+		log.info("Transformation cache {}: {} hit(s), {} miss(es)", directory, hits.get(), misses.get());
+		if (stored.isEmpty()) {
+			return;
+		}
+		// re-read the index, another build could have written it in the meantime
+		Set<ByteBuffer> keys = new TreeSet<>(stored);
+		File indexFile = new File(directory, INDEX);
+		try {
+			if (indexFile.exists()) {
+				byte[] bytes = Files.readAllBytes(indexFile.toPath());
+				for (int offset = 0; offset + KEY_LENGTH <= bytes.length; offset += KEY_LENGTH) {
+					keys.add(ByteBuffer.wrap(bytes, offset, KEY_LENGTH).slice());
+				}
+			}
+			keys.retainAll(prune());
+			Path temp = Files.createTempFile(directory.toPath(), INDEX, ".tmp");
+			try (BufferedOutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+				for (ByteBuffer key : keys) {
+					out.write(key.array(), key.arrayOffset(), KEY_LENGTH);
+				}
+			}
+			Files.move(temp, indexFile.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+		} catch (IOException e) {
+			log.warn("Cannot write index of transformation cache {}: {}", directory, e.getMessage());
+		}
+	}
+
+	/**
+	 * Deletes the entries not used for {@link #MAX_AGE_DAYS} days and returns the
+	 * keys of the remaining ones.
+	 */
+	private Set<ByteBuffer> prune() throws IOException {
+		long oldest = System.currentTimeMillis() - DAYS.toMillis(MAX_AGE_DAYS);
+		Set<ByteBuffer> keys = new HashSet<>();
+		try (Stream<Path> files = Files.list(directory.toPath())) {
+			for (Path file : files.collect(toList())) {
+				byte[] key = key(file.getFileName().toString());
+				if (key == null) {
+					continue;
+				}
+				if (Files.getLastModifiedTime(file).toMillis() < oldest && !stored.contains(ByteBuffer.wrap(key))) {
+					Files.deleteIfExists(file);
+				} else {
+					keys.add(ByteBuffer.wrap(key));
+				}
+			}
+		}
+		return keys;
+	}
+
+	private boolean indexed(byte[] key) {
+		if (index == null) {
+			return false;
+		}
+		int low = 0;
+		int high = index.capacity() / KEY_LENGTH - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int cmp = compare(mid, key);
+			if (cmp < 0) {
+				low = mid + 1;
+			} else if (cmp > 0) {
+				high = mid - 1;
+			} else {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Compares like {@link ByteBuffer#compareTo(ByteBuffer)} the index is sorted
+	 * by.
+	 */
+	private int compare(int entry, byte[] key) {
+		for (int i = 0; i < KEY_LENGTH; i++) {
+			int cmp = Byte.compare(index.get(entry * KEY_LENGTH + i), key[i]);
+			if (cmp != 0) {
+				return cmp;
+			}
+		}
+		return 0;
+	}
+
+	private File entryFile(byte[] key) {
+		return new File(directory, hex(key));
+	}
+
+	/**
+	 * Returns the key of the passed entry file name or {@code null} if it is not
+	 * the name of an entry.
+	 */
+	private static byte[] key(String fileName) {
+		if (fileName.length() != KEY_LENGTH * 2) {
+			return null;
+		}
+		byte[] key = new byte[KEY_LENGTH];
+		for (int i = 0; i < KEY_LENGTH; i++) {
+			int high = Character.digit(fileName.charAt(2 * i), 16);
+			int low = Character.digit(fileName.charAt(2 * i + 1), 16);
+			if (high < 0 || low < 0) {
+				return null;
+			}
+			key[i] = (byte) (high << 4 | low);
+		}
+		return key;
+	}
+
+	private static String hex(byte[] bytes) {
+		StringBuilder sb = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Reads the index into memory instead of mapping it: a mapped file cannot be
+	 * replaced on Windows as long as the mapping is not garbage collected.
+	 */
+	private static ByteBuffer readIndex(File file) {
+		if (!file.exists()) {
+			return null;
+		}
+		try {
+			return ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+		} catch (IOException e) {
+			log.warn("Cannot read index of transformation cache {}: {}", file, e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Hashes everything the transformation depends on besides the transformed
+	 * class and the types it references.
+	 */
+	private static byte[] salt(VaadooConfiguration configuration) {
+		MessageDigest digest = sha256();
+		digest.update(String.join("\n", FORMAT, VERSION, configuration.toString()).getBytes(UTF_8));
+		Set<Class<?>> hashed = new HashSet<>();
+		concat(Stream.of(configuration.jsr380CodeFragmentClass()), configuration.codeFragmentMixins().stream())
+				.forEach(c -> updateHierarchy(digest, c, hashed));
+		return digest.digest();
+	}
+
+	/**
+	 * Hashes the class files of the passed type and its supertypes, types of the
+	 * JDK only by name.
+	 */
+	private static void updateHierarchy(MessageDigest digest, Class<?> type, Set<Class<?>> hashed) {
+		if (type == null || !hashed.add(type)) {
+			return;
+		}
+		digest.update(type.getName().getBytes(UTF_8));
+		if (!type.getName().startsWith("java.")) {
+			digest.update(ClassFileLocator.ForClassLoader.read(type));
+			updateHierarchy(digest, type.getSuperclass(), hashed);
+			for (Class<?> anInterface : type.getInterfaces()) {
+				updateHierarchy(digest, anInterface, hashed);
+			}
+		}
+	}
+
+	/**
+	 * Hashes the class files (if found) of the passed type and its supertypes,
+	 * types of the JDK only by name.
+	 */
+	private static void updateHierarchy(MessageDigest digest, String internalName, ClassFileLocator classFileLocator,
+			Set<String> hashed) throws IOException {
+		if (internalName == null || !hashed.add(internalName)) {
+			return;
+		}
+		if (internalName.startsWith("java/")) {
+			digest.update(internalName.getBytes(UTF_8));
+			return;
+		}
+		byte[] bytes = update(digest, internalName, classFileLocator);
+		if (bytes != null) {
+			ClassReader reader = new ClassReader(bytes);
+			updateHierarchy(digest, reader.getSuperName(), classFileLocator, hashed);
+			for (String anInterface : reader.getInterfaces()) {
+				updateHierarchy(digest, anInterface, classFileLocator, hashed);
+			}
+		}
+	}
+
+	/**
+	 * Hashes the passed type's name and class file (if found) and returns the
+	 * class file.
+	 */
+	private static byte[] update(MessageDigest digest, String internalName, ClassFileLocator classFileLocator)
+			throws IOException {
+		digest.update(internalName.getBytes(UTF_8));
+		Resolution resolution = classFileLocator.locate(Type.getObjectType(internalName).getClassName());
+		if (!resolution.isResolved()) {
+			return null;
+		}
+		byte[] bytes = resolution.resolve();
+		digest.update(bytes);
+		return bytes;
+	}
+
+	private static Set<String> annotationTypes(byte[] classFile) {
+		Set<String> types = new TreeSet<>();
+		new ClassReader(classFile).accept(new ClassVisitor(OpenedClassReader.ASM_API) {
+
+			@Override
+			public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+				return add(descriptor);
+			}
+
+			@Override
+			public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String descriptor,
+					boolean visible) {
+				return add(descriptor);
+			}
+
+			@Override
+			public FieldVisitor visitField(int access, String name, String descriptor, String signature,
+					Object value) {
+				return new FieldVisitor(api) {
+
+					@Override
+					public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+						return add(descriptor);
+					}
+
+					@Override
+					public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String descriptor,
+							boolean visible) {
+						return add(descriptor);
+					}
+
+				};
+			}
+
+			@Override
+			public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+					String[] exceptions) {
+				return new MethodVisitor(api) {
+
+					@Override
+					public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+						return add(descriptor);
+					}
+
+					@Override
+					public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String descriptor,
+							boolean visible) {
+						return add(descriptor);
+					}
+
+					@Override
+					public AnnotationVisitor visitParameterAnnotation(int parameter, String descriptor,
+							boolean visible) {
+						return add(descriptor);
+					}
+
+				};
+			}
+
+			private AnnotationVisitor add(String descriptor) {
+				types.add(Type.getType(descriptor).getInternalName());
+				return null;
+			}
+
+		}, SKIP_CODE | SKIP_DEBUG | SKIP_FRAMES);
+		return types;
+	}
+
+	/**
+	 * Returns the (non array) types of the fields and of the parameters of the
+	 * methods declared by the passed class file including their type arguments.
+	 */
+	private static Set<String> memberTypes(byte[] classFile) {
+		Set<String> types = new TreeSet<>();
+		SignatureVisitor collector = new SignatureVisitor(OpenedClassReader.ASM_API) {
+
+			@Override
+			public void visitClassType(String name) {
+				types.add(name);
+			}
+
+		};
+		new ClassReader(classFile).accept(new ClassVisitor(OpenedClassReader.ASM_API) {
+
+			@Override
+			public FieldVisitor visitField(int access, String name, String descriptor, String signature,
+					Object value) {
+				new SignatureReader(signature == null ? descriptor : signature).acceptType(collector);
+				return null;
+			}
+
+			@Override
+			public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+					String[] exceptions) {
+				new SignatureReader(signature == null ? descriptor : signature).accept(collector);
+				return null;
+			}
+
+		}, SKIP_CODE | SKIP_DEBUG | SKIP_FRAMES);
+		return types;
+	}
+
+	/**
+	 * Returns the {@code validatedBy} types if the passed class file is a custom
+	 * constraint annotation.
+	 */
+	private static Set<String> validatorTypes(byte[] annotationClassFile) {
+		Set<String> types = new TreeSet<>();
+		new ClassReader(annotationClassFile).accept(new ClassVisitor(OpenedClassReader.ASM_API) {
+
+			@Override
+			public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+				return CONSTRAINT_DESCRIPTORS.contains(descriptor) ? new AnnotationVisitor(api) {
+
+					@Override
+					public AnnotationVisitor visitArray(String name) {
+						return "validatedBy".equals(name) ? new AnnotationVisitor(api) {
+
+							@Override
+							public void visit(String name, Object value) {
+								types.add(((Type) value).getInternalName());
+							}
+
+						} : null;
+					}
+
+				} : null;
+			}
+
+		}, SKIP_CODE | SKIP_DEBUG | SKIP_FRAMES);
+		return types;
+	}
+
+	/**
+	 * Release versions are identified by their version, snapshots additionally by
+	 * the hash of the content of the jar (or class folder) Vaadoo is loaded from.
+	 */
+	private static String vaadooVersion() {
+		Package pkg = TransformationCache.class.getPackage();
+		String version = pkg == null ? null : pkg.getImplementationVersion();
+		if (version != null && !version.endsWith("-SNAPSHOT")) {
+			return version;
+		}
+		CodeSource codeSource = TransformationCache.class.getProtectionDomain().getCodeSource();
+		if (codeSource == null) {
+			return version;
+		}
+		try {
+			return version + "@" + contentHash(Path.of(codeSource.getLocation().toURI()));
+		} catch (URISyntaxException | IllegalArgumentException | IOException e) {
+			return version + "@" + codeSource.getLocation();
+		}
+	}
+
+	private static String contentHash(Path path) throws IOException {
+		MessageDigest digest = sha256();
+		if (Files.isDirectory(path)) {
+			try (Stream<Path> files = Files.walk(path)) {
+				List<Path> sorted = files.filter(Files::isRegularFile).sorted().collect(toList());
+				for (Path file : sorted) {
+					digest.update(path.relativize(file).toString().getBytes(UTF_8));
+					digest.update(Files.readAllBytes(file));
+				}
+			}
+		} else {
+			digest.update(Files.readAllBytes(path));
+		}
+		return hex(digest.digest());
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
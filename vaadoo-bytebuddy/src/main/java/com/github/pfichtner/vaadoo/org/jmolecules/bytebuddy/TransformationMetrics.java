@@ -0,0 +1,283 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.joining;
+import static net.bytebuddy.jar.asm.Opcodes.ASM9;
+import static net.bytebuddy.jar.asm.Opcodes.INVOKESTATIC;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.VaadooConfiguration;
+
+import net.bytebuddy.jar.asm.ClassVisitor;
+import net.bytebuddy.jar.asm.MethodVisitor;
+
+/**
+ * Build time metrics of the transformation, see
+ * {@link VaadooConfiguration#metrics()}: the time spent in each {@link Phase}
+ * and what was generated, per type and in total. Everything is collected in
+ * memory and written to {@code vaadoo-metrics.json} and
+ * {@code vaadoo-metrics.csv} by {@link #write()}. Types transformed more than
+ * once (e.g. in watch mode) accumulate their metrics. Types replayed from the
+ * {@link TransformationCache} are counted as such, their phases (other than
+ * the preprocessing) are not measured.
+ */
+class TransformationMetrics {
+
+	static final String JSON = "vaadoo-metrics.json";
+	static final String CSV = "vaadoo-metrics.csv";
+
+	/** Collects nothing, used if the metrics are disabled. */
+	static final TransformationMetrics NONE = new TransformationMetrics(null);
+
+	enum Phase {
+		/** {@link JMoleculesPlugin#onPreprocess} without resolving the configuration */
+		PREPROCESS,
+		/** resolving the configuration (once per class file locator) */
+		CONFIGURATION,
+		/** selecting, ordering and wrapping the checks of the parameters */
+		PLANNING,
+		/** emitting the code of the checks into the validate methods */
+		INJECTION,
+		/** computing the stack map frames of the generated methods */
+		FRAMES,
+		/**
+		 * reading, rewriting and writing the class without {@link #INJECTION} and
+		 * {@link #FRAMES}
+		 */
+		WRITING;
+
+		private String key() {
+			return name().toLowerCase(Locale.ROOT);
+		}
+	}
+
+	private static final int BYTES_ORIGINAL = Phase.values().length;
+	private static final int BYTES_WRITTEN = BYTES_ORIGINAL + 1;
+	private static final int CONSTRUCTORS = BYTES_WRITTEN + 1;
+	private static final int REGEXES = CONSTRUCTORS + 1;
+	private static final int REPLAYED = REGEXES + 1;
+
+	private final File directory;
+	private final Map<String, TypeMetrics> types = new ConcurrentSkipListMap<>();
+
+	TransformationMetrics(File directory) {
+		this.directory = directory;
+	}
+
+	boolean enabled() {
+		return directory != null;
+	}
+
+	/**
+	 * Returns the metrics of the passed type, which are not kept if the metrics
+	 * are disabled.
+	 */
+	TypeMetrics of(String typeName) {
+		return enabled() ? types.computeIfAbsent(typeName, __ -> new TypeMetrics()) : new TypeMetrics();
+	}
+
+	static class TypeMetrics {
+
+		// the nanos of the phases followed by the counters
+		private final AtomicLongArray values = new AtomicLongArray(REPLAYED + 1);
+		private final Map<String, Long> checks = new ConcurrentSkipListMap<>();
+
+		void add(Phase phase, long nanos) {
+			values.addAndGet(phase.ordinal(), nanos);
+		}
+
+		long nanos(Phase phase) {
+			return values.get(phase.ordinal());
+		}
+
+		/**
+		 * Adds the nanos since {@code start} to the passed phase and returns the
+		 * current {@link System#nanoTime()}.
+		 */
+		long since(Phase phase, long start) {
+			long now = System.nanoTime();
+			add(phase, now - start);
+			return now;
+		}
+
+		void constructorEnhanced() {
+			values.incrementAndGet(CONSTRUCTORS);
+		}
+
+		void checksInjected(String annotation, int count) {
+			checks.merge(annotation, (long) count, Long::sum);
+		}
+
+		void regexRewritten() {
+			values.incrementAndGet(REGEXES);
+		}
+
+		void replayedFromCache() {
+			values.incrementAndGet(REPLAYED);
+		}
+
+		void originalSize(int bytes) {
+			values.addAndGet(BYTES_ORIGINAL, bytes);
+		}
+
+		void writtenSize(int bytes) {
+			values.addAndGet(BYTES_WRITTEN, bytes);
+		}
+
+		long bytesAdded() {
+			long written = values.get(BYTES_WRITTEN);
+			return written == 0 ? 0 : written - values.get(BYTES_ORIGINAL);
+		}
+
+		private void addTo(TypeMetrics total) {
+			for (int i = 0; i < values.length(); i++) {
+				total.values.addAndGet(i, values.get(i));
+			}
+			checks.forEach((annotation, count) -> total.checks.merge(annotation, count, Long::sum));
+		}
+
+		private String json(String indent) {
+			String nanos = Stream.of(Phase.values()).map(p -> format("\"%s\": %d", p.key(), nanos(p)))
+					.collect(joining(", "));
+			String checks = this.checks.entrySet().stream()
+					.map(e -> format("\"%s\": %d", escape(e.getKey()), e.getValue())).collect(joining(", "));
+			return String.join(",\n" + indent, //
+					format("\"nanos\": { %s }", nanos), //
+					format("\"constructorsEnhanced\": %d", values.get(CONSTRUCTORS)), //
+					format("\"checksInjected\": { %s }", checks), //
+					format("\"regexesRewritten\": %d", values.get(REGEXES)), //
+					format("\"bytesAdded\": %d", bytesAdded()), //
+					format("\"replayedFromCache\": %d", values.get(REPLAYED)));
+		}
+
+		private String csv(String name, Set<String> annotations) {
+			List<Object> columns = new ArrayList<>();
+			columns.add(name);
+			Stream.of(Phase.values()).map(this::nanos).forEach(columns::add);
+			columns.add(values.get(CONSTRUCTORS));
+			columns.add(values.get(REGEXES));
+			columns.add(bytesAdded());
+			columns.add(values.get(REPLAYED));
+			annotations.stream().map(a -> checks.getOrDefault(a, 0L)).forEach(columns::add);
+			return columns.stream().map(String::valueOf).collect(joining(","));
+		}
+
+		/**
+		 * Wraps the passed visitor so the class it writes is measured: the time from
+		 * {@link ClassVisitor#visit} to {@link ClassVisitor#visitEnd} is
+		 * {@link Phase#WRITING} unless it was spent in the other phases, the regex
+		 * {@code Pattern#compile} calls of the passed methods are counted as
+		 * rewritten. Has to be the outermost visitor.
+		 */
+		ClassVisitor measuring(ClassVisitor cv, Set<String> regexRewritingMethodNames) {
+			return new ClassVisitor(ASM9, cv) {
+
+				private long start;
+				private long otherPhases;
+
+				@Override
+				public void visit(int version, int access, String name, String signature, String superName,
+						String[] interfaces) {
+					otherPhases = nanos(Phase.INJECTION) + nanos(Phase.FRAMES);
+					start = System.nanoTime();
+					super.visit(version, access, name, signature, superName, interfaces);
+				}
+
+				@Override
+				public MethodVisitor visitMethod(int access, String name, String desc, String signature,
+						String[] exceptions) {
+					MethodVisitor mv = super.visitMethod(access, name, desc, signature, exceptions);
+					return !regexRewritingMethodNames.contains(name) ? mv : new MethodVisitor(ASM9, mv) {
+						@Override
+						public void visitMethodInsn(int opcode, String owner, String name, String desc,
+								boolean itf) {
+							if (opcode == INVOKESTATIC && "java/util/regex/Pattern".equals(owner)
+									&& "compile".equals(name)) {
+								regexRewritten();
+							}
+							super.visitMethodInsn(opcode, owner, name, desc, itf);
+						}
+					};
+				}
+
+				@Override
+				public void visitEnd() {
+					super.visitEnd();
+					long elapsed = System.nanoTime() - start;
+					add(Phase.WRITING, elapsed - (nanos(Phase.INJECTION) + nanos(Phase.FRAMES) - otherPhases));
+				}
+			};
+		}
+
+	}
+
+	/**
+	 * Writes the metrics of all types and their totals as JSON and CSV to the
+	 * metrics directory. Does nothing if the metrics are disabled.
+	 */
+	void write() throws IOException {
+		if (!enabled()) {
+			return;
+		}
+		TypeMetrics total = new TypeMetrics();
+		types.values().forEach(t -> t.addTo(total));
+		Files.createDirectories(directory.toPath());
+		Files.write(new File(directory, JSON).toPath(), json(total).getBytes(UTF_8));
+		Files.write(new File(directory, CSV).toPath(), csv(total).getBytes(UTF_8));
+	}
+
+	private String json(TypeMetrics total) {
+		String types = this.types.entrySet().stream()
+				.map(e -> format("    {\n      \"type\": \"%s\",\n      %s\n    }", escape(e.getKey()),
+						e.getValue().json("      ")))
+				.collect(joining(",\n"));
+		return format("{\n  \"types\": %d,\n  \"total\": {\n    %s\n  },\n  \"perType\": [\n%s\n  ]\n}\n",
+				this.types.size(), total.json("    "), types);
+	}
+
+	private String csv(TypeMetrics total) {
+		Set<String> annotations = new TreeSet<>(total.checks.keySet());
+		List<String> header = new ArrayList<>();
+		header.add("type");
+		Stream.of(Phase.values()).map(p -> p.key() + "Nanos").forEach(header::add);
+		header.addAll(List.of("constructorsEnhanced", "regexesRewritten", "bytesAdded", "replayedFromCache"));
+		annotations.stream().map(a -> "checks:" + a).forEach(header::add);
+
+		StringBuilder csv = new StringBuilder(String.join(",", header)).append('\n');
+		types.forEach((name, metrics) -> csv.append(metrics.csv(name, annotations)).append('\n'));
+		return csv.append(total.csv("TOTAL", annotations)).append('\n').toString();
+	}
+
+	private static String escape(String value) {
+		return value.replace("\\", "\\\\").replace("\"", "\\\"");
+	}
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy;
+
+import java.io.File;
+import java.lang.instrument.Instrumentation;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.VaadooConfiguration;
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.VaadooConfigurationSupplier;
+
+/**
+ * Java agent applying the Vaadoo transformation at class load time, for
+ * applications whose build cannot run the Byte Buddy build plugin:
+ *
+ * <pre>
+ * java -javaagent:vaadoo-bytebuddy-nodep.jar[=config=vaadoo.config,cache=directory] ...
+ * </pre>
+ *
+ * Without {@code config} the {@code vaadoo.config} is detected like in the
+ * build, starting at the working directory. The transformed classes are cached
+ * in {@code cache}, defaulting to
+ * {@link VaadooConfiguration#transformationCacheDirectory()}. Byte Buddy, the
+ * Jakarta Validation API and SLF4J have to be on the class path of the
+ * application.
+ */
+public final class VaadooAgent {
+
+	private VaadooAgent() {
+		super();
+	}
+
+	public static void premain(String arguments, Instrumentation instrumentation) {
+		install(arguments, instrumentation);
+	}
+
+	public static void agentmain(String arguments, Instrumentation instrumentation) {
+		install(arguments, instrumentation);
+	}
+
+	static VaadooClassFileTransformer install(String arguments, Instrumentation instrumentation) {
+		Map<String, String> options = options(arguments);
+		String config = options.get("config");
+		VaadooConfigurationSupplier configurationSupplier = config == null
+				? new VaadooConfigurationSupplier(new File("").getAbsoluteFile())
+				: VaadooConfigurationSupplier.of(new File(config));
+		String cache = options.get("cache");
+		VaadooClassFileTransformer transformer = new VaadooClassFileTransformer(
+				new JMoleculesPlugin(configurationSupplier), cache == null ? null : new File(cache).getAbsoluteFile());
+		instrumentation.addTransformer(transformer);
+		Runtime.getRuntime().addShutdownHook(new Thread(transformer::close, "vaadoo-agent"));
+		return transformer;
+	}
+
+	private static Map<String, String> options(String arguments) {
+		Map<String, String> options = new HashMap<>();
+		if (arguments != null && !arguments.isBlank()) {
+			for (String option : arguments.split(",")) {
+				String[] keyValue = option.split("=", 2);
+				if (keyValue.length != 2) {
+					throw new IllegalArgumentException("Expected key=value but got " + option);
+				}
+				options.put(keyValue[0].trim(), keyValue[1].trim());
+			}
+		}
+		return options;
+	}
+
+}
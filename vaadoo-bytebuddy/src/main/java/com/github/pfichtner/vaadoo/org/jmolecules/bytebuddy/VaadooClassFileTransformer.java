@@ -0,0 +1,167 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy;
+
+import static com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.CachedVaadooConfiguration.cachedConfiguration;
+import static java.util.Collections.synchronizedMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.instrument.ClassFileTransformer;
+import java.security.ProtectionDomain;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.TransformationCache.Entry;
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.VaadooConfiguration;
+
+import lombok.extern.slf4j.Slf4j;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.dynamic.TypeResolutionStrategy;
+import net.bytebuddy.dynamic.loading.ClassInjector;
+import net.bytebuddy.dynamic.scaffold.inline.MethodNameTransformer;
+import net.bytebuddy.implementation.auxiliary.AuxiliaryType;
+import net.bytebuddy.pool.TypePool;
+
+/**
+ * Applies the Vaadoo transformation to classes while they are loaded, see
+ * {@link VaadooAgent}.
+ * <p>
+ * The transformed class files are kept in a {@link TransformationCache} keyed
+ * by the hash of the original class file (and of the annotations it uses), so
+ * later starts of the application look up the transformed class instead of
+ * rebasing it. There is a cache per configuration, as the configuration is
+ * resolved per class loader. The auxiliary types are injected into the class loader of the
+ * transformed class before it gets defined. The index of the cache is written
+ * on {@link #close()}, the classes transformed by this run are found by the
+ * next one.
+ */
+@Slf4j
+class VaadooClassFileTransformer implements ClassFileTransformer, AutoCloseable {
+
+	/**
+	 * Resolves the classes being loaded (and not yet defined) to the class file
+	 * passed to the transformer, all other classes by their class loader.
+	 */
+	private static class LoadingClassFileLocator implements ClassFileLocator {
+
+		private final Map<String, byte[]> loading = new ConcurrentHashMap<>();
+		private final ClassFileLocator classLoader;
+		private final TypePool typePool;
+
+		private LoadingClassFileLocator(ClassLoader classLoader) {
+			this.classLoader = ClassFileLocator.ForClassLoader.WeaklyReferenced.of(classLoader);
+			this.typePool = new TypePool.Default.WithLazyResolution(TypePool.CacheProvider.Simple.withObjectType(),
+					this, TypePool.Default.ReaderMode.FAST);
+		}
+
+		@Override
+		public Resolution locate(String name) throws IOException {
+			byte[] classFile = loading.get(name);
+			return classFile == null ? classLoader.locate(name) : new Resolution.Explicit(classFile);
+		}
+
+		@Override
+		public void close() {
+		}
+
+	}
+
+	private final ThreadLocal<Boolean> transforming = ThreadLocal.withInitial(() -> false);
+	private final Map<ClassLoader, LoadingClassFileLocator> locators = synchronizedMap(new WeakHashMap<>());
+	private final ByteBuddy byteBuddy = new ByteBuddy().with(new AuxiliaryType.NamingStrategy.Suffixing("vaadoo"));
+	private final Map<VaadooConfiguration, TransformationCache> caches = new ConcurrentHashMap<>();
+	private final JMoleculesPlugin plugin;
+	private final File cacheDirectory;
+
+	/**
+	 * @param cacheDirectory the directory of the caches or {@code null} to use
+	 *                       {@link VaadooConfiguration#transformationCacheDirectory()}
+	 */
+	VaadooClassFileTransformer(JMoleculesPlugin plugin, File cacheDirectory) {
+		this.plugin = plugin;
+		this.cacheDirectory = cacheDirectory;
+	}
+
+	@Override
+	public byte[] transform(ClassLoader loader, String className, Class<?> classBeingRedefined,
+			ProtectionDomain protectionDomain, byte[] classfileBuffer) {
+		// the classes loaded by the transformation itself are not transformed
+		if (loader == null || className == null || classBeingRedefined != null || transforming.get()) {
+			return null;
+		}
+		String typeName = className.replace('/', '.');
+		LoadingClassFileLocator locator = locators.computeIfAbsent(loader, LoadingClassFileLocator::new);
+		transforming.set(true);
+		locator.loading.put(typeName, classfileBuffer);
+		try {
+			return transform(typeName, locator, loader, protectionDomain);
+		} catch (Exception | LinkageError e) {
+			log.warn("Cannot transform {}, loading it unchanged", typeName, e);
+			return null;
+		} finally {
+			locator.loading.remove(typeName);
+			transforming.set(false);
+		}
+	}
+
+	private byte[] transform(String typeName, LoadingClassFileLocator locator, ClassLoader loader,
+			ProtectionDomain protectionDomain) throws IOException {
+		TypeDescription type = locator.typePool.describe(typeName).resolve();
+		plugin.onPreprocess(type, locator);
+		if (!plugin.matches(type)) {
+			return null;
+		}
+
+		TransformationCache cache = cache(plugin.configuration(locator));
+		byte[] key = cache.key(typeName, locator);
+		Entry entry = cache.lookup(key);
+		if (entry == null) {
+			entry = Entry.of(plugin
+					.apply(byteBuddy.rebase(type, locator, new MethodNameTransformer.Suffixing("original")), type,
+							locator)
+					.make(TypeResolutionStrategy.Disabled.INSTANCE, locator.typePool));
+			cache.store(key, entry);
+		} else {
+			plugin.release(type);
+		}
+		if (!entry.getAuxiliaryTypes().isEmpty()) {
+			injector(loader, protectionDomain).injectRaw(entry.getAuxiliaryTypes());
+		}
+		return entry.getType();
+	}
+
+	private TransformationCache cache(VaadooConfiguration configuration) {
+		return caches.computeIfAbsent(cachedConfiguration(configuration), c -> new TransformationCache(c,
+				cacheDirectory == null ? c.transformationCacheDirectory() : cacheDirectory));
+	}
+
+	private static ClassInjector injector(ClassLoader loader, ProtectionDomain protectionDomain) {
+		return ClassInjector.UsingReflection.isAvailable()
+				? new ClassInjector.UsingReflection(loader, protectionDomain)
+				: new ClassInjector.UsingUnsafe(loader, protectionDomain);
+	}
+
+	@Override
+	public void close() {
+		caches.values().forEach(TransformationCache::close);
+		plugin.close();
+	}
+
+}
@@ -15,69 +15,132 @@
  */
 package com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy;
 
+import static com.github.pfichtner.vaadoo.CachedClockClassVisitor.cachedClockName;
+import static com.github.pfichtner.vaadoo.CheckSwitches.flag;
+import static com.github.pfichtner.vaadoo.CheckSwitches.switches;
+import static com.github.pfichtner.vaadoo.CheckSwitches.switchesName;
 import static com.github.pfichtner.vaadoo.CustomAnnotations.addCustomAnnotations;
 import static com.github.pfichtner.vaadoo.Jsr380Annos.annotationOnTypeNotValid;
-import static com.github.pfichtner.vaadoo.Jsr380Annos.findRepeatableAnnotationContainers;
 import static com.github.pfichtner.vaadoo.Jsr380Annos.isStandardJr380Anno;
+import static com.github.pfichtner.vaadoo.PatternRewriteClassVisitor.sharedRegistry;
+import static com.github.pfichtner.vaadoo.PatternRewriteClassVisitor.sharedRegistryName;
+import static com.github.pfichtner.vaadoo.RegexAnalyzer.backtrackingRisks;
+import static com.github.pfichtner.vaadoo.RegexAnalyzer.syntaxError;
+import static com.github.pfichtner.vaadoo.RegexStepBudgetClassVisitor.budgetedCharSequenceName;
+import static com.github.pfichtner.vaadoo.ValidationProfile.profileFile;
+import static com.github.pfichtner.vaadoo.ValidationProfile.profileWriterName;
 import static com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.PluginUtils.markGenerated;
 import static com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.CachedVaadooConfiguration.cachedConfiguration;
 import static java.lang.String.format;
-import static java.lang.reflect.Modifier.isAbstract;
+import static java.lang.String.join;
 import static java.util.Collections.emptyList;
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.comparingDouble;
 import static java.util.function.Predicate.not;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.IntStream.range;
 import static java.util.stream.Stream.concat;
 import static java.util.stream.Stream.empty;
 import static net.bytebuddy.implementation.MethodCall.invoke;
-import static net.bytebuddy.jar.asm.ClassWriter.COMPUTE_FRAMES;
-import static net.bytebuddy.jar.asm.ClassWriter.COMPUTE_MAXS;
 import static net.bytebuddy.jar.asm.Opcodes.AALOAD;
+import static net.bytebuddy.jar.asm.Opcodes.AASTORE;
+import static net.bytebuddy.jar.asm.Opcodes.ACC_FINAL;
 import static net.bytebuddy.jar.asm.Opcodes.ACC_PRIVATE;
+import static net.bytebuddy.jar.asm.Opcodes.ACC_PUBLIC;
 import static net.bytebuddy.jar.asm.Opcodes.ACC_STATIC;
+import static net.bytebuddy.jar.asm.Opcodes.ACC_SYNCHRONIZED;
+import static net.bytebuddy.jar.asm.Opcodes.ACC_SYNTHETIC;
+import static net.bytebuddy.jar.asm.Opcodes.ACONST_NULL;
 import static net.bytebuddy.jar.asm.Opcodes.ALOAD;
+import static net.bytebuddy.jar.asm.Opcodes.ANEWARRAY;
+import static net.bytebuddy.jar.asm.Opcodes.ARETURN;
 import static net.bytebuddy.jar.asm.Opcodes.ARRAYLENGTH;
 import static net.bytebuddy.jar.asm.Opcodes.ASTORE;
+import static net.bytebuddy.jar.asm.Opcodes.ATHROW;
+import static net.bytebuddy.jar.asm.Opcodes.BIPUSH;
 import static net.bytebuddy.jar.asm.Opcodes.CHECKCAST;
+import static net.bytebuddy.jar.asm.Opcodes.DUP2;
+import static net.bytebuddy.jar.asm.Opcodes.DUP;
+import static net.bytebuddy.jar.asm.Opcodes.GETFIELD;
+import static net.bytebuddy.jar.asm.Opcodes.GETSTATIC;
 import static net.bytebuddy.jar.asm.Opcodes.GOTO;
 import static net.bytebuddy.jar.asm.Opcodes.IALOAD;
+import static net.bytebuddy.jar.asm.Opcodes.IAND;
 import static net.bytebuddy.jar.asm.Opcodes.ICONST_0;
+import static net.bytebuddy.jar.asm.Opcodes.IFEQ;
 import static net.bytebuddy.jar.asm.Opcodes.IFNE;
+import static net.bytebuddy.jar.asm.Opcodes.IFNONNULL;
 import static net.bytebuddy.jar.asm.Opcodes.IFNULL;
+import static net.bytebuddy.jar.asm.Opcodes.IF_ICMPEQ;
 import static net.bytebuddy.jar.asm.Opcodes.IF_ICMPGE;
 import static net.bytebuddy.jar.asm.Opcodes.ILOAD;
 import static net.bytebuddy.jar.asm.Opcodes.INVOKEINTERFACE;
+import static net.bytebuddy.jar.asm.Opcodes.INVOKESPECIAL;
+import static net.bytebuddy.jar.asm.Opcodes.INVOKESTATIC;
+import static net.bytebuddy.jar.asm.Opcodes.INVOKEVIRTUAL;
 import static net.bytebuddy.jar.asm.Opcodes.ISTORE;
+import static net.bytebuddy.jar.asm.Opcodes.IUSHR;
+import static net.bytebuddy.jar.asm.Opcodes.IXOR;
+import static net.bytebuddy.jar.asm.Opcodes.LADD;
+import static net.bytebuddy.jar.asm.Opcodes.LALOAD;
+import static net.bytebuddy.jar.asm.Opcodes.LASTORE;
+import static net.bytebuddy.jar.asm.Opcodes.LCONST_1;
+import static net.bytebuddy.jar.asm.Opcodes.NEW;
+import static net.bytebuddy.jar.asm.Opcodes.POP;
+import static net.bytebuddy.jar.asm.Opcodes.PUTSTATIC;
 import static net.bytebuddy.jar.asm.Opcodes.RETURN;
 import static net.bytebuddy.matcher.ElementMatchers.is;
 import static net.bytebuddy.matcher.ElementMatchers.named;
 import static net.bytebuddy.matcher.ElementMatchers.takesArguments;
 
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
+import com.github.pfichtner.vaadoo.CachedClockClassVisitor;
 import com.github.pfichtner.vaadoo.ConstructorAnnotationRemover;
+import com.github.pfichtner.vaadoo.FrameComputingClassVisitor;
 import com.github.pfichtner.vaadoo.Jsr380Annos;
 import com.github.pfichtner.vaadoo.Jsr380Annos.ConfigEntry;
+import com.github.pfichtner.vaadoo.Jsr380Annos.Cost;
+import com.github.pfichtner.vaadoo.NamedPlaceholders;
 import com.github.pfichtner.vaadoo.Parameters;
 import com.github.pfichtner.vaadoo.Parameters.Parameter;
 import com.github.pfichtner.vaadoo.PatternRewriteClassVisitor;
+import com.github.pfichtner.vaadoo.RegexSpecializingClassVisitor;
+import com.github.pfichtner.vaadoo.RegexStepBudgetClassVisitor;
+import com.github.pfichtner.vaadoo.Resources;
 import com.github.pfichtner.vaadoo.ValidationCodeInjector;
+import com.github.pfichtner.vaadoo.ValidationProfile;
 import com.github.pfichtner.vaadoo.fragments.Jsr380CodeFragment;
 import com.github.pfichtner.vaadoo.fragments.impl.Template;
 import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.PluginLogger.Log;
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.TransformationMetrics.Phase;
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.TransformationMetrics.TypeMetrics;
 import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.VaadooConfiguration;
-
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.VaadooConfiguration.CheckOrder;
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.VaadooConfiguration.ProfileMode;
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.VaadooConfiguration.RegexAnalysis;
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.VaadooConfiguration.RegexCacheScope;
+
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Pattern.Flag;
 import lombok.RequiredArgsConstructor;
@@ -91,11 +154,20 @@ import net.bytebuddy.description.field.FieldList;
 import net.bytebuddy.description.method.MethodDescription;
 import net.bytebuddy.description.method.MethodDescription.InDefinedShape;
 import net.bytebuddy.description.method.MethodList;
+import net.bytebuddy.description.type.PackageDescription;
 import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.DynamicType;
 import net.bytebuddy.dynamic.DynamicType.Builder;
+import net.bytebuddy.dynamic.scaffold.InstrumentedType;
 import net.bytebuddy.implementation.Implementation;
+import net.bytebuddy.implementation.LoadedTypeInitializer;
 import net.bytebuddy.implementation.SuperMethodCall;
 import net.bytebuddy.implementation.bytecode.ByteCodeAppender;
+import net.bytebuddy.implementation.bytecode.Duplication;
+import net.bytebuddy.implementation.bytecode.StackManipulation;
+import net.bytebuddy.implementation.bytecode.TypeCreation;
+import net.bytebuddy.implementation.bytecode.member.MethodReturn;
+import net.bytebuddy.implementation.bytecode.member.MethodVariableAccess;
 import net.bytebuddy.jar.asm.ClassVisitor;
 import net.bytebuddy.jar.asm.Label;
 import net.bytebuddy.jar.asm.MethodVisitor;
@@ -105,23 +177,54 @@ import net.bytebuddy.pool.TypePool;
 class VaadooImplementor {
 
 	private static final String VALIDATE_METHOD_BASE_NAME = "validate";
+	private static final String PROFILE_FIELD = "vaadoo$profile";
+	private static final String TRUSTED_FACTORY_NAME = "trusted";
+	private static final String VALIDATE_COLUMNS_NAME = "validateColumns";
+	private static final String BITSET_INTERNAL_NAME = Type.getInternalName(BitSet.class);
+	private static final String STRING_INTERNAL_NAME = Type.getInternalName(String.class);
+	private static final String THREAD_DESCRIPTOR = Type.getDescriptor(Thread.class);
 
 	private final VaadooConfiguration configuration;
+	private final FragmentIndex fragmentIndex;
+	private final TransformationMetrics metrics;
+	private final Map<String, DynamicType> sharedAuxiliaryTypes = new ConcurrentHashMap<>();
 
-	public VaadooImplementor(VaadooConfiguration configuration) {
+	public VaadooImplementor(VaadooConfiguration configuration, TransformationMetrics metrics) {
 		this.configuration = cachedConfiguration(configuration);
+		this.fragmentIndex = new FragmentIndex(this.configuration);
+		this.metrics = metrics;
 	}
 
 	JMoleculesTypeBuilder implementVaadoo(JMoleculesTypeBuilder type, Log log) {
+		return implementVaadoo(type, log, __ -> {
+		});
+	}
+
+	/**
+	 * Implements the checks of the passed type, the auxiliary types the type
+	 * requires are passed to {@code requiredTypes} as well.
+	 */
+	JMoleculesTypeBuilder implementVaadoo(JMoleculesTypeBuilder type, Log log, Consumer<DynamicType> requiredTypes) {
+		long start = System.nanoTime();
 		TypeDescription typeDescription = type.getTypeDescription();
+		TypeMetrics typeMetrics = metrics.of(typeDescription.getName());
 		List<String> usedMethodNames = new ArrayList<>(typeDescription.getDeclaredMethods().stream()
 				.map(MethodDescription.InDefinedShape::getName).collect(toList()));
 		Set<String> allGeneratedValidateMethodNames = new HashSet<>();
+		Map<String, Function<String, String>> budgetExceededMessages = new HashMap<>();
+		Set<String> frameComputedMethodNames = new HashSet<>();
+		ValidationProfile profile = configuration.profile() == ProfileMode.USE
+				? ValidationProfile.load(profileFile(configuration.profileDirectory(), typeDescription.getName()))
+				: ValidationProfile.EMPTY;
+		List<String> profileKeys = new ArrayList<>();
+		List<DynamicType> auxiliaryTypes = new ArrayList<>();
 
 		for (InDefinedShape definedShape : typeDescription.getDeclaredMethods()) {
 			if (definedShape.isConstructor()) {
 				Parameters parameters = Parameters.of(definedShape.getParameters(), typeDescription);
 				Implementation.Composable centralValidateImpl = null;
+				Map<Integer, String> columnValidateMethodNames = new TreeMap<>();
+				List<StaticValidateAppender> parameterAppenders = new ArrayList<>();
 
 				// We iterate backwards to build the chain so the calls are in the correct
 				// order:
@@ -130,13 +233,17 @@ class VaadooImplementor {
 					Parameter parameter = parameters.parameter(i);
 					String validateParamMethodName = nonExistingMethodName(usedMethodNames,
 							VALIDATE_METHOD_BASE_NAME + "_" + parameter.name());
-					StaticValidateAppender parameterAppender = new StaticValidateAppender(validateParamMethodName,
-							parameter, configuration);
+					StaticValidateAppender parameterAppender = new StaticValidateAppender(typeDescription,
+							validateParamMethodName, parameter, configuration, fragmentIndex, profile, profileKeys,
+							log);
 
 					if (parameterAppender.hasInjections()) {
 						usedMethodNames.add(validateParamMethodName);
 						allGeneratedValidateMethodNames.add(validateParamMethodName);
-						type = type.mapBuilder(t -> addStaticValidateMethod(t, parameterAppender, log));
+						budgetExceededMessages.put(validateParamMethodName, parameterAppender::budgetExceededMessage);
+						frameComputedMethodNames.add(validateParamMethodName);
+						parameterAppenders.add(parameterAppender);
+						columnValidateMethodNames.put(i, validateParamMethodName);
 
 						Implementation.Composable invokeParam = invoke(
 								named(validateParamMethodName).and(takesArguments(parameter.type()))).withArgument(i);
@@ -146,54 +253,337 @@ class VaadooImplementor {
 				}
 
 				if (centralValidateImpl != null) {
+					typeMetrics.constructorEnhanced();
+					parameterAppenders.forEach(a -> a.checks.forEach(typeMetrics::checksInjected));
+					type = type.mapBuilder(t -> addStaticValidateMethods(t, parameterAppenders, typeMetrics, log));
+
 					String centralValidateName = nonExistingMethodName(usedMethodNames, VALIDATE_METHOD_BASE_NAME);
 					usedMethodNames.add(centralValidateName);
 					allGeneratedValidateMethodNames.add(centralValidateName);
 
 					final Implementation finalCentralImpl = centralValidateImpl;
-					type = type.mapBuilder(t -> markGenerated(wrap(t, COMPUTE_FRAMES | COMPUTE_MAXS)
-							.defineMethod(centralValidateName, void.class, ACC_PRIVATE | ACC_STATIC)
-							.withParameters(parameters.types()).intercept(finalCentralImpl)));
+					type = type.mapBuilder(
+							t -> markGenerated(t.defineMethod(centralValidateName, void.class, ACC_PRIVATE | ACC_STATIC)
+									.withParameters(parameters.types()).intercept(finalCentralImpl)));
 
 					type = type.mapBuilder(t -> t.constructor(is(definedShape))
 							.intercept(invoke(named(centralValidateName).and(takesArguments(parameters.types())))
 									.withAllArguments().andThen(SuperMethodCall.INSTANCE)));
+
+					if (configuration.trustedFactory()) {
+						type = type.mapBuilder(t -> addTrustedFactory(t, typeDescription, definedShape, log));
+					}
+
+					if (configuration.columnValidation()) {
+						frameComputedMethodNames.add(VALIDATE_COLUMNS_NAME);
+						type = type.mapBuilder(t -> addColumnValidation(t, typeDescription, parameters,
+								columnValidateMethodNames, log));
+					}
 				}
 			}
 		}
 
+		if (!profileKeys.isEmpty()) {
+			String writer = profileWriterName(typeDescription.getInternalName());
+			String file = profileFile(configuration.profileDirectory(), typeDescription.getName()).getPath();
+			ProfileWriterAccessor accessor = new ProfileWriterAccessor(typeDescription.getInternalName(), writer, file,
+					List.copyOf(profileKeys));
+			frameComputedMethodNames.add(PROFILE_FIELD);
+			auxiliaryTypes.add(auxiliaryType(writer, ValidationProfile::profileWriter));
+			type = type.mapBuilder(t -> markGenerated(
+					t.defineField(PROFILE_FIELD, Thread.class, ACC_PRIVATE | ACC_STATIC | ACC_SYNTHETIC)
+							.defineMethod(PROFILE_FIELD, Thread.class,
+									ACC_PRIVATE | ACC_STATIC | ACC_SYNCHRONIZED | ACC_SYNTHETIC)
+							.intercept(new Implementation.Simple(accessor))));
+		}
+
 		if (!allGeneratedValidateMethodNames.isEmpty()) {
+			// innermost first: the frames are computed for the code of the generated
+			// methods after all rewriting (including the regex$n methods of the
+			// RegexSpecializingClassVisitor)
+			List<ClassVisitorFactory> visitors = new ArrayList<>();
+			visitors.add((cv, typePool) -> new FrameComputingClassVisitor(cv, typePool,
+					name -> frameComputedMethodNames.contains(name)
+							|| name.startsWith(RegexSpecializingClassVisitor.METHOD_PREFIX),
+					nanos -> typeMetrics.add(Phase.FRAMES, nanos)));
+
 			if (configuration.regexOptimizationEnabled()) {
-				type = type.mapBuilder(
-						t -> wrap(t, cv -> new PatternRewriteClassVisitor(cv, allGeneratedValidateMethodNames)));
+				boolean pooledMatchers = configuration.pooledMatchers();
+				String registry = null;
+				if (configuration.regexCacheScope() == RegexCacheScope.PACKAGE) {
+					registry = sharedRegistryName(typeDescription.getInternalName(), pooledMatchers);
+					auxiliaryTypes.add(auxiliaryType(registry, n -> sharedRegistry(n, pooledMatchers)));
+				}
+				String sharedRegistry = registry;
+				visitors.add((cv, typePool) -> new PatternRewriteClassVisitor(cv, allGeneratedValidateMethodNames,
+						sharedRegistry, pooledMatchers));
+			}
+
+			if (configuration.regexStepBudget() > 0) {
+				// after the PatternRewriteClassVisitor so it sees the original
+				// Pattern#matcher calls first
+				String budgeted = budgetedCharSequenceName(typeDescription.getInternalName());
+				auxiliaryTypes.add(auxiliaryType(budgeted, RegexStepBudgetClassVisitor::budgetedCharSequence));
+				visitors.add((cv, typePool) -> new RegexStepBudgetClassVisitor(cv, budgetExceededMessages, budgeted,
+						configuration.regexStepBudget()));
+			}
+
+			if (configuration.specializeRegex()) {
+				// after the regex rewriting so it sees the Pattern calls before any other
+				// rewriting
+				visitors.add((cv, typePool) -> new RegexSpecializingClassVisitor(cv, allGeneratedValidateMethodNames));
+			}
+
+			if (configuration.checkSwitches()) {
+				String switches = switchesName(typeDescription.getInternalName());
+				PackageDescription packageDescription = typeDescription.getPackage();
+				Cost level = configuration.checkLevel(packageDescription == null ? "" : packageDescription.getName());
+				auxiliaryTypes.add(auxiliaryType(switches, n -> switches(n, level)));
+			}
+
+			if (configuration.cachedClock()) {
+				String clock = cachedClockName(typeDescription.getInternalName());
+				auxiliaryTypes.add(auxiliaryType(clock, CachedClockClassVisitor::cachedClock));
+				visitors.add((cv, typePool) -> new CachedClockClassVisitor(cv, allGeneratedValidateMethodNames, clock));
 			}
 
 			if (configuration.removeJsr380Annotations()) {
-				type = type.mapBuilder(t -> wrap(t, cv -> new ConstructorAnnotationRemover(cv, configuration)));
+				visitors.add((cv, typePool) -> new ConstructorAnnotationRemover(cv, configuration));
+			}
+
+			if (metrics.enabled()) {
+				Set<String> regexRewritingMethodNames = configuration.regexOptimizationEnabled()
+						|| configuration.specializeRegex() ? allGeneratedValidateMethodNames : Set.of();
+				visitors.add((cv, typePool) -> typeMetrics.measuring(cv, regexRewritingMethodNames));
 			}
+
+			type = type.mapBuilder(t -> visit(t, visitors));
+		}
+
+		if (!auxiliaryTypes.isEmpty()) {
+			auxiliaryTypes.forEach(requiredTypes);
+			type = type.mapBuilder(t -> t.require(auxiliaryTypes));
 		}
 
+		typeMetrics.since(Phase.PLANNING, start);
 		return type;
 	}
 
-	private Builder<?> wrap(Builder<?> builder, Function<ClassVisitor, ClassVisitor> classVisitorProvider) {
-		return builder.visit(new AsmVisitorWrapper() {
+	/**
+	 * Body of the synchronized accessor that creates the profile writer on first
+	 * use and registers it as shutdown hook, see {@link ProfileMode#RECORD}. This
+	 * is done lazily since the static initializer is already taken by the regex
+	 * cache.
+	 */
+	@Value
+	private static class ProfileWriterAccessor implements ByteCodeAppender {
+		String owner;
+		String writer;
+		String file;
+		List<String> keys;
 
-			@Override
-			public int mergeWriter(int flags) {
-				return flags;
+		@Override
+		public Size apply(MethodVisitor mv, Implementation.Context context, MethodDescription instrumentedMethod) {
+			// --- if (PROFILE_FIELD == null) {
+			Label initialized = new Label();
+			mv.visitFieldInsn(GETSTATIC, owner, PROFILE_FIELD, THREAD_DESCRIPTOR);
+			mv.visitJumpInsn(IFNONNULL, initialized);
+
+			// --- PROFILE_FIELD = new VaadooProfileWriter(file, new String[] { keys... });
+			mv.visitTypeInsn(NEW, writer);
+			mv.visitInsn(DUP);
+			mv.visitLdcInsn(file);
+			mv.visitLdcInsn(keys.size());
+			mv.visitTypeInsn(ANEWARRAY, STRING_INTERNAL_NAME);
+			for (int i = 0; i < keys.size(); i++) {
+				mv.visitInsn(DUP);
+				mv.visitLdcInsn(i);
+				mv.visitLdcInsn(keys.get(i));
+				mv.visitInsn(AASTORE);
 			}
+			mv.visitMethodInsn(INVOKESPECIAL, writer, "<init>", "(Ljava/lang/String;[Ljava/lang/String;)V", false);
+			mv.visitFieldInsn(PUTSTATIC, owner, PROFILE_FIELD, THREAD_DESCRIPTOR);
+
+			// --- VaadooProfileWriter.register(PROFILE_FIELD); (one shutdown hook per package)
+			mv.visitFieldInsn(GETSTATIC, owner, PROFILE_FIELD, THREAD_DESCRIPTOR);
+			mv.visitTypeInsn(CHECKCAST, writer);
+			mv.visitMethodInsn(INVOKESTATIC, writer, "register", "(L" + writer + ";)V", false);
+
+			// --- } return PROFILE_FIELD;
+			mv.visitLabel(initialized);
+			mv.visitFieldInsn(GETSTATIC, owner, PROFILE_FIELD, THREAD_DESCRIPTOR);
+			mv.visitInsn(ARETURN);
+			return new Size(7, instrumentedMethod.getStackSize());
+		}
+	}
 
-			@Override
-			public int mergeReader(int flags) {
-				return flags;
+	/**
+	 * Creates the instance by calling the original constructor (the one Byte Buddy
+	 * kept when rebasing the validating constructor), so the checks are skipped.
+	 * <p>
+	 * Only the checks of this constructor are skipped: if its body delegates using
+	 * {@code this(...)} the delegated (validating) constructor still runs its
+	 * checks. Rewriting that call would skip these checks for regular
+	 * construction as well, since both share the original constructor body.
+	 */
+	@Value
+	private static class TrustedFactory implements Implementation {
+		MethodDescription.SignatureToken constructor;
+
+		@Override
+		public InstrumentedType prepare(InstrumentedType instrumentedType) {
+			return instrumentedType;
+		}
+
+		@Override
+		public ByteCodeAppender appender(Target target) {
+			return (mv, context, instrumentedMethod) -> {
+				SpecialMethodInvocation original = target.invokeSuper(constructor);
+				if (!original.isValid()) {
+					throw new IllegalStateException(format("Cannot call the original constructor of %s, "
+							+ "the type has to be rebased to add a trusted factory", target.getInstrumentedType()));
+				}
+				StackManipulation.Size size = new StackManipulation.Compound( //
+						TypeCreation.of(target.getInstrumentedType()), //
+						Duplication.SINGLE, //
+						MethodVariableAccess.allArgumentsOf(instrumentedMethod), //
+						original, //
+						MethodReturn.REFERENCE //
+				).apply(mv, context);
+				return new ByteCodeAppender.Size(size.getMaximalSize(), instrumentedMethod.getStackSize());
+			};
+		}
+	}
+
+	/**
+	 * Validates whole columns of constructor arguments before any object is
+	 * created: each column is checked in its own loop calling the static validate
+	 * method of the parameter, the rows failing any check are returned as
+	 * {@link BitSet}. Parameters without checks are not iterated at all.
+	 */
+	@Value
+	private static class ColumnValidationAppender implements ByteCodeAppender {
+		String owner;
+		List<TypeDescription> parameterTypes;
+		Map<Integer, String> validateMethodNames;
+
+		@Override
+		public Size apply(MethodVisitor mv, Implementation.Context context, MethodDescription instrumentedMethod) {
+			int columns = parameterTypes.size();
+			int invalid = columns;
+			int rows = columns + 1;
+			int row = columns + 2;
+
+			// --- BitSet invalid = new BitSet();
+			mv.visitTypeInsn(NEW, BITSET_INTERNAL_NAME);
+			mv.visitInsn(DUP);
+			mv.visitMethodInsn(INVOKESPECIAL, BITSET_INTERNAL_NAME, "<init>", "()V", false);
+			mv.visitVarInsn(ASTORE, invalid);
+
+			// --- int rows = column0.length;
+			// --- if (columnN.length != rows) throw new IllegalArgumentException(...);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitInsn(ARRAYLENGTH);
+			mv.visitVarInsn(ISTORE, rows);
+			for (int column = 1; column < columns; column++) {
+				Label sameLength = new Label();
+				mv.visitVarInsn(ALOAD, column);
+				mv.visitInsn(ARRAYLENGTH);
+				mv.visitVarInsn(ILOAD, rows);
+				mv.visitJumpInsn(IF_ICMPEQ, sameLength);
+				mv.visitTypeInsn(NEW, "java/lang/IllegalArgumentException");
+				mv.visitInsn(DUP);
+				mv.visitLdcInsn("all columns must have the same length");
+				mv.visitMethodInsn(INVOKESPECIAL, "java/lang/IllegalArgumentException", "<init>",
+						"(Ljava/lang/String;)V", false);
+				mv.visitInsn(ATHROW);
+				mv.visitLabel(sameLength);
 			}
 
+			validateMethodNames.forEach((column, validateMethodName) -> {
+				Type type = Type.getType(parameterTypes.get(column).getDescriptor());
+				Label loop = new Label();
+				Label next = new Label();
+				Label end = new Label();
+				Label tryStart = new Label();
+				Label tryEnd = new Label();
+				Label failed = new Label();
+				mv.visitTryCatchBlock(tryStart, tryEnd, failed, "java/lang/RuntimeException");
+
+				// --- for (int row = 0; row < rows; row++) {
+				mv.visitInsn(ICONST_0);
+				mv.visitVarInsn(ISTORE, row);
+				mv.visitLabel(loop);
+				mv.visitVarInsn(ILOAD, row);
+				mv.visitVarInsn(ILOAD, rows);
+				mv.visitJumpInsn(IF_ICMPGE, end);
+
+				// --- try { validate_param(column[row]); }
+				mv.visitLabel(tryStart);
+				mv.visitVarInsn(ALOAD, column);
+				mv.visitVarInsn(ILOAD, row);
+				mv.visitInsn(type.getOpcode(IALOAD));
+				mv.visitMethodInsn(INVOKESTATIC, owner, validateMethodName,
+						Type.getMethodDescriptor(Type.VOID_TYPE, type), false);
+				mv.visitLabel(tryEnd);
+				mv.visitJumpInsn(GOTO, next);
+
+				// --- catch (RuntimeException e) { invalid.set(row); }
+				mv.visitLabel(failed);
+				mv.visitInsn(POP);
+				mv.visitVarInsn(ALOAD, invalid);
+				mv.visitVarInsn(ILOAD, row);
+				mv.visitMethodInsn(INVOKEVIRTUAL, BITSET_INTERNAL_NAME, "set", "(I)V", false);
+
+				// --- }
+				mv.visitLabel(next);
+				mv.visitIincInsn(row, 1);
+				mv.visitJumpInsn(GOTO, loop);
+				mv.visitLabel(end);
+			});
+
+			// --- return invalid;
+			mv.visitVarInsn(ALOAD, invalid);
+			mv.visitInsn(ARETURN);
+			return new Size(5, row + 1);
+		}
+	}
+
+	/**
+	 * Returns the helper class of the passed internal name. The helpers are shared
+	 * by all classes of a package, so their bytecode is created once per build.
+	 * Helpers whose bytecode depends on the configuration must encode it in their
+	 * name, since the name is the cache key.
+	 */
+	private DynamicType auxiliaryType(String internalName, Function<String, byte[]> bytecode) {
+		return sharedAuxiliaryTypes.computeIfAbsent(internalName, n -> new DynamicType.Default(auxiliaryType(n),
+				bytecode.apply(n), LoadedTypeInitializer.NoOp.INSTANCE, emptyList()));
+	}
+
+	private static TypeDescription auxiliaryType(String internalName) {
+		return new TypeDescription.Latent(Type.getObjectType(internalName).getClassName(), ACC_FINAL | ACC_SYNTHETIC,
+				TypeDescription.Generic.OBJECT);
+	}
+
+	private interface ClassVisitorFactory {
+		ClassVisitor wrap(ClassVisitor cv, TypePool typePool);
+	}
+
+	/**
+	 * Registers the class visitors as a single {@link AsmVisitorWrapper}, so all
+	 * rewriting is done while the class is written.
+	 */
+	private static Builder<?> visit(Builder<?> builder, List<ClassVisitorFactory> visitors) {
+		return builder.visit(new AsmVisitorWrapper.AbstractBase() {
+
 			@Override
 			public ClassVisitor wrap(TypeDescription instrumentedType, ClassVisitor cv, Implementation.Context context,
 					TypePool typePool, FieldList<FieldDescription.InDefinedShape> fields, MethodList<?> methods,
 					int writerFlags, int readerFlags) {
-				return classVisitorProvider.apply(cv);
+				for (ClassVisitorFactory visitor : visitors) {
+					cv = visitor.wrap(cv, typePool);
+				}
+				return cv;
 			}
 
 		});
@@ -207,17 +597,60 @@ class VaadooImplementor {
 				.get(); // safe because stream is infinite, will always find a free name
 	}
 
-	private Builder<?> addStaticValidateMethod(Builder<?> builder, StaticValidateAppender staticValidateAppender,
-			Log log) {
-		log.info("Implementing static validate method #{}.", staticValidateAppender.validateMethodName);
-		return markGenerated(wrap(builder, COMPUTE_FRAMES | COMPUTE_MAXS)
-				.defineMethod(staticValidateAppender.validateMethodName, void.class, ACC_PRIVATE | ACC_STATIC)
-				.withParameters(staticValidateAppender.parameter.type())
-				.intercept(new Implementation.Simple(staticValidateAppender)));
+	private static Builder<?> addStaticValidateMethods(Builder<?> builder, List<StaticValidateAppender> appenders,
+			TypeMetrics metrics, Log log) {
+		for (StaticValidateAppender appender : appenders) {
+			log.info("Implementing static validate method #{}.", appender.validateMethodName);
+			for (String memoizationField : appender.memoizationFields) {
+				builder = builder.defineField(memoizationField, String[].class,
+						ACC_PRIVATE | ACC_STATIC | ACC_SYNTHETIC);
+			}
+			builder = markGenerated(
+					builder.defineMethod(appender.validateMethodName, void.class, ACC_PRIVATE | ACC_STATIC)
+							.withParameters(appender.parameter.type())
+							.intercept(new Implementation.Simple(timed(appender, metrics))));
+		}
+		return builder;
+	}
+
+	private static ByteCodeAppender timed(ByteCodeAppender appender, TypeMetrics metrics) {
+		return (mv, context, instrumentedMethod) -> {
+			long start = System.nanoTime();
+			try {
+				return appender.apply(mv, context, instrumentedMethod);
+			} finally {
+				metrics.since(Phase.INJECTION, start);
+			}
+		};
 	}
 
-	private static Builder<?> wrap(Builder<?> builder, int flags) {
-		return builder.visit(new AsmVisitorWrapper.ForDeclaredMethods().writerFlags(flags));
+	private static Builder<?> addTrustedFactory(Builder<?> builder, TypeDescription typeDescription,
+			InDefinedShape constructor, Log log) {
+		List<TypeDescription> parameterTypes = constructor.getParameters().asTypeList().asErasures();
+		assertNotDeclared(typeDescription, TRUSTED_FACTORY_NAME, parameterTypes);
+		log.info("Implementing trusted factory method #{}.", TRUSTED_FACTORY_NAME);
+		return markGenerated(builder.defineMethod(TRUSTED_FACTORY_NAME, typeDescription, ACC_STATIC)
+				.withParameters(parameterTypes).intercept(new TrustedFactory(constructor.asSignatureToken())));
+	}
+
+	private static Builder<?> addColumnValidation(Builder<?> builder, TypeDescription typeDescription,
+			Parameters parameters, Map<Integer, String> validateMethodNames, Log log) {
+		List<TypeDescription> columnTypes = parameters.types().stream().map(TypeDescription.ArrayProjection::of)
+				.collect(toList());
+		assertNotDeclared(typeDescription, VALIDATE_COLUMNS_NAME, columnTypes);
+		log.info("Implementing column validation method #{}.", VALIDATE_COLUMNS_NAME);
+		ColumnValidationAppender appender = new ColumnValidationAppender(typeDescription.getInternalName(),
+				parameters.types(), validateMethodNames);
+		return markGenerated(builder.defineMethod(VALIDATE_COLUMNS_NAME, BitSet.class, ACC_PUBLIC | ACC_STATIC)
+				.withParameters(columnTypes).intercept(new Implementation.Simple(appender)));
+	}
+
+	private static void assertNotDeclared(TypeDescription typeDescription, String name,
+			List<TypeDescription> parameterTypes) {
+		if (!typeDescription.getDeclaredMethods().filter(named(name).and(takesArguments(parameterTypes))).isEmpty()) {
+			throw new IllegalStateException(
+					format("%s already declares a method %s%s", typeDescription.getName(), name, parameterTypes));
+		}
 	}
 
 	@RequiredArgsConstructor
@@ -235,6 +668,126 @@ class VaadooImplementor {
 
 		private interface InjectionTask {
 			void apply(ValidationCodeInjector injector, MethodVisitor mv, int argsSize);
+
+			Cost cost();
+
+			/**
+			 * The failure rate of the check in the profile in use (see
+			 * {@link ProfileMode#USE}).
+			 */
+			default double failureRate() {
+				return 0;
+			}
+
+			/**
+			 * Whether the check rejects <code>null</code> as well (like
+			 * {@code @NotEmpty} and {@code @NotBlank}). That part is kept if the check
+			 * is switched off, just like the null checks.
+			 */
+			default boolean rejectsNull() {
+				return false;
+			}
+		}
+
+		/**
+		 * Counts the runs and passes of the wrapped check in the profile writer if
+		 * recording ({@code index >= 0}) and carries the recorded failure rate of the
+		 * check if using a profile.
+		 */
+		@Value(staticConstructor = "of")
+		private static class ProfiledInjectionTask implements InjectionTask {
+			InjectionTask delegate;
+			String owner;
+			int index;
+			double failureRate;
+
+			@Override
+			public void apply(ValidationCodeInjector injector, MethodVisitor mv, int argsSize) {
+				if (index < 0) {
+					delegate.apply(injector, mv, argsSize);
+					return;
+				}
+				// counters[2 * index] are the runs, counters[2 * index + 1] the passes
+				increment(mv, index * 2);
+				delegate.apply(injector, mv, argsSize);
+				increment(mv, index * 2 + 1);
+			}
+
+			private void increment(MethodVisitor mv, int counter) {
+				String writer = profileWriterName(owner);
+				Label initialized = new Label();
+				mv.visitFieldInsn(GETSTATIC, owner, PROFILE_FIELD, THREAD_DESCRIPTOR);
+				mv.visitInsn(DUP);
+				mv.visitJumpInsn(IFNONNULL, initialized);
+				mv.visitInsn(POP);
+				mv.visitMethodInsn(INVOKESTATIC, owner, PROFILE_FIELD, "()" + THREAD_DESCRIPTOR, false);
+				mv.visitLabel(initialized);
+				mv.visitTypeInsn(CHECKCAST, writer);
+				mv.visitFieldInsn(GETFIELD, writer, "counters", "[J");
+				mv.visitLdcInsn(counter);
+				mv.visitInsn(DUP2);
+				mv.visitInsn(LALOAD);
+				mv.visitInsn(LCONST_1);
+				mv.visitInsn(LADD);
+				mv.visitInsn(LASTORE);
+			}
+
+			@Override
+			public Cost cost() {
+				return delegate.cost();
+			}
+
+			@Override
+			public double failureRate() {
+				return failureRate;
+			}
+
+			@Override
+			public boolean rejectsNull() {
+				return delegate.rejectsNull();
+			}
+		}
+
+		/**
+		 * Skips the wrapped check if its flag in the switches is off, see
+		 * {@link com.github.pfichtner.vaadoo.VaadooSwitches}. Checks that reject
+		 * <code>null</code> as well still run for <code>null</code> values, so they
+		 * keep failing like with the flag on.
+		 */
+		@Value(staticConstructor = "of")
+		private static class SwitchedInjectionTask implements InjectionTask {
+			InjectionTask delegate;
+			Parameter parameter;
+			String switches;
+			String flag;
+
+			@Override
+			public void apply(ValidationCodeInjector injector, MethodVisitor mv, int argsSize) {
+				Label enabled = new Label();
+				Label disabled = new Label();
+				mv.visitFieldInsn(GETSTATIC, switches, flag, "Z");
+				if (delegate.rejectsNull()) {
+					// --- if (flag || value == null) check
+					mv.visitJumpInsn(IFNE, enabled);
+					mv.visitVarInsn(ALOAD, parameter.offset());
+					mv.visitJumpInsn(IFNONNULL, disabled);
+				} else {
+					mv.visitJumpInsn(IFEQ, disabled);
+				}
+				mv.visitLabel(enabled);
+				delegate.apply(injector, mv, argsSize);
+				mv.visitLabel(disabled);
+			}
+
+			@Override
+			public Cost cost() {
+				return delegate.cost();
+			}
+
+			@Override
+			public double failureRate() {
+				return delegate.failureRate();
+			}
 		}
 
 		@Value(staticConstructor = "of")
@@ -242,6 +795,7 @@ class VaadooImplementor {
 			Parameter parameter;
 			Method fragmentMethod;
 			AnnotationDescription annotationDescription;
+			Cost cost;
 
 			@Override
 			public void apply(ValidationCodeInjector injector, MethodVisitor mv, int argsSize) {
@@ -254,6 +808,105 @@ class VaadooImplementor {
 					throw new RuntimeException(format("Error injecting %s for %s", fragmentMethod, parameter), e);
 				}
 			}
+
+			@Override
+			public Cost cost() {
+				return cost;
+			}
+
+			@Override
+			public boolean rejectsNull() {
+				Class<?> annotation = fragmentMethod.getParameterTypes()[0];
+				return annotation == NotEmpty.class || annotation == NotBlank.class;
+			}
+		}
+
+		/**
+		 * Remembers values that passed the wrapped check in a direct-mapped cache
+		 * (synthetic static {@code String[]} field, indexed by the value's hash code).
+		 * A value found in its slot is known to be valid and skips the wrapped check.
+		 * Races between threads can only lose entries, never produce false hits, since
+		 * a hit is always confirmed using {@link String#equals(Object)}.
+		 */
+		@Value(staticConstructor = "of")
+		private static class MemoizingInjectionTask implements InjectionTask {
+			InjectionTask delegate;
+			Parameter parameter;
+			String owner;
+			String fieldName;
+			int cacheSize;
+
+			@Override
+			public void apply(ValidationCodeInjector injector, MethodVisitor mv, int argsSize) {
+				int cacheVar = argsSize;
+				int slotVar = cacheVar + 1;
+				Label check = new Label();
+				Label initialized = new Label();
+				Label valid = new Label();
+
+				mv.visitInsn(ACONST_NULL);
+				mv.visitVarInsn(ASTORE, cacheVar);
+				mv.visitInsn(ICONST_0);
+				mv.visitVarInsn(ISTORE, slotVar);
+
+				// null values are never cached
+				mv.visitVarInsn(ALOAD, parameter.offset());
+				mv.visitJumpInsn(IFNULL, check);
+
+				// String[] cache = field == null ? field = new String[size] : field;
+				mv.visitFieldInsn(GETSTATIC, owner, fieldName, STRING_ARRAY_DESCRIPTOR);
+				mv.visitInsn(DUP);
+				mv.visitJumpInsn(IFNONNULL, initialized);
+				mv.visitInsn(POP);
+				mv.visitLdcInsn(cacheSize);
+				mv.visitTypeInsn(ANEWARRAY, STRING_INTERNAL_NAME);
+				mv.visitInsn(DUP);
+				mv.visitFieldInsn(PUTSTATIC, owner, fieldName, STRING_ARRAY_DESCRIPTOR);
+				mv.visitLabel(initialized);
+				mv.visitVarInsn(ASTORE, cacheVar);
+
+				// int slot = (h ^ (h >>> 16)) & (size - 1);
+				mv.visitVarInsn(ALOAD, parameter.offset());
+				mv.visitMethodInsn(INVOKEVIRTUAL, STRING_INTERNAL_NAME, "hashCode", "()I", false);
+				mv.visitInsn(DUP);
+				mv.visitIntInsn(BIPUSH, 16);
+				mv.visitInsn(IUSHR);
+				mv.visitInsn(IXOR);
+				mv.visitLdcInsn(cacheSize - 1);
+				mv.visitInsn(IAND);
+				mv.visitVarInsn(ISTORE, slotVar);
+
+				// if (value.equals(cache[slot])) skip the check
+				mv.visitVarInsn(ALOAD, parameter.offset());
+				mv.visitVarInsn(ALOAD, cacheVar);
+				mv.visitVarInsn(ILOAD, slotVar);
+				mv.visitInsn(AALOAD);
+				mv.visitMethodInsn(INVOKEVIRTUAL, STRING_INTERNAL_NAME, "equals", "(Ljava/lang/Object;)Z", false);
+				mv.visitJumpInsn(IFNE, valid);
+
+				mv.visitLabel(check);
+				delegate.apply(injector, mv, argsSize);
+
+				// the check passed: cache[slot] = value;
+				mv.visitVarInsn(ALOAD, cacheVar);
+				mv.visitJumpInsn(IFNULL, valid);
+				mv.visitVarInsn(ALOAD, cacheVar);
+				mv.visitVarInsn(ILOAD, slotVar);
+				mv.visitVarInsn(ALOAD, parameter.offset());
+				mv.visitInsn(AASTORE);
+				mv.visitLabel(valid);
+			}
+
+			@Override
+			public Cost cost() {
+				return delegate.cost();
+			}
+
+			@Override
+			public boolean rejectsNull() {
+				return delegate.rejectsNull();
+			}
+
 		}
 
 		@Value(staticConstructor = "of")
@@ -265,38 +918,111 @@ class VaadooImplementor {
 			public void apply(ValidationCodeInjector __, MethodVisitor mv, int argsSize) {
 				addCustomAnnotations(mv, parameter, annotation);
 			}
+
+			@Override
+			public Cost cost() {
+				return Cost.CUSTOM;
+			}
 		}
 
+		private static final String STRING_ARRAY_DESCRIPTOR = Type.getDescriptor(String[].class);
+		private static final String DEFAULT_PATTERN_MESSAGE = "{jakarta.validation.constraints.Pattern.message}";
+		private static final List<Class<? extends Annotation>> MEMOIZABLE_ANNOTATIONS = List.of(Pattern.class,
+				Email.class, Digits.class);
+
+		private final TypeDescription instrumentedType;
 		private final String validateMethodName;
+		private final List<String> memoizationFields = new ArrayList<>();
 		private final Parameter parameter;
 		private final Map<Parameter, Integer> preComputedPatternFlags;
 		private final VaadooConfiguration configuration;
-		private final List<Method> fragmentMixinsCodeFragmentMethods;
-		private final List<Method> codeFragmentMethods;
+		private final FragmentIndex fragmentIndex;
 		private final String methodDescriptor;
 		private final List<InjectionTask> injectionTasks;
-		private final List<TypeDescription> jsr380RepeatableAnnotationContainers;
-
-		public StaticValidateAppender(String validateMethodName, Parameter parameter,
-				VaadooConfiguration configuration) {
+		private final ValidationProfile profile;
+		private final List<String> profileKeys;
+		private final Log log;
+		private final Map<String, Integer> profileKeyCounts = new HashMap<>();
+		/** the number of checks by annotation type */
+		private final Map<String, Integer> checks = new TreeMap<>();
+		/** the messages of the @Pattern checks exceeding the regex step budget by regexp */
+		private final Map<String, String> budgetExceededMessages = new HashMap<>();
+
+		public StaticValidateAppender(TypeDescription instrumentedType, String validateMethodName, Parameter parameter,
+				VaadooConfiguration configuration, FragmentIndex fragmentIndex, ValidationProfile profile,
+				List<String> profileKeys, Log log) {
+			this.instrumentedType = instrumentedType;
 			this.validateMethodName = validateMethodName;
 			this.parameter = new ParameterWithOffsetZero(parameter);
 			this.configuration = configuration;
+			this.profile = profile;
+			this.profileKeys = profileKeys;
+			this.log = log;
 			this.preComputedPatternFlags = computePatternFlagsDuringBuild(this.parameter);
-			this.fragmentMixinsCodeFragmentMethods = configuration.codeFragmentMixins().stream()
-					.map(m -> fragmentMethods(m)).flatMap(List::stream).collect(toList());
-			this.codeFragmentMethods = fragmentMethods(configuration.jsr380CodeFragmentClass());
+			this.fragmentIndex = fragmentIndex;
 			this.methodDescriptor = Type.getMethodDescriptor(Type.VOID_TYPE,
 					Type.getType(this.parameter.type().getDescriptor()));
-			this.jsr380RepeatableAnnotationContainers = findRepeatableAnnotationContainers();
-			this.injectionTasks = tasksFor(this.parameter).collect(toList());
+			this.injectionTasks = ordered(tasksFor(this.parameter)).map(this::switched).collect(toList());
+		}
+
+		/**
+		 * Checks of the same cost keep their declaration order (sorting an ordered
+		 * stream is stable), so the first reported violation is always the same for
+		 * the same value.
+		 */
+		private Stream<InjectionTask> ordered(Stream<InjectionTask> tasks) {
+			Comparator<InjectionTask> byCost = comparing(InjectionTask::cost);
+			if (configuration.profile() == ProfileMode.USE) {
+				// checks that failed most often first, even for CheckOrder.DECLARATION
+				// (opting into the profile opts into that order, the check order only
+				// breaks ties)
+				Comparator<InjectionTask> byFailureRate = comparingDouble(InjectionTask::failureRate).reversed();
+				return tasks.sorted(configuration.checkOrder() == CheckOrder.COST //
+						? byFailureRate.thenComparing(byCost) //
+						: byFailureRate);
+			}
+			return configuration.checkOrder() == CheckOrder.COST ? tasks.sorted(byCost) : tasks;
+		}
+
+		/**
+		 * Returns the key of the check of the passed annotation in the profile, see
+		 * {@link ValidationProfile}. Called once per check, so the checks are counted
+		 * here as well.
+		 */
+		private String profileKey(TypeDescription annotation) {
+			checks.merge(annotation.getName(), 1, Integer::sum);
+			String key = validateMethodName + "." + annotation.getSimpleName();
+			int count = profileKeyCounts.merge(key, 1, Integer::sum);
+			return count == 1 ? key : key + "#" + (count - 1);
+		}
+
+		private InjectionTask switched(InjectionTask task) {
+			String flag = flag(task.cost());
+			return configuration.checkSwitches() && flag != null
+					? SwitchedInjectionTask.of(task, parameter, switchesName(instrumentedType.getInternalName()), flag)
+					: task;
+		}
+
+		private InjectionTask profiled(InjectionTask task, String key) {
+			switch (configuration.profile()) {
+			case RECORD:
+				profileKeys.add(key);
+				return ProfiledInjectionTask.of(task, instrumentedType.getInternalName(), profileKeys.size() - 1, 0);
+			case USE:
+				return ProfiledInjectionTask.of(task, instrumentedType.getInternalName(), -1,
+						profile.failureRate(key));
+			default:
+				return task;
+			}
 		}
 
-		private static List<Method> fragmentMethods(Class<? extends Jsr380CodeFragment> clazz) {
-			return Stream.of(clazz.getMethods()) //
-					.filter(m -> m.getDeclaringClass() != Object.class) //
-					.filter(m -> !isAbstract(m.getModifiers())) //
-					.collect(toList());
+		/**
+		 * Checks that ran often and mostly passed, so memoizing the accepted values
+		 * pays off.
+		 */
+		private boolean isHot(String key) {
+			return configuration.profile() == ProfileMode.USE
+					&& profile.runs(key) >= configuration.profileHotThreshold() && profile.failureRate(key) < 0.5;
 		}
 
 		private static Map<Parameter, Integer> computePatternFlagsDuringBuild(Parameter parameter) {
@@ -304,13 +1030,17 @@ class VaadooImplementor {
 			Object annotationValue = parameter.annotationValue(Type.getType(Pattern.class), "flags");
 			map.put(parameter, annotationValue == null //
 					? 0
-					: Template.bitwiseOr(Stream.of((EnumerationDescription[]) annotationValue) //
-							.map(EnumerationDescription::getValue) //
-							.map(Flag::valueOf) //
-							.toArray(Flag[]::new)));
+					: patternFlags((EnumerationDescription[]) annotationValue));
 			return map;
 		}
 
+		private static int patternFlags(EnumerationDescription[] flags) {
+			return Template.bitwiseOr(Stream.of(flags) //
+					.map(EnumerationDescription::getValue) //
+					.map(Flag::valueOf) //
+					.toArray(Flag[]::new));
+		}
+
 		private Stream<InjectionTask> tasksFor(Parameter parameter) {
 			Stream<InjectionTask> fromParam = Stream.of(parameter.annotations())
 					.flatMap(a -> concat(jsr380(parameter, a, null), custom(parameter, a)));
@@ -340,12 +1070,14 @@ class VaadooImplementor {
 
 					return typeArgAnnotations.stream().flatMap(annotation -> {
 						TypeDescription annotationType = annotation.getAnnotationType();
+						analyzeRegex(parameter, annotationType, annotation);
+						recordBudgetExceededMessage(parameter, annotationType, annotation);
 						Optional<Method> codeFragmentMethod = isStandardJr380Anno(annotationType)
-								? codeFragmentMethod(annotationType, typeArgument.asErasure())
+								? fragmentIndex.checkMethod(annotationType, typeArgument.asErasure())
 								: Optional.empty();
-						return codeFragmentMethod.map(m -> Stream.of(
-								new GenericTypeInjectionTask(parameter, typeArgument.asErasure(), m, annotation, i)))
-								.orElse(empty());
+						return codeFragmentMethod.map(m -> Stream.of(profiled(
+								new GenericTypeInjectionTask(parameter, typeArgument.asErasure(), m, annotation, i),
+								profileKey(annotationType)))).orElse(empty());
 					});
 				});
 			} else if (genericType.isArray()) {
@@ -357,11 +1089,15 @@ class VaadooImplementor {
 				TypeDescription.Generic typeArgument = genericType.getComponentType();
 				return typeArgAnnotations.stream().flatMap(annotation -> {
 					TypeDescription annotationType = annotation.getAnnotationType();
+					analyzeRegex(parameter, annotationType, annotation);
+					recordBudgetExceededMessage(parameter, annotationType, annotation);
 					if (isStandardJr380Anno(annotationType)) {
-						Optional<Method> fragmentMethod = codeFragmentMethod(annotationType, typeArgument.asErasure());
+						Optional<Method> fragmentMethod = fragmentIndex.checkMethod(annotationType,
+								typeArgument.asErasure());
 						if (fragmentMethod.isPresent()) {
-							return Stream.of(new GenericTypeInjectionTask(parameter, typeArgument.asErasure(),
-									fragmentMethod.get(), annotation, 0));
+							return Stream.of(profiled(new GenericTypeInjectionTask(parameter,
+									typeArgument.asErasure(), fragmentMethod.get(), annotation, 0),
+									profileKey(annotationType)));
 						}
 					}
 					return empty();
@@ -373,17 +1109,110 @@ class VaadooImplementor {
 
 		private Stream<InjectionTask> jsr380(Parameter parameter, TypeDescription annotation,
 				AnnotationDescription annotationDescription) {
-			return isRepeatableAnnotationContainer(annotation)
-					? Stream.of(extractRepeatableAnnotations(parameter, annotation))
-							.flatMap(d -> jsr380(parameter, d.getAnnotationType(), d))
-					: Jsr380Annos.configs.stream() //
-							.filter(c -> annotation.equals(c.type())) //
-							.map(c -> codeFragmentMethod(c, parameter.type())) //
-							.map(f -> Jsr380AnnoInjectionTask.of(parameter, f, annotationDescription));
+			if (fragmentIndex.isRepeatableAnnotationContainer(annotation)) {
+				return Stream.of(extractRepeatableAnnotations(parameter, annotation))
+						.flatMap(d -> jsr380(parameter, d.getAnnotationType(), d));
+			}
+			analyzeRegex(parameter, annotation, annotationDescription);
+			recordBudgetExceededMessage(parameter, annotation, annotationDescription);
+			return Jsr380Annos.configs.stream() //
+					.filter(c -> annotation.equals(c.type())) //
+					.map(c -> codeFragmentMethod(c, parameter.type())) //
+					.map(f -> {
+						String key = profileKey(annotation);
+						InjectionTask task = Jsr380AnnoInjectionTask.of(parameter, f, annotationDescription,
+								Jsr380Annos.cost(annotation));
+						return profiled(memoizeIfApplicable(task, parameter, annotation, key), key);
+					});
+		}
+
+		private void analyzeRegex(Parameter parameter, TypeDescription annotation,
+				AnnotationDescription annotationDescription) {
+			RegexAnalysis analysis = configuration.regexAnalysis();
+			if (analysis == RegexAnalysis.OFF || !annotation.represents(Pattern.class)) {
+				return;
+			}
+			String regexp = regexp(parameter, annotationDescription);
+			int flags = annotationDescription == null ? preComputedPatternFlags.getOrDefault(parameter, 0)
+					: patternFlags(annotationDescription.getValue("flags").resolve(EnumerationDescription[].class));
+			String where = format("@Pattern(regexp = \"%s\") on parameter %s of %s", regexp, parameter.name(),
+					instrumentedType.getName());
+
+			Optional<String> syntaxError = syntaxError(regexp, flags);
+			if (syntaxError.isPresent()) {
+				throw new IllegalStateException(format("%s does not compile: %s", where, syntaxError.get()));
+			}
+			List<String> risks = backtrackingRisks(regexp, flags);
+			if (!risks.isEmpty()) {
+				String message = format("%s is prone to catastrophic backtracking: %s", where, join(", ", risks));
+				if (analysis == RegexAnalysis.FAIL) {
+					throw new IllegalStateException(message);
+				}
+				log.warn("{}.", message);
+			}
+		}
+
+		/**
+		 * Records the message reported when the @Pattern check of the passed
+		 * annotation exceeds the regex step budget (see
+		 * {@link RegexStepBudgetClassVisitor}): the resolved message of the
+		 * annotation, with the rejected value replaced by a note on the budget.
+		 */
+		private void recordBudgetExceededMessage(Parameter parameter, TypeDescription annotation,
+				AnnotationDescription annotationDescription) {
+			if (configuration.regexStepBudget() <= 0 || !annotation.represents(Pattern.class)) {
+				return;
+			}
+			String regexp = regexp(parameter, annotationDescription);
+			Object message = annotationDescription == null
+					? parameter.annotationValue(Type.getType(Pattern.class), "message")
+					: annotationDescription.getValue("message").resolve(String.class);
+			Function<String, String> rbResolver = Resources::message;
+			Function<String, Object> resolver = rbResolver
+					.andThen(k -> k.equals(ValidationCodeInjector.NAME) ? parameter.name() : k)
+					.andThen(k -> k.equals("anno.regexp()") ? regexp : k);
+			String resolved = NamedPlaceholders.replace(message == null ? DEFAULT_PATTERN_MESSAGE : (String) message,
+					resolver);
+			String budget = format("the regex step budget of %d steps", configuration.regexStepBudget());
+			budgetExceededMessages.put(regexp, resolved.contains("%s") //
+					? resolved.replace("%s", "a value exceeding " + budget) //
+					: format("%s (%s exceeded)", resolved, budget));
+		}
+
+		/**
+		 * Returns the message reported when the check of the passed regexp exceeds the
+		 * regex step budget. Regexes not declared by a @Pattern (e.g. the one of
+		 * {@link Email}) only name the parameter.
+		 */
+		public String budgetExceededMessage(String regexp) {
+			String message = regexp == null ? null : budgetExceededMessages.get(regexp);
+			return message == null //
+					? format("%s exceeded the regex step budget of %d steps", parameter.name(),
+							configuration.regexStepBudget())
+					: message;
+		}
+
+		private static String regexp(Parameter parameter, AnnotationDescription annotationDescription) {
+			return annotationDescription == null
+					? (String) parameter.annotationValue(Type.getType(Pattern.class), "regexp")
+					: annotationDescription.getValue("regexp").resolve(String.class);
+		}
+
+		private InjectionTask memoizeIfApplicable(InjectionTask task, Parameter parameter, TypeDescription annotation,
+				String profileKey) {
+			if (!(configuration.memoizeValidValues() || isHot(profileKey)) || !parameter.type().represents(String.class)
+					|| MEMOIZABLE_ANNOTATIONS.stream().noneMatch(annotation::represents)) {
+				return task;
+			}
+			String fieldName = validateMethodName + "$memo" + memoizationFields.size();
+			memoizationFields.add(fieldName);
+			return MemoizingInjectionTask.of(task, parameter, instrumentedType.getInternalName(), fieldName,
+					powerOfTwo(configuration.memoizationCacheSize()));
 		}
 
-		private boolean isRepeatableAnnotationContainer(TypeDescription annotation) {
-			return jsr380RepeatableAnnotationContainers.contains(annotation);
+		private static int powerOfTwo(int size) {
+			// the largest power of two an int can hold is 2^30
+			return size <= 1 ? 1 : Integer.highestOneBit(Math.min(size, 1 << 30) - 1) << 1;
 		}
 
 		private AnnotationDescription[] extractRepeatableAnnotations(Parameter parameter, TypeDescription annotation) {
@@ -400,7 +1229,7 @@ class VaadooImplementor {
 		private Stream<InjectionTask> custom(Parameter parameter, TypeDescription annotation) {
 			return configuration.customAnnotationsEnabled() && isStandardJr380Anno(annotation) //
 					? empty()
-					: Stream.of(CustomInjectionTask.of(parameter, annotation));
+					: Stream.of(profiled(CustomInjectionTask.of(parameter, annotation), profileKey(annotation)));
 		}
 
 		public boolean hasInjections() {
@@ -411,8 +1240,8 @@ class VaadooImplementor {
 		public Size apply(MethodVisitor mv, Implementation.Context context, MethodDescription instrumentedMethod) {
 			int argsSize = (int) parameter.type().getStackSize().getSize();
 			ValidationCodeInjector injector = new ValidationCodeInjector(configuration.jsr380CodeFragmentClass(),
-					methodDescriptor, preComputedPatternFlags, configuration.nullValueExceptionTypeInternalName())
-					.withLocalsOffset(4);
+					methodDescriptor, preComputedPatternFlags, configuration.nullValueExceptionTypeInternalName(),
+					fragmentIndex::defaultValue).withLocalsOffset(4);
 			for (InjectionTask task : injectionTasks) {
 				task.apply(injector, mv, argsSize);
 			}
@@ -421,41 +1250,15 @@ class VaadooImplementor {
 		}
 
 		private Method codeFragmentMethod(ConfigEntry config, TypeDescription actual) {
-			TypeDescription[] parameters = new TypeDescription[] { config.anno(), config.resolveSuperType(actual) };
-			return codeFragmentMethod(parameters).map(m -> {
+			TypeDescription anno = config.anno();
+			TypeDescription superType = config.resolveSuperType(actual);
+			return fragmentIndex.checkMethod(anno, superType).map(m -> {
 				Class<?> supportedType = m.getParameterTypes()[1];
 				if (actual.isAssignableTo(supportedType)) {
 					return m;
 				}
-				throw annotationOnTypeNotValid(parameters[0], actual, List.of(supportedType.getName()));
-			}).orElseThrow(() -> unsupportedType(parameters));
-		}
-
-		private IllegalStateException unsupportedType(TypeDescription... parameters) {
-			assert parameters.length >= 2 : "Expected to get 2 parameters, got " + Arrays.toString(parameters);
-			List<String> supported = this.codeFragmentMethods.stream() //
-					.filter(StaticValidateAppender::isCodeFragmentMethod) //
-					.filter(m -> m.getParameterCount() > 1) //
-					.filter(m -> parameters[0].isAssignableTo(m.getParameterTypes()[0])) //
-					.map(m -> m.getParameterTypes()[1].getName()) //
-					.collect(toList());
-			return annotationOnTypeNotValid(parameters[0], parameters[1], supported);
-		}
-
-		private Optional<Method> codeFragmentMethod(TypeDescription... parameters) {
-			return concat(fragmentMixinsCodeFragmentMethods.stream(), codeFragmentMethods.stream()) //
-					.filter(StaticValidateAppender::isCodeFragmentMethod) //
-					.filter(m -> equals(parameters, m.getParameterTypes())) //
-					.findFirst();
-		}
-
-		private static boolean equals(TypeDescription[] descriptions, Class<?>[] classes) {
-			return classes.length == descriptions.length && range(0, classes.length) //
-					.allMatch(i -> descriptions[i].isAssignableTo(classes[i]));
-		}
-
-		private static boolean isCodeFragmentMethod(Method method) {
-			return "check".equals(method.getName());
+				throw annotationOnTypeNotValid(anno, actual, List.of(supportedType.getName()));
+			}).orElseThrow(() -> annotationOnTypeNotValid(anno, superType, fragmentIndex.supportedTypes(anno)));
 		}
 
 		private static class GenericTypeInjectionTask implements InjectionTask {
@@ -484,6 +1287,11 @@ class VaadooImplementor {
 				}
 			}
 
+			@Override
+			public Cost cost() {
+				return Cost.ELEMENTS;
+			}
+
 			private void generateIterationWithValidation(ValidationCodeInjector injector, MethodVisitor mv,
 					Parameter containerParam, AnnotationDescription annotation, int argsSize) {
 				Label ifNullLabel = new Label();
@@ -15,11 +15,21 @@
  */
 package com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy;
 
+import static com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.CachedVaadooConfiguration.cachedConfiguration;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
 import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.PluginLogger.Log;
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.TransformationCache.Entry;
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.TransformationCache.Recorder;
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.TransformationMetrics.TypeMetrics;
 import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.VaadooConfiguration;
 
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.dynamic.DynamicType;
 import net.bytebuddy.dynamic.DynamicType.Builder;
 
 /**
@@ -53,10 +63,16 @@ class VaadooPlugin implements LoggingPlugin {
 
 	private final VaadooConfiguration configuration;
 	private final VaadooImplementor vaadooImplementor;
+	private final TransformationCache transformationCache;
+	private final TransformationMetrics metrics;
 
-	public VaadooPlugin(VaadooConfiguration configuration) {
+	public VaadooPlugin(VaadooConfiguration configuration, TransformationMetrics metrics) {
 		this.configuration = configuration;
-		this.vaadooImplementor = new VaadooImplementor(configuration);
+		this.vaadooImplementor = new VaadooImplementor(configuration, metrics);
+		this.metrics = metrics;
+		this.transformationCache = configuration.transformationCache()
+				? new TransformationCache(cachedConfiguration(configuration))
+				: null;
 	}
 
 	@Override
@@ -67,11 +83,61 @@ class VaadooPlugin implements LoggingPlugin {
 	@Override
 	public Builder<?> apply(Builder<?> builder, TypeDescription type, ClassFileLocator classFileLocator) {
 		Log log = PluginLogger.INSTANCE.getLog(type, "vaadoo");
-		return JMoleculesTypeBuilder.of(log, builder).map(__ -> true, this::handleEntity).conclude();
+		if (transformationCache == null && !metrics.enabled()) {
+			return JMoleculesTypeBuilder.of(log, builder).map(__ -> true, this::handleEntity).conclude();
+		}
+
+		try {
+			byte[] key = transformationCache == null ? null : transformationCache.key(type, classFileLocator);
+			Entry entry = key == null ? null : transformationCache.lookup(key);
+			TypeMetrics typeMetrics = metrics.of(type.getName());
+			if (metrics.enabled()) {
+				typeMetrics.originalSize(originalSize(type, classFileLocator));
+			}
+			if (entry != null) {
+				log.info("Replaying cached transformation.");
+				typeMetrics.replayedFromCache();
+				typeMetrics.writtenSize(entry.getType().length);
+				return entry.replay(builder);
+			}
+
+			// the class is recorded while the build writes it, so it is made only once
+			Recorder recorder = new Recorder(recorded -> {
+				if (key != null) {
+					transformationCache.store(key, recorded);
+				}
+				typeMetrics.writtenSize(recorded.getType().length);
+			});
+			return JMoleculesTypeBuilder.of(log, builder.visit(recorder))
+					.map(__ -> true, t -> handleEntity(t, recorder::require)).conclude();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static int originalSize(TypeDescription type, ClassFileLocator classFileLocator) {
+		try {
+			ClassFileLocator.Resolution resolution = classFileLocator.locate(type.getName());
+			return resolution.isResolved() ? resolution.resolve().length : 0;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void close() {
+		if (transformationCache != null) {
+			transformationCache.close();
+		}
+		LoggingPlugin.super.close();
 	}
 
 	private JMoleculesTypeBuilder handleEntity(JMoleculesTypeBuilder type) {
 		return type.map(vaadooImplementor::implementVaadoo);
 	}
 
+	private JMoleculesTypeBuilder handleEntity(JMoleculesTypeBuilder type, Consumer<DynamicType> requiredTypes) {
+		return type.map((t, log) -> vaadooImplementor.implementVaadoo(t, log, requiredTypes));
+	}
+
 }
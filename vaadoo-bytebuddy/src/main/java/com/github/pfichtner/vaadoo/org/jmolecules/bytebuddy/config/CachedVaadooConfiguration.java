@@ -15,10 +15,14 @@
  */
 package com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config;
 
+import java.io.File;
 import java.util.List;
+import java.util.Map;
 
+import com.github.pfichtner.vaadoo.Jsr380Annos.Cost;
 import com.github.pfichtner.vaadoo.fragments.Jsr380CodeFragment;
 
+import lombok.ToString;
 import lombok.Value;
 import lombok.experimental.Accessors;
 
@@ -32,7 +36,32 @@ public class CachedVaadooConfiguration implements VaadooConfiguration {
 
 	boolean customAnnotationsEnabled;
 	boolean regexOptimizationEnabled;
+	RegexCacheScope regexCacheScope;
+	boolean pooledMatchers;
+	boolean specializeRegex;
+	int regexStepBudget;
+	RegexAnalysis regexAnalysis;
+	CheckOrder checkOrder;
+	ProfileMode profile;
+	// paths are excluded so configurations of different checkouts compare equal by
+	// their string representation (used as part of the transformation cache key)
+	@ToString.Exclude
+	File profileDirectory;
+	int profileHotThreshold;
+	boolean cachedClock;
+	boolean checkSwitches;
+	Map<String, Cost> checkLevels;
+	boolean trustedFactory;
+	boolean columnValidation;
+	boolean transformationCache;
+	@ToString.Exclude
+	File transformationCacheDirectory;
+	boolean metrics;
+	@ToString.Exclude
+	File metricsDirectory;
 	boolean removeJsr380Annotations;
+	boolean memoizeValidValues;
+	int memoizationCacheSize;
 	KnownFragmentClass jsrFragmentType;
 	Class<? extends Jsr380CodeFragment> jsr380CodeFragmentClass;
 	Class<? extends RuntimeException> nullValueExceptionType;
@@ -42,7 +71,27 @@ public class CachedVaadooConfiguration implements VaadooConfiguration {
 	private CachedVaadooConfiguration(VaadooConfiguration delegate) {
 		this.customAnnotationsEnabled = delegate.customAnnotationsEnabled();
 		this.regexOptimizationEnabled = delegate.regexOptimizationEnabled();
+		this.regexCacheScope = delegate.regexCacheScope();
+		this.pooledMatchers = delegate.pooledMatchers();
+		this.specializeRegex = delegate.specializeRegex();
+		this.regexStepBudget = delegate.regexStepBudget();
+		this.regexAnalysis = delegate.regexAnalysis();
+		this.checkOrder = delegate.checkOrder();
+		this.profile = delegate.profile();
+		this.profileDirectory = delegate.profileDirectory();
+		this.profileHotThreshold = delegate.profileHotThreshold();
+		this.cachedClock = delegate.cachedClock();
+		this.checkSwitches = delegate.checkSwitches();
+		this.checkLevels = delegate.checkLevels();
+		this.trustedFactory = delegate.trustedFactory();
+		this.columnValidation = delegate.columnValidation();
+		this.transformationCache = delegate.transformationCache();
+		this.transformationCacheDirectory = delegate.transformationCacheDirectory();
+		this.metrics = delegate.metrics();
+		this.metricsDirectory = delegate.metricsDirectory();
 		this.removeJsr380Annotations = delegate.removeJsr380Annotations();
+		this.memoizeValidValues = delegate.memoizeValidValues();
+		this.memoizationCacheSize = delegate.memoizationCacheSize();
 		this.jsrFragmentType = delegate.jsrFragmentType();
 		this.jsr380CodeFragmentClass = delegate.jsr380CodeFragmentClass();
 		this.nullValueExceptionType = delegate.nullValueExceptionType();
@@ -78,9 +78,12 @@ class DefaultJMoleculesVaadooConfiguration implements VaadooConfiguration {
 
 	private static final String jmoleculesValueObjectInterface = "org.jmolecules.ddd.types.ValueObject";
 
+	// stateless, one instance so the plugins of all classes share it
+	private static final DefaultJMoleculesVaadooConfiguration INSTANCE = new DefaultJMoleculesVaadooConfiguration();
+
 	static Optional<VaadooConfiguration> jMoleculesVaadooConfigurationIfApplicable(ClassWorld classWorld) {
 		return isApplicable(classWorld) //
-				? Optional.of(new DefaultJMoleculesVaadooConfiguration()) //
+				? Optional.of(INSTANCE) //
 				: empty();
 	}
 
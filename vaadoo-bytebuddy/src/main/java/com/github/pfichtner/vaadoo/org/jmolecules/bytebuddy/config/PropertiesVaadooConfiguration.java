@@ -17,12 +17,19 @@ package com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config;
 
 import static java.util.Collections.emptyList;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
 
+import java.io.File;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Properties;
 import java.util.stream.Stream;
 
+import com.github.pfichtner.vaadoo.Jsr380Annos.Cost;
 import com.github.pfichtner.vaadoo.fragments.Jsr380CodeFragment;
 
 import lombok.extern.slf4j.Slf4j;
@@ -38,21 +45,52 @@ class PropertiesVaadooConfiguration implements VaadooConfiguration {
 	static final String VAADOO_CUSTOM_ANNOTATIONS = "vaadoo.customAnnotations";
 	static final String VAADOO_REGEX_OPTIMIZATION = "vaadoo.regexOptimization";
 	static final String VAADOO_REMOVE_JSR380_ANNOTATIONS = "vaadoo.removeJsr380Annotations";
+	static final String VAADOO_MEMOIZE_VALID_VALUES = "vaadoo.memoizeValidValues";
+	static final String VAADOO_MEMOIZATION_CACHE_SIZE = "vaadoo.memoizationCacheSize";
+	static final String VAADOO_REGEX_STEP_BUDGET = "vaadoo.regexStepBudget";
+	static final String VAADOO_REGEX_ANALYSIS = "vaadoo.regexAnalysis";
+	static final String VAADOO_CHECK_ORDER = "vaadoo.checkOrder";
+	static final String VAADOO_PROFILE = "vaadoo.profile";
+	static final String VAADOO_PROFILE_DIRECTORY = "vaadoo.profileDirectory";
+	static final String VAADOO_PROFILE_HOT_THRESHOLD = "vaadoo.profileHotThreshold";
+	static final String VAADOO_CACHED_CLOCK = "vaadoo.cachedClock";
+	static final String VAADOO_CHECK_SWITCHES = "vaadoo.checkSwitches";
+	static final String VAADOO_CHECK_LEVEL = "vaadoo.checkLevel";
+	static final String VAADOO_TRUSTED_FACTORY = "vaadoo.trustedFactory";
+	static final String VAADOO_COLUMN_VALIDATION = "vaadoo.columnValidation";
+	static final String VAADOO_TRANSFORMATION_CACHE = "vaadoo.transformationCache";
+	static final String VAADOO_TRANSFORMATION_CACHE_DIRECTORY = "vaadoo.transformationCacheDirectory";
+	static final String VAADOO_METRICS = "vaadoo.metrics";
+	static final String VAADOO_METRICS_DIRECTORY = "vaadoo.metricsDirectory";
+
+	private static final int MAX_MEMOIZATION_CACHE_SIZE = 1 << 30;
+	private static final String POOLED_MATCHERS = "pooledmatchers";
+	private static final String SPECIALIZE = "specialize";
 
 	private final Properties properties;
+	private final File baseDirectory;
 
 	PropertiesVaadooConfiguration(Properties properties) {
+		this(properties, new File("").getAbsoluteFile());
+	}
+
+	/**
+	 * @param baseDirectory the directory relative paths are resolved against
+	 */
+	PropertiesVaadooConfiguration(Properties properties, File baseDirectory) {
 		this.properties = properties;
+		this.baseDirectory = baseDirectory;
 		String toInclude = getPackagesToInclude();
 		if (toInclude != null) {
 			log.info("Applying code generation to types located in package(s): {}.", toInclude);
 		}
 	}
 
-	public boolean include(TypeDescription description) {
+	@Override
+	public boolean includePackage(String packageName) {
 		String value = getPackagesToInclude();
 		return value.trim().isEmpty() || Stream.of(value.split("\\,")).map(String::trim).map(it -> it.concat("."))
-				.anyMatch(description.getName()::startsWith);
+				.anyMatch(packageName.concat(".")::startsWith);
 	}
 
 	private String getPackagesToInclude() {
@@ -65,7 +103,137 @@ class PropertiesVaadooConfiguration implements VaadooConfiguration {
 
 	@Override
 	public boolean regexOptimizationEnabled() {
-		return isEnabled(VAADOO_REGEX_OPTIMIZATION, true);
+		return regexOptimizationModes().isEmpty() || regexOptimizationModes().stream()
+				.anyMatch(m -> "true".equals(m) || POOLED_MATCHERS.equals(m) || SPECIALIZE.equals(m)
+						|| regexCacheScopeValue(m) != null);
+	}
+
+	@Override
+	public RegexCacheScope regexCacheScope() {
+		return regexOptimizationModes().stream().map(PropertiesVaadooConfiguration::regexCacheScopeValue)
+				.filter(Objects::nonNull).findFirst().orElseGet(VaadooConfiguration.super::regexCacheScope);
+	}
+
+	@Override
+	public boolean pooledMatchers() {
+		return regexOptimizationModes().contains(POOLED_MATCHERS);
+	}
+
+	@Override
+	public boolean specializeRegex() {
+		return regexOptimizationModes().contains(SPECIALIZE);
+	}
+
+	@Override
+	public int regexStepBudget() {
+		return intValue(VAADOO_REGEX_STEP_BUDGET, VaadooConfiguration.super.regexStepBudget());
+	}
+
+	@Override
+	public RegexAnalysis regexAnalysis() {
+		return enumValue(VAADOO_REGEX_ANALYSIS, RegexAnalysis.class, VaadooConfiguration.super.regexAnalysis());
+	}
+
+	@Override
+	public CheckOrder checkOrder() {
+		return enumValue(VAADOO_CHECK_ORDER, CheckOrder.class, VaadooConfiguration.super.checkOrder());
+	}
+
+	@Override
+	public ProfileMode profile() {
+		return enumValue(VAADOO_PROFILE, ProfileMode.class, VaadooConfiguration.super.profile());
+	}
+
+	@Override
+	public File profileDirectory() {
+		return directory(VAADOO_PROFILE_DIRECTORY, "target/vaadoo-profile");
+	}
+
+	@Override
+	public int profileHotThreshold() {
+		return intValue(VAADOO_PROFILE_HOT_THRESHOLD, VaadooConfiguration.super.profileHotThreshold());
+	}
+
+	@Override
+	public boolean cachedClock() {
+		return isEnabled(VAADOO_CACHED_CLOCK, VaadooConfiguration.super.cachedClock());
+	}
+
+	@Override
+	public boolean checkSwitches() {
+		return isEnabled(VAADOO_CHECK_SWITCHES, VaadooConfiguration.super.checkSwitches());
+	}
+
+	@Override
+	public Map<String, Cost> checkLevels() {
+		// vaadoo.checkLevel for all packages, vaadoo.checkLevel.<package> for a package
+		String prefix = VAADOO_CHECK_LEVEL + ".";
+		return properties.stringPropertyNames().stream()
+				.filter(k -> k.equals(VAADOO_CHECK_LEVEL) || k.startsWith(prefix))
+				.collect(toMap(k -> k.equals(VAADOO_CHECK_LEVEL) ? "" : k.substring(prefix.length()),
+						k -> enumValue(k, Cost.class, properties.getProperty(k))));
+	}
+
+	@Override
+	public boolean trustedFactory() {
+		return isEnabled(VAADOO_TRUSTED_FACTORY, VaadooConfiguration.super.trustedFactory());
+	}
+
+	@Override
+	public boolean columnValidation() {
+		return isEnabled(VAADOO_COLUMN_VALIDATION, VaadooConfiguration.super.columnValidation());
+	}
+
+	@Override
+	public boolean transformationCache() {
+		return isEnabled(VAADOO_TRANSFORMATION_CACHE, VaadooConfiguration.super.transformationCache());
+	}
+
+	@Override
+	public File transformationCacheDirectory() {
+		return directory(VAADOO_TRANSFORMATION_CACHE_DIRECTORY, "target/vaadoo-cache");
+	}
+
+	@Override
+	public boolean metrics() {
+		return isEnabled(VAADOO_METRICS, VaadooConfiguration.super.metrics());
+	}
+
+	@Override
+	public File metricsDirectory() {
+		return directory(VAADOO_METRICS_DIRECTORY, "target/vaadoo-metrics");
+	}
+
+	private File directory(String key, String defaultValue) {
+		String value = properties.getProperty(key, defaultValue).trim();
+		File directory = new File(value);
+		return (directory.isAbsolute() ? directory : new File(baseDirectory, value)).getAbsoluteFile();
+	}
+
+	private <E extends Enum<E>> E enumValue(String key, Class<E> type, E defaultValue) {
+		String value = properties.getProperty(key);
+		return value == null ? defaultValue : enumValue(key, type, value);
+	}
+
+	private static <E extends Enum<E>> E enumValue(String key, Class<E> type, String value) {
+		return findEnumValue(type, value).orElseThrow(() -> new IllegalArgumentException(
+				String.format("Unknown %s %s, expected one of %s", key, value, EnumSet.allOf(type))));
+	}
+
+	private static <E extends Enum<E>> Optional<E> findEnumValue(Class<E> type, String value) {
+		return EnumSet.allOf(type).stream().filter(e -> e.name().equalsIgnoreCase(value.trim())).findFirst();
+	}
+
+	private List<String> regexOptimizationModes() {
+		String value = properties.getProperty(VAADOO_REGEX_OPTIMIZATION, "").trim();
+		return value.isEmpty() ? emptyList()
+				: Stream.of(value.split("\\,")).map(String::trim).map(m -> m.toLowerCase(Locale.ROOT))
+						.collect(toList());
+	}
+
+	private static RegexCacheScope regexCacheScopeValue(String mode) {
+		// the other modes share the property, so no scope is not an error here
+		return findEnumValue(RegexCacheScope.class, mode).orElse(null);
 	}
 
 	@Override
@@ -73,10 +241,29 @@ class PropertiesVaadooConfiguration implements VaadooConfiguration {
 		return isEnabled(VAADOO_REMOVE_JSR380_ANNOTATIONS, true);
 	}
 
+	@Override
+	public boolean memoizeValidValues() {
+		return isEnabled(VAADOO_MEMOIZE_VALID_VALUES, false);
+	}
+
+	@Override
+	public int memoizationCacheSize() {
+		int size = intValue(VAADOO_MEMOIZATION_CACHE_SIZE, VaadooConfiguration.super.memoizationCacheSize());
+		if (size < 1 || size > MAX_MEMOIZATION_CACHE_SIZE) {
+			throw new IllegalArgumentException(String.format("%s must be between 1 and %d but was %d",
+					VAADOO_MEMOIZATION_CACHE_SIZE, MAX_MEMOIZATION_CACHE_SIZE, size));
+		}
+		return size;
+	}
+
 	private boolean isEnabled(String key, boolean defaultValue) {
 		return Boolean.parseBoolean(properties.getProperty(key, String.valueOf(defaultValue)));
 	}
 
+	private int intValue(String key, int defaultValue) {
+		return Integer.parseInt(properties.getProperty(key, String.valueOf(defaultValue)).trim());
+	}
+
 	public String getProperty(String key) {
 		return properties.getProperty(key);
 	}
@@ -87,10 +274,16 @@ class PropertiesVaadooConfiguration implements VaadooConfiguration {
 
 	@Override
 	public KnownFragmentClass jsrFragmentType() {
+		// unknown types fall back to the default fragment class (as they always did)
+		// but are no longer silently mapped to null
 		String fragmentType = properties.getProperty(VAADOO_JSR380_CODE_FRAGMENT_TYPE);
 		return fragmentType == null ? VaadooConfiguration.super.jsrFragmentType()
-				: EnumSet.allOf(KnownFragmentClass.class).stream() //
-						.filter(e -> e.name().equalsIgnoreCase(fragmentType)).findFirst().orElse(null);
+				: findEnumValue(KnownFragmentClass.class, fragmentType).orElseGet(() -> {
+					log.warn("Unknown {} {}, expected one of {}, using {}", VAADOO_JSR380_CODE_FRAGMENT_TYPE,
+							fragmentType, EnumSet.allOf(KnownFragmentClass.class),
+							VaadooConfiguration.super.jsrFragmentType());
+					return VaadooConfiguration.super.jsrFragmentType();
+				});
 	}
 
 	@Override
@@ -16,9 +16,13 @@
 package com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config;
 
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
 
+import java.io.File;
 import java.util.List;
+import java.util.Map;
 
+import com.github.pfichtner.vaadoo.Jsr380Annos.Cost;
 import com.github.pfichtner.vaadoo.fragments.Jsr380CodeFragment;
 import com.github.pfichtner.vaadoo.fragments.impl.ApacheCommonsLangCodeFragment;
 import com.github.pfichtner.vaadoo.fragments.impl.GuavaCodeFragment;
@@ -44,9 +48,75 @@ public interface VaadooConfiguration {
 		private final Class<? extends Jsr380CodeFragment> fragmentClass;
 	}
 
+	/**
+	 * Where compiled regular expressions are cached if
+	 * {@link #regexOptimizationEnabled()} is set.
+	 */
+	public static enum RegexCacheScope {
+		/** each enhanced class holds its own cache */
+		CLASS, //
+		/** one generated registry class per package holds the cache */
+		PACKAGE //
+	}
+
+	/**
+	 * What happens if the regexp of a {@code @Pattern} is found to be prone to
+	 * catastrophic backtracking during the build. Regexps that do not compile
+	 * always fail the build unless the analysis is turned {@link #OFF}.
+	 */
+	public static enum RegexAnalysis {
+		/** no analysis at all */
+		OFF, //
+		/** log a warning */
+		WARN, //
+		/** fail the build */
+		FAIL //
+	}
+
+	/**
+	 * In which order the checks of a parameter are executed. The order decides
+	 * which violation is reported if a value violates more than one constraint.
+	 * With {@link ProfileMode#USE} the recorded failure rates come first and this
+	 * order only breaks ties (the declared order is given up on purpose there:
+	 * running the checks that fail most often first is what the profile is for).
+	 */
+	public static enum CheckOrder {
+		/** in the order the annotations are declared */
+		DECLARATION, //
+		/**
+		 * cheapest first (see {@link com.github.pfichtner.vaadoo.Jsr380Annos.Cost}),
+		 * checks of the same cost in the order the annotations are declared
+		 */
+		COST //
+	}
+
+	/**
+	 * Two phase build: a build using {@link #RECORD} makes the enhanced classes
+	 * count how often each check runs and fails (written to
+	 * {@link VaadooConfiguration#profileDirectory()} when the JVM exits), a later
+	 * build using {@link #USE} optimizes the checks based on these counts.
+	 */
+	public static enum ProfileMode {
+		/** no profiling */
+		OFF, //
+		/** generate code that records the profile */
+		RECORD, //
+		/** use a recorded profile */
+		USE //
+	}
+
 	VaadooConfiguration DEFAULT = new VaadooConfiguration() {
 	};
 
+	/**
+	 * Whether the types of the package are transformed at all. Evaluated once per
+	 * package, {@link #include(TypeDescription)} is only asked for the types of
+	 * included packages.
+	 */
+	public default boolean includePackage(String packageName) {
+		return true;
+	}
+
 	public default boolean include(TypeDescription description) {
 		return true;
 	}
@@ -59,10 +129,151 @@ public interface VaadooConfiguration {
 		return true;
 	};
 
+	public default RegexCacheScope regexCacheScope() {
+		return RegexCacheScope.CLASS;
+	}
+
+	public default boolean pooledMatchers() {
+		return false;
+	}
+
+	public default boolean specializeRegex() {
+		return false;
+	}
+
+	/**
+	 * Maximum number of character accesses a single regex check may take before it
+	 * fails, <code>0</code> means unlimited.
+	 */
+	public default int regexStepBudget() {
+		return 0;
+	}
+
+	public default RegexAnalysis regexAnalysis() {
+		return RegexAnalysis.WARN;
+	}
+
+	public default CheckOrder checkOrder() {
+		return CheckOrder.DECLARATION;
+	}
+
+	public default ProfileMode profile() {
+		return ProfileMode.OFF;
+	}
+
+	public default File profileDirectory() {
+		return new File("target/vaadoo-profile").getAbsoluteFile();
+	}
+
+	/**
+	 * Minimum number of recorded runs for a check to be considered hot, see
+	 * {@link ProfileMode#USE}.
+	 */
+	public default int profileHotThreshold() {
+		return 1000;
+	}
+
+	/**
+	 * Whether the {@code @Past}/{@code @Future} checks cache "today" instead of
+	 * calling {@code now()} on each check, see
+	 * {@link com.github.pfichtner.vaadoo.VaadooClock}.
+	 */
+	public default boolean cachedClock() {
+		return false;
+	}
+
+	/**
+	 * Whether the checks get guarded by runtime switches, see
+	 * {@link com.github.pfichtner.vaadoo.VaadooSwitches}.
+	 */
+	public default boolean checkSwitches() {
+		return false;
+	}
+
+	/**
+	 * The levels up to which the checks are enabled if there is no system property
+	 * (see {@link #checkSwitches()}) by package (the empty package applies to all
+	 * packages).
+	 */
+	public default Map<String, Cost> checkLevels() {
+		return emptyMap();
+	}
+
+	/**
+	 * Whether a package-private static factory method is generated for each
+	 * validating constructor that runs the original constructor body without the
+	 * checks, e.g. for persistence mappers rehydrating already validated data.
+	 */
+	public default boolean trustedFactory() {
+		return false;
+	}
+
+	/**
+	 * Whether a public static {@code validateColumns} method is generated for each
+	 * validating constructor that checks arrays of arguments column by column and
+	 * returns the invalid rows.
+	 */
+	public default boolean columnValidation() {
+		return false;
+	}
+
+	/**
+	 * Whether transformed classes are kept in {@link #transformationCacheDirectory()}
+	 * so unchanged classes are replayed instead of being transformed again.
+	 */
+	public default boolean transformationCache() {
+		return false;
+	}
+
+	public default File transformationCacheDirectory() {
+		return new File("target/vaadoo-cache").getAbsoluteFile();
+	}
+
+	/**
+	 * Whether the time spent in each phase of the transformation and what was
+	 * generated is reported to {@link #metricsDirectory()} when the plugin is
+	 * closed.
+	 */
+	public default boolean metrics() {
+		return false;
+	}
+
+	public default File metricsDirectory() {
+		return new File("target/vaadoo-metrics").getAbsoluteFile();
+	}
+
+	/**
+	 * Returns the level of the nearest package of {@link #checkLevels()}, all
+	 * checks are enabled if there is none.
+	 */
+	public default Cost checkLevel(String packageName) {
+		Map<String, Cost> levels = checkLevels();
+		for (String name = packageName;; name = name.substring(0, Math.max(0, name.lastIndexOf('.')))) {
+			Cost level = levels.get(name);
+			if (level != null) {
+				return level;
+			} else if (name.isEmpty()) {
+				return Cost.CUSTOM;
+			}
+		}
+	}
+
 	public default boolean removeJsr380Annotations() {
 		return true;
 	}
 
+	public default boolean memoizeValidValues() {
+		return false;
+	}
+
+	/**
+	 * The number of entries of each memoization cache, rounded up to a power of
+	 * two (at most {@code 2^30}).
+	 */
+	public default int memoizationCacheSize() {
+		return 64;
+	}
+
 	public default boolean matches(TypeDescription target) {
 		return true;
 	}
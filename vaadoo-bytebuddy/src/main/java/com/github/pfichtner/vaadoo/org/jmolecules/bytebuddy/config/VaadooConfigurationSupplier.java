@@ -85,7 +85,24 @@ public class VaadooConfigurationSupplier {
 	private final VaadooConfiguration configurationFromConfigFile;
 
 	public VaadooConfigurationSupplier(File outputFolder) {
-		this.configurationFromConfigFile = tryLoadConfig(outputFolder).orElse(null);
+		this(tryLoadConfig(outputFolder).orElse(null));
+	}
+
+	private VaadooConfigurationSupplier(VaadooConfiguration configurationFromConfigFile) {
+		this.configurationFromConfigFile = configurationFromConfigFile;
+	}
+
+	/**
+	 * Supplies the configuration of the passed {@code vaadoo.config} file instead
+	 * of detecting it from the build output folder.
+	 */
+	public static VaadooConfigurationSupplier of(File configFile) {
+		Properties properties = loadProperties(configFile, configFile);
+		if (properties == null) {
+			throw new IllegalArgumentException(configFile + " does not exist");
+		}
+		return new VaadooConfigurationSupplier(
+				new PropertiesVaadooConfiguration(properties, configFile.getAbsoluteFile().getParentFile()));
 	}
 
 	public VaadooConfiguration configuration(ClassWorld world) {
@@ -98,7 +115,8 @@ public class VaadooConfigurationSupplier {
 	private static Optional<PropertiesVaadooConfiguration> tryLoadConfig(File outputFolder) {
 		Path projectRoot = detectProjectRoot(outputFolder);
 		File file = detectConfiguration(projectRoot);
-		return Optional.ofNullable(loadProperties(file, outputFolder)).map(PropertiesVaadooConfiguration::new);
+		return Optional.ofNullable(loadProperties(file, outputFolder))
+				.map(p -> new PropertiesVaadooConfiguration(p, file.getParentFile()));
 	}
 
 	private static Path detectProjectRoot(File file) {
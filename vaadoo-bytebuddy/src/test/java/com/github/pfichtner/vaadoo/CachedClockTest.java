@@ -0,0 +1,220 @@
+package com.github.pfichtner.vaadoo;
+
+import static com.github.pfichtner.vaadoo.Buildable.a;
+import static com.github.pfichtner.vaadoo.TestClassBuilder.testClass;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+import java.lang.reflect.Constructor;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.MonthDay;
+import java.time.OffsetDateTime;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.chrono.HijrahDate;
+import java.time.chrono.JapaneseDate;
+import java.time.chrono.MinguoDate;
+import java.time.chrono.ThaiBuddhistDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TimeZone;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com.github.pfichtner.vaadoo.TestClassBuilder.AnnotationDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.ConstructorDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.DefaultParameterDefinition;
+
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.Past;
+import net.bytebuddy.dynamic.DynamicType.Unloaded;
+import net.bytebuddy.dynamic.loading.ByteArrayClassLoader;
+
+class CachedClockTest {
+
+	@RegisterExtension
+	ProjectRoot projectRoot = new ProjectRoot();
+	Transformer transformer = projectRoot.transformer();
+
+	@AfterEach
+	void tearDown() {
+		VaadooClock.setClock(null);
+	}
+
+	@Test
+	void clockIsNotCachedByDefault() throws Exception {
+		var transformed = transformer.transform(dateClass("com.example.Uncached"));
+		assertThat(Decompiler.decompile(transformed.getBytes())).contains("LocalDate.now()")
+				.doesNotContain("VaadooClock");
+		assertThat(transformed.getAuxiliaryTypes().keySet()).noneMatch(t -> t.getName().endsWith("VaadooClock"));
+	}
+
+	@Test
+	void checksUseTheReplaceableClockOfThePackage() throws Exception {
+		projectRoot.configure(Map.entry("vaadoo.cachedClock", true));
+
+		var transformed = transformer.transform(dateClass("com.example.Cached"));
+		assertThat(Decompiler.decompile(transformed.getBytes())).contains("VaadooClock.localDate()")
+				.doesNotContain("LocalDate.now()");
+
+		var constructor = constructor(transformed, "com.example.Cached");
+		constructor.getDeclaringClass().getClassLoader().loadClass("com.example.VaadooClock")
+				.getMethod("setClock", Clock.class)
+				.invoke(null, Clock.fixed(Instant.parse("2000-01-01T12:00:00Z"), ZoneOffset.UTC));
+
+		assertThatNoException().isThrownBy(() -> constructor.newInstance(LocalDate.of(1999, 12, 31)));
+		assertThatThrownBy(() -> constructor.newInstance(LocalDate.of(2000, 1, 1)))
+				.hasRootCauseInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> constructor.newInstance(LocalDate.of(2000, 1, 2)))
+				.hasRootCauseInstanceOf(IllegalArgumentException.class);
+	}
+
+	@ParameterizedTest
+	@CsvSource({ "2000-01-01T12:00:00.123456789Z, UTC", //
+			"2024-03-31T00:59:59.999Z, Europe/Berlin", //
+			"2024-03-31T01:00:00Z, Europe/Berlin", //
+			"2024-10-26T22:00:00Z, Europe/Berlin", //
+			"2024-10-27T00:59:59Z, Europe/Berlin", //
+			"2024-10-27T01:00:00Z, Europe/Berlin", //
+			"2024-11-03T05:30:00Z, America/New_York", //
+			"2024-12-31T23:59:59.999Z, Asia/Tokyo", //
+			"2024-12-31T14:59:59.999Z, Asia/Tokyo", //
+			"2024-12-31T15:00:00Z, Asia/Tokyo" })
+	void returnsTheSameValuesAsNow(Instant instant, ZoneId zone) {
+		// warm up the cache with a date of the same day
+		VaadooClock.setClock(Clock.fixed(instant.minusSeconds(1), zone));
+		VaadooClock.localDate();
+		Clock clock = Clock.fixed(instant, zone);
+		VaadooClock.setClock(clock);
+		VaadooClock.localDate();
+
+		assertSoftly(s -> {
+			s.assertThat(VaadooClock.instant()).isEqualTo(Instant.now(clock));
+			s.assertThat(VaadooClock.localDate()).isEqualTo(LocalDate.now(clock));
+			s.assertThat(VaadooClock.localDateTime()).isEqualTo(LocalDateTime.now(clock));
+			s.assertThat(VaadooClock.localTime()).isEqualTo(LocalTime.now(clock));
+			s.assertThat(VaadooClock.zonedDateTime()).isEqualTo(ZonedDateTime.now(clock).withFixedOffsetZone());
+			s.assertThat(VaadooClock.offsetDateTime()).isEqualTo(OffsetDateTime.now(clock));
+			s.assertThat(VaadooClock.year()).isEqualTo(Year.now(clock));
+			s.assertThat(VaadooClock.yearMonth()).isEqualTo(YearMonth.now(clock));
+			s.assertThat(VaadooClock.monthDay()).isEqualTo(MonthDay.now(clock));
+			s.assertThat(VaadooClock.hijrahDate()).isEqualTo(HijrahDate.now(clock));
+			s.assertThat(VaadooClock.japaneseDate()).isEqualTo(JapaneseDate.now(clock));
+			s.assertThat(VaadooClock.minguoDate()).isEqualTo(MinguoDate.now(clock));
+			s.assertThat(VaadooClock.thaiBuddhistDate()).isEqualTo(ThaiBuddhistDate.now(clock));
+		});
+	}
+
+	@Test
+	void defaultClockFollowsTheDefaultZone() {
+		TimeZone defaultZone = TimeZone.getDefault();
+		try {
+			// more than a day apart, so the dates always differ
+			TimeZone.setDefault(TimeZone.getTimeZone("Pacific/Kiritimati"));
+			LocalDate kiritimati = VaadooClock.localDate();
+			assertThat(kiritimati).isEqualTo(LocalDate.now());
+			TimeZone.setDefault(TimeZone.getTimeZone("Pacific/Pago_Pago"));
+			assertThat(VaadooClock.localDate()).isEqualTo(LocalDate.now()).isNotEqualTo(kiritimati);
+		} finally {
+			TimeZone.setDefault(defaultZone);
+		}
+	}
+
+	@Test
+	void systemClockIsReusedWhileTheDefaultZoneIsUnchanged() {
+		TimeZone defaultZone = TimeZone.getDefault();
+		try {
+			TimeZone.setDefault(TimeZone.getTimeZone("Pacific/Kiritimati"));
+			Clock clock = VaadooClock.getClock();
+			assertThat(VaadooClock.getClock()).isSameAs(clock);
+			TimeZone.setDefault(TimeZone.getTimeZone("Pacific/Pago_Pago"));
+			assertThat(VaadooClock.getClock()).isNotSameAs(clock)
+					.extracting(Clock::getZone).isEqualTo(ZoneId.of("Pacific/Pago_Pago"));
+		} finally {
+			TimeZone.setDefault(defaultZone);
+		}
+	}
+
+	@Test
+	void todayIsRefreshedAtMidnight() {
+		ZoneId zone = ZoneId.of("Europe/Berlin");
+		MutableClock clock = new MutableClock(ZonedDateTime.of(2024, 3, 30, 23, 59, 59, 0, zone).toInstant(), zone);
+		VaadooClock.setClock(clock);
+		assertThat(VaadooClock.localDate()).isEqualTo(LocalDate.of(2024, 3, 30));
+
+		clock.instant = clock.instant.plusSeconds(1);
+		assertThat(VaadooClock.localDate()).isEqualTo(LocalDate.of(2024, 3, 31));
+		assertThat(VaadooClock.localDateTime()).isEqualTo(LocalDateTime.of(2024, 3, 31, 0, 0));
+
+		// daylight saving time starts
+		clock.instant = clock.instant.plusSeconds(2 * 60 * 60);
+		assertThat(VaadooClock.localDateTime()).isEqualTo(LocalDateTime.of(2024, 3, 31, 3, 0));
+
+		// clocks may go backwards
+		clock.instant = clock.instant.minusSeconds(3 * 60 * 60);
+		assertThat(VaadooClock.localDateTime()).isEqualTo(LocalDateTime.of(2024, 3, 30, 23, 0));
+	}
+
+	@Test
+	void futureChecksOfChronologyDatesUseTheCachedClock() throws Exception {
+		projectRoot.configure(Map.entry("vaadoo.cachedClock", true));
+		var param = DefaultParameterDefinition.of(JapaneseDate.class, AnnotationDefinition.of(Future.class));
+		var transformed = transformer.transform(a(testClass("com.example.Japanese").thatImplementsValueObject()
+				.withConstructor(ConstructorDefinition.of(param))));
+		assertThat(Decompiler.decompile(transformed.getBytes())).contains("VaadooClock.japaneseDate()");
+	}
+
+	private static Constructor<?> constructor(Unloaded<?> transformed, String className) throws Exception {
+		var types = new HashMap<String, byte[]>();
+		types.put(transformed.getTypeDescription().getName(), transformed.getBytes());
+		transformed.getAuxiliaryTypes().forEach((t, b) -> types.put(t.getName(), b));
+		return new ByteArrayClassLoader(CachedClockTest.class.getClassLoader(), types).loadClass(className)
+				.getDeclaredConstructor(LocalDate.class);
+	}
+
+	private static Unloaded<?> dateClass(String className) {
+		var param = DefaultParameterDefinition.of(LocalDate.class, AnnotationDefinition.of(Past.class));
+		return a(testClass(className).thatImplementsValueObject().withConstructor(ConstructorDefinition.of(param)));
+	}
+
+	private static class MutableClock extends Clock {
+
+		private Instant instant;
+		private final ZoneId zone;
+
+		MutableClock(Instant instant, ZoneId zone) {
+			this.instant = instant;
+			this.zone = zone;
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return zone;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return new MutableClock(instant, zone);
+		}
+
+		@Override
+		public Instant instant() {
+			return instant;
+		}
+
+	}
+
+}
@@ -0,0 +1,84 @@
+package com.github.pfichtner.vaadoo;
+
+import static com.github.pfichtner.vaadoo.Buildable.a;
+import static com.github.pfichtner.vaadoo.TestClassBuilder.testClass;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.github.pfichtner.vaadoo.TestClassBuilder.AnnotationDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.ConstructorDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.DefaultParameterDefinition;
+
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import net.bytebuddy.dynamic.DynamicType.Unloaded;
+import net.bytebuddy.dynamic.loading.ByteArrayClassLoader;
+
+class CheckOrderTest {
+
+	@RegisterExtension
+	ProjectRoot projectRoot = new ProjectRoot();
+	Transformer transformer = projectRoot.transformer();
+
+	@Test
+	void checksAreExecutedInDeclarationOrderByDefault() throws Exception {
+		var constructor = constructor(patternThenNotBlankClass("com.example.DeclarationOrder"),
+				"com.example.DeclarationOrder", String.class);
+		assertThatThrownBy(() -> constructor.newInstance(" "))
+				.hasRootCauseMessage("string must match \"[a-z]+\" but was  ");
+	}
+
+	@Test
+	void cheapChecksAreExecutedFirstIfOrderedByCost() throws Exception {
+		configure("cost");
+		var constructor = constructor(patternThenNotBlankClass("com.example.CostOrder"), "com.example.CostOrder",
+				String.class);
+		assertThatThrownBy(() -> constructor.newInstance(" ")).hasRootCauseMessage("string must not be blank");
+	}
+
+	@Test
+	void checksOfTheSameCostKeepTheirDeclarationOrder() throws Exception {
+		configure("cost");
+		var param = DefaultParameterDefinition.of(int.class, //
+				AnnotationDefinition.of(Digits.class, Map.of("integer", 0)), //
+				AnnotationDefinition.of(Max.class, Map.of("value", 5L)), //
+				AnnotationDefinition.of(Min.class, Map.of("value", 10L)));
+		var constructor = constructor(
+				a(testClass("com.example.SameCost").thatImplementsValueObject()
+						.withConstructor(ConstructorDefinition.of(param))),
+				"com.example.SameCost", int.class);
+		assertThatThrownBy(() -> constructor.newInstance(7)).hasRootCauseMessage("int must be less than or equal to 5  but was 7");
+	}
+
+	private static Unloaded<?> patternThenNotBlankClass(String className) {
+		var param = DefaultParameterDefinition.of(String.class, //
+				AnnotationDefinition.of(Pattern.class, Map.of("regexp", "[a-z]+")), //
+				AnnotationDefinition.of(NotBlank.class));
+		return a(testClass(className).thatImplementsValueObject().withConstructor(ConstructorDefinition.of(param)));
+	}
+
+	private Constructor<?> constructor(Unloaded<?> unloaded, String className, Class<?> parameterType)
+			throws Exception {
+		var transformed = transformer.transform(unloaded);
+		var types = new HashMap<String, byte[]>();
+		types.put(transformed.getTypeDescription().getName(), transformed.getBytes());
+		transformed.getAuxiliaryTypes().forEach((t, b) -> types.put(t.getName(), b));
+		return new ByteArrayClassLoader(CheckOrderTest.class.getClassLoader(), types).loadClass(className)
+				.getDeclaredConstructor(parameterType);
+	}
+
+	private void configure(String checkOrder) throws IOException {
+		projectRoot.configure(Map.of("vaadoo.checkOrder", checkOrder));
+	}
+
+}
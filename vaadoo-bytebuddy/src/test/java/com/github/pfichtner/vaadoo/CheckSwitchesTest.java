@@ -0,0 +1,152 @@
+package com.github.pfichtner.vaadoo;
+
+import static com.github.pfichtner.vaadoo.Buildable.a;
+import static com.github.pfichtner.vaadoo.TestClassBuilder.testClass;
+import static java.util.Arrays.stream;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.github.pfichtner.vaadoo.Jsr380Annos.Cost;
+import com.github.pfichtner.vaadoo.TestClassBuilder.AnnotationDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.ConstructorDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.DefaultParameterDefinition;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import net.bytebuddy.dynamic.DynamicType.Unloaded;
+import net.bytebuddy.dynamic.loading.ByteArrayClassLoader;
+
+class CheckSwitchesTest {
+
+	private static final String LEVEL_PROPERTY = "vaadoo.checkLevel.com.example";
+
+	@RegisterExtension
+	ProjectRoot projectRoot = new ProjectRoot();
+	Transformer transformer = projectRoot.transformer();
+
+	@AfterEach
+	void tearDown() {
+		System.clearProperty(LEVEL_PROPERTY);
+	}
+
+	@Test
+	void checksAreNotSwitchedByDefault() throws Exception {
+		var transformed = transformer.transform(patternClass("com.example.Unswitched"));
+		assertThat(Decompiler.decompile(transformed.getBytes())).doesNotContain("VaadooSwitches");
+		assertThat(transformed.getAuxiliaryTypes().keySet()).noneMatch(t -> t.getName().endsWith("VaadooSwitches"));
+	}
+
+	@Test
+	void allChecksAreEnabledIfNoLevelIsSet() throws Exception {
+		projectRoot.configure(Map.entry("vaadoo.checkSwitches", true));
+
+		var transformed = transformer.transform(patternClass("com.example.Switched"));
+		assertThat(Decompiler.decompile(transformed.getBytes())).contains("VaadooSwitches.REGEX");
+
+		var constructor = constructor(transformed, "com.example.Switched");
+		assertThatNoException().isThrownBy(() -> constructor.newInstance("abc"));
+		assertThatThrownBy(() -> constructor.newInstance("ABC")).hasRootCauseInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> constructor.newInstance((Object) null))
+				.hasRootCauseInstanceOf(NullPointerException.class);
+	}
+
+	@Test
+	void systemPropertyOfThePackageSwitchesOffTheMoreExpensiveChecks() throws Exception {
+		projectRoot.configure(Map.entry("vaadoo.checkSwitches", true));
+		System.setProperty(LEVEL_PROPERTY, "clock");
+
+		var constructor = constructor(transformer.transform(patternClass("com.example.Clock")), "com.example.Clock");
+		assertThatNoException().isThrownBy(() -> constructor.newInstance("ABC"));
+		assertThatThrownBy(() -> constructor.newInstance((Object) null))
+				.hasRootCauseInstanceOf(NullPointerException.class);
+	}
+
+	@Test
+	void levelOfTheBuildIsTheDefault() throws Exception {
+		projectRoot.configure(Map.entry("vaadoo.checkSwitches", true), Map.entry("vaadoo.checkLevel", "null_check"));
+
+		var constructor = constructor(transformer.transform(patternClass("com.example.NullCheck")),
+				"com.example.NullCheck");
+		assertThatNoException().isThrownBy(() -> constructor.newInstance("ABC"));
+		assertThatThrownBy(() -> constructor.newInstance((Object) null))
+				.hasRootCauseInstanceOf(NullPointerException.class);
+
+		System.setProperty(LEVEL_PROPERTY, "custom");
+		var overridden = constructor(transformer.transform(patternClass("com.example.Overridden")),
+				"com.example.Overridden");
+		assertThatThrownBy(() -> overridden.newInstance("ABC")).hasRootCauseInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void unknownLevelFailsFast() throws Exception {
+		projectRoot.configure(Map.entry("vaadoo.checkSwitches", true));
+		System.setProperty(LEVEL_PROPERTY, "regexp");
+
+		var constructor = constructor(transformer.transform(patternClass("com.example.Unknown")),
+				"com.example.Unknown");
+		assertThatThrownBy(() -> constructor.newInstance("abc")).hasRootCauseInstanceOf(IllegalArgumentException.class)
+				.hasRootCauseMessage("Unknown vaadoo.checkLevel regexp, expected one of "
+						+ "[NULL_CHECK, CONSTANT, SCAN, DECIMAL, CLOCK, REGEX, EMAIL, ELEMENTS, CUSTOM]");
+	}
+
+	@Test
+	void nullValuesStillFailNotBlankAndNotEmptyIfSwitchedOff() throws Exception {
+		projectRoot.configure(Map.entry("vaadoo.checkSwitches", true), Map.entry("vaadoo.checkLevel", "null_check"));
+		var param = DefaultParameterDefinition.of(String.class, AnnotationDefinition.of(NotBlank.class),
+				AnnotationDefinition.of(NotEmpty.class));
+		var constructor = constructor(transformer.transform(a(testClass("com.example.NotBlankSwitchedOff")
+				.thatImplementsValueObject().withConstructor(ConstructorDefinition.of(param)))),
+				"com.example.NotBlankSwitchedOff");
+
+		assertThatNoException().isThrownBy(() -> constructor.newInstance(""));
+		assertThatThrownBy(() -> constructor.newInstance((Object) null))
+				.hasRootCauseInstanceOf(NullPointerException.class).hasRootCauseMessage("string must not be blank");
+	}
+
+	@Test
+	void levelsAndFlagsAreGeneratedFromTheCosts() throws Exception {
+		String name = "com.example.generated.VaadooSwitches";
+		Class<?> switches = new ByteArrayClassLoader(CheckSwitchesTest.class.getClassLoader(),
+				Map.of(name, CheckSwitches.switches(name.replace('.', '/'), Cost.REGEX))).loadClass(name);
+
+		Field field = switches.getDeclaredField("LEVELS");
+		field.setAccessible(true);
+		assertThat((String[]) field.get(null))
+				.containsExactly(stream(Cost.values()).map(Cost::name).toArray(String[]::new));
+		for (Cost cost : Cost.values()) {
+			if (cost == Cost.NULL_CHECK) {
+				assertThatThrownBy(() -> switches.getField(cost.name())).isInstanceOf(NoSuchFieldException.class);
+			} else {
+				assertThat(switches.getField(cost.name()).getBoolean(null)).as(cost.name())
+						.isEqualTo(cost.compareTo(Cost.REGEX) <= 0);
+			}
+		}
+	}
+
+	private static Constructor<?> constructor(Unloaded<?> transformed, String className) throws Exception {
+		var types = new HashMap<String, byte[]>();
+		types.put(transformed.getTypeDescription().getName(), transformed.getBytes());
+		transformed.getAuxiliaryTypes().forEach((t, b) -> types.put(t.getName(), b));
+		return new ByteArrayClassLoader(CheckSwitchesTest.class.getClassLoader(), types).loadClass(className)
+				.getDeclaredConstructor(String.class);
+	}
+
+	private static Unloaded<?> patternClass(String className) {
+		var param = DefaultParameterDefinition.of(String.class, AnnotationDefinition.of(NotNull.class),
+				AnnotationDefinition.of(Pattern.class, Map.of("regexp", "[a-z]+")));
+		return a(testClass(className).thatImplementsValueObject().withConstructor(ConstructorDefinition.of(param)));
+	}
+
+}
@@ -0,0 +1,83 @@
+package com.github.pfichtner.vaadoo;
+
+import static com.github.pfichtner.vaadoo.Buildable.a;
+import static com.github.pfichtner.vaadoo.TestClassBuilder.testClass;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.lang.reflect.Method;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.github.pfichtner.vaadoo.TestClassBuilder.AnnotationDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.ConstructorDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.DefaultParameterDefinition;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import net.bytebuddy.dynamic.DynamicType.Unloaded;
+import net.bytebuddy.dynamic.loading.ByteArrayClassLoader;
+
+class ColumnValidationTest {
+
+	@RegisterExtension
+	ProjectRoot projectRoot = new ProjectRoot();
+	Transformer transformer = projectRoot.transformer();
+
+	@Test
+	void noColumnValidationByDefault() throws Exception {
+		Class<?> clazz = load(transformer.transform(rowClass("com.example.NoColumns")));
+		assertThatThrownBy(() -> validateColumns(clazz)).isInstanceOf(NoSuchMethodException.class);
+	}
+
+	@Test
+	void returnsTheInvalidRows() throws Exception {
+		projectRoot.configure(Map.entry("vaadoo.columnValidation", true));
+		Method validateColumns = validateColumns(load(transformer.transform(rowClass("com.example.Columns"))));
+
+		String[] names = { "a", " ", "c", null, "e", "f" };
+		boolean[] flags = { true, false, true, false, true, false };
+		long[] ages = { 1, 2, 3, 4, -5, 0 };
+		BitSet expected = new BitSet();
+		expected.set(1);
+		expected.set(3);
+		expected.set(4);
+		assertThat(validateColumns.invoke(null, names, flags, ages)).isEqualTo(expected);
+		assertThat(validateColumns.invoke(null, new String[0], new boolean[0], new long[0])).isEqualTo(new BitSet());
+	}
+
+	@Test
+	void columnsMustHaveTheSameLength() throws Exception {
+		projectRoot.configure(Map.entry("vaadoo.columnValidation", true));
+		Method validateColumns = validateColumns(load(transformer.transform(rowClass("com.example.Lengths"))));
+
+		assertThatThrownBy(() -> validateColumns.invoke(null, new String[] { "a" }, new boolean[2], new long[1]))
+				.hasRootCauseInstanceOf(IllegalArgumentException.class)
+				.rootCause().hasMessage("all columns must have the same length");
+	}
+
+	private static Method validateColumns(Class<?> clazz) throws NoSuchMethodException {
+		return clazz.getMethod("validateColumns", String[].class, boolean[].class, long[].class);
+	}
+
+	private static Class<?> load(Unloaded<?> transformed) throws Exception {
+		var types = new HashMap<String, byte[]>();
+		types.put(transformed.getTypeDescription().getName(), transformed.getBytes());
+		transformed.getAuxiliaryTypes().forEach((t, b) -> types.put(t.getName(), b));
+		return new ByteArrayClassLoader(ColumnValidationTest.class.getClassLoader(), types)
+				.loadClass(transformed.getTypeDescription().getName());
+	}
+
+	private static Unloaded<?> rowClass(String className) {
+		var name = DefaultParameterDefinition.of(String.class, AnnotationDefinition.of(NotBlank.class));
+		var flag = DefaultParameterDefinition.of(boolean.class);
+		var age = DefaultParameterDefinition.of(long.class, AnnotationDefinition.of(Min.class, Map.of("value", 0L)));
+		return a(testClass(className).thatImplementsValueObject()
+				.withConstructor(ConstructorDefinition.of(name, flag, age)));
+	}
+
+}
@@ -0,0 +1,68 @@
+package com.github.pfichtner.vaadoo;
+
+import static com.github.pfichtner.vaadoo.AsmUtil.classReader;
+import static net.bytebuddy.jar.asm.Opcodes.ASM9;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+import java.lang.reflect.Method;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.pfichtner.vaadoo.fragments.impl.JdkOnlyCodeFragment;
+
+import net.bytebuddy.jar.asm.ClassVisitor;
+import net.bytebuddy.jar.asm.ClassWriter;
+import net.bytebuddy.jar.asm.MethodVisitor;
+import net.bytebuddy.jar.asm.Type;
+
+class FragmentTemplateTest {
+
+	@Test
+	void isParsedOncePerClass() {
+		assertThat(FragmentTemplate.of(JdkOnlyCodeFragment.class))
+				.isSameAs(FragmentTemplate.of(JdkOnlyCodeFragment.class));
+	}
+
+	@Test
+	void replaysTheSameCodeAsTheClassReader() {
+		assertSoftly(s -> Stream.of(JdkOnlyCodeFragment.class.getDeclaredMethods()).forEach(method -> {
+			String descriptor = Type.getMethodDescriptor(method);
+			ClassWriter fromTemplate = new ClassWriter(0);
+			FragmentTemplate.of(JdkOnlyCodeFragment.class).accept(fromTemplate, method.getName(), descriptor);
+			// replaying twice must not share any state (e.g. labels) between the replays
+			FragmentTemplate.of(JdkOnlyCodeFragment.class).accept(new ClassWriter(0), method.getName(), descriptor);
+			s.assertThat(fromTemplate.toByteArray()).describedAs(method.toString()).isEqualTo(read(method));
+		}));
+	}
+
+	private static byte[] read(Method method) {
+		String descriptor = Type.getMethodDescriptor(method);
+		ClassWriter classWriter = new ClassWriter(0);
+		classReader(method.getDeclaringClass()).accept(new ClassVisitor(ASM9) {
+
+			@Override
+			public void visit(int version, int access, String name, String signature, String superName,
+					String[] interfaces) {
+				classWriter.visit(version, access, name, signature, superName, interfaces);
+			}
+
+			@Override
+			public MethodVisitor visitMethod(int access, String name, String desc, String signature,
+					String[] exceptions) {
+				return name.equals(method.getName()) && desc.equals(descriptor)
+						? classWriter.visitMethod(access, name, desc, signature, exceptions)
+						: null;
+			}
+
+			@Override
+			public void visitEnd() {
+				classWriter.visitEnd();
+			}
+
+		}, 0);
+		return classWriter.toByteArray();
+	}
+
+}
@@ -0,0 +1,118 @@
+package com.github.pfichtner.vaadoo;
+
+import static net.bytebuddy.jar.asm.ClassWriter.COMPUTE_FRAMES;
+import static net.bytebuddy.jar.asm.Opcodes.ACC_PUBLIC;
+import static net.bytebuddy.jar.asm.Opcodes.ACC_STATIC;
+import static net.bytebuddy.jar.asm.Opcodes.ASM9;
+import static net.bytebuddy.jar.asm.Opcodes.IFGE;
+import static net.bytebuddy.jar.asm.Opcodes.ILOAD;
+import static net.bytebuddy.jar.asm.Opcodes.INEG;
+import static net.bytebuddy.jar.asm.Opcodes.IRETURN;
+import static net.bytebuddy.jar.asm.Opcodes.V11;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import net.bytebuddy.dynamic.loading.ByteArrayClassLoader;
+import net.bytebuddy.jar.asm.ClassReader;
+import net.bytebuddy.jar.asm.ClassVisitor;
+import net.bytebuddy.jar.asm.ClassWriter;
+import net.bytebuddy.jar.asm.Label;
+import net.bytebuddy.jar.asm.MethodVisitor;
+import net.bytebuddy.pool.TypePool;
+
+class FrameComputingClassVisitorTest {
+
+	private static final String CLASS_NAME = "com.example.Frames";
+
+	@Test
+	void computesTheFramesOfTheSelectedMethods() throws Exception {
+		byte[] transformed = transform(cv -> new FrameComputingClassVisitor(cv, TypePool.ClassLoading.ofSystemLoader(),
+				"generated"::equals));
+		Class<?> type = load(transformed);
+		assertThat(type.getMethod("generated", int.class).invoke(null, -3)).isEqualTo(3);
+		assertThat(type.getMethod("copied", int.class).invoke(null, -4)).isEqualTo(4);
+	}
+
+	@Test
+	void computesTheFramesOfAllSelectedMethodsInOneScratchClass() throws Exception {
+		LongAdder frameNanos = new LongAdder();
+		byte[] transformed = transform(cv -> new FrameComputingClassVisitor(cv, TypePool.ClassLoading.ofSystemLoader(),
+				Set.of("generated", "copied")::contains, frameNanos::add));
+		Class<?> type = load(transformed);
+		assertThat(type.getMethod("generated", int.class).invoke(null, -3)).isEqualTo(3);
+		assertThat(type.getMethod("copied", int.class).invoke(null, -4)).isEqualTo(4);
+		assertThat(frameNanos.sum()).isPositive();
+	}
+
+	@Test
+	void withoutTheFramesAndMaxsTheClassCannotBeLoaded() {
+		byte[] transformed = transform(Function.identity());
+		assertThatThrownBy(() -> load(transformed).getMethod("generated", int.class).invoke(null, -3))
+				.isInstanceOf(LinkageError.class);
+	}
+
+	/**
+	 * Drops the frames and maxs of the method {@code generated} as the code
+	 * generated by Vaadoo comes without them, the method {@code copied} keeps its
+	 * frames.
+	 */
+	private static byte[] transform(Function<ClassVisitor, ClassVisitor> frameComputation) {
+		ClassWriter cw = new ClassWriter(0);
+		new ClassReader(original()).accept(new ClassVisitor(ASM9, frameComputation.apply(cw)) {
+			@Override
+			public MethodVisitor visitMethod(int access, String name, String desc, String signature,
+					String[] exceptions) {
+				MethodVisitor mv = super.visitMethod(access, name, desc, signature, exceptions);
+				return !"generated".equals(name) ? mv : new MethodVisitor(ASM9, mv) {
+					@Override
+					public void visitFrame(int type, int numLocal, Object[] local, int numStack, Object[] stack) {
+					}
+
+					@Override
+					public void visitMaxs(int maxStack, int maxLocals) {
+						super.visitMaxs(0, 0);
+					}
+				};
+			}
+		}, 0);
+		return cw.toByteArray();
+	}
+
+	private static byte[] original() {
+		ClassWriter cw = new ClassWriter(COMPUTE_FRAMES);
+		cw.visit(V11, ACC_PUBLIC, CLASS_NAME.replace('.', '/'), null, "java/lang/Object", null);
+		abs(cw, "generated");
+		abs(cw, "copied");
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private static void abs(ClassWriter cw, String name) {
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC | ACC_STATIC, name, "(I)I", null, null);
+		mv.visitCode();
+		Label positive = new Label();
+		mv.visitVarInsn(ILOAD, 0);
+		mv.visitJumpInsn(IFGE, positive);
+		mv.visitVarInsn(ILOAD, 0);
+		mv.visitInsn(INEG);
+		mv.visitInsn(IRETURN);
+		mv.visitLabel(positive);
+		mv.visitVarInsn(ILOAD, 0);
+		mv.visitInsn(IRETURN);
+		mv.visitMaxs(1, 1);
+		mv.visitEnd();
+	}
+
+	private static Class<?> load(byte[] bytes) throws ClassNotFoundException {
+		ClassLoader parent = FrameComputingClassVisitorTest.class.getClassLoader();
+		return new ByteArrayClassLoader(parent, Map.of(CLASS_NAME, bytes)).loadClass(CLASS_NAME);
+	}
+
+}
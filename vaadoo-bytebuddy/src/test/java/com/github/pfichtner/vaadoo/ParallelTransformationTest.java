@@ -0,0 +1,119 @@
+package com.github.pfichtner.vaadoo;
+
+import static com.github.pfichtner.vaadoo.Buildable.a;
+import static com.github.pfichtner.vaadoo.TestClassBuilder.testClass;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.IntStream.range;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.github.pfichtner.vaadoo.TestClassBuilder.AnnotationDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.ConstructorDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.DefaultParameterDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.ParameterDefinition;
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.JMoleculesPlugin;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.build.Plugin;
+import net.bytebuddy.build.Plugin.Engine;
+import net.bytebuddy.build.Plugin.Engine.Dispatcher;
+import net.bytebuddy.build.Plugin.Engine.Source;
+import net.bytebuddy.build.Plugin.Engine.Target;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.dynamic.DynamicType.Unloaded;
+import net.bytebuddy.dynamic.scaffold.inline.MethodNameTransformer;
+import net.bytebuddy.implementation.auxiliary.AuxiliaryType;
+
+class ParallelTransformationTest {
+
+	private static final int CORPUS_SIZE = 250;
+	private static final int THREADS = 8;
+
+	private static final List<ParameterDefinition> PARAMETERS = List.of( //
+			DefaultParameterDefinition.of(String.class, AnnotationDefinition.of(NotBlank.class)), //
+			DefaultParameterDefinition.of(String.class, AnnotationDefinition.of(Email.class)), //
+			DefaultParameterDefinition.of(String.class,
+					AnnotationDefinition.of(Pattern.class, Map.of("regexp", "[A-Z]{2}\\d+"))), //
+			DefaultParameterDefinition.of(String.class, AnnotationDefinition.of(NotNull.class),
+					AnnotationDefinition.of(Size.class, Map.of("min", 2, "max", 8))), //
+			DefaultParameterDefinition.of(int.class, AnnotationDefinition.of(Min.class, Map.of("value", 1L)),
+					AnnotationDefinition.of(Max.class, Map.of("value", 99L))), //
+			DefaultParameterDefinition.of(long.class, AnnotationDefinition.of(Positive.class)), //
+			DefaultParameterDefinition.of(List.class, AnnotationDefinition.of(NotEmpty.class)), //
+			DefaultParameterDefinition.of(Integer.class, AnnotationDefinition.of(NotNull.class)) //
+	);
+
+	@RegisterExtension
+	ProjectRoot projectRoot = new ProjectRoot();
+
+	@BeforeEach
+	void setup() throws IOException {
+		projectRoot.configure(Map.entry("vaadoo.checkOrder", "cost"), //
+				Map.entry("vaadoo.trustedFactory", true), //
+				Map.entry("vaadoo.columnValidation", true));
+	}
+
+	@Test
+	void parallelTransformationProducesTheSameBytesAsSequentialTransformation() throws IOException {
+		Map<TypeDescription, byte[]> corpus = corpus();
+
+		var sequential = transform(corpus, Dispatcher.ForSerialTransformation.Factory.INSTANCE);
+		var parallel = transform(corpus,
+				new Dispatcher.ForParallelTransformation.WithThrowawayExecutorService.Factory(THREADS));
+
+		assertThat(sequential).hasSizeGreaterThan(CORPUS_SIZE);
+		assertThat(parallel).containsOnlyKeys(sequential.keySet());
+		sequential.forEach((name, bytes) -> assertThat(parallel.get(name)).as(name).isEqualTo(bytes));
+	}
+
+	private Map<String, byte[]> transform(Map<TypeDescription, byte[]> corpus, Dispatcher.Factory dispatcher)
+			throws IOException {
+		var target = new Target.InMemory();
+		var summary = engine().with(dispatcher).apply(Source.InMemory.ofTypes(corpus), target,
+				List.of(new Plugin.Factory.Simple(new JMoleculesPlugin(projectRoot.directory()))));
+		assertThat(summary.getFailed()).isEmpty();
+		assertThat(summary.getTransformed()).hasSize(CORPUS_SIZE);
+		return target.toTypeMap();
+	}
+
+	/**
+	 * Byte Buddy names the placeholder type of rebased constructors randomly by default, so both runs use stable names
+	 * to make their output comparable.
+	 */
+	private static Engine engine() {
+		var byteBuddy = new ByteBuddy().with(new AuxiliaryType.NamingStrategy.Suffixing("vaadoo"));
+		return new Engine.Default(byteBuddy) //
+				.with((bb, type, locator) -> bb.rebase(type, locator, new MethodNameTransformer.Suffixing("original")))
+				.with(ClassFileLocator.ForClassLoader.ofSystemLoader());
+	}
+
+	private static Map<TypeDescription, byte[]> corpus() {
+		return range(0, CORPUS_SIZE).mapToObj(ParallelTransformationTest::valueObject)
+				.collect(toMap(Unloaded::getTypeDescription, Unloaded::getBytes));
+	}
+
+	private static Unloaded<?> valueObject(int index) {
+		var parameters = range(0, 1 + index % 4).mapToObj(i -> PARAMETERS.get((index + i * 3) % PARAMETERS.size()))
+				.toArray(ParameterDefinition[]::new);
+		return a(testClass("com.example.corpus.ValueObject" + index).thatImplementsValueObject()
+				.withConstructor(ConstructorDefinition.of(parameters)));
+	}
+
+}
@@ -0,0 +1,136 @@
+package com.github.pfichtner.vaadoo;
+
+import static com.github.pfichtner.vaadoo.Buildable.a;
+import static com.github.pfichtner.vaadoo.TestClassBuilder.testClass;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Matcher;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.github.pfichtner.vaadoo.TestClassBuilder.AnnotationDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.ConstructorDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.DefaultParameterDefinition;
+
+import jakarta.validation.constraints.Pattern;
+import net.bytebuddy.dynamic.DynamicType.Unloaded;
+import net.bytebuddy.dynamic.loading.ByteArrayClassLoader;
+
+class PooledMatcherTest {
+
+	@RegisterExtension
+	ProjectRoot projectRoot = new ProjectRoot();
+	Transformer transformer = projectRoot.transformer();
+
+	@Test
+	void matchersAreNotPooledByDefault() throws Exception {
+		var transformed = transformer.transform(twoPatternsClass("com.example.NotPooled"));
+		assertThat(Decompiler.decompile(transformed.getBytes())).doesNotContain("matcherPool");
+	}
+
+	@Test
+	void pooledMatchersValidateLikeFreshOnes() throws Exception {
+		configure("class,pooledMatchers");
+
+		var transformed = transformer.transform(twoPatternsClass("com.example.Pooled"));
+		assertThat(Decompiler.decompile(transformed.getBytes())).contains("matcherPool")
+				.contains("!Pooled.matches(Pooled.getCachedPattern(\"[a-z]+\", 0), string)");
+
+		var constructor = constructor(transformed, "com.example.Pooled");
+		assertThatNoException().isThrownBy(() -> constructor.newInstance("abc", "123"));
+		assertThatThrownBy(() -> constructor.newInstance("ABC", "123"))
+				.hasCauseInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> constructor.newInstance("abc", "abc"))
+				.hasCauseInstanceOf(IllegalArgumentException.class);
+		assertThatNoException().isThrownBy(() -> constructor.newInstance("xyz", "0"));
+	}
+
+	@Test
+	void pooledMatchersDoNotHoldTheLastInput() throws Exception {
+		configure("class,pooledMatchers");
+
+		var transformed = transformer.transform(twoPatternsClass("com.example.PooledReleased"));
+		var constructor = constructor(transformed, "com.example.PooledReleased");
+		String input = "a".repeat(10_000);
+		constructor.newInstance(input, "123");
+
+		Field pool = constructor.getDeclaringClass().getDeclaredField("matcherPool");
+		pool.setAccessible(true);
+		var matchers = (AtomicReferenceArray<?>) pool.get(null);
+		var pooled = IntStream.range(0, matchers.length()).mapToObj(matchers::get).filter(Objects::nonNull)
+				.map(Matcher.class::cast).collect(toList());
+		assertThat(pooled).isNotEmpty().allSatisfy(m -> assertThat(m.regionEnd()).isZero());
+	}
+
+	@Test
+	void pooledMatchersAreSafeToShareBetweenThreads() throws Exception {
+		configure("package,pooledMatchers");
+
+		var transformed = transformer.transform(twoPatternsClass("com.example.PooledShared"));
+		var constructor = constructor(transformed, "com.example.PooledShared");
+
+		ExecutorService executor = Executors.newFixedThreadPool(16);
+		try {
+			var results = executor.invokeAll(IntStream.range(0, 2_000).mapToObj(i -> (Callable<Boolean>) () -> {
+				boolean valid = i % 3 != 0;
+				return valid == isValid(constructor, valid ? "abc" + (char) ('a' + i % 26) : "ABC", String.valueOf(i));
+			}).collect(toList()));
+			for (Future<Boolean> result : results) {
+				assertThat(result.get()).isTrue();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static boolean isValid(Constructor<?> constructor, Object... args) throws Exception {
+		try {
+			constructor.newInstance(args);
+			return true;
+		} catch (InvocationTargetException e) {
+			if (e.getCause() instanceof IllegalArgumentException) {
+				return false;
+			}
+			throw e;
+		}
+	}
+
+	private static Constructor<?> constructor(Unloaded<?> transformed, String className) throws Exception {
+		var types = new HashMap<String, byte[]>();
+		types.put(transformed.getTypeDescription().getName(), transformed.getBytes());
+		transformed.getAuxiliaryTypes().forEach((t, b) -> types.put(t.getName(), b));
+		return new ByteArrayClassLoader(PooledMatcherTest.class.getClassLoader(), types).loadClass(className)
+				.getDeclaredConstructor(String.class, String.class);
+	}
+
+	private static Unloaded<?> twoPatternsClass(String className) {
+		var letters = DefaultParameterDefinition.of(String.class,
+				AnnotationDefinition.of(Pattern.class, Map.of("regexp", "[a-z]+")));
+		var digits = DefaultParameterDefinition.of(String.class,
+				AnnotationDefinition.of(Pattern.class, Map.of("regexp", "[0-9]+")));
+		return a(testClass(className).thatImplementsValueObject()
+				.withConstructor(ConstructorDefinition.of(letters, digits)));
+	}
+
+	private void configure(String regexOptimization) throws IOException {
+		projectRoot.configure(Map.of("vaadoo.regexOptimization", regexOptimization));
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pfichtner.vaadoo;
+
+import static com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.VaadooConfigurationSupplier.VAADOO_CONFIG;
+import static java.lang.String.format;
+import static java.lang.System.lineSeparator;
+import static java.nio.file.Files.walk;
+import static java.util.Comparator.reverseOrder;
+import static java.util.stream.Collectors.joining;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * A temporary project root (a {@code pom.xml} and {@code target/classes}) the
+ * {@code vaadoo.config} of a test gets written to. It is created with the test
+ * instance, so it can be used by field initializers, and deleted after the
+ * test:
+ *
+ * <pre>
+ * &#64;RegisterExtension
+ * ProjectRoot projectRoot = new ProjectRoot();
+ * Transformer transformer = projectRoot.transformer();
+ * </pre>
+ */
+public final class ProjectRoot implements AfterEachCallback {
+
+	private final File directory;
+
+	public ProjectRoot() {
+		try {
+			directory = Files.createTempDirectory("project-root").toFile();
+			new File(directory, "target/classes").mkdirs();
+			writeTo(file("pom.xml"), "");
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public File directory() {
+		return directory;
+	}
+
+	public File file(String path) {
+		return new File(directory, path);
+	}
+
+	public Transformer transformer() {
+		return new Transformer().projectRoot(directory);
+	}
+
+	@SafeVarargs
+	public final void configure(Entry<String, Object>... entries) throws IOException {
+		configure(Map.ofEntries(entries));
+	}
+
+	public void configure(Map<String, ?> config) throws IOException {
+		writeTo(file(VAADOO_CONFIG), config);
+	}
+
+	public static void writeTo(File file, Map<String, ?> data) throws IOException {
+		writeTo(file, data.entrySet().stream().map(e -> format("%s=%s", e.getKey(), e.getValue()))
+				.collect(joining(lineSeparator())));
+	}
+
+	public static void writeTo(File file, String text) throws IOException {
+		file.getParentFile().mkdirs();
+		try (FileWriter writer = new FileWriter(file)) {
+			writer.write(text);
+		}
+	}
+
+	@Override
+	public void afterEach(ExtensionContext context) throws IOException {
+		try (var paths = walk(directory.toPath())) {
+			paths.sorted(reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+	}
+
+}
@@ -0,0 +1,61 @@
+package com.github.pfichtner.vaadoo;
+
+import static com.github.pfichtner.vaadoo.Buildable.a;
+import static com.github.pfichtner.vaadoo.TestClassBuilder.testClass;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.github.pfichtner.vaadoo.TestClassBuilder.AnnotationDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.ConstructorDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.DefaultParameterDefinition;
+
+import jakarta.validation.constraints.Pattern;
+import net.bytebuddy.dynamic.DynamicType.Unloaded;
+
+class RegexAnalysisTest {
+
+	@RegisterExtension
+	ProjectRoot projectRoot = new ProjectRoot();
+	Transformer transformer = projectRoot.transformer();
+
+	@Test
+	void regexThatDoesNotCompileFailsTheBuild() {
+		assertThatThrownBy(() -> transformer.transform(patternClass("com.example.Broken", "[a-z")))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessage("@Pattern(regexp = \"[a-z\") on parameter string of com.example.Broken"
+						+ " does not compile: Unclosed character class near index 3");
+	}
+
+	@Test
+	void backtrackingRegexIsOnlyAWarningByDefault() {
+		assertThatNoException().isThrownBy(() -> transformer.transform(patternClass("com.example.Warned", "(a+)+")));
+	}
+
+	@Test
+	void backtrackingRegexFailsTheBuildIfConfigured() throws IOException {
+		projectRoot.configure(Map.entry("vaadoo.regexAnalysis", "fail"));
+		assertThatThrownBy(() -> transformer.transform(patternClass("com.example.Failed", "(a+)+")))
+				.hasMessage("@Pattern(regexp = \"(a+)+\") on parameter string of com.example.Failed"
+						+ " is prone to catastrophic backtracking: nested quantifier in (a+)+");
+		assertThatNoException().isThrownBy(() -> transformer.transform(patternClass("com.example.Ok", "[a-z]+")));
+	}
+
+	@Test
+	void analysisCanBeTurnedOff() throws IOException {
+		projectRoot.configure(Map.entry("vaadoo.regexAnalysis", "off"));
+		assertThatNoException().isThrownBy(() -> transformer.transform(patternClass("com.example.Unchecked", "[a-z")));
+	}
+
+	private static Unloaded<?> patternClass(String className, String regexp) {
+		var param = DefaultParameterDefinition.of(String.class,
+				AnnotationDefinition.of(Pattern.class, Map.of("regexp", regexp)));
+		return a(testClass(className).thatImplementsValueObject().withConstructor(ConstructorDefinition.of(param)));
+	}
+
+}
@@ -0,0 +1,51 @@
+package com.github.pfichtner.vaadoo;
+
+import static com.github.pfichtner.vaadoo.RegexAnalyzer.backtrackingRisks;
+import static com.github.pfichtner.vaadoo.RegexAnalyzer.syntaxError;
+import static java.util.regex.Pattern.LITERAL;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class RegexAnalyzerTest {
+
+	@ParameterizedTest
+	@ValueSource(strings = { "\\d\\d", ".*[A-Z].*", ".*[!@#$%^&*()].*", "[a-z]+", "(\\d{3}-)+\\d{4}", "(ab|cd)*",
+			"(a+)++", "(?>a+)+", "(?i)[a-z]+", "\\Q(a+)+\\E", "[(a+)+]", "a{2,3}b+", "(\\w+)@(\\w+)\\.com", "(-\\d+)*",
+			"^[_A-Za-z0-9-]+(\\.[_A-Za-z0-9-]+)*@[A-Za-z0-9]+(\\.[A-Za-z0-9]+)*(\\.[A-Za-z]{2,})$" })
+	void harmless(String regex) {
+		assertThat(backtrackingRisks(regex, 0)).isEmpty();
+	}
+
+	@ParameterizedTest
+	@CsvSource(delimiter = ';', value = { //
+			"(a+)+;nested quantifier in (a+)+", //
+			"(.*a){12};nested quantifier in (.*a){12}", //
+			"^(\\w+\\s?)*$;nested quantifier in (\\w+\\s?)*", //
+			"(?:x*y?)+z;nested quantifier in (?:x*y?)+", //
+			"(a|aa)+;overlapping alternatives in (a|aa)+", //
+			"(.|\\s)*;overlapping alternatives in (.|\\s)*", //
+			"\\d+\\d*;adjacent quantifiers on \\d", //
+			"x(?<name>(b*)*)y;nested quantifier in (b*)*", //
+			"(-[-\\d]+)*;nested quantifier in (-[-\\d]+)*" //
+	})
+	void risky(String regex, String finding) {
+		assertThat(backtrackingRisks(regex, 0)).containsExactly(finding);
+	}
+
+	@Test
+	void literalRegexesCanNotBacktrack() {
+		assertThat(backtrackingRisks("(a+)+", LITERAL)).isEmpty();
+	}
+
+	@Test
+	void reportsSyntaxErrors() {
+		assertThat(syntaxError("[a-z]+", 0)).isEmpty();
+		assertThat(syntaxError("[a-z", 0)).hasValue("Unclosed character class near index 3");
+		assertThat(syntaxError("[a-z", LITERAL)).isEmpty();
+	}
+
+}
@@ -0,0 +1,113 @@
+package com.github.pfichtner.vaadoo;
+
+import static com.github.pfichtner.vaadoo.Buildable.a;
+import static com.github.pfichtner.vaadoo.TestClassBuilder.testClass;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.github.pfichtner.vaadoo.TestClassBuilder.AnnotationDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.ConstructorDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.DefaultParameterDefinition;
+
+import jakarta.validation.constraints.Pattern;
+import net.bytebuddy.dynamic.DynamicType.Unloaded;
+import net.bytebuddy.dynamic.loading.ByteArrayClassLoader;
+
+class RegexSpecializationTest {
+
+	private static final List<String> INPUTS = List.of("", " ", "a", "A", "z", "0", "9", "_", "-", ",", "abc", "ABC",
+			"Aa", "BB", "EUR", "USD", "GBP", "eur", "EURO", "123", "0123456789", "ISBN-0123456789",
+			"ISBN-012345678", "ISBN-01234567890", "isbn-0123456789", "abc\n", "\n", "\r\n", "a\tb", "a b",
+			"äöü", "٠١", "😀", "a😀", "\uD83D", " ", "\u0085",
+			"1,2", "x.y", "a.b", "[]", "\\");
+
+	@RegisterExtension
+	ProjectRoot projectRoot = new ProjectRoot();
+	Transformer transformer = projectRoot.transformer();
+
+	@Test
+	void regexpsAreNotSpecializedByDefault() throws Exception {
+		var transformed = transformer.transform(patternClass("com.example.NotSpecialized", "[0-9]+"));
+		assertThat(Decompiler.decompile(transformed.getBytes())).doesNotContain("regex$");
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "^(EUR|USD|GBP)$", "(?:Aa|BB)", "abc", "", "[0-9]+", "[A-Z]{3}", "[a-z]{2,3}",
+			"\\S+", "\\s*", "\\w?", "\\D+", "ISBN-\\d{10}", "abc.*", ".+", "[^,]*", "x\\.y", "[\\[\\]\\\\]+",
+			"[-_a-z0-9]{1,}" })
+	void specializedRegexpsValidateLikePattern(String regexp) throws Exception {
+		configure("class,specialize");
+
+		var transformed = transformer.transform(patternClass("com.example.Specialized", regexp));
+		var decompiled = Decompiler.decompile(transformed.getBytes());
+		assertSoftly(s -> s.assertThat(decompiled).contains("!Specialized.regex$0(string)")
+				.doesNotContain("getCachedPattern("));
+		verifyBehavesLikePattern(constructor(transformed, "com.example.Specialized"), regexp);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "(a|b)+c", "[a-z]+\\d", "\\bword", ".{3}", "[^,]{2}", "a+?b", "[a-z&&[^x]]+" })
+	void otherRegexpsKeepUsingPattern(String regexp) throws Exception {
+		configure("class,specialize");
+
+		var transformed = transformer.transform(patternClass("com.example.Unspecialized", regexp));
+		var decompiled = Decompiler.decompile(transformed.getBytes());
+		assertSoftly(s -> s.assertThat(decompiled).doesNotContain("regex$").contains("getCachedPattern("));
+		verifyBehavesLikePattern(constructor(transformed, "com.example.Unspecialized"), regexp);
+	}
+
+	private static void verifyBehavesLikePattern(Constructor<?> constructor, String regexp) throws Exception {
+		var pattern = java.util.regex.Pattern.compile(regexp);
+		assertSoftly(s -> {
+			for (String input : INPUTS) {
+				s.assertThat(isValid(constructor, input)).describedAs("%s matches %s", regexp, input)
+						.isEqualTo(pattern.matcher(input).matches());
+			}
+		});
+	}
+
+	private static boolean isValid(Constructor<?> constructor, Object... args) {
+		try {
+			constructor.newInstance(args);
+			return true;
+		} catch (InvocationTargetException e) {
+			if (e.getCause() instanceof IllegalArgumentException) {
+				return false;
+			}
+			throw new IllegalStateException(e);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static Constructor<?> constructor(Unloaded<?> transformed, String className) throws Exception {
+		var types = new HashMap<String, byte[]>();
+		types.put(transformed.getTypeDescription().getName(), transformed.getBytes());
+		transformed.getAuxiliaryTypes().forEach((t, b) -> types.put(t.getName(), b));
+		return new ByteArrayClassLoader(RegexSpecializationTest.class.getClassLoader(), types).loadClass(className)
+				.getDeclaredConstructor(String.class);
+	}
+
+	private static Unloaded<?> patternClass(String className, String regexp) {
+		var param = DefaultParameterDefinition.of(String.class,
+				AnnotationDefinition.of(Pattern.class, Map.of("regexp", regexp)));
+		return a(testClass(className).thatImplementsValueObject().withConstructor(ConstructorDefinition.of(param)));
+	}
+
+	private void configure(String regexOptimization) throws IOException {
+		projectRoot.configure(Map.of("vaadoo.regexOptimization", regexOptimization));
+	}
+
+}
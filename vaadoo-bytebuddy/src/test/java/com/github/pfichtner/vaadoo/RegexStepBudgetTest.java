@@ -0,0 +1,98 @@
+package com.github.pfichtner.vaadoo;
+
+import static com.github.pfichtner.vaadoo.Buildable.a;
+import static com.github.pfichtner.vaadoo.TestClassBuilder.testClass;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.lang.reflect.Constructor;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.github.pfichtner.vaadoo.TestClassBuilder.AnnotationDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.ConstructorDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.DefaultParameterDefinition;
+
+import jakarta.validation.constraints.Pattern;
+import net.bytebuddy.dynamic.DynamicType.Unloaded;
+import net.bytebuddy.dynamic.loading.ByteArrayClassLoader;
+
+class RegexStepBudgetTest {
+
+	// catastrophic backtracking (even on JDKs >= 9) for inputs like "aaaa...!"
+	private static final String EVIL_REGEX = "(.*a){12}";
+	private static final String EVIL_INPUT = "a".repeat(26) + "!";
+	private static final String BUDGET_EXCEEDED = "string must match \"(.*a){12}\" but was a value exceeding "
+			+ "the regex step budget of 100000 steps";
+
+	@RegisterExtension
+	ProjectRoot projectRoot = new ProjectRoot();
+	Transformer transformer = projectRoot.transformer();
+
+	@Test
+	void noBudgetByDefault() throws Exception {
+		var transformed = transformer.transform(patternClass("com.example.Unbudgeted"));
+		assertThat(Decompiler.decompile(transformed.getBytes())).doesNotContain("VaadooBudgetedCharSequence");
+		assertThat(transformed.getAuxiliaryTypes().keySet())
+				.noneMatch(t -> t.getName().endsWith("VaadooBudgetedCharSequence"));
+	}
+
+	@Test
+	void pathologicalInputFailsOnceBudgetIsExceeded() throws Exception {
+		projectRoot.configure(Map.entry("vaadoo.regexStepBudget", 100_000));
+
+		var transformed = transformer.transform(patternClass("com.example.Budgeted"));
+		assertThat(Decompiler.decompile(transformed.getBytes())).contains("VaadooBudgetedCharSequence.wrap(");
+
+		var constructor = constructor(transformed, "com.example.Budgeted");
+		assertThatNoException().isThrownBy(() -> constructor.newInstance("a".repeat(12)));
+		assertThatThrownBy(() -> constructor.newInstance("b")).hasCauseInstanceOf(IllegalArgumentException.class)
+				.hasRootCauseMessage("string must match \"(.*a){12}\" but was b");
+		assertThatThrownBy(() -> constructor.newInstance(EVIL_INPUT))
+				.hasCauseInstanceOf(IllegalArgumentException.class).hasRootCauseMessage(BUDGET_EXCEEDED);
+	}
+
+	@Test
+	void budgetExceededCarriesTheMessageOfTheAnnotation() throws Exception {
+		projectRoot.configure(Map.entry("vaadoo.regexStepBudget", 100_000));
+
+		var param = DefaultParameterDefinition.of(String.class,
+				AnnotationDefinition.of(Pattern.class, Map.of("regexp", EVIL_REGEX, "message", "needs twelve a")));
+		var constructor = constructor(transformer.transform(a(testClass("com.example.BudgetedMessage")
+				.thatImplementsValueObject().withConstructor(ConstructorDefinition.of(param)))),
+				"com.example.BudgetedMessage");
+		assertThatThrownBy(() -> constructor.newInstance(EVIL_INPUT))
+				.hasRootCauseMessage("needs twelve a (the regex step budget of 100000 steps exceeded)");
+	}
+
+	@Test
+	void budgetIsCombinableWithPooledMatchers() throws Exception {
+		projectRoot.configure(Map.entry("vaadoo.regexStepBudget", 100_000),
+				Map.entry("vaadoo.regexOptimization", "package,pooledMatchers"));
+
+		var constructor = constructor(transformer.transform(patternClass("com.example.BudgetedPooled")),
+				"com.example.BudgetedPooled");
+		assertThatCode(() -> constructor.newInstance("a".repeat(12))).doesNotThrowAnyException();
+		assertThatThrownBy(() -> constructor.newInstance(EVIL_INPUT)).hasRootCauseMessage(BUDGET_EXCEEDED);
+	}
+
+	private static Constructor<?> constructor(Unloaded<?> transformed, String className) throws Exception {
+		var types = new HashMap<String, byte[]>();
+		types.put(transformed.getTypeDescription().getName(), transformed.getBytes());
+		transformed.getAuxiliaryTypes().forEach((t, b) -> types.put(t.getName(), b));
+		return new ByteArrayClassLoader(RegexStepBudgetTest.class.getClassLoader(), types).loadClass(className)
+				.getDeclaredConstructor(String.class);
+	}
+
+	private static Unloaded<?> patternClass(String className) {
+		var param = DefaultParameterDefinition.of(String.class,
+				AnnotationDefinition.of(Pattern.class, Map.of("regexp", EVIL_REGEX)));
+		return a(testClass(className).thatImplementsValueObject().withConstructor(ConstructorDefinition.of(param)));
+	}
+
+}
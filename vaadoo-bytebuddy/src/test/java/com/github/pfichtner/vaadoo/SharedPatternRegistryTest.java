@@ -0,0 +1,106 @@
+package com.github.pfichtner.vaadoo;
+
+import static com.github.pfichtner.vaadoo.Buildable.a;
+import static com.github.pfichtner.vaadoo.TestClassBuilder.testClass;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.github.pfichtner.vaadoo.TestClassBuilder.AnnotationDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.ConstructorDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.DefaultParameterDefinition;
+
+import jakarta.validation.constraints.Pattern;
+import net.bytebuddy.dynamic.DynamicType.Unloaded;
+import net.bytebuddy.dynamic.loading.ByteArrayClassLoader;
+
+class SharedPatternRegistryTest {
+
+	private static final String REGISTRY = "com.example.VaadooPatternRegistry";
+	private static final String POOLED_REGISTRY = "com.example.VaadooPooledPatternRegistry";
+
+	@RegisterExtension
+	ProjectRoot projectRoot = new ProjectRoot();
+	Transformer transformer = projectRoot.transformer();
+
+	@Test
+	void classScopeKeepsCacheInEnhancedClass() throws Exception {
+		projectRoot.configure(Map.entry("vaadoo.regexOptimization", "class"));
+		var transformed = transformer.transform(patternClass("com.example.First"));
+		var decompiled = Decompiler.decompile(transformed.getBytes());
+		assertSoftly(s -> {
+			s.assertThat(decompiled).contains("regexpCache");
+			s.assertThat(registryOf(transformed)).isNull();
+		});
+	}
+
+	@Test
+	void packageScopeDelegatesToSharedRegistry() throws Exception {
+		projectRoot.configure(Map.entry("vaadoo.regexOptimization", "package"));
+
+		var first = transformer.transform(patternClass("com.example.First"));
+		var second = transformer.transform(patternClass("com.example.Second"));
+		var decompiled = Decompiler.decompile(first.getBytes());
+		assertSoftly(s -> {
+			s.assertThat(decompiled).doesNotContain("regexpCache")
+					.contains("VaadooPatternRegistry.getCachedPattern");
+			s.assertThat(registryOf(first)).isNotNull().isEqualTo(registryOf(second));
+		});
+
+		var types = new HashMap<String, byte[]>();
+		for (Unloaded<?> unloaded : new Unloaded<?>[] { first, second }) {
+			types.put(unloaded.getTypeDescription().getName(), unloaded.getBytes());
+			unloaded.getAuxiliaryTypes().forEach((t, b) -> types.put(t.getName(), b));
+		}
+		var classLoader = new ByteArrayClassLoader(getClass().getClassLoader(), types);
+		var firstConstructor = classLoader.loadClass("com.example.First").getDeclaredConstructor(String.class);
+		var secondConstructor = classLoader.loadClass("com.example.Second").getDeclaredConstructor(String.class);
+
+		firstConstructor.newInstance("abc");
+		secondConstructor.newInstance("xyz");
+		assertThatThrownBy(() -> secondConstructor.newInstance("123"))
+				.hasCauseInstanceOf(IllegalArgumentException.class);
+
+		var cacheField = classLoader.loadClass(REGISTRY).getDeclaredField("regexpCache");
+		cacheField.setAccessible(true);
+		assertThat((Map<?, ?>) cacheField.get(null)).hasSize(1);
+	}
+
+	@Test
+	void pooledMatchersUseARegistryOfItsOwn() throws Exception {
+		projectRoot.configure(Map.entry("vaadoo.regexOptimization", "package,pooledMatchers"));
+
+		var transformed = transformer.transform(patternClass("com.example.Pooled"));
+		var decompiled = Decompiler.decompile(transformed.getBytes());
+		assertSoftly(s -> {
+			s.assertThat(decompiled).contains("VaadooPooledPatternRegistry.matches");
+			s.assertThat(registryOf(transformed)).isNull();
+			s.assertThat(registryOf(transformed, POOLED_REGISTRY)).isNotNull();
+		});
+	}
+
+	private static byte[] registryOf(Unloaded<?> unloaded) {
+		return registryOf(unloaded, REGISTRY);
+	}
+
+	private static byte[] registryOf(Unloaded<?> unloaded, String registry) {
+		return unloaded.getAuxiliaryTypes().entrySet().stream() //
+				.filter(e -> e.getKey().getName().equals(registry)) //
+				.map(Entry::getValue) //
+				.findFirst().orElse(null);
+	}
+
+	private static Unloaded<?> patternClass(String className) {
+		var param = DefaultParameterDefinition.of(String.class,
+				AnnotationDefinition.of(Pattern.class, Map.of("regexp", "[a-z]+")));
+		return a(testClass(className).thatImplementsValueObject().withConstructor(ConstructorDefinition.of(param)));
+	}
+
+}
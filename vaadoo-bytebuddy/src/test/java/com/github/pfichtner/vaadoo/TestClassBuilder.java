@@ -400,6 +400,10 @@ public class TestClassBuilder implements Buildable<Unloaded<?>> {
 				builder = builder.define("regexp", getAnnotationValue(annotationDefinition, "regexp", ""));
 				Pattern.Flag[] flags = getAnnotationValue(annotationDefinition, "flags", new Pattern.Flag[0]);
 				builder = builder.defineEnumerationArray("flags", Pattern.Flag.class, flags);
+				String message = getAnnotationValue(annotationDefinition, "message", null);
+				if (message != null) {
+					builder = builder.define("message", message);
+				}
 			}
 			return builder.build();
 		} catch (Exception e) {
@@ -0,0 +1,170 @@
+package com.github.pfichtner.vaadoo;
+
+import static com.github.pfichtner.vaadoo.Buildable.a;
+import static com.github.pfichtner.vaadoo.TestClassBuilder.testClass;
+import static java.lang.String.format;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.IntStream.range;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.github.pfichtner.vaadoo.TestClassBuilder.AnnotationDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.ConstructorDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.DefaultParameterDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.ParameterDefinition;
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.JMoleculesPlugin;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Past;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import net.bytebuddy.build.Plugin;
+import net.bytebuddy.build.Plugin.Engine;
+import net.bytebuddy.build.Plugin.Engine.Source;
+import net.bytebuddy.build.Plugin.Engine.Target;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.dynamic.DynamicType.Unloaded;
+
+/**
+ * Measures the transformation time per class of value objects with ten
+ * annotated parameters and all class visitors enabled, and of cold and warm
+ * builds with the transformation cache. Not run by default, run with
+ * {@code mvn test -Dtest=TransformationBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TransformationBenchmarkTest {
+
+	private static final int CORPUS_SIZE = 200;
+	private static final int WARMUP_ROUNDS = 10;
+	private static final int ROUNDS = 20;
+
+	private static final List<ParameterDefinition> PARAMETERS = List.of( //
+			DefaultParameterDefinition.of(String.class, AnnotationDefinition.of(NotBlank.class)), //
+			DefaultParameterDefinition.of(String.class, AnnotationDefinition.of(Email.class)), //
+			DefaultParameterDefinition.of(String.class,
+					AnnotationDefinition.of(Pattern.class, Map.of("regexp", "[A-Z]{2}\\d+"))), //
+			DefaultParameterDefinition.of(String.class,
+					AnnotationDefinition.of(Pattern.class, Map.of("regexp", "(\\w+)@(\\w+)\\.com"))), //
+			DefaultParameterDefinition.of(String.class, AnnotationDefinition.of(NotNull.class),
+					AnnotationDefinition.of(Size.class, Map.of("min", 2, "max", 8))), //
+			DefaultParameterDefinition.of(int.class, AnnotationDefinition.of(Min.class, Map.of("value", 1L)),
+					AnnotationDefinition.of(Max.class, Map.of("value", 99L))), //
+			DefaultParameterDefinition.of(long.class, AnnotationDefinition.of(Positive.class)), //
+			DefaultParameterDefinition.of(List.class, AnnotationDefinition.of(NotEmpty.class)), //
+			DefaultParameterDefinition.of(LocalDate.class, AnnotationDefinition.of(Past.class)), //
+			DefaultParameterDefinition.of(Integer.class, AnnotationDefinition.of(NotNull.class)) //
+	);
+
+	@RegisterExtension
+	ProjectRoot projectRoot = new ProjectRoot();
+
+	private static final Map<String, Object> CONFIGURATION = Map.of("vaadoo.regexOptimization", "specialize", //
+			"vaadoo.regexStepBudget", 100_000, //
+			"vaadoo.cachedClock", true);
+
+	@BeforeEach
+	void setup() throws IOException {
+		projectRoot.configure(CONFIGURATION);
+	}
+
+	@Test
+	void transformationTimePerClass() throws IOException {
+		Map<TypeDescription, byte[]> corpus = corpus();
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			transform(corpus);
+		}
+		print("Transformation time per class", measure(corpus, () -> {
+		}));
+	}
+
+	@Test
+	void coldAndWarmBuildsWithTheTransformationCache() throws IOException {
+		Map<TypeDescription, byte[]> corpus = corpus();
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			transform(corpus);
+		}
+		long[] withoutCache = measure(corpus, () -> {
+		});
+
+		AtomicInteger builds = new AtomicInteger();
+		long[] cold = measure(corpus, () -> configureCache(new File(projectRoot.directory(),
+				"cache-" + builds.incrementAndGet())));
+
+		configureCache(new File(projectRoot.directory(), "cache"));
+		transform(corpus);
+		long[] warm = measure(corpus, () -> {
+		});
+
+		print("Transformation time per class without cache", withoutCache);
+		print("Transformation time per class with an empty cache", cold);
+		print("Transformation time per class with a filled cache", warm);
+	}
+
+	private void configureCache(File directory) throws IOException {
+		Map<String, Object> configuration = new HashMap<>(CONFIGURATION);
+		configuration.put("vaadoo.transformationCache", true);
+		configuration.put("vaadoo.transformationCacheDirectory", directory.getAbsolutePath());
+		projectRoot.configure(configuration);
+	}
+
+	private long[] measure(Map<TypeDescription, byte[]> corpus, BeforeRound beforeRound) throws IOException {
+		long[] nanosPerClass = new long[ROUNDS];
+		for (int i = 0; i < ROUNDS; i++) {
+			beforeRound.run();
+			long start = System.nanoTime();
+			transform(corpus);
+			nanosPerClass[i] = (System.nanoTime() - start) / CORPUS_SIZE;
+		}
+		Arrays.sort(nanosPerClass);
+		return nanosPerClass;
+	}
+
+	private static void print(String title, long[] nanosPerClass) {
+		System.out.println(format("%s: median %d us, min %d us, max %d us", title,
+				nanosPerClass[ROUNDS / 2] / 1_000, nanosPerClass[0] / 1_000, nanosPerClass[ROUNDS - 1] / 1_000));
+	}
+
+	private interface BeforeRound {
+		void run() throws IOException;
+	}
+
+	private void transform(Map<TypeDescription, byte[]> corpus) throws IOException {
+		var engine = new Engine.Default().with(ClassFileLocator.ForClassLoader.ofSystemLoader());
+		var summary = engine.apply(Source.InMemory.ofTypes(corpus), new Target.InMemory(),
+				List.of(new Plugin.Factory.Simple(new JMoleculesPlugin(projectRoot.directory()))));
+		assertThat(summary.getTransformed()).hasSize(CORPUS_SIZE);
+	}
+
+	private static Map<TypeDescription, byte[]> corpus() {
+		return range(0, CORPUS_SIZE).mapToObj(TransformationBenchmarkTest::valueObject)
+				.collect(toMap(Unloaded::getTypeDescription, Unloaded::getBytes));
+	}
+
+	private static Unloaded<?> valueObject(int index) {
+		var parameters = range(0, PARAMETERS.size()).mapToObj(i -> PARAMETERS.get((index + i) % PARAMETERS.size()))
+				.toArray(ParameterDefinition[]::new);
+		return a(testClass("com.example.benchmark.ValueObject" + index).thatImplementsValueObject()
+				.withConstructor(ConstructorDefinition.of(parameters)));
+	}
+
+}
@@ -0,0 +1,124 @@
+package com.github.pfichtner.vaadoo;
+
+import static com.github.pfichtner.vaadoo.Buildable.a;
+import static com.github.pfichtner.vaadoo.TestClassBuilder.testClass;
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.stream.Collectors.toSet;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.github.pfichtner.vaadoo.TestClassBuilder.AnnotationDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.ConstructorDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.DefaultParameterDefinition;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.DynamicType.Unloaded;
+import net.bytebuddy.dynamic.loading.ByteArrayClassLoader;
+
+class TransformationCacheTest {
+
+	private static final String CLASS_NAME = "com.example.Cached";
+
+	@RegisterExtension
+	ProjectRoot projectRoot = new ProjectRoot();
+	File cacheDirectory = projectRoot.file("target/vaadoo-cache");
+	Map<String, Object> config = new LinkedHashMap<>(Map.of("vaadoo.transformationCache", true));
+
+	@Test
+	void unchangedClassesAreReplayedFromTheCache() throws Exception {
+		var first = transform(notBlankClass());
+		assertThat(new File(cacheDirectory, "index")).exists();
+		assertThat(cacheDirectory.list()).hasSize(2);
+
+		var second = transform(notBlankClass());
+		// the (randomly named) auxiliary types of the first build are replayed
+		assertThat(auxiliaryTypeNames(second)).isEqualTo(auxiliaryTypeNames(first));
+		assertThat(cacheDirectory.list()).hasSize(2);
+		assertThatThrownBy(() -> newInstance(second, " ")).hasRootCauseMessage("string must not be blank");
+	}
+
+	@Test
+	void changedConfigurationIsACacheMiss() throws Exception {
+		var first = transform(notBlankClass());
+		config.put("vaadoo.checkOrder", "cost");
+		var second = transform(notBlankClass());
+		assertThat(auxiliaryTypeNames(second)).doesNotContainAnyElementsOf(auxiliaryTypeNames(first));
+		assertThat(cacheDirectory.list()).hasSize(3);
+	}
+
+	@Test
+	void changedClassIsACacheMiss() throws Exception {
+		transform(notBlankClass());
+		var param = DefaultParameterDefinition.of(String.class,
+				AnnotationDefinition.of(Pattern.class, Map.of("regexp", "[a-z]+")));
+		var changed = transform(
+				a(testClass(CLASS_NAME).thatImplementsValueObject().withConstructor(ConstructorDefinition.of(param))));
+		assertThat(cacheDirectory.list()).hasSize(3);
+		assertThatThrownBy(() -> newInstance(changed, "A"))
+				.hasRootCauseMessage("string must match \"[a-z]+\" but was A");
+	}
+
+	@Test
+	void entriesNotUsedForTooLongArePruned() throws Exception {
+		transform(notBlankClass());
+		File stale = entryFiles()[0];
+		stale.setLastModified(System.currentTimeMillis() - DAYS.toMillis(31));
+
+		var param = DefaultParameterDefinition.of(String.class,
+				AnnotationDefinition.of(Pattern.class, Map.of("regexp", "[a-z]+")));
+		transform(
+				a(testClass(CLASS_NAME).thatImplementsValueObject().withConstructor(ConstructorDefinition.of(param))));
+		assertThat(entryFiles()).hasSize(1).doesNotContain(stale);
+		assertThat(new File(cacheDirectory, "index")).hasSize(32);
+	}
+
+	@Test
+	void replayedEntriesAreNotPruned() throws Exception {
+		transform(notBlankClass());
+		File used = entryFiles()[0];
+		used.setLastModified(System.currentTimeMillis() - DAYS.toMillis(31));
+
+		transform(notBlankClass());
+		config.put("vaadoo.checkOrder", "cost");
+		transform(notBlankClass());
+		assertThat(entryFiles()).hasSize(2).contains(used);
+	}
+
+	private File[] entryFiles() {
+		return cacheDirectory.listFiles((d, n) -> !"index".equals(n));
+	}
+
+	private Unloaded<?> transform(Unloaded<?> unloaded) throws Exception {
+		projectRoot.configure(config);
+		return projectRoot.transformer().transform(unloaded);
+	}
+
+	private static Unloaded<?> notBlankClass() {
+		var param = DefaultParameterDefinition.of(String.class, AnnotationDefinition.of(NotBlank.class));
+		return a(testClass(CLASS_NAME).thatImplementsValueObject().withConstructor(ConstructorDefinition.of(param)));
+	}
+
+	private static Set<String> auxiliaryTypeNames(Unloaded<?> transformed) {
+		return transformed.getAuxiliaryTypes().keySet().stream().map(TypeDescription::getName).collect(toSet());
+	}
+
+	private static Object newInstance(Unloaded<?> transformed, String value) throws Exception {
+		var types = new HashMap<String, byte[]>();
+		types.put(CLASS_NAME, transformed.getBytes());
+		transformed.getAuxiliaryTypes().forEach((t, b) -> types.put(t.getName(), b));
+		return new ByteArrayClassLoader(TransformationCacheTest.class.getClassLoader(), types).loadClass(CLASS_NAME)
+				.getDeclaredConstructor(String.class).newInstance(value);
+	}
+
+}
@@ -0,0 +1,89 @@
+package com.github.pfichtner.vaadoo;
+
+import static com.github.pfichtner.vaadoo.Buildable.a;
+import static com.github.pfichtner.vaadoo.TestClassBuilder.testClass;
+import static java.nio.file.Files.readAllLines;
+import static java.nio.file.Files.readString;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.github.pfichtner.vaadoo.TestClassBuilder.AnnotationDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.ConstructorDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.DefaultParameterDefinition;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+
+class TransformationMetricsTest {
+
+	private static final String CLASS_NAME = "com.example.Measured";
+
+	@RegisterExtension
+	ProjectRoot projectRoot = new ProjectRoot();
+	File metricsDirectory = projectRoot.file("target/vaadoo-metrics");
+
+	@Test
+	void writesThePhasesAndCountersOfEachType() throws Exception {
+		projectRoot.configure(Map.entry("vaadoo.metrics", true));
+		transform();
+
+		List<String> csv = readAllLines(new File(metricsDirectory, "vaadoo-metrics.csv").toPath());
+		assertThat(csv.get(0)).isEqualTo("type,preprocessNanos,configurationNanos,planningNanos,injectionNanos,"
+				+ "framesNanos,writingNanos,constructorsEnhanced,regexesRewritten,bytesAdded,replayedFromCache,"
+				+ "checks:jakarta.validation.constraints.NotBlank,checks:jakarta.validation.constraints.NotNull,"
+				+ "checks:jakarta.validation.constraints.Pattern");
+		assertThat(csv).hasSize(3);
+		assertThat(csv.get(1)).startsWith(CLASS_NAME + ",");
+		assertThat(csv.get(2)).startsWith("TOTAL,");
+		for (String row : csv.subList(1, 3)) {
+			String[] columns = row.split(",");
+			for (int phase = 1; phase <= 6; phase++) {
+				assertThat(Long.parseLong(columns[phase])).isGreaterThan(0);
+			}
+			assertThat(columns).endsWith("1", "1", columns[9], "0", "1", "2", "1");
+			assertThat(Long.parseLong(columns[9])).isGreaterThan(0);
+		}
+
+		String json = readString(new File(metricsDirectory, "vaadoo-metrics.json").toPath());
+		assertThat(json).contains("\"types\": 1", "\"type\": \"" + CLASS_NAME + "\"", "\"constructorsEnhanced\": 1",
+				"\"jakarta.validation.constraints.NotNull\": 2", "\"regexesRewritten\": 1");
+	}
+
+	@Test
+	void marksTypesReplayedFromTheCache() throws Exception {
+		projectRoot.configure(Map.entry("vaadoo.metrics", true), Map.entry("vaadoo.transformationCache", true));
+		transform();
+		transform();
+
+		String[] columns = readAllLines(new File(metricsDirectory, "vaadoo-metrics.csv").toPath()).get(1).split(",");
+		assertThat(columns[0]).isEqualTo(CLASS_NAME);
+		assertThat(columns[10]).isEqualTo("1");
+		assertThat(Long.parseLong(columns[9])).isGreaterThan(0);
+		assertThat(readString(new File(metricsDirectory, "vaadoo-metrics.json").toPath()))
+				.contains("\"replayedFromCache\": 1");
+	}
+
+	@Test
+	void writesNothingIfDisabled() throws Exception {
+		transform();
+		assertThat(metricsDirectory).doesNotExist();
+	}
+
+	private void transform() throws Exception {
+		var parameters = new DefaultParameterDefinition[] {
+				DefaultParameterDefinition.of(String.class, AnnotationDefinition.of(NotBlank.class),
+						AnnotationDefinition.of(NotNull.class)),
+				DefaultParameterDefinition.of(String.class, AnnotationDefinition.of(NotNull.class),
+						AnnotationDefinition.of(Pattern.class, Map.of("regexp", "[a-z]+"))) };
+		projectRoot.transformer().transform(a(testClass(CLASS_NAME).thatImplementsValueObject()
+				.withConstructor(ConstructorDefinition.of(parameters))));
+	}
+
+}
@@ -0,0 +1,78 @@
+package com.github.pfichtner.vaadoo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.github.pfichtner.vaadoo.testclasses.DelegatingConstructorValueObject;
+import com.github.pfichtner.vaadoo.testclasses.TwoConstructorsValueObject;
+import com.github.pfichtner.vaadoo.testclasses.ValueObjectWithRegexAttribute;
+
+class TrustedFactoryTest {
+
+	@RegisterExtension
+	ProjectRoot projectRoot = new ProjectRoot();
+	Transformer transformer = projectRoot.transformer();
+
+	@Test
+	void noTrustedFactoryByDefault() throws Exception {
+		Class<?> transformed = transformer.transform(ValueObjectWithRegexAttribute.class);
+		assertThatThrownBy(() -> transformed.getDeclaredMethod("trusted", String.class))
+				.isInstanceOf(NoSuchMethodException.class);
+	}
+
+	@Test
+	void trustedFactoryRunsTheConstructorBodyWithoutChecks() throws Exception {
+		projectRoot.configure(Map.entry("vaadoo.trustedFactory", true));
+		Class<?> transformed = transformer.transform(ValueObjectWithRegexAttribute.class);
+
+		Method trusted = transformed.getDeclaredMethod("trusted", String.class);
+		assertThat(trusted.getReturnType()).isEqualTo(transformed);
+		assertThat(Modifier.isStatic(trusted.getModifiers())).isTrue();
+		assertThat(Modifier.isPublic(trusted.getModifiers()) || Modifier.isPrivate(trusted.getModifiers())
+				|| Modifier.isProtected(trusted.getModifiers())).isFalse();
+
+		trusted.setAccessible(true);
+		Object instance = trusted.invoke(null, "not two digits");
+		Field field = transformed.getDeclaredField("someTwoDigits");
+		field.setAccessible(true);
+		assertThat(field.get(instance)).isEqualTo("not two digits");
+
+		assertThatThrownBy(() -> transformed.getConstructor(String.class).newInstance("not two digits"))
+				.hasRootCauseInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void oneTrustedFactoryPerConstructor() throws Exception {
+		projectRoot.configure(Map.entry("vaadoo.trustedFactory", true));
+		Class<?> transformed = transformer.transform(TwoConstructorsValueObject.class);
+
+		Method trusted = transformed.getDeclaredMethod("trusted", String.class);
+		Method trustedWithFlag = transformed.getDeclaredMethod("trusted", String.class, boolean.class);
+		trusted.setAccessible(true);
+		trustedWithFlag.setAccessible(true);
+		assertThat(trusted.invoke(null, (Object) null)).isInstanceOf(transformed);
+		assertThat(trustedWithFlag.invoke(null, null, true)).isInstanceOf(transformed);
+	}
+
+	@Test
+	void checksOfDelegatedConstructorsAreNotBypassed() throws Exception {
+		projectRoot.configure(Map.entry("vaadoo.trustedFactory", true));
+		Class<?> transformed = transformer.transform(DelegatingConstructorValueObject.class);
+
+		// the body of the trusted constructor calls this(...), that is the
+		// validating constructor
+		Method trusted = transformed.getDeclaredMethod("trusted", String.class, int.class);
+		trusted.setAccessible(true);
+		assertThatThrownBy(() -> trusted.invoke(null, "abc", 1))
+				.hasRootCauseInstanceOf(IllegalArgumentException.class);
+	}
+
+}
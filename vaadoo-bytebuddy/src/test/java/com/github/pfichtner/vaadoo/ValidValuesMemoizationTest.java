@@ -0,0 +1,86 @@
+package com.github.pfichtner.vaadoo;
+
+import static com.github.pfichtner.vaadoo.Buildable.a;
+import static com.github.pfichtner.vaadoo.TestClassBuilder.testClass;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.lang.reflect.Constructor;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.github.pfichtner.vaadoo.TestClassBuilder.AnnotationDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.ConstructorDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.DefaultParameterDefinition;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import net.bytebuddy.dynamic.DynamicType.Unloaded;
+
+class ValidValuesMemoizationTest {
+
+	@RegisterExtension
+	ProjectRoot projectRoot = new ProjectRoot();
+	Transformer transformer = projectRoot.transformer();
+
+	@Test
+	void noCacheIsGeneratedByDefault() throws Exception {
+		var transformed = transformer.transform(patternClass("com.example.NotMemoized"));
+		assertThat(Decompiler.decompile(transformed.getBytes())).doesNotContain("$memo");
+	}
+
+	@Test
+	void cachesAcceptedValues() throws Exception {
+		projectRoot.configure(Map.entry("vaadoo.memoizeValidValues", true));
+
+		var transformed = transformer.transform(patternClass("com.example.Memoized"));
+		assertThat(Decompiler.decompile(transformed.getBytes())).contains("validate_string$memo0");
+
+		var constructor = stringConstructor(transformed);
+		assertThatNoException().isThrownBy(() -> constructor.newInstance("Aa"));
+		assertThatNoException().isThrownBy(() -> constructor.newInstance("Aa"));
+		assertThatNoException().isThrownBy(() -> constructor.newInstance((String) null));
+		assertThatThrownBy(() -> constructor.newInstance("aA")).hasCauseInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void valuesWithSameHashCodeAreStillChecked() throws Exception {
+		projectRoot.configure(Map.entry("vaadoo.memoizeValidValues", true),
+				Map.entry("vaadoo.memoizationCacheSize", 1));
+		assertThat("Aa").hasSameHashCodeAs("BB");
+
+		var constructor = stringConstructor(transformer.transform(patternClass("com.example.MemoizedCollision")));
+		constructor.newInstance("Aa");
+		assertThatThrownBy(() -> constructor.newInstance("BB")).hasCauseInstanceOf(IllegalArgumentException.class)
+				.hasRootCauseMessage("string must match \"Aa\" but was BB");
+	}
+
+	@Test
+	void onlyExpensiveChecksAreMemoized() throws Exception {
+		projectRoot.configure(Map.entry("vaadoo.memoizeValidValues", true));
+
+		var param = DefaultParameterDefinition.of(String.class, AnnotationDefinition.of(NotBlank.class),
+				AnnotationDefinition.of(Email.class));
+		var transformed = transformer.transform(a(testClass("com.example.MemoizedEmail").thatImplementsValueObject()
+				.withConstructor(ConstructorDefinition.of(param))));
+
+		String decompiled = Decompiler.decompile(transformed.getBytes());
+		assertThat(decompiled).contains("validate_string$memo0").doesNotContain("validate_string$memo1");
+	}
+
+	private static Constructor<?> stringConstructor(Unloaded<?> transformed) throws NoSuchMethodException {
+		return transformed.load(new ClassLoader(ValidValuesMemoizationTest.class.getClassLoader()) {
+		}).getLoaded().getDeclaredConstructor(String.class);
+	}
+
+	private static Unloaded<?> patternClass(String className) {
+		var param = DefaultParameterDefinition.of(String.class,
+				AnnotationDefinition.of(Pattern.class, Map.of("regexp", "Aa")));
+		return a(testClass(className).thatImplementsValueObject().withConstructor(ConstructorDefinition.of(param)));
+	}
+
+}
@@ -0,0 +1,182 @@
+package com.github.pfichtner.vaadoo;
+
+import static com.github.pfichtner.vaadoo.Buildable.a;
+import static com.github.pfichtner.vaadoo.ProjectRoot.writeTo;
+import static com.github.pfichtner.vaadoo.TestClassBuilder.testClass;
+import static com.github.pfichtner.vaadoo.ValidationProfile.profileFile;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+import java.io.File;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.github.pfichtner.vaadoo.TestClassBuilder.AnnotationDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.ConstructorDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.DefaultParameterDefinition;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import net.bytebuddy.dynamic.DynamicType.Unloaded;
+import net.bytebuddy.dynamic.loading.ByteArrayClassLoader;
+
+class ValidationProfileTest {
+
+	@RegisterExtension
+	ProjectRoot projectRoot = new ProjectRoot();
+	File profileDirectory = projectRoot.file("target/vaadoo-profile");
+	Transformer transformer = projectRoot.transformer();
+
+	@Test
+	void recordsRunsAndFailuresOfEachCheck() throws Exception {
+		projectRoot.configure(Map.entry("vaadoo.profile", "record"));
+		var constructor = constructor(transformer.transform(patternThenNotBlankClass("com.example.Recorded")),
+				"com.example.Recorded");
+
+		for (String value : new String[] { "abc", "xyz", "ABC", "abc", " " }) {
+			isValid(constructor, value);
+		}
+		writeProfile(constructor.getDeclaringClass());
+
+		var profile = ValidationProfile.load(profileFile(profileDirectory, "com.example.Recorded"));
+		assertSoftly(s -> {
+			s.assertThat(profile.runs("validate_string.Pattern")).isEqualTo(5);
+			s.assertThat(profile.failures("validate_string.Pattern")).isEqualTo(2);
+			s.assertThat(profile.runs("validate_string.NotBlank")).isEqualTo(3);
+			s.assertThat(profile.failures("validate_string.NotBlank")).isZero();
+		});
+	}
+
+	@Test
+	void recordedCountsAreAddedToAnExistingProfile() throws Exception {
+		projectRoot.configure(Map.entry("vaadoo.profile", "record"));
+		writeTo(profileFile(profileDirectory, "com.example.Accumulated"), Map.of( //
+				"validate_string.Pattern.runs", 10, //
+				"validate_string.Pattern.failures", 4));
+		var constructor = constructor(transformer.transform(patternThenNotBlankClass("com.example.Accumulated")),
+				"com.example.Accumulated");
+
+		isValid(constructor, "ABC");
+		writeProfile(constructor.getDeclaringClass());
+
+		var profile = ValidationProfile.load(profileFile(profileDirectory, "com.example.Accumulated"));
+		assertSoftly(s -> {
+			s.assertThat(profile.runs("validate_string.Pattern")).isEqualTo(11);
+			s.assertThat(profile.failures("validate_string.Pattern")).isEqualTo(5);
+		});
+	}
+
+	@Test
+	void checksThatFailedMostOftenAreExecutedFirst() throws Exception {
+		projectRoot.configure(Map.entry("vaadoo.profile", "use"));
+		writeTo(profileFile(profileDirectory, "com.example.Profiled"), Map.of( //
+				"validate_string.Pattern.runs", 100, //
+				"validate_string.Pattern.failures", 1, //
+				"validate_string.NotBlank.runs", 99, //
+				"validate_string.NotBlank.failures", 50));
+
+		var transformed = transformer.transform(patternThenNotBlankClass("com.example.Profiled"));
+		assertThat(Decompiler.decompile(transformed.getBytes())).doesNotContain("vaadoo$profile");
+		var constructor = constructor(transformed, "com.example.Profiled");
+		assertThatThrownBy(() -> constructor.newInstance(" ")).hasRootCauseMessage("string must not be blank");
+	}
+
+	@Test
+	void hotChecksThatMostlyPassAreMemoized() throws Exception {
+		projectRoot.configure(Map.entry("vaadoo.profile", "use"), Map.entry("vaadoo.profileHotThreshold", 50));
+		writeTo(profileFile(profileDirectory, "com.example.Hot"), Map.of( //
+				"validate_string.Pattern.runs", 100, //
+				"validate_string.Pattern.failures", 1));
+
+		var transformed = transformer.transform(patternThenNotBlankClass("com.example.Hot"));
+		assertThat(Decompiler.decompile(transformed.getBytes())).contains("validate_string$memo0");
+	}
+
+	@Test
+	void withoutProfileTheDeclarationOrderIsKept() throws Exception {
+		projectRoot.configure(Map.entry("vaadoo.profile", "use"));
+		var constructor = constructor(transformer.transform(patternThenNotBlankClass("com.example.NoProfile")),
+				"com.example.NoProfile");
+		assertThatThrownBy(() -> constructor.newInstance(" "))
+				.hasRootCauseMessage("string must match \"[a-z]+\" but was  ");
+	}
+
+	@Test
+	void classesOfAPackageShareOneShutdownHook() throws Exception {
+		projectRoot.configure(Map.entry("vaadoo.profile", "record"));
+		var types = new HashMap<String, byte[]>();
+		types.putAll(types(transformer.transform(patternThenNotBlankClass("com.example.First"))));
+		types.putAll(types(transformer.transform(patternThenNotBlankClass("com.example.Second"))));
+		var loader = new ByteArrayClassLoader(ValidationProfileTest.class.getClassLoader(), types);
+		var first = loader.loadClass("com.example.First").getDeclaredConstructor(String.class);
+		var second = loader.loadClass("com.example.Second").getDeclaredConstructor(String.class);
+
+		isValid(first, "abc");
+		isValid(second, "ABC");
+
+		var firstWriter = (Thread) staticField(first.getDeclaringClass(), "vaadoo$profile");
+		var secondWriter = (Thread) staticField(second.getDeclaringClass(), "vaadoo$profile");
+		var hook = (Thread) staticField(firstWriter.getClass(), "hook");
+		assertThat(Runtime.getRuntime().removeShutdownHook(hook)).isTrue();
+		assertThat(Runtime.getRuntime().removeShutdownHook(firstWriter)).isFalse();
+		assertThat(Runtime.getRuntime().removeShutdownHook(secondWriter)).isFalse();
+		hook.run();
+
+		assertSoftly(s -> {
+			s.assertThat(ValidationProfile.load(profileFile(profileDirectory, "com.example.First"))
+					.failures("validate_string.Pattern")).isZero();
+			s.assertThat(ValidationProfile.load(profileFile(profileDirectory, "com.example.Second"))
+					.failures("validate_string.Pattern")).isEqualTo(1);
+		});
+	}
+
+	private static void writeProfile(Class<?> clazz) throws Exception {
+		var writer = (Thread) staticField(clazz, "vaadoo$profile");
+		Runtime.getRuntime().removeShutdownHook((Thread) staticField(writer.getClass(), "hook"));
+		writer.run();
+	}
+
+	private static Object staticField(Class<?> clazz, String name) throws Exception {
+		var field = clazz.getDeclaredField(name);
+		field.setAccessible(true);
+		return field.get(null);
+	}
+
+	private static boolean isValid(Constructor<?> constructor, Object... args) throws Exception {
+		try {
+			constructor.newInstance(args);
+			return true;
+		} catch (InvocationTargetException e) {
+			if (e.getCause() instanceof IllegalArgumentException) {
+				return false;
+			}
+			throw e;
+		}
+	}
+
+	private static Constructor<?> constructor(Unloaded<?> transformed, String className) throws Exception {
+		return new ByteArrayClassLoader(ValidationProfileTest.class.getClassLoader(), types(transformed))
+				.loadClass(className).getDeclaredConstructor(String.class);
+	}
+
+	private static Map<String, byte[]> types(Unloaded<?> transformed) {
+		var types = new HashMap<String, byte[]>();
+		types.put(transformed.getTypeDescription().getName(), transformed.getBytes());
+		transformed.getAuxiliaryTypes().forEach((t, b) -> types.put(t.getName(), b));
+		return types;
+	}
+
+	private static Unloaded<?> patternThenNotBlankClass(String className) {
+		var param = DefaultParameterDefinition.of(String.class, //
+				AnnotationDefinition.of(Pattern.class, Map.of("regexp", "[a-z]+")), //
+				AnnotationDefinition.of(NotBlank.class));
+		return a(testClass(className).thatImplementsValueObject().withConstructor(ConstructorDefinition.of(param)));
+	}
+
+}
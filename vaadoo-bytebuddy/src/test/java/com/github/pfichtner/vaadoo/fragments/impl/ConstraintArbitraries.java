@@ -68,6 +68,17 @@ class ConstraintArbitraries {
 		return Arbitraries.integers().between(0, 99).map(i -> String.format("%02d", i));
 	}
 
+	@Provide
+	public Arbitrary<String> decimalStrings() {
+		Arbitrary<String> digits = Arbitraries.strings().withChars('0', '1', '5', '9').ofMaxLength(4);
+		Arbitrary<String> plain = Combinators
+				.combine(Arbitraries.of("", "-", "+"), digits, Arbitraries.of("", "."), digits)
+				.as((sign, integer, dot, fraction) -> sign + integer + dot + fraction);
+		Arbitrary<String> edgeCases = Arbitraries.of("", ".", "-", "+.", "1e3", "-1.5E-2", "5E0", " 1", "1 ", "1.2.3",
+				"--1", "1-", "\u0663", "0x10", "NaN");
+		return Arbitraries.oneOf(plain, edgeCases);
+	}
+
 	@Provide
 	public Arbitrary<String> sizeStrings() {
 		return Arbitraries.strings().ofMinLength(2).ofMaxLength(4);
@@ -2,6 +2,7 @@ package com.github.pfichtner.vaadoo.fragments.impl;
 
 import static com.github.pfichtner.vaadoo.fragments.impl.Util.fixtures;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
@@ -34,6 +35,7 @@ import jakarta.validation.constraints.Size;
 import net.jqwik.api.Example;
 import net.jqwik.api.ForAll;
 import net.jqwik.api.Property;
+import net.jqwik.api.constraints.IntRange;
 import net.jqwik.api.constraints.WithNull;
 
 /**
@@ -58,6 +60,9 @@ class JdkOnlyCodeFragmentPBTest extends ConstraintArbitraries {
 	Fixture max100 = Fixture.of(sut, Max.class, Map.of("value", 100L));
 	Fixture decimalMin2 = Fixture.of(sut, DecimalMin.class, Map.of("value", "2"));
 	Fixture decimalMax5 = Fixture.of(sut, DecimalMax.class, Map.of("value", "5"));
+	Fixture digitsInt1Fraction2 = Fixture.of(sut, Digits.class, Map.of("integer", 1, "fraction", 2));
+	Fixture decimalMinExclusive = Fixture.of(sut, DecimalMin.class, Map.of("value", "-1.50", "inclusive", false));
+	Fixture decimalMaxFraction = Fixture.of(sut, DecimalMax.class, Map.of("value", "0.019"));
 
 	Fixture assertTrue = Fixture.of(sut, AssertTrue.class);
 	Fixture assertFalse = Fixture.of(sut, AssertFalse.class);
@@ -270,6 +275,32 @@ class JdkOnlyCodeFragmentPBTest extends ConstraintArbitraries {
 		decimalMax5.illegalArgumentExceptionIf(value > 5, String.valueOf(value), String.class);
 	}
 
+	// CharSequences are scanned without BigDecimal, so compare them to BigDecimal
+	@Property
+	void decimal_charsequences_behave_like_bigdecimal(@ForAll("decimalStrings") String value) {
+		BigDecimal number = parse(value);
+		decimalMin2.illegalArgumentExceptionIf(number != null && number.compareTo(new BigDecimal("2")) < 0, value,
+				String.class);
+		decimalMinExclusive.illegalArgumentExceptionIf(
+				number != null && number.compareTo(new BigDecimal("-1.50")) <= 0, value, String.class);
+		decimalMax5.illegalArgumentExceptionIf(number != null && number.compareTo(new BigDecimal("5")) > 0, value,
+				String.class);
+		decimalMaxFraction.illegalArgumentExceptionIf(number != null && number.compareTo(new BigDecimal("0.019")) > 0,
+				value, String.class);
+		digitsInt2Fraction0.illegalArgumentExceptionIf(number != null
+				&& (number.precision() - number.scale() > 2 || number.scale() > 0), value, String.class);
+		digitsInt1Fraction2.illegalArgumentExceptionIf(number != null
+				&& (number.precision() - number.scale() > 1 || number.scale() > 2), value, String.class);
+	}
+
+	private static BigDecimal parse(String value) {
+		try {
+			return new BigDecimal(value);
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
 	// Digits and sign related constraints
 	@Property
 	void digits_rejects_too_many_integer_digits(@ForAll byte value) {
@@ -291,6 +322,21 @@ class JdkOnlyCodeFragmentPBTest extends ConstraintArbitraries {
 		digitsInt2Fraction0.illegalArgumentExceptionIf(value < -99 || value > 99, value, longTypes);
 	}
 
+	@Property
+	void digits_compares_against_power_of_ten(@ForAll @IntRange(min = -1, max = 20) int integer, @ForAll long value) {
+		Fixture digits = Fixture.of(sut, Digits.class, Map.of("integer", integer, "fraction", 0));
+		digits.illegalArgumentExceptionIf(new BigDecimal(value).precision() > integer, value, longTypes);
+		if (value == (int) value) {
+			digits.illegalArgumentExceptionIf(new BigDecimal(value).precision() > integer, value, intTypes);
+		}
+		if (value == (short) value) {
+			digits.illegalArgumentExceptionIf(new BigDecimal(value).precision() > integer, value, shortTypes);
+		}
+		if (value == (byte) value) {
+			digits.illegalArgumentExceptionIf(new BigDecimal(value).precision() > integer, value, byteTypes);
+		}
+	}
+
 	@Example
 	void zero_behaviour() {
 		positive_and_negative_behaviour_zero(byteTypes);
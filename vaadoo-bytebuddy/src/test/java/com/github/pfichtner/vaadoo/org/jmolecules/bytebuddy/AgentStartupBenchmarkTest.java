@@ -0,0 +1,161 @@
+package com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy;
+
+import static com.github.pfichtner.vaadoo.Buildable.a;
+import static com.github.pfichtner.vaadoo.TestClassBuilder.testClass;
+import static java.lang.String.format;
+import static java.nio.file.Files.walk;
+import static java.util.Comparator.reverseOrder;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.IntStream.range;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.github.pfichtner.vaadoo.TestClassBuilder.AnnotationDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.ConstructorDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.DefaultParameterDefinition;
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.VaadooConfigurationSupplier;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import net.bytebuddy.build.Plugin;
+import net.bytebuddy.build.Plugin.Engine;
+import net.bytebuddy.build.Plugin.Engine.Source;
+import net.bytebuddy.build.Plugin.Engine.Target;
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.dynamic.DynamicType.Unloaded;
+
+/**
+ * Compares the time to load (and initialize) value objects woven at build time
+ * with loading them through the {@link VaadooAgent}, with an empty and with a
+ * filled transformation cache. Each round uses a new class loader and a new
+ * transformer like a new start of the application would, but runs in the same
+ * (warmed up) JVM, so the numbers compare the costs rather than predict start
+ * times. Not run by default, run with
+ * {@code mvn test -Dtest=AgentStartupBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AgentStartupBenchmarkTest {
+
+	private static final int CORPUS_SIZE = 200;
+	private static final int WARMUP_ROUNDS = 3;
+	private static final int ROUNDS = 10;
+
+	File directory;
+	File cacheDirectory;
+	VaadooConfigurationSupplier configurationSupplier;
+
+	@BeforeEach
+	void setup() throws IOException {
+		directory = Files.createTempDirectory("vaadoo-agent-benchmark").toFile();
+		cacheDirectory = new File(directory, "cache");
+		File config = new File(directory, "vaadoo.config");
+		Files.writeString(config.toPath(), "vaadoo.cachedClock=true");
+		configurationSupplier = VaadooConfigurationSupplier.of(config);
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		delete(directory);
+	}
+
+	@Test
+	void startupOverheadOfTheAgent() throws Exception {
+		Map<String, byte[]> corpus = corpus();
+		Map<String, byte[]> woven = weaveAtBuildTime(corpus);
+
+		long unenhanced = median(() -> load(corpus, null));
+		long buildTime = median(() -> load(woven, null));
+		long emptyCache = median(() -> {
+			delete(cacheDirectory);
+			return loadThroughAgent(corpus);
+		});
+		long filledCache = median(() -> loadThroughAgent(corpus));
+
+		System.out.println(format(
+				"Loading %d classes: unenhanced %d ms, woven at build time %d ms, "
+						+ "agent with empty cache %d ms, agent with filled cache %d ms",
+				CORPUS_SIZE, unenhanced / 1_000_000, buildTime / 1_000_000, emptyCache / 1_000_000,
+				filledCache / 1_000_000));
+	}
+
+	private long loadThroughAgent(Map<String, byte[]> corpus) {
+		try (VaadooClassFileTransformer transformer = new VaadooClassFileTransformer(
+				new JMoleculesPlugin(configurationSupplier), cacheDirectory)) {
+			return load(corpus, transformer);
+		}
+	}
+
+	private static long load(Map<String, byte[]> classFiles, VaadooClassFileTransformer transformer) {
+		long start = System.nanoTime();
+		ClassLoader classLoader = new TransformingClassLoader(transformer, classFiles);
+		for (String name : classFiles.keySet()) {
+			try {
+				Class.forName(name, true, classLoader);
+			} catch (ClassNotFoundException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+		return System.nanoTime() - start;
+	}
+
+	private static long median(Supplier<Long> round) {
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			round.get();
+		}
+		long[] nanos = new long[ROUNDS];
+		for (int i = 0; i < ROUNDS; i++) {
+			nanos[i] = round.get();
+		}
+		Arrays.sort(nanos);
+		return nanos[ROUNDS / 2];
+	}
+
+	private Map<String, byte[]> weaveAtBuildTime(Map<String, byte[]> corpus) throws IOException {
+		var engine = new Engine.Default().with(ClassFileLocator.ForClassLoader.ofSystemLoader());
+		var target = new Target.InMemory();
+		try (JMoleculesPlugin plugin = new JMoleculesPlugin(configurationSupplier)) {
+			var resources = corpus.entrySet().stream()
+					.collect(toMap(e -> e.getKey().replace('.', '/') + ".class", Map.Entry::getValue));
+			var summary = engine.apply(new Source.InMemory(resources), target,
+					List.of(new Plugin.Factory.Simple(plugin)));
+			assertThat(summary.getTransformed()).hasSize(CORPUS_SIZE);
+		}
+		return target.toTypeMap();
+	}
+
+	private static Map<String, byte[]> corpus() {
+		var parameters = new DefaultParameterDefinition[] { //
+				DefaultParameterDefinition.of(String.class, AnnotationDefinition.of(NotBlank.class)), //
+				DefaultParameterDefinition.of(String.class, AnnotationDefinition.of(Email.class)), //
+				DefaultParameterDefinition.of(int.class, AnnotationDefinition.of(Min.class, Map.of("value", 1L))) };
+		return range(0, CORPUS_SIZE)
+				.mapToObj(i -> a(testClass("com.example.agent.ValueObject" + i).thatImplementsValueObject()
+						.withConstructor(ConstructorDefinition.of(parameters))))
+				.collect(toMap(u -> u.getTypeDescription().getName(), Unloaded::getBytes));
+	}
+
+	private static void delete(File file) {
+		if (file.exists()) {
+			try (var paths = walk(file.toPath())) {
+				paths.sorted(reverseOrder()).map(Path::toFile).forEach(File::delete);
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+}
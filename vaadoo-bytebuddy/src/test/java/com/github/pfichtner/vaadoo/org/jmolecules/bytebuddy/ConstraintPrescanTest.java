@@ -0,0 +1,47 @@
+package com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.pfichtner.vaadoo.testclasses.ClassWithAttribute;
+import com.github.pfichtner.vaadoo.testclasses.EmptyClass;
+import com.github.pfichtner.vaadoo.testclasses.ValueObjectWithGenericTypeAnnotatedAttribute;
+import com.github.pfichtner.vaadoo.testclasses.ValueObjectWithRegexAttribute;
+import com.github.pfichtner.vaadoo.testclasses.custom.CustomExample;
+
+import net.bytebuddy.dynamic.ClassFileLocator;
+
+class ConstraintPrescanTest {
+
+	ConstraintPrescan sut = new ConstraintPrescan();
+	ClassFileLocator locator = ClassFileLocator.ForClassLoader.of(getClass().getClassLoader());
+
+	@Test
+	void classesUsingStandardConstraintsAreCandidates() {
+		assertThat(mayUseConstraints(ValueObjectWithRegexAttribute.class)).isTrue();
+		assertThat(mayUseConstraints(ValueObjectWithGenericTypeAnnotatedAttribute.class)).isTrue();
+	}
+
+	@Test
+	void classesUsingCustomConstraintsAreCandidates() {
+		assertThat(mayUseConstraints(CustomExample.class)).isTrue();
+	}
+
+	@Test
+	void classesWithoutConstraintsAreRejected() {
+		assertThat(mayUseConstraints(EmptyClass.class)).isFalse();
+		assertThat(mayUseConstraints(ClassWithAttribute.class)).isFalse();
+		assertThat(mayUseConstraints(PluginLogger.class)).isFalse();
+	}
+
+	@Test
+	void classesThatCannotBeLocatedAreCandidates() {
+		assertThat(sut.mayUseConstraints("com.example.DoesNotExist", locator)).isTrue();
+	}
+
+	private boolean mayUseConstraints(Class<?> type) {
+		return sut.mayUseConstraints(type.getName(), locator);
+	}
+
+}
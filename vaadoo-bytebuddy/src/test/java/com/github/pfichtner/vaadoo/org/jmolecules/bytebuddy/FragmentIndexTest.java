@@ -0,0 +1,93 @@
+package com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.pfichtner.vaadoo.fragments.Jsr380CodeFragment;
+import com.github.pfichtner.vaadoo.fragments.impl.JdkOnlyCodeFragment;
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.VaadooConfiguration;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import net.bytebuddy.description.type.TypeDescription;
+
+class FragmentIndexTest {
+
+	static final TypeDescription NOT_NULL = TypeDescription.ForLoadedType.of(NotNull.class);
+
+	@Test
+	void findsTheCheckMethodOfTheAnnotationAndType() throws Exception {
+		FragmentIndex sut = new FragmentIndex(new VaadooConfiguration() {
+		});
+		assertThat(sut.checkMethod(type(Min.class), type(Integer.class)))
+				.hasValue(JdkOnlyCodeFragment.class.getMethod("check", Min.class, Integer.class));
+		assertThat(sut.checkMethod(type(Min.class), type(String.class))).isEmpty();
+		assertThat(sut.supportedTypes(type(NotEmpty.class))).containsExactlyInAnyOrder(
+				CharSequence.class.getName(), "java.util.Collection", "java.util.Map", Object[].class.getName());
+		assertThat(sut.isRepeatableAnnotationContainer(type(Pattern.List.class))).isTrue();
+		assertThat(sut.isRepeatableAnnotationContainer(type(Pattern.class))).isFalse();
+	}
+
+	@Test
+	void mostSpecificTypeWins() throws Exception {
+		FragmentIndex sut = new FragmentIndex(configuration(GeneralAndSpecific.class, List.of()));
+		assertThat(sut.checkMethod(NOT_NULL, type(String.class)))
+				.hasValue(GeneralAndSpecific.class.getMethod("check", NotNull.class, CharSequence.class));
+		assertThat(sut.checkMethod(NOT_NULL, type(Integer.class)))
+				.hasValue(GeneralAndSpecific.class.getMethod("check", NotNull.class, Object.class));
+	}
+
+	@Test
+	void mixinsComeFirst() throws Exception {
+		FragmentIndex sut = new FragmentIndex(
+				configuration(GeneralAndSpecific.class, List.of(GeneralMixin.class)));
+		Method general = GeneralMixin.class.getMethod("check", NotNull.class, Object.class);
+		assertThat(sut.checkMethod(NOT_NULL, type(String.class))).hasValue(general);
+		assertThat(sut.checkMethod(NOT_NULL, type(Integer.class))).hasValue(general);
+	}
+
+	private static TypeDescription type(Class<?> clazz) {
+		return TypeDescription.ForLoadedType.of(clazz);
+	}
+
+	private static VaadooConfiguration configuration(Class<? extends Jsr380CodeFragment> fragmentClass,
+			List<Class<? extends Jsr380CodeFragment>> mixins) {
+		return new VaadooConfiguration() {
+
+			@Override
+			public Class<? extends Jsr380CodeFragment> jsr380CodeFragmentClass() {
+				return fragmentClass;
+			}
+
+			@Override
+			public List<Class<? extends Jsr380CodeFragment>> codeFragmentMixins() {
+				return mixins;
+			}
+
+		};
+	}
+
+	public abstract static class GeneralAndSpecific implements Jsr380CodeFragment {
+
+		public void check(NotNull anno, Object ref) {
+		}
+
+		public void check(NotNull anno, CharSequence charSequence) {
+		}
+
+	}
+
+	public abstract static class GeneralMixin implements Jsr380CodeFragment {
+
+		public void check(NotNull anno, Object ref) {
+		}
+
+	}
+
+}
@@ -0,0 +1,49 @@
+package com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy;
+
+import static com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.CachedVaadooConfiguration.cachedConfiguration;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.VaadooConfiguration;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.dynamic.DynamicType.Builder;
+import net.bytebuddy.implementation.StubMethod;
+
+class TransformationCacheKeyTest {
+
+	private static final String HOLDER = "com.example.Holder";
+	private static final String VALUE = "com.example.Value";
+
+	TransformationCache sut = new TransformationCache(cachedConfiguration(VaadooConfiguration.DEFAULT),
+			new File("does-not-exist"));
+
+	@Test
+	void sameClassFilesSameKey() throws Exception {
+		var value = new ByteBuddy().subclass(Object.class).name(VALUE);
+		assertThat(sut.key(HOLDER, locator(value))).isEqualTo(sut.key(HOLDER, locator(value)));
+	}
+
+	@Test
+	void supertypesOfParameterTypesArePartOfTheKey() throws Exception {
+		var value = new ByteBuddy().subclass(Object.class).name(VALUE);
+		var serializableValue = value.implement(Serializable.class);
+		assertThat(sut.key(HOLDER, locator(value))).isNotEqualTo(sut.key(HOLDER, locator(serializableValue)));
+	}
+
+	private static ClassFileLocator locator(Builder<?> value) {
+		var valueType = value.make();
+		var holder = new ByteBuddy().subclass(Object.class).name(HOLDER) //
+				.defineMethod("set", void.class, Visibility.PUBLIC).withParameters(valueType.getTypeDescription())
+				.intercept(StubMethod.INSTANCE).make();
+		return new ClassFileLocator.Simple(Map.of(HOLDER, holder.getBytes(), VALUE, valueType.getBytes()));
+	}
+
+}
@@ -0,0 +1,38 @@
+package com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.lang.instrument.IllegalClassFormatException;
+import java.util.Map;
+
+/**
+ * Loads the passed class files applying a {@link ClassFileTransformer} like the
+ * JVM does for the transformers registered by an agent.
+ */
+class TransformingClassLoader extends ClassLoader {
+
+	private final ClassFileTransformer transformer;
+	private final Map<String, byte[]> classFiles;
+
+	TransformingClassLoader(ClassFileTransformer transformer, Map<String, byte[]> classFiles) {
+		super(TransformingClassLoader.class.getClassLoader());
+		this.transformer = transformer;
+		this.classFiles = classFiles;
+	}
+
+	@Override
+	protected Class<?> findClass(String name) throws ClassNotFoundException {
+		byte[] classFile = classFiles.get(name);
+		if (classFile == null) {
+			throw new ClassNotFoundException(name);
+		}
+		try {
+			byte[] transformed = transformer == null ? null
+					: transformer.transform(this, name.replace('.', '/'), null, null, classFile);
+			byte[] bytes = transformed == null ? classFile : transformed;
+			return defineClass(name, bytes, 0, bytes.length);
+		} catch (IllegalClassFormatException e) {
+			throw new ClassNotFoundException(name, e);
+		}
+	}
+
+}
@@ -0,0 +1,118 @@
+package com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy;
+
+import static com.github.pfichtner.vaadoo.Buildable.a;
+import static com.github.pfichtner.vaadoo.TestClassBuilder.testClass;
+import static java.nio.file.Files.walk;
+import static java.util.Comparator.reverseOrder;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.pfichtner.vaadoo.TestClassBuilder.AnnotationDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.ConstructorDefinition;
+import com.github.pfichtner.vaadoo.TestClassBuilder.DefaultParameterDefinition;
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.VaadooConfigurationSupplier;
+
+import jakarta.validation.constraints.NotBlank;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.dynamic.DynamicType.Builder;
+
+class VaadooAgentTest {
+
+	private static final String CLASS_NAME = "com.example.LoadTime";
+
+	File directory;
+	File cacheDirectory;
+	VaadooConfigurationSupplier configurationSupplier;
+
+	@BeforeEach
+	void setup() throws IOException {
+		directory = Files.createTempDirectory("vaadoo-agent").toFile();
+		cacheDirectory = new File(directory, "cache");
+		File config = new File(directory, "vaadoo.config");
+		Files.writeString(config.toPath(), "vaadoo.cachedClock=true");
+		configurationSupplier = VaadooConfigurationSupplier.of(config);
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		try (var paths = walk(directory.toPath())) {
+			paths.sorted(reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+	}
+
+	@Test
+	void classesAreEnhancedWhenLoaded() throws Exception {
+		try (VaadooClassFileTransformer transformer = transformer(new JMoleculesPlugin(configurationSupplier))) {
+			Class<?> type = load(transformer);
+			assertThat(type.getDeclaredConstructor(String.class).newInstance("foo")).isNotNull();
+			assertThatThrownBy(() -> type.getDeclaredConstructor(String.class).newInstance(" "))
+					.hasRootCauseMessage("string must not be blank");
+		}
+	}
+
+	@Test
+	void classesWithoutConstraintsAreLoadedUnchanged() throws Exception {
+		try (VaadooClassFileTransformer transformer = transformer(new JMoleculesPlugin(configurationSupplier))) {
+			byte[] classFile = a(testClass(CLASS_NAME).thatImplementsValueObject()).getBytes();
+			assertThat(transformer.transform(getClass().getClassLoader(), CLASS_NAME.replace('.', '/'), null, null,
+					classFile)).isNull();
+		}
+		assertThat(cacheDirectory).doesNotExist();
+	}
+
+	@Test
+	void laterStartsLoadTheCachedClassesWithoutTransformingThem() throws Exception {
+		try (VaadooClassFileTransformer transformer = transformer(new JMoleculesPlugin(configurationSupplier))) {
+			load(transformer);
+		}
+
+		JMoleculesPlugin notTransforming = new JMoleculesPlugin(configurationSupplier) {
+			@Override
+			public Builder<?> apply(Builder<?> builder, TypeDescription typeDescription,
+					ClassFileLocator classFileLocator) {
+				throw new IllegalStateException(typeDescription + " was transformed again");
+			}
+		};
+		try (VaadooClassFileTransformer transformer = transformer(notTransforming)) {
+			Class<?> type = load(transformer);
+			assertThatThrownBy(() -> type.getDeclaredConstructor(String.class).newInstance(" "))
+					.hasRootCauseMessage("string must not be blank");
+		}
+	}
+
+	@Test
+	void withoutCacheDirectoryTheOneOfTheConfigurationIsUsed() throws Exception {
+		File config = new File(directory, "vaadoo.config");
+		Files.writeString(config.toPath(),
+				"vaadoo.cachedClock=true\nvaadoo.transformationCacheDirectory=configured-cache");
+		try (VaadooClassFileTransformer transformer = new VaadooClassFileTransformer(
+				new JMoleculesPlugin(VaadooConfigurationSupplier.of(config)), null)) {
+			load(transformer);
+		}
+		assertThat(new File(directory, "configured-cache/index")).exists();
+		assertThat(cacheDirectory).doesNotExist();
+	}
+
+	private VaadooClassFileTransformer transformer(JMoleculesPlugin plugin) {
+		return new VaadooClassFileTransformer(plugin, cacheDirectory);
+	}
+
+	private static Class<?> load(VaadooClassFileTransformer transformer) throws ClassNotFoundException {
+		var param = DefaultParameterDefinition.of(String.class, AnnotationDefinition.of(NotBlank.class));
+		byte[] classFile = a(testClass(CLASS_NAME).thatImplementsValueObject()
+				.withConstructor(ConstructorDefinition.of(param))).getBytes();
+		return new TransformingClassLoader(transformer, Map.of(CLASS_NAME, classFile)).loadClass(CLASS_NAME);
+	}
+
+}
@@ -8,8 +8,10 @@ import static com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.Proper
 import static com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.PropertiesVaadooConfiguration.VAADOO_REMOVE_JSR380_ANNOTATIONS;
 import static java.util.stream.Stream.concat;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.SoftAssertions.assertSoftly;
 
+import java.io.File;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Proxy;
 import java.util.EnumSet;
@@ -22,12 +24,18 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
+import com.github.pfichtner.vaadoo.Jsr380Annos.Cost;
 import com.github.pfichtner.vaadoo.fragments.Jsr380CodeFragment;
 import com.github.pfichtner.vaadoo.fragments.impl.GuavaCodeFragment;
 import com.github.pfichtner.vaadoo.fragments.impl.GuavaCodeFragmentIAEMixin;
 import com.github.pfichtner.vaadoo.fragments.impl.JdkOnlyCodeFragment;
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.VaadooConfiguration.CheckOrder;
 import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.VaadooConfiguration.KnownFragmentClass;
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.VaadooConfiguration.ProfileMode;
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.VaadooConfiguration.RegexAnalysis;
+import com.github.pfichtner.vaadoo.org.jmolecules.bytebuddy.config.VaadooConfiguration.RegexCacheScope;
 
 class PropertiesVaadooConfigurationTest {
 
@@ -80,6 +88,182 @@ class PropertiesVaadooConfigurationTest {
 		assertThat(sut.nullValueExceptionTypeInternalName()).isEqualTo(exceptionType.getName().replace('.', '/'));
 	}
 
+	@ParameterizedTest
+	@MethodSource("regexOptimizationValues")
+	void regexOptimizationModes(String value, boolean enabled, RegexCacheScope scope, boolean pooledMatchers,
+			boolean specialize) {
+		properties.setProperty(VAADOO_REGEX_OPTIMIZATION, value);
+		assertSoftly(s -> {
+			s.assertThat(sut.regexOptimizationEnabled()).isEqualTo(enabled);
+			s.assertThat(sut.regexCacheScope()).isEqualTo(scope);
+			s.assertThat(sut.pooledMatchers()).isEqualTo(pooledMatchers);
+			s.assertThat(sut.specializeRegex()).isEqualTo(specialize);
+		});
+	}
+
+	static Stream<Arguments> regexOptimizationValues() {
+		return Stream.of( //
+				Arguments.arguments("true", true, RegexCacheScope.CLASS, false, false), //
+				Arguments.arguments("false", false, RegexCacheScope.CLASS, false, false), //
+				Arguments.arguments("class", true, RegexCacheScope.CLASS, false, false), //
+				Arguments.arguments("package", true, RegexCacheScope.PACKAGE, false, false), //
+				Arguments.arguments("PACKAGE", true, RegexCacheScope.PACKAGE, false, false), //
+				Arguments.arguments("pooledMatchers", true, RegexCacheScope.CLASS, true, false), //
+				Arguments.arguments("class, pooledMatchers", true, RegexCacheScope.CLASS, true, false), //
+				Arguments.arguments("package,pooledMatchers", true, RegexCacheScope.PACKAGE, true, false), //
+				Arguments.arguments("specialize", true, RegexCacheScope.CLASS, false, true), //
+				Arguments.arguments("class,specialize", true, RegexCacheScope.CLASS, false, true), //
+				Arguments.arguments("package,pooledMatchers,specialize", true, RegexCacheScope.PACKAGE, true, true));
+	}
+
+	@Test
+	void canSetMemoizationCacheSize() {
+		assertThat(sut.memoizationCacheSize()).isEqualTo(64);
+		properties.setProperty(VAADOO_MEMOIZATION_CACHE_SIZE, "256");
+		assertThat(sut.memoizationCacheSize()).isEqualTo(256);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "0", "-1", "1073741825" })
+	void rejectsMemoizationCacheSizesOutOfRange(String size) {
+		properties.setProperty(VAADOO_MEMOIZATION_CACHE_SIZE, size);
+		assertThatThrownBy(() -> sut.memoizationCacheSize()).isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining(VAADOO_MEMOIZATION_CACHE_SIZE).hasMessageContaining(size);
+	}
+
+	@Test
+	void canSetProfile() {
+		assertSoftly(s -> {
+			s.assertThat(sut.profile()).isEqualTo(ProfileMode.OFF);
+			s.assertThat(sut.profileDirectory()).isEqualTo(new File("target/vaadoo-profile").getAbsoluteFile());
+			s.assertThat(sut.profileHotThreshold()).isEqualTo(1000);
+		});
+		properties.setProperty(VAADOO_PROFILE, "use");
+		properties.setProperty(VAADOO_PROFILE_DIRECTORY, "build/profile");
+		properties.setProperty(VAADOO_PROFILE_HOT_THRESHOLD, "50");
+		assertSoftly(s -> {
+			s.assertThat(sut.profile()).isEqualTo(ProfileMode.USE);
+			s.assertThat(sut.profileDirectory()).isEqualTo(new File("build/profile").getAbsoluteFile());
+			s.assertThat(sut.profileHotThreshold()).isEqualTo(50);
+		});
+	}
+
+	@Test
+	void rejectsUnknownProfileMode() {
+		properties.setProperty(VAADOO_PROFILE, "recording");
+		assertThatThrownBy(() -> sut.profile()).isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Unknown vaadoo.profile recording, expected one of [OFF, RECORD, USE]");
+	}
+
+	@Test
+	void includesPackagesAndTheirSubpackages() {
+		assertThat(sut.includePackage("org")).isTrue();
+		properties.setProperty("bytebuddy.include", "com.example, org.acme");
+		assertThat(sut.includePackage("com.example")).isTrue();
+		assertThat(sut.includePackage("com.example.sub")).isTrue();
+		assertThat(sut.includePackage("org.acme")).isTrue();
+		assertThat(sut.includePackage("com.examples")).isFalse();
+		assertThat(sut.includePackage("")).isFalse();
+	}
+
+	@Test
+	void canEnableCachedClock() {
+		assertThat(sut.cachedClock()).isFalse();
+		properties.setProperty(VAADOO_CACHED_CLOCK, "true");
+		assertThat(sut.cachedClock()).isTrue();
+	}
+
+	@Test
+	void canSetCheckSwitches() {
+		assertThat(sut.checkSwitches()).isFalse();
+		assertThat(sut.checkLevel("com.example")).isEqualTo(Cost.CUSTOM);
+		properties.setProperty(VAADOO_CHECK_SWITCHES, "true");
+		properties.setProperty(VAADOO_CHECK_LEVEL, "regex");
+		properties.setProperty(VAADOO_CHECK_LEVEL + ".com.example", "clock");
+		assertThat(sut.checkSwitches()).isTrue();
+		assertThat(sut.checkLevel("com.example.sub")).isEqualTo(Cost.CLOCK);
+		assertThat(sut.checkLevel("com.examples")).isEqualTo(Cost.REGEX);
+		assertThat(sut.checkLevel("org")).isEqualTo(Cost.REGEX);
+	}
+
+	@Test
+	void canEnableTrustedFactory() {
+		assertThat(sut.trustedFactory()).isFalse();
+		properties.setProperty(VAADOO_TRUSTED_FACTORY, "true");
+		assertThat(sut.trustedFactory()).isTrue();
+	}
+
+	@Test
+	void canEnableColumnValidation() {
+		assertThat(sut.columnValidation()).isFalse();
+		properties.setProperty(VAADOO_COLUMN_VALIDATION, "true");
+		assertThat(sut.columnValidation()).isTrue();
+	}
+
+	@Test
+	void canSetTransformationCache() {
+		assertSoftly(s -> {
+			s.assertThat(sut.transformationCache()).isFalse();
+			s.assertThat(sut.transformationCacheDirectory())
+					.isEqualTo(new File("target/vaadoo-cache").getAbsoluteFile());
+		});
+		properties.setProperty(VAADOO_TRANSFORMATION_CACHE, "true");
+		properties.setProperty(VAADOO_TRANSFORMATION_CACHE_DIRECTORY, "/shared/vaadoo-cache");
+		assertSoftly(s -> {
+			s.assertThat(sut.transformationCache()).isTrue();
+			s.assertThat(sut.transformationCacheDirectory()).isEqualTo(new File("/shared/vaadoo-cache"));
+		});
+	}
+
+	@Test
+	void canSetMetrics() {
+		assertSoftly(s -> {
+			s.assertThat(sut.metrics()).isFalse();
+			s.assertThat(sut.metricsDirectory()).isEqualTo(new File("target/vaadoo-metrics").getAbsoluteFile());
+		});
+		properties.setProperty(VAADOO_METRICS, "true");
+		properties.setProperty(VAADOO_METRICS_DIRECTORY, "/build/metrics");
+		assertSoftly(s -> {
+			s.assertThat(sut.metrics()).isTrue();
+			s.assertThat(sut.metricsDirectory()).isEqualTo(new File("/build/metrics"));
+		});
+	}
+
+	@Test
+	void canSetCheckOrder() {
+		assertThat(sut.checkOrder()).isEqualTo(CheckOrder.DECLARATION);
+		properties.setProperty(VAADOO_CHECK_ORDER, "cost");
+		assertThat(sut.checkOrder()).isEqualTo(CheckOrder.COST);
+	}
+
+	@Test
+	void rejectsUnknownCheckOrder() {
+		properties.setProperty(VAADOO_CHECK_ORDER, "cheapest");
+		assertThatThrownBy(() -> sut.checkOrder()).isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Unknown vaadoo.checkOrder cheapest, expected one of [DECLARATION, COST]");
+	}
+
+	@Test
+	void canSetRegexAnalysis() {
+		assertThat(sut.regexAnalysis()).isEqualTo(RegexAnalysis.WARN);
+		properties.setProperty(VAADOO_REGEX_ANALYSIS, "fail");
+		assertThat(sut.regexAnalysis()).isEqualTo(RegexAnalysis.FAIL);
+	}
+
+	@Test
+	void rejectsUnknownRegexAnalysis() {
+		properties.setProperty(VAADOO_REGEX_ANALYSIS, "fial");
+		assertThatThrownBy(() -> sut.regexAnalysis()).isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Unknown vaadoo.regexAnalysis fial, expected one of [OFF, WARN, FAIL]");
+	}
+
+	@Test
+	void canSetRegexStepBudget() {
+		assertThat(sut.regexStepBudget()).isZero();
+		properties.setProperty(VAADOO_REGEX_STEP_BUDGET, "100000");
+		assertThat(sut.regexStepBudget()).isEqualTo(100_000);
+	}
+
 	@ParameterizedTest
 	@MethodSource("toggleParams")
 	void canToggleParam(Function<PropertiesVaadooConfiguration, Boolean> toggler, String propertyName,
@@ -95,7 +279,8 @@ class PropertiesVaadooConfigurationTest {
 		return Stream.of( //
 				args(PropertiesVaadooConfiguration::regexOptimizationEnabled, VAADOO_REGEX_OPTIMIZATION, true), //
 				args(PropertiesVaadooConfiguration::customAnnotationsEnabled, VAADOO_CUSTOM_ANNOTATIONS, true), //
-				args(PropertiesVaadooConfiguration::removeJsr380Annotations, VAADOO_REMOVE_JSR380_ANNOTATIONS, true));
+				args(PropertiesVaadooConfiguration::removeJsr380Annotations, VAADOO_REMOVE_JSR380_ANNOTATIONS, true), //
+				args(PropertiesVaadooConfiguration::memoizeValidValues, VAADOO_MEMOIZE_VALID_VALUES, false));
 	}
 
 	static Arguments args(Function<PropertiesVaadooConfiguration, Boolean> function, String toggler,
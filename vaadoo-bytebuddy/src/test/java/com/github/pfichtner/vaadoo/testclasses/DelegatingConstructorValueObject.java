@@ -0,0 +1,25 @@
+package com.github.pfichtner.vaadoo.testclasses;
+
+import org.jmolecules.ddd.annotation.ValueObject;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+
+@ValueObject
+public class DelegatingConstructorValueObject {
+
+	private final String value;
+
+	public DelegatingConstructorValueObject(@Pattern(regexp = "[a-z]+") String value) {
+		this.value = value;
+	}
+
+	public DelegatingConstructorValueObject(@NotNull String prefix, int number) {
+		this(prefix + number);
+	}
+
+	public String getValue() {
+		return value;
+	}
+
+}